@@ -0,0 +1,145 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The options of a command line scan, or of a daemon that serves scans.
+ *
+ * @param sourceDirectory the directory whose Java and Python files are scanned, if no daemon is
+ *     started
+ * @param daemonSocket the Unix domain socket a daemon listens on, if one is started
+ * @param threads the number of files analysed in parallel
+ * @param outputName the name of the CBOM file, without the {@code .json} extension
+ * @param javaVersion the Java version the Java sources are parsed with
+ * @param classpath the classpath used to resolve the types of the Java sources
+ */
+public record CliOptions(
+        @Nullable Path sourceDirectory,
+        @Nullable Path daemonSocket,
+        int threads,
+        @Nonnull String outputName,
+        int javaVersion,
+        @Nonnull List<File> classpath) {
+
+    public static final String USAGE =
+            """
+            Usage: crypto-scanner <directory> [options]
+                   crypto-scanner --daemon <socket> [options]
+              --daemon <socket>     serve scan requests on a Unix domain socket
+              --threads <n>         files analysed in parallel (default: available processors)
+              --output <name>       name of the CBOM file, without extension (default: cbom)
+              --java-version <n>    Java version of the Java sources (default: 17)
+              --classpath <path>    classpath of the Java sources, separated by '%s'
+            """
+                    .formatted(File.pathSeparator);
+
+    private static final String OUTPUT_NAME_DEFAULT = "cbom";
+    private static final int JAVA_VERSION_DEFAULT = 17;
+
+    @Nonnull
+    public static CliOptions parse(@Nonnull String[] args) {
+        Path sourceDirectory = null;
+        Path daemonSocket = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String outputName = OUTPUT_NAME_DEFAULT;
+        int javaVersion = JAVA_VERSION_DEFAULT;
+        final List<File> classpath = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            switch (arg) {
+                case "--daemon" -> {
+                    i++;
+                    daemonSocket = Path.of(valueOf(args, i, arg));
+                }
+                case "--threads" -> {
+                    i++;
+                    threads = positive(arg, valueOf(args, i, arg));
+                }
+                case "--output" -> {
+                    i++;
+                    outputName = valueOf(args, i, arg);
+                }
+                case "--java-version" -> {
+                    i++;
+                    javaVersion = positive(arg, valueOf(args, i, arg));
+                }
+                case "--classpath" -> {
+                    i++;
+                    for (String entry : valueOf(args, i, arg).split(File.pathSeparator)) {
+                        if (!entry.isBlank()) {
+                            classpath.add(new File(entry));
+                        }
+                    }
+                }
+                default -> {
+                    if (arg.startsWith("--") || sourceDirectory != null) {
+                        throw new IllegalArgumentException("Unexpected argument '" + arg + "'");
+                    }
+                    sourceDirectory = Path.of(arg);
+                }
+            }
+        }
+        if (daemonSocket != null) {
+            if (sourceDirectory != null) {
+                throw new IllegalArgumentException("A daemon does not scan a directory itself");
+            }
+        } else if (sourceDirectory == null) {
+            throw new IllegalArgumentException("Missing the directory to scan");
+        } else if (!Files.isDirectory(sourceDirectory)) {
+            throw new IllegalArgumentException("'" + sourceDirectory + "' is not a directory");
+        }
+        return new CliOptions(
+                sourceDirectory != null ? sourceDirectory.toAbsolutePath().normalize() : null,
+                daemonSocket != null ? daemonSocket.toAbsolutePath().normalize() : null,
+                threads,
+                outputName,
+                javaVersion,
+                List.copyOf(classpath));
+    }
+
+    @Nonnull
+    private static String valueOf(@Nonnull String[] args, int index, @Nonnull String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing the value of '" + option + "'");
+        }
+        return args[index];
+    }
+
+    private static int positive(@Nonnull String option, @Nonnull String value) {
+        try {
+            final int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(
+                "The value of '" + option + "' must be a positive number, got '" + value + "'");
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scans a directory for cryptographic assets without SonarQube and writes the CBOM to the working
+ * directory, or starts a {@link ScanDaemon} that serves scans.
+ */
+public final class CryptoScannerCli {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CryptoScannerCli.class);
+
+    private static final int EXIT_USAGE = 2;
+    private static final int EXIT_FAILURE = 1;
+
+    private CryptoScannerCli() {
+        // nothing
+    }
+
+    public static void main(@Nonnull String[] args) {
+        final CliOptions options;
+        try {
+            options = CliOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(CliOptions.USAGE);
+            System.exit(EXIT_USAGE);
+            return;
+        }
+        try {
+            if (options.daemonSocket() != null) {
+                try (ScanDaemon daemon = new ScanDaemon(options.daemonSocket(), options)) {
+                    daemon.serve();
+                }
+            } else {
+                run(options);
+            }
+        } catch (IOException e) {
+            LOGGER.error("The scan failed: {}", e.getMessage());
+            System.exit(EXIT_FAILURE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(EXIT_FAILURE);
+        }
+    }
+
+    static void run(@Nonnull CliOptions options) throws IOException, InterruptedException {
+        final Path sourceDirectory = Objects.requireNonNull(options.sourceDirectory());
+        final ScanReport report;
+        try (ParallelScanner scanner = new ParallelScanner(options)) {
+            report = scanner.scan(sourceDirectory);
+        }
+        final ScanResults results = ScanResults.collect();
+
+        final File cbom = new File(options.outputName() + ".json");
+        results.cbom().saveTo(cbom);
+        LOGGER.info("CBOM was successfully generated '{}'.", cbom.getAbsolutePath());
+
+        results.statistics().print(LOGGER::info);
+        report.print(LOGGER::info);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import javax.annotation.Nonnull;
+
+/**
+ * Parses and analyses single files of one language with all checks of the language. Instances
+ * keep parser and check state between files and scans, and must only be used by one thread.
+ */
+public interface IFileAnalyzer {
+
+    /**
+     * Analyses a file. The detected assets are collected by the aggregator of the language.
+     *
+     * @param baseDirectory the directory of the scan, which file keys are relative to
+     * @param file the file to analyse
+     * @return the number of issues reported in the file
+     * @throws IOException if the file cannot be read
+     */
+    int analyse(@Nonnull Path baseDirectory, @Nonnull Path file) throws IOException;
+}
@@ -0,0 +1,125 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import com.ibm.plugin.JavaRuleList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.model.JParser;
+import org.sonar.java.model.JParserConfig;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.model.VisitorsBridge;
+import org.sonar.java.reporting.AnalyzerMessage;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.semantic.Sema;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+/**
+ * Analyses Java files with sonar-java's parser and the checks of {@link JavaRuleList}, without a
+ * SonarQube scanner. Issues are counted instead of being reported to SonarQube.
+ */
+public final class JavaFileAnalyzer implements IFileAnalyzer {
+    private static final String LANGUAGE = "java";
+
+    @Nonnull private final JavaVersion javaVersion;
+    @Nonnull private final JParserConfig parserConfig;
+    @Nonnull private final IssueCountingBridge bridge;
+
+    public JavaFileAnalyzer(@Nonnull CliOptions options) {
+        this.javaVersion = new JavaVersionImpl(options.javaVersion());
+        this.parserConfig =
+                JParserConfig.Mode.FILE_BY_FILE.create(javaVersion, options.classpath());
+        this.bridge =
+                new IssueCountingBridge(
+                        JavaRuleList.getJavaChecks().stream()
+                                .map(JavaFileAnalyzer::instantiate)
+                                .toList(),
+                        options,
+                        javaVersion);
+    }
+
+    @Override
+    public int analyse(@Nonnull Path baseDirectory, @Nonnull Path file) throws IOException {
+        final PathInputFile inputFile = new PathInputFile(baseDirectory, file, LANGUAGE);
+        final CompilationUnitTree compilationUnit =
+                JParser.parse(
+                        parserConfig.astParser(),
+                        javaVersion.effectiveJavaVersionAsString(),
+                        inputFile.filename(),
+                        inputFile.contents());
+        bridge.issues = 0;
+        bridge.setCurrentFile(inputFile);
+        bridge.visitFile(compilationUnit, false);
+        return bridge.issues;
+    }
+
+    @Nonnull
+    private static JavaCheck instantiate(@Nonnull Class<? extends JavaCheck> check) {
+        try {
+            return check.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate the check " + check.getName(), e);
+        }
+    }
+
+    private static final class IssueCountingBridge extends VisitorsBridge {
+        private int issues;
+
+        private IssueCountingBridge(
+                @Nonnull List<JavaCheck> checks,
+                @Nonnull CliOptions options,
+                @Nonnull JavaVersion javaVersion) {
+            super(checks, options.classpath(), null, javaVersion);
+        }
+
+        @Override
+        protected JavaFileScannerContext createScannerContext(
+                CompilationUnitTree tree,
+                Sema semanticModel,
+                SonarComponents sonarComponents,
+                boolean fileParsed) {
+            return new DefaultJavaFileScannerContext(
+                    tree,
+                    currentFile,
+                    semanticModel,
+                    sonarComponents,
+                    javaVersion,
+                    fileParsed,
+                    inAndroidContext) {
+                @Override
+                public void reportIssue(AnalyzerMessage message) {
+                    issues++;
+                }
+
+                /* the scanned directory is a single module, without sonar components */
+                @Override
+                public String getModuleKey() {
+                    return "";
+                }
+            };
+        }
+    }
+}
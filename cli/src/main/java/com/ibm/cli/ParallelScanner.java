@@ -0,0 +1,196 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Analyses source files on a fixed pool of worker threads. Every worker owns one {@link
+ * IFileAnalyzer} per language, so parsers and checks are never shared between threads; the
+ * detected assets meet in the thread safe aggregators of the languages. The workers and their
+ * analyzers are kept until the scanner is closed, so that consecutive scans start warm.
+ */
+public final class ParallelScanner implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelScanner.class);
+    private static final int PROGRESS_INTERVAL = 500;
+
+    @Nonnull private final CliOptions options;
+    @Nonnull private final ExecutorService workers;
+
+    @Nonnull
+    private final ThreadLocal<Map<SourceLanguage, IFileAnalyzer>> analyzers =
+            ThreadLocal.withInitial(() -> new EnumMap<>(SourceLanguage.class));
+
+    public ParallelScanner(@Nonnull CliOptions options) {
+        this.options = options;
+        this.workers = Executors.newFixedThreadPool(options.threads());
+    }
+
+    /**
+     * Loads the checks of all languages ahead of the first scan. This builds the detection rules,
+     * which the checks of all workers share.
+     */
+    public void warmUp() {
+        for (SourceLanguage language : SourceLanguage.values()) {
+            language.createAnalyzer(options);
+        }
+    }
+
+    /**
+     * Scans all Java and Python files below a directory.
+     *
+     * @param directory the directory to scan
+     * @return the report of the scan
+     */
+    @Nonnull
+    public ScanReport scan(@Nonnull Path directory) throws IOException, InterruptedException {
+        return scan(directory, collectSourceFiles(directory));
+    }
+
+    /**
+     * Scans the given files. Files of other languages than Java and Python are ignored.
+     *
+     * @param baseDirectory the directory of the scan, which file keys are relative to
+     * @param files the files to scan
+     * @return the report of the scan
+     */
+    @Nonnull
+    public ScanReport scan(@Nonnull Path baseDirectory, @Nonnull List<Path> files)
+            throws InterruptedException {
+        final List<Path> sourceFiles =
+                files.stream().filter(file -> findLanguage(file).isPresent()).toList();
+        LOGGER.info(
+                "Scanning {} files in '{}' with {} threads",
+                sourceFiles.size(),
+                baseDirectory,
+                options.threads());
+
+        final Progress progress = new Progress(sourceFiles.size());
+        final long start = System.nanoTime();
+        final List<Future<?>> tasks = new ArrayList<>(sourceFiles.size());
+        try {
+            for (Path file : sourceFiles) {
+                tasks.add(
+                        workers.submit(
+                                () -> analyse(baseDirectory, file, analyzers.get(), progress)));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (ExecutionException e) {
+            // the analysis of a file handles its own failures
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+        }
+        return new ScanReport(
+                progress.analysedFiles.get(),
+                progress.failedFiles.get(),
+                progress.issues.sum(),
+                options.threads(),
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    private void analyse(
+            @Nonnull Path baseDirectory,
+            @Nonnull Path file,
+            @Nonnull Map<SourceLanguage, IFileAnalyzer> fileAnalyzers,
+            @Nonnull Progress progress) {
+        try {
+            final IFileAnalyzer analyzer =
+                    fileAnalyzers.computeIfAbsent(
+                            languageOf(file), language -> language.createAnalyzer(options));
+            progress.issues.add(analyzer.analyse(baseDirectory, file));
+            progress.analysedFiles.incrementAndGet();
+        } catch (Exception | StackOverflowError e) {
+            progress.failedFiles.incrementAndGet();
+            LOGGER.warn("Unable to analyse '{}': {}", file, e.toString());
+            LOGGER.debug("Analysis failure", e);
+        }
+        final int done = progress.completedFiles.incrementAndGet();
+        if (done % PROGRESS_INTERVAL == 0) {
+            LOGGER.info("{}/{} files analysed", done, progress.totalFiles);
+        }
+    }
+
+    @Nonnull
+    private static List<Path> collectSourceFiles(@Nonnull Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> findLanguage(path).isPresent())
+                    .sorted()
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Nonnull
+    private static Optional<SourceLanguage> findLanguage(@Nonnull Path file) {
+        for (SourceLanguage language : SourceLanguage.values()) {
+            if (language.matches(file)) {
+                return Optional.of(language);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Nonnull
+    private static SourceLanguage languageOf(@Nonnull Path file) {
+        return findLanguage(file).orElseThrow();
+    }
+
+    private static final class Progress {
+        private final int totalFiles;
+        @Nonnull private final AtomicInteger analysedFiles = new AtomicInteger();
+        @Nonnull private final AtomicInteger failedFiles = new AtomicInteger();
+        @Nonnull private final AtomicInteger completedFiles = new AtomicInteger();
+        @Nonnull private final LongAdder issues = new LongAdder();
+
+        private Progress(int totalFiles) {
+            this.totalFiles = totalFiles;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.TextPointer;
+import org.sonar.api.batch.fs.TextRange;
+
+/**
+ * An {@link InputFile} read from disk, for the analysis outside of SonarQube. The content is read
+ * once and kept for the lifetime of the analysis of the file.
+ */
+public final class PathInputFile implements InputFile {
+    @Nonnull private final Path baseDirectory;
+    @Nonnull private final Path path;
+    @Nonnull private final String language;
+    @Nullable private String contents;
+    @Nullable private int[] lineStarts;
+
+    public PathInputFile(
+            @Nonnull Path baseDirectory, @Nonnull Path path, @Nonnull String language) {
+        this.baseDirectory = baseDirectory;
+        this.path = path.toAbsolutePath().normalize();
+        this.language = language;
+    }
+
+    @Override
+    public String relativePath() {
+        return baseDirectory.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    @Override
+    public String absolutePath() {
+        return path.toString().replace(File.separatorChar, '/');
+    }
+
+    @Override
+    public File file() {
+        return path.toFile();
+    }
+
+    @Override
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public URI uri() {
+        return path.toUri();
+    }
+
+    @Override
+    public String filename() {
+        return path.getFileName().toString();
+    }
+
+    @Override
+    public String language() {
+        return language;
+    }
+
+    @Override
+    public Type type() {
+        return Type.MAIN;
+    }
+
+    @Override
+    public InputStream inputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public String contents() throws IOException {
+        if (contents == null) {
+            contents = Files.readString(path, charset());
+        }
+        return contents;
+    }
+
+    @Override
+    public Status status() {
+        return Status.ADDED;
+    }
+
+    @Override
+    public int lines() {
+        return lineStarts().length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        try {
+            return contents().isEmpty();
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public TextPointer newPointer(int line, int lineOffset) {
+        return new Pointer(line, lineOffset);
+    }
+
+    @Override
+    public TextRange newRange(TextPointer start, TextPointer end) {
+        return new Range(start, end);
+    }
+
+    @Override
+    public TextRange newRange(int startLine, int startLineOffset, int endLine, int endLineOffset) {
+        return newRange(newPointer(startLine, startLineOffset), newPointer(endLine, endLineOffset));
+    }
+
+    @Override
+    public TextRange selectLine(int line) {
+        final int[] starts = lineStarts();
+        final int end =
+                line < starts.length ? starts[line] - starts[line - 1] : lastLineLength(starts);
+        return newRange(line, 0, line, end);
+    }
+
+    @Override
+    public Charset charset() {
+        return StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public String md5Hash() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("MD5");
+            return HexFormat.of().formatHex(digest.digest(Files.readAllBytes(path)));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return "";
+        }
+    }
+
+    @Override
+    public String key() {
+        return relativePath();
+    }
+
+    @Override
+    public boolean isFile() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return relativePath();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PathInputFile other && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Nonnull
+    private int[] lineStarts() {
+        if (lineStarts == null) {
+            String text;
+            try {
+                text = contents();
+            } catch (IOException e) {
+                text = "";
+            }
+            final List<Integer> starts = new ArrayList<>();
+            starts.add(0);
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '\n') {
+                    starts.add(i + 1);
+                }
+            }
+            lineStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return lineStarts;
+    }
+
+    private int lastLineLength(@Nonnull int[] starts) {
+        try {
+            return contents().length() - starts[starts.length - 1];
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private record Pointer(int line, int lineOffset) implements TextPointer {
+        @Override
+        public int compareTo(@Nonnull TextPointer other) {
+            if (line != other.line()) {
+                return Integer.compare(line, other.line());
+            }
+            return Integer.compare(lineOffset, other.lineOffset());
+        }
+    }
+
+    private record Range(@Nonnull TextPointer start, @Nonnull TextPointer end)
+            implements TextRange {
+        @Override
+        public boolean overlap(@Nonnull TextRange other) {
+            return start.compareTo(other.end()) < 0 && other.start().compareTo(end) < 0;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import com.ibm.plugin.PythonRuleList;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.sonar.plugins.python.api.PythonCheck;
+import org.sonar.plugins.python.api.PythonFile;
+import org.sonar.plugins.python.api.PythonVisitorContext;
+import org.sonar.plugins.python.api.tree.FileInput;
+import org.sonar.python.parser.PythonParser;
+import org.sonar.python.semantic.SymbolUtils;
+import org.sonar.python.tree.PythonTreeMaker;
+
+/**
+ * Analyses Python files with sonar-python's parser and the checks of {@link PythonRuleList},
+ * without a SonarQube scanner. Issues are counted instead of being reported to SonarQube.
+ */
+public final class PythonFileAnalyzer implements IFileAnalyzer {
+    /*
+     * sonar-python resolves symbols against global typeshed symbols, which are loaded lazily and
+     * are not thread safe. Files are parsed in parallel, the rest of the analysis is serialized.
+     */
+    @Nonnull private static final Object SEMANTIC_LOCK = new Object();
+
+    @Nonnull private final PythonParser parser = PythonParser.create();
+    @Nonnull private final List<PythonCheck> checks;
+
+    public PythonFileAnalyzer(@Nonnull CliOptions options) {
+        this.checks =
+                PythonRuleList.getPythonChecks().stream()
+                        .map(PythonFileAnalyzer::instantiate)
+                        .toList();
+    }
+
+    @Override
+    public int analyse(@Nonnull Path baseDirectory, @Nonnull Path file) throws IOException {
+        final PathPythonFile pythonFile =
+                new PathPythonFile(
+                        file, baseDirectory, Files.readString(file, StandardCharsets.UTF_8));
+        final FileInput fileInput =
+                new PythonTreeMaker().fileInput(parser.parse(pythonFile.content()));
+        final String packageName =
+                SymbolUtils.pythonPackageName(file.toFile(), baseDirectory.toString());
+        synchronized (SEMANTIC_LOCK) {
+            final PythonVisitorContext context =
+                    new PythonVisitorContext(fileInput, pythonFile, null, packageName);
+            for (PythonCheck check : checks) {
+                check.scanFile(context);
+            }
+            return context.getIssues().size();
+        }
+    }
+
+    @Nonnull
+    private static PythonCheck instantiate(@Nonnull Class<? extends PythonCheck> check) {
+        try {
+            return check.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate the check " + check.getName(), e);
+        }
+    }
+
+    private record PathPythonFile(
+            @Nonnull Path path, @Nonnull Path baseDirectory, @Nonnull String content)
+            implements PythonFile {
+        @Override
+        public String fileName() {
+            return path.getFileName().toString();
+        }
+
+        @Override
+        public URI uri() {
+            return path.toUri();
+        }
+
+        @Override
+        public String key() {
+            return baseDirectory.relativize(path).toString();
+        }
+    }
+}
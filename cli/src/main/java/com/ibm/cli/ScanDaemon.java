@@ -0,0 +1,260 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.ibm.output.statistics.EngineStatistics;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-running scanner that serves scan requests on a Unix domain socket. The loaded rule
+ * classes, the shared detection rules, the JIT-compiled code and the workers of the {@link
+ * ParallelScanner} with their parsers and checks stay warm between requests, and so do the caches
+ * of the engine, which do not depend on a scan. The results of the aggregators and the engine
+ * counters are reset after every request, so requests are isolated from each other. Requests are
+ * served one at a time.
+ *
+ * <p>A client sends one request per connection, as a single line of JSON:
+ *
+ * <ul>
+ *   <li>{@code {"directory": "/src"}} scans all Java and Python files below the directory.
+ *   <li>{@code {"directory": "/src", "files": ["a/A.java", "b.py"]}} scans the given files,
+ *       relative to the directory.
+ *   <li>{@code {"command": "shutdown"}} stops the daemon.
+ * </ul>
+ *
+ * <p>The daemon answers with one line of JSON per message: a {@code cbom} message with the CBOM of
+ * the scan, and a {@code report} message with the throughput and the engine statistics. A request
+ * that cannot be served is answered with an {@code error} message.
+ */
+public final class ScanDaemon implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanDaemon.class);
+
+    private static final String SHUTDOWN_COMMAND = "shutdown";
+    private static final String SCAN_COMMAND = "scan";
+    private static final Set<PosixFilePermission> OWNER_ONLY =
+            PosixFilePermissions.fromString("rwx------");
+
+    @Nonnull private final Path socket;
+    @Nonnull private final ServerSocketChannel server;
+    @Nonnull private final ParallelScanner scanner;
+    @Nonnull private final Gson gson = new Gson();
+
+    private record Request(
+            @Nullable String command, @Nullable String directory, @Nullable List<String> files) {}
+
+    public ScanDaemon(@Nonnull Path socket, @Nonnull CliOptions options) throws IOException {
+        this.socket = socket;
+        // the daemon reads any directory it is asked to, so only its owner may ask
+        requirePrivateDirectory(socket.toAbsolutePath().getParent());
+        removeStaleSocket(socket);
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        this.server.bind(UnixDomainSocketAddress.of(socket));
+        this.scanner = new ParallelScanner(options);
+        this.scanner.warmUp();
+    }
+
+    /** Serves scan requests until a shutdown request is received. */
+    public void serve() throws InterruptedException {
+        LOGGER.info("Waiting for scan requests on '{}'", socket);
+        boolean serving = true;
+        while (serving) {
+            try (SocketChannel client = server.accept()) {
+                serving = handle(client);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to serve a scan request: {}", e.getMessage());
+            }
+        }
+        LOGGER.info("Shutting down");
+    }
+
+    @Override
+    public void close() throws IOException {
+        scanner.close();
+        server.close();
+        Files.deleteIfExists(socket);
+    }
+
+    /* returns whether the daemon keeps serving */
+    private boolean handle(@Nonnull SocketChannel client) throws IOException, InterruptedException {
+        final BufferedReader reader =
+                new BufferedReader(Channels.newReader(client, StandardCharsets.UTF_8));
+        final Writer writer =
+                new BufferedWriter(Channels.newWriter(client, StandardCharsets.UTF_8));
+        final String line = reader.readLine();
+        if (line == null) {
+            return true;
+        }
+        final Request request;
+        try {
+            request = gson.fromJson(line, Request.class);
+        } catch (JsonParseException e) {
+            sendError(writer, "Invalid request: " + e.getMessage());
+            return true;
+        }
+        if (request == null) {
+            sendError(writer, "Empty request");
+            return true;
+        }
+        if (SHUTDOWN_COMMAND.equals(request.command())) {
+            send(writer, message("shutdown"));
+            return false;
+        }
+        if (request.command() != null && !SCAN_COMMAND.equals(request.command())) {
+            sendError(writer, "Unknown command '" + request.command() + "'");
+        } else if (request.directory() == null) {
+            sendError(writer, "Missing the directory to scan");
+        } else {
+            final Path directory = Path.of(request.directory()).toAbsolutePath().normalize();
+            if (!Files.isDirectory(directory)) {
+                sendError(writer, "'" + directory + "' is not a directory");
+                return true;
+            }
+            if (request.files() == null) {
+                scan(writer, directory, null);
+                return true;
+            }
+            final List<Path> files = new ArrayList<>(request.files().size());
+            for (String file : request.files()) {
+                final Path path = directory.resolve(file).normalize();
+                if (!path.startsWith(directory)) {
+                    sendError(writer, "'" + file + "' is not inside of '" + directory + "'");
+                    return true;
+                }
+                files.add(path);
+            }
+            scan(writer, directory, files);
+        }
+        return true;
+    }
+
+    private void scan(@Nonnull Writer writer, @Nonnull Path directory, @Nullable List<Path> files)
+            throws IOException, InterruptedException {
+        try {
+            final ScanReport report =
+                    files == null ? scanner.scan(directory) : scanner.scan(directory, files);
+            final ScanResults results = ScanResults.collect();
+
+            final StringWriter cbom = new StringWriter();
+            results.cbom().writeTo(cbom);
+            final JsonObject cbomMessage = message("cbom");
+            cbomMessage.add("cbom", JsonParser.parseString(cbom.toString()));
+            send(writer, cbomMessage);
+
+            final JsonObject reportMessage = message("report");
+            reportMessage.addProperty("detectedAssets", results.nodes().size());
+            reportMessage.addProperty("analysedFiles", report.analysedFiles());
+            reportMessage.addProperty("failedFiles", report.failedFiles());
+            reportMessage.addProperty("issues", report.issues());
+            reportMessage.addProperty("threads", report.threads());
+            reportMessage.addProperty("durationMillis", report.duration().toMillis());
+            reportMessage.addProperty("filesPerSecond", report.filesPerSecond());
+            reportMessage.add("statistics", gson.toJsonTree(EngineStatistics.collect()));
+            send(writer, reportMessage);
+            LOGGER.info(
+                    "Scanned '{}': {} files, {} assets, {} files per second",
+                    directory,
+                    report.analysedFiles() + report.failedFiles(),
+                    results.nodes().size(),
+                    String.format("%.1f", report.filesPerSecond()));
+        } finally {
+            ScanResults.reset();
+        }
+    }
+
+    @Nonnull
+    private static JsonObject message(@Nonnull String type) {
+        final JsonObject message = new JsonObject();
+        message.addProperty("type", type);
+        return message;
+    }
+
+    private void sendError(@Nonnull Writer writer, @Nonnull String error) throws IOException {
+        final JsonObject message = message("error");
+        message.addProperty("message", error);
+        send(writer, message);
+    }
+
+    private void send(@Nonnull Writer writer, @Nonnull JsonObject message) throws IOException {
+        writer.write(gson.toJson(message));
+        writer.write('\n');
+        writer.flush();
+    }
+
+    /* the socket is connectable as soon as it is bound, so its directory has to protect it */
+    private static void requirePrivateDirectory(@Nonnull Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            // the umask may have removed permissions of the owner, but never added any
+            Files.setPosixFilePermissions(directory, OWNER_ONLY);
+            return;
+        }
+        final Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(directory);
+        if (!permissions.equals(OWNER_ONLY)) {
+            throw new IOException(
+                    String.format(
+                            "The socket must be in a directory that only its owner can access"
+                                    + " (rwx------), but '%s' is %s",
+                            directory, PosixFilePermissions.toString(permissions)));
+        }
+    }
+
+    private static void removeStaleSocket(@Nonnull Path socket) throws IOException {
+        if (!Files.exists(socket)) {
+            return;
+        }
+        if (!Files.readAttributes(socket, BasicFileAttributes.class).isOther()) {
+            throw new IOException("'" + socket + "' exists and is not a socket");
+        }
+        try (SocketChannel ignored = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            throw new IOException("A daemon is already listening on '" + socket + "'");
+        } catch (ConnectException e) {
+            // left behind by a daemon that did not shut down
+            Files.delete(socket);
+        }
+    }
+}
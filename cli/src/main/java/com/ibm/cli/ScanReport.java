@@ -0,0 +1,53 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+
+/**
+ * The outcome of a command line scan.
+ *
+ * @param analysedFiles the number of files that were analysed
+ * @param failedFiles the number of files that could not be parsed or analysed
+ * @param issues the number of issues reported by the checks
+ * @param threads the number of files analysed in parallel
+ * @param duration the wall-clock time of the analysis
+ */
+public record ScanReport(
+        int analysedFiles, int failedFiles, long issues, int threads, @Nonnull Duration duration) {
+
+    public double filesPerSecond() {
+        final long millis = Math.max(1, duration.toMillis());
+        return (analysedFiles + failedFiles) * 1000.0 / millis;
+    }
+
+    public void print(@Nonnull Consumer<String> out) {
+        out.accept("========== Scan Throughput ==========");
+        out.accept(String.format("%-33s: %s", "Analysed files", analysedFiles));
+        out.accept(String.format("%-33s: %s", "Failed files", failedFiles));
+        out.accept(String.format("%-33s: %s", "Reported issues", issues));
+        out.accept(String.format("%-33s: %s", "Worker threads", threads));
+        out.accept(String.format("%-33s: %.3f s", "Duration", duration.toMillis() / 1000.0));
+        out.accept(String.format("%-33s: %.1f", "Files per second", filesPerSecond()));
+        out.accept("=====================================");
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import com.ibm.mapper.model.INode;
+import com.ibm.output.IOutputFile;
+import com.ibm.output.cyclondx.CBOMOutputFileFactory;
+import com.ibm.output.statistics.EngineStatistics;
+import com.ibm.output.statistics.IStatistics;
+import com.ibm.output.statistics.ScanStatistics;
+import com.ibm.plugin.JavaAggregator;
+import com.ibm.plugin.PythonAggregator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+/**
+ * The assets detected by a scan, collected from the aggregators of the languages.
+ *
+ * @param nodes the detected assets of all languages
+ */
+public record ScanResults(@Nonnull List<INode> nodes) {
+
+    /**
+     * Collects the results of the finished scan and stores them in the result caches, if any are
+     * configured.
+     */
+    @Nonnull
+    public static ScanResults collect() {
+        JavaAggregator.storeResultCache();
+        PythonAggregator.storeResultCache();
+        final List<INode> nodes = new ArrayList<>();
+        nodes.addAll(JavaAggregator.getDetectedNodes());
+        nodes.addAll(PythonAggregator.getDetectedNodes());
+        return new ScanResults(List.copyOf(nodes));
+    }
+
+    /** Forgets the results and counters of the previous scan, before the next one starts. */
+    public static void reset() {
+        JavaAggregator.reset();
+        PythonAggregator.reset();
+        EngineStatistics.reset();
+    }
+
+    @Nonnull
+    public IOutputFile cbom() {
+        return new CBOMOutputFileFactory().createOutputFormat(nodes);
+    }
+
+    @Nonnull
+    public IStatistics statistics() {
+        return new ScanStatistics(
+                nodes::size,
+                () ->
+                        nodes.stream()
+                                .collect(
+                                        Collectors.groupingBy(
+                                                INode::getKind, Collectors.counting())),
+                EngineStatistics::collect);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import java.nio.file.Path;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+
+/** The languages the command line scanner analyses, recognised by the file extension. */
+public enum SourceLanguage {
+    JAVA(".java", JavaFileAnalyzer::new),
+    PYTHON(".py", PythonFileAnalyzer::new);
+
+    @Nonnull private final String extension;
+    @Nonnull private final Function<CliOptions, IFileAnalyzer> analyzerFactory;
+
+    SourceLanguage(
+            @Nonnull String extension,
+            @Nonnull Function<CliOptions, IFileAnalyzer> analyzerFactory) {
+        this.extension = extension;
+        this.analyzerFactory = analyzerFactory;
+    }
+
+    public boolean matches(@Nonnull Path file) {
+        return file.getFileName().toString().endsWith(extension);
+    }
+
+    @Nonnull
+    public IFileAnalyzer createAnalyzer(@Nonnull CliOptions options) {
+        return analyzerFactory.apply(options);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CliOptionsTest {
+
+    @TempDir Path directory;
+
+    @Test
+    void defaults() {
+        final CliOptions options = CliOptions.parse(new String[] {directory.toString()});
+
+        assertThat(options.sourceDirectory()).isEqualTo(directory.toAbsolutePath().normalize());
+        assertThat(options.threads()).isEqualTo(Runtime.getRuntime().availableProcessors());
+        assertThat(options.outputName()).isEqualTo("cbom");
+        assertThat(options.javaVersion()).isEqualTo(17);
+        assertThat(options.classpath()).isEmpty();
+    }
+
+    @Test
+    void allOptions() {
+        final CliOptions options =
+                CliOptions.parse(
+                        new String[] {
+                            "--threads",
+                            "3",
+                            directory.toString(),
+                            "--output",
+                            "result",
+                            "--java-version",
+                            "21",
+                            "--classpath",
+                            "a.jar" + File.pathSeparator + "b.jar"
+                        });
+
+        assertThat(options.threads()).isEqualTo(3);
+        assertThat(options.outputName()).isEqualTo("result");
+        assertThat(options.javaVersion()).isEqualTo(21);
+        assertThat(options.classpath()).containsExactly(new File("a.jar"), new File("b.jar"));
+    }
+
+    @Test
+    void daemon() {
+        final Path socket = directory.resolve("scanner.sock");
+        final CliOptions options =
+                CliOptions.parse(new String[] {"--daemon", socket.toString(), "--threads", "2"});
+
+        assertThat(options.daemonSocket()).isEqualTo(socket.toAbsolutePath().normalize());
+        assertThat(options.sourceDirectory()).isNull();
+        assertThat(options.threads()).isEqualTo(2);
+        assertThatThrownBy(
+                        () ->
+                                CliOptions.parse(
+                                        new String[] {
+                                            "--daemon", socket.toString(), directory.toString()
+                                        }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThatThrownBy(() -> CliOptions.parse(new String[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(
+                        () ->
+                                CliOptions.parse(
+                                        new String[] {directory.toString(), "--threads", "0"}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CliOptions.parse(new String[] {directory.toString(), "--output"}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(
+                        () ->
+                                CliOptions.parse(
+                                        new String[] {directory.resolve("missing").toString()}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
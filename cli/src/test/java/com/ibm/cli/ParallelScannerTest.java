@@ -0,0 +1,71 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.plugin.JavaAggregator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelScannerTest {
+
+    @TempDir Path directory;
+
+    @AfterEach
+    void reset() {
+        JavaAggregator.reset();
+    }
+
+    @Test
+    void scansJavaFilesInParallel() throws IOException, InterruptedException {
+        final String source =
+                """
+                import java.security.MessageDigest;
+
+                class Digest%d {
+                    byte[] digest(byte[] data) throws Exception {
+                        return MessageDigest.getInstance("MD5").digest(data);
+                    }
+                }
+                """;
+        for (int i = 0; i < 4; i++) {
+            Files.writeString(directory.resolve("Digest" + i + ".java"), source.formatted(i));
+        }
+        Files.writeString(directory.resolve("README.md"), "not scanned");
+        Files.writeString(directory.resolve("Broken.java"), "class Broken {");
+
+        final ScanReport report;
+        try (ParallelScanner scanner =
+                new ParallelScanner(CliOptions.parse(new String[] {directory.toString()}))) {
+            report = scanner.scan(directory);
+        }
+
+        assertThat(report.analysedFiles()).isEqualTo(4);
+        assertThat(report.failedFiles()).isEqualTo(1);
+        assertThat(report.issues()).isGreaterThanOrEqualTo(4);
+        assertThat(report.filesPerSecond()).isPositive();
+        assertThat(JavaAggregator.getDetectedNodes()).hasSize(4);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.ibm.engine.detection.TypeRelationCache;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ScanDaemonTest {
+
+    @TempDir Path directory;
+
+    @Test
+    void servesIsolatedScansUntilShutdown() throws Exception {
+        final Path sources = Files.createDirectory(directory.resolve("sources"));
+        Files.writeString(
+                sources.resolve("Digest.java"),
+                """
+                import java.security.MessageDigest;
+
+                class Digest {
+                    byte[] digest(byte[] data) throws Exception {
+                        return MessageDigest.getInstance("MD5").digest(data);
+                    }
+                }
+                """);
+        final Path socket = directory.resolve("run").resolve("scanner.sock");
+        final CliOptions options = CliOptions.parse(new String[] {"--daemon", socket.toString()});
+
+        try (ScanDaemon daemon = new ScanDaemon(socket, options)) {
+            final Thread serving =
+                    new Thread(
+                            () -> {
+                                try {
+                                    daemon.serve();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                            });
+            serving.start();
+
+            final String scan = "{\"directory\": \"" + sources + "\"}";
+            for (int i = 0; i < 2; i++) {
+                final List<JsonObject> messages = request(socket, scan);
+                assertThat(messages).hasSize(2);
+                assertThat(messages.get(0).get("type").getAsString()).isEqualTo("cbom");
+                final JsonObject report = messages.get(1);
+                assertThat(report.get("type").getAsString()).isEqualTo("report");
+                assertThat(report.get("analysedFiles").getAsInt()).isEqualTo(1);
+                // the results of the previous request are not part of the next one
+                assertThat(report.get("detectedAssets").getAsInt()).isEqualTo(1);
+                // the caches of the engine stay warm
+                assertThat(TypeRelationCache.size()).isGreaterThan(0);
+            }
+
+            final List<JsonObject> error = request(socket, "{\"directory\": \"/nonexistent\"}");
+            assertThat(error.get(0).get("type").getAsString()).isEqualTo("error");
+
+            final List<JsonObject> outside =
+                    request(
+                            socket,
+                            "{\"directory\": \"" + sources + "\", \"files\": [\"../run/x.java\"]}");
+            assertThat(outside).hasSize(1);
+            assertThat(outside.get(0).get("type").getAsString()).isEqualTo("error");
+            assertThat(outside.get(0).get("message").getAsString()).contains("../run/x.java");
+
+            final List<JsonObject> shutdown = request(socket, "{\"command\": \"shutdown\"}");
+            assertThat(shutdown.get(0).get("type").getAsString()).isEqualTo("shutdown");
+            serving.join(10_000);
+            assertThat(serving.isAlive()).isFalse();
+        }
+        assertThat(Files.exists(socket)).isFalse();
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(socket.getParent())))
+                .isEqualTo("rwx------");
+    }
+
+    @Test
+    void refusesASocketInADirectoryOthersCanAccess() throws Exception {
+        final Path shared = Files.createDirectory(directory.resolve("shared"));
+        Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxr-xr-x"));
+        final Path socket = shared.resolve("scanner.sock");
+        final CliOptions options = CliOptions.parse(new String[] {"--daemon", socket.toString()});
+
+        assertThatThrownBy(() -> new ScanDaemon(socket, options))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("rwxr-xr-x");
+        assertThat(Files.exists(socket)).isFalse();
+    }
+
+    private static List<JsonObject> request(Path socket, String request) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            final Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            writer.write(request + "\n");
+            writer.flush();
+            final BufferedReader reader =
+                    new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            final List<JsonObject> messages = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                messages.add(JsonParser.parseString(line).getAsJsonObject());
+            }
+            return messages;
+        }
+    }
+}
@@ -26,38 +26,121 @@ import com.ibm.engine.hooks.IHook;
 import com.ibm.engine.hooks.IHookDetectionObserver;
 import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.IScanContext;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.annotation.Nonnull;
 
+/**
+ * Records the calls of all scanned files, so hooks registered later can be matched against calls
+ * that were visited before.
+ *
+ * <p>Files can be analysed concurrently. A call is stored before the registered hooks are looked up
+ * for it, and a hook is registered and subscribed before the stored calls are looked up for it;
+ * every step is synchronized. A call and a hook that are published concurrently are therefore
+ * always matched, at least by one of the two lookups.
+ *
+ * <p>The calls are kept for the whole scan, so hooks can match calls of other modules. The number
+ * of stored calls is bounded per module (see {@link #MAX_STORED_CALLS_PROPERTY}); when a module
+ * exceeds it, its oldest calls are evicted first.
+ */
 public class CallStackAgent<R, T, S, P>
         implements INotifyWhenNewCallWasAddedOntoTheCallStack<R, T>,
                 INewHookSubscription<R, T, S, P> {
-    @Nonnull
-    private final ConcurrentMap<Integer, List<CallContext<R, T>>> invokedCallStack =
-            new ConcurrentHashMap<>();
+    /** JVM system property to limit the number of calls per module kept on the call stack. */
+    public static final String MAX_STORED_CALLS_PROPERTY =
+            "sonar.cryptoScanner.callStack.maxStoredCalls";
+
+    public static final int DEFAULT_MAX_STORED_CALLS = 200_000;
+
+    private record StoredCall<R, T>(
+            long sequence, @Nonnull String name, int arity, @Nonnull CallContext<R, T> context) {}
+
+    /*
+     * The calls of one module. The calls are grouped by method (or enum class) name and number of
+     * arguments, in the order they were added; a new hook only has to look at the buckets its
+     * method matcher can match.
+     */
+    private static final class ModuleCalls<R, T> {
+        @Nonnull
+        private final Map<String, Map<Integer, Deque<StoredCall<R, T>>>> callsByName =
+                new HashMap<>();
+
+        /*
+         * the bucket of every stored call, in the order the calls were added. Calls are added to
+         * the tail of their bucket, so the oldest call of the module is the head of the first
+         * bucket in this queue.
+         */
+        @Nonnull private final Deque<Deque<StoredCall<R, T>>> buckets = new ArrayDeque<>();
+
+        private void add(@Nonnull StoredCall<R, T> storedCall) {
+            final Deque<StoredCall<R, T>> bucket =
+                    callsByName
+                            .computeIfAbsent(storedCall.name(), k -> new HashMap<>())
+                            .computeIfAbsent(storedCall.arity(), k -> new ArrayDeque<>());
+            bucket.addLast(storedCall);
+            buckets.addLast(bucket);
+        }
+
+        /*
+         * The evicted tree stays marked as visited (as long as it is alive), so it is not added
+         * again and does not notify the listeners twice.
+         */
+        private void evictOldest() {
+            final Deque<StoredCall<R, T>> bucket = buckets.removeFirst();
+            final StoredCall<R, T> storedCall = bucket.removeFirst();
+            if (bucket.isEmpty()) {
+                final Map<Integer, Deque<StoredCall<R, T>>> callsByArity =
+                        callsByName.get(storedCall.name());
+                callsByArity.remove(storedCall.arity());
+                if (callsByArity.isEmpty()) {
+                    callsByName.remove(storedCall.name());
+                }
+            }
+        }
+
+        private int size() {
+            return buckets.size();
+        }
+    }
 
-    @Nonnull private final Set<Integer> visitedTreeObjects = ConcurrentHashMap.newKeySet();
-    @Nonnull private final List<IObserver<CallContext<R, T>>> listeners = new ArrayList<>();
+    /* module key -> calls of the module, the size of the call stack is bounded per module */
+    @Nonnull private final Map<String, ModuleCalls<R, T>> callsByModule = new HashMap<>();
+
+    @Nonnull private final WeakIdentitySet<T> visitedTreeObjects = new WeakIdentitySet<>();
+    @Nonnull
+    private final List<IObserver<CallContext<R, T>>> listeners = new CopyOnWriteArrayList<>();
     @Nonnull private final ILanguageSupport<R, T, S, P> languageSupport;
+    private final int maxStoredCalls;
+    private long sequence = 0;
 
     public CallStackAgent(@Nonnull ILanguageSupport<R, T, S, P> languageSupport) {
+        this(
+                languageSupport,
+                Integer.getInteger(MAX_STORED_CALLS_PROPERTY, DEFAULT_MAX_STORED_CALLS));
+    }
+
+    public CallStackAgent(
+            @Nonnull ILanguageSupport<R, T, S, P> languageSupport, int maxStoredCalls) {
         this.languageSupport = languageSupport;
+        this.maxStoredCalls = Math.max(1, maxStoredCalls);
     }
 
     public void addCall(@Nonnull T tree, @Nonnull IScanContext<R, T> scanContext) {
-        Optional<Integer> keyOptional = getKeyFormT(tree);
+        Optional<String> keyOptional = getKeyFormT(tree);
         if (keyOptional.isEmpty()) {
             return;
         }
 
-        int key = keyOptional.get();
         final CallContext<R, T> callContext = new CallContext<>(tree, scanContext);
-        if (addedToCallContext(key, callContext)) {
+        if (addedToCallContext(
+                scanContext.getModuleKey(), keyOptional.get(), getArity(tree), callContext)) {
             this.notify(callContext);
         }
     }
@@ -97,16 +180,12 @@ public class CallStackAgent<R, T, S, P>
         }
 
         final List<CallContext<R, T>> stackCalls = new ArrayList<>();
-        for (List<CallContext<R, T>> callContexts : invokedCallStack.values()) {
-            callContexts.forEach(
-                    callContext -> {
-                        if (methodMatcher.match(
-                                callContext.tree(),
-                                languageSupport.translation(),
-                                hook.matchContext())) {
-                            stackCalls.add(callContext);
-                        }
-                    });
+        for (StoredCall<R, T> storedCall : getCandidates(methodMatcher)) {
+            final CallContext<R, T> callContext = storedCall.context();
+            if (methodMatcher.match(
+                    callContext.tree(), languageSupport.translation(), hook.matchContext())) {
+                stackCalls.add(callContext);
+            }
         }
 
         for (CallContext<R, T> callContext : stackCalls) {
@@ -116,26 +195,74 @@ public class CallStackAgent<R, T, S, P>
         }
     }
 
-    private boolean addedToCallContext(int key, @Nonnull CallContext<R, T> callContext) {
-        if (visitedTreeObjects.contains(callContext.tree().hashCode())) {
-            return false;
+    public synchronized int size() {
+        int size = 0;
+        for (ModuleCalls<R, T> moduleCalls : callsByModule.values()) {
+            size += moduleCalls.size();
         }
-        visitedTreeObjects.add(callContext.tree().hashCode());
-        invokedCallStack.compute(
-                key,
-                (k, v) -> {
-                    if (v == null) {
-                        return new ArrayList<>(List.of(callContext));
-                    } else {
-                        v.add(callContext);
-                        return v;
+        return size;
+    }
+
+    /* returns the calls of all buckets the matcher can match, in the order they were added */
+    @Nonnull
+    private synchronized List<StoredCall<R, T>> getCandidates(
+            @Nonnull MethodMatcher<T> methodMatcher) {
+        final List<StoredCall<R, T>> candidates = new ArrayList<>();
+        final boolean anyName =
+                methodMatcher.getMethodNamesSerializable().contains(MethodMatcher.ANY);
+        for (ModuleCalls<R, T> moduleCalls : callsByModule.values()) {
+            if (anyName) {
+                moduleCalls.callsByName.values().stream()
+                        .flatMap(callsByArity -> callsByArity.values().stream())
+                        .forEach(candidates::addAll);
+                continue;
+            }
+            for (String methodName : methodMatcher.getMethodNamesSerializable()) {
+                final Map<Integer, Deque<StoredCall<R, T>>> callsByArity =
+                        moduleCalls.callsByName.get(methodName);
+                if (callsByArity == null) {
+                    continue;
+                }
+                if (methodMatcher.getArity() == MethodMatcher.ANY_ARITY) {
+                    callsByArity.values().forEach(candidates::addAll);
+                } else {
+                    final Deque<StoredCall<R, T>> calls =
+                            callsByArity.get(methodMatcher.getArity());
+                    if (calls != null) {
+                        candidates.addAll(calls);
                     }
-                });
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingLong(StoredCall::sequence));
+        return candidates;
+    }
+
+    private synchronized boolean addedToCallContext(
+            @Nonnull String moduleKey,
+            @Nonnull String name,
+            int arity,
+            @Nonnull CallContext<R, T> callContext) {
+        if (!visitedTreeObjects.add(callContext.tree())) {
+            return false;
+        }
+        final ModuleCalls<R, T> moduleCalls =
+                callsByModule.computeIfAbsent(moduleKey, k -> new ModuleCalls<>());
+        moduleCalls.add(new StoredCall<>(sequence++, name, arity, callContext));
+        while (moduleCalls.size() > maxStoredCalls) {
+            moduleCalls.evictOldest();
+        }
         return true;
     }
 
+    private int getArity(@Nonnull T tree) {
+        return languageSupport
+                .translation()
+                .getMethodArity(MatchContext.createForHookContext(), tree);
+    }
+
     @Nonnull
-    private Optional<Integer> getKeyFormT(@Nonnull T tree) {
+    private Optional<String> getKeyFormT(@Nonnull T tree) {
         String identifierString =
                 languageSupport
                         .translation()
@@ -146,10 +273,6 @@ public class CallStackAgent<R, T, S, P>
                                         .getEnumClassName(MatchContext.createForHookContext(), tree)
                                         .orElse(null));
 
-        if (identifierString == null) {
-            return Optional.empty();
-        }
-        int key = identifierString.hashCode();
-        return Optional.of(key);
+        return Optional.ofNullable(identifierString);
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.callstack;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A set that compares its elements by identity and does not keep them alive. Trees do not define
+ * a meaningful {@code hashCode}, and using it as an identifier can lead to collisions between
+ * different trees.
+ */
+final class WeakIdentitySet<E> {
+    @Nonnull private final Set<IdentityWeakReference<E>> references = new HashSet<>();
+    @Nonnull private final ReferenceQueue<E> queue = new ReferenceQueue<>();
+
+    /**
+     * Adds the element to the set.
+     *
+     * @return true if the element was not yet contained in the set
+     */
+    boolean add(@Nonnull E element) {
+        expungeStaleReferences();
+        return references.add(new IdentityWeakReference<>(element, queue));
+    }
+
+    boolean contains(@Nonnull E element) {
+        expungeStaleReferences();
+        return references.contains(new IdentityWeakReference<>(element, null));
+    }
+
+    int size() {
+        expungeStaleReferences();
+        return references.size();
+    }
+
+    private void expungeStaleReferences() {
+        Reference<? extends E> reference;
+        while ((reference = queue.poll()) != null) {
+            references.remove(reference);
+        }
+    }
+
+    private static final class IdentityWeakReference<E> extends WeakReference<E> {
+        private final int hashCode;
+
+        IdentityWeakReference(@Nonnull E referent, @Nullable ReferenceQueue<E> queue) {
+            super(referent, queue);
+            this.hashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IdentityWeakReference<?> that)) {
+                return false;
+            }
+            final Object referent = this.get();
+            return referent != null && referent == that.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import com.ibm.engine.rule.IDetectionRule;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Per file memo of the detection subtrees produced by depending rules. Many root rules share the
+ * same depending rules (e.g. the cipher parameters of BouncyCastle), so the same depending rule is
+ * followed in the same enclosing method with the same {@link TraceSymbol} under different parent
+ * stores. A copy of the subtree computed for the first parent is grafted into the following parents
+ * instead of walking the method again.
+ *
+ * <p>The copy reports to the finding of the parent it is grafted into, and is not changed when a
+ * hook fires on a store of the memoized subtree later. This matches walking the method again: the
+ * hooks of the walk are equal to the registered ones, so they are not subscribed a second time. A
+ * subtree is never grafted below one of its own stores.
+ */
+public final class DependingRuleMemo<R, T, S, P> {
+    public static final int MAX_ENTRIES = 1 << 12;
+
+    @Nonnull private static final LongAdder HITS = new LongAdder();
+    @Nonnull private static final LongAdder MISSES = new LongAdder();
+
+    /* rules, trees and symbols are compared by identity, their equality can be expensive */
+    static final class Key {
+        @Nonnull private final Object detectionRule;
+        @Nonnull private final Object methodDefinition;
+        @Nullable private final Object symbol;
+        @Nonnull private final TraceSymbol.State state;
+        private final int level;
+        private final int hash;
+
+        private Key(
+                @Nonnull Object detectionRule,
+                @Nonnull Object methodDefinition,
+                @Nullable Object symbol,
+                @Nonnull TraceSymbol.State state,
+                int level) {
+            this.detectionRule = detectionRule;
+            this.methodDefinition = methodDefinition;
+            this.symbol = symbol;
+            this.state = state;
+            this.level = level;
+            this.hash =
+                    Objects.hash(
+                            System.identityHashCode(detectionRule),
+                            System.identityHashCode(methodDefinition),
+                            System.identityHashCode(symbol),
+                            state,
+                            level);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key that)) return false;
+            return detectionRule == that.detectionRule
+                    && methodDefinition == that.methodDefinition
+                    && symbol == that.symbol
+                    && state == that.state
+                    && level == that.level;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Nonnull private final Map<Key, DetectionStore<R, T, S, P>> stores = new HashMap<>();
+
+    @Nonnull
+    static <T, S> Key key(
+            @Nonnull IDetectionRule<T> detectionRule,
+            @Nonnull T methodDefinition,
+            @Nonnull TraceSymbol<S> traceSymbol,
+            int level) {
+        return new Key(
+                detectionRule,
+                methodDefinition,
+                traceSymbol.getSymbol(),
+                traceSymbol.getState(),
+                level);
+    }
+
+    /**
+     * Returns a copy of the subtree memoized for the key, if it can be grafted below the given
+     * parent.
+     *
+     * @param key the depending rule, enclosing method, trace symbol and level of the subtree
+     * @param parent the store the subtree would be attached to
+     * @return the copy of the memoized subtree for the finding of the parent, or null if it has to
+     *     be computed
+     */
+    @Nullable DetectionStore<R, T, S, P> lookup(
+            @Nonnull Key key, @Nonnull DetectionStore<R, T, S, P> parent) {
+        final DetectionStore<R, T, S, P> store = stores.get(key);
+        if (store == null || contains(store, parent)) {
+            MISSES.increment();
+            return null;
+        }
+        HITS.increment();
+        return store.copyFor(parent.statusReporting);
+    }
+
+    void record(@Nonnull Key key, @Nonnull DetectionStore<R, T, S, P> store) {
+        if (stores.size() >= MAX_ENTRIES) {
+            stores.clear();
+        }
+        stores.putIfAbsent(key, store);
+    }
+
+    void clear() {
+        stores.clear();
+    }
+
+    int size() {
+        return stores.size();
+    }
+
+    private static boolean contains(
+            @Nonnull DetectionStore<?, ?, ?, ?> root, @Nonnull DetectionStore<?, ?, ?, ?> store) {
+        final Set<DetectionStore<?, ?, ?, ?>> visited =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<DetectionStore<?, ?, ?, ?>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final DetectionStore<?, ?, ?, ?> current = pending.pop();
+            if (current == store) {
+                return true;
+            }
+            if (visited.add(current)) {
+                current.getChildren().forEach(pending::push);
+            }
+        }
+        return false;
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    public static void reset() {
+        HITS.reset();
+        MISSES.reset();
+    }
+}
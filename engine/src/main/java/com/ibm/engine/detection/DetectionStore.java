@@ -19,6 +19,7 @@
  */
 package com.ibm.engine.detection;
 
+import com.ibm.engine.executive.AnalysisBudget;
 import com.ibm.engine.executive.IStatusReporting;
 import com.ibm.engine.hooks.IHook;
 import com.ibm.engine.hooks.IHookDetectionObserver;
@@ -34,13 +35,12 @@ import com.ibm.engine.rule.MethodDetectionRule;
 import com.ibm.engine.rule.Parameter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.TreeMap;
-import java.util.UUID;
 import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -52,20 +52,24 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
     @Nonnull final IScanContext<R, T> scanContext;
     /*
      * (0...n) = depending-rules related to the detectable parameter defined by the index
+     * Created on the first added value, most stores never get one.
      */
-    @Nonnull final Map<Integer, List<IValue<T>>> detectionValues;
+    @Nullable IndexedSlots<IValue<T>> detectionValues;
     /*
      * -1 = depending-rules on the root not
      * else (0...n) = depending-rules related to the detectable parameter defined by the index
+     * Created on the first attached child.
      */
-    @Nonnull final Map<Integer, List<DetectionStore<R, T, S, P>>> children;
+    @Nullable IndexedSlots<DetectionStore<R, T, S, P>> children;
     @Nonnull final Handler<R, T, S, P> handler;
     @Nonnull final IStatusReporting<R, T, S, P> statusReporting;
-    @Nonnull private final UUID storeId = UUID.randomUUID();
+    private final long storeId;
     /*
      * action related to the detected method
      */
     @Nullable IAction<T> actionValue;
+    /* cached result of getDetectionValues, reset whenever a value or the action changes */
+    @Nullable private List<IValue<T>> allDetectionValues;
 
     public DetectionStore(
             final int level,
@@ -76,19 +80,16 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
         this.level = level;
         this.detectionRule = detectionRule;
         this.scanContext = scanContext;
-        this.detectionValues =
-                new TreeMap<>(); // The map is sorted according to the natural ordering of its keys.
-        this.children = new TreeMap<>();
         this.handler = handler;
         this.statusReporting = statusReporting;
+        this.storeId = handler.nextStoreId();
     }
 
     public int getLevel() {
         return level;
     }
 
-    @Nonnull
-    public UUID getStoreId() {
+    public long getStoreId() {
         return storeId;
     }
 
@@ -119,14 +120,21 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
      * @return a list of all detection values in the order they were added to the store.
      */
     @Nonnull
-    public List<IValue<T>> getDetectionValues() {
+    public synchronized List<IValue<T>> getDetectionValues() {
+        if (allDetectionValues != null) {
+            return allDetectionValues;
+        }
+        final List<IValue<T>> values =
+                detectionValues == null ? List.of() : detectionValues.values();
         if (actionValue == null) {
-            return detectionValues.values().stream().flatMap(List::stream).toList();
+            allDetectionValues = values;
+        } else {
+            final List<IValue<T>> allValues = new ArrayList<>(values.size() + 1);
+            allValues.add(actionValue);
+            allValues.addAll(values);
+            allDetectionValues = Collections.unmodifiableList(allValues);
         }
-        List<IValue<T>> allValues = new ArrayList<>();
-        allValues.add(actionValue);
-        allValues.addAll(detectionValues.values().stream().flatMap(List::stream).toList());
-        return Collections.unmodifiableList(allValues);
+        return allDetectionValues;
     }
 
     /**
@@ -139,12 +147,11 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
      *     takes an integer index and a list of values, and performs some computation based on these
      *     inputs.
      */
-    public void detectionValuesForEachParameter(
+    public synchronized void detectionValuesForEachParameter(
             @Nonnull BiConsumer<Integer, List<IValue<T>>> consumer) {
-        this.detectionValues.forEach(
-                (k, v) ->
-                        consumer.accept(
-                                k, Optional.of(Collections.unmodifiableList(v)).orElse(List.of())));
+        if (this.detectionValues != null) {
+            this.detectionValues.forEach(consumer);
+        }
     }
 
     /**
@@ -157,8 +164,8 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
      * @return an immutable and non-null list of all the children stores
      */
     @Nonnull
-    public List<DetectionStore<R, T, S, P>> getChildren() {
-        return children.values().stream().flatMap(List::stream).toList();
+    public synchronized List<DetectionStore<R, T, S, P>> getChildren() {
+        return children == null ? List.of() : children.values();
     }
 
     /**
@@ -167,8 +174,9 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
      * @return the eventual child detection stores, whose detection rule relates to the method
      */
     @Nonnull
-    public List<DetectionStore<R, T, S, P>> getChildrenForMethod() {
-        return Optional.ofNullable(this.children.get(-1)).orElse(List.of());
+    public synchronized List<DetectionStore<R, T, S, P>> getChildrenForMethod() {
+        final List<DetectionStore<R, T, S, P>> stores = children == null ? null : children.get(-1);
+        return stores == null ? List.of() : List.copyOf(stores);
     }
 
     /**
@@ -181,40 +189,37 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
      *     takes an integer index and a list of detection rules, and performs some computation based
      *     on these inputs.
      */
-    public void childrenForEachParameter(
+    public synchronized void childrenForEachParameter(
             @Nonnull BiConsumer<Integer, List<DetectionStore<R, T, S, P>>> consumer) {
-        for (Map.Entry<Integer, List<DetectionStore<R, T, S, P>>> entry :
-                this.children.entrySet()) {
-            if (entry.getKey() == -1) {
-                continue;
-            }
-            consumer.accept(
-                    entry.getKey(),
-                    Optional.of(Collections.unmodifiableList(entry.getValue())).orElse(List.of()));
+        if (this.children == null) {
+            return;
         }
+        this.children.forEach(
+                (index, stores) -> {
+                    if (index != -1) {
+                        consumer.accept(index, stores);
+                    }
+                });
     }
 
-    public Optional<List<DetectionStore<R, T, S, P>>> getChildrenForParameterWithId(int id) {
-        return Optional.ofNullable(this.children.get(id));
+    public synchronized Optional<List<DetectionStore<R, T, S, P>>> getChildrenForParameterWithId(
+            int id) {
+        return Optional.ofNullable(this.children)
+                .map(slots -> slots.get(id))
+                .map(List::copyOf);
     }
 
     public void attach(@Nonnull final DetectionStore<R, T, S, P> detectionStore) {
         this.attach(-1, detectionStore);
     }
 
-    public void attach(int index, @Nonnull final DetectionStore<R, T, S, P> detectionStore) {
-        this.children.compute(
-                index,
-                (i, list) -> {
-                    if (list == null) {
-                        final List<DetectionStore<R, T, S, P>> stores = new ArrayList<>();
-                        stores.add(detectionStore);
-                        return stores;
-                    } else {
-                        list.add(detectionStore);
-                        return list;
-                    }
-                });
+    /* hooks attach children from the thread that analyses another file */
+    public synchronized void attach(
+            int index, @Nonnull final DetectionStore<R, T, S, P> detectionStore) {
+        if (this.children == null) {
+            this.children = new IndexedSlots<>();
+        }
+        this.children.add(index, detectionStore);
     }
 
     void addValue(int index, @Nonnull final IValue<T> iValue) {
@@ -225,22 +230,71 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
             @Nonnull DetectionStore<R, T, S, P> detectionStore,
             int index,
             @Nonnull final IValue<T> iValue) {
-        detectionStore.detectionValues.compute(
-                index,
-                (i, list) -> {
-                    if (list == null) {
-                        // If the list is null, create a new ArrayList
-                        // with the iValue and return it
-                        final List<IValue<T>> values = new ArrayList<>();
-                        values.add(iValue);
-                        return values;
-                    } else {
-                        // If the list is not null, add the iValue to it
-                        // and return the modified list
-                        list.add(iValue);
-                        return list;
-                    }
-                });
+        synchronized (detectionStore) {
+            if (detectionStore.detectionValues == null) {
+                detectionStore.detectionValues = new IndexedSlots<>();
+            }
+            detectionStore.detectionValues.add(index, iValue);
+            detectionStore.allDetectionValues = null;
+        }
+    }
+
+    private synchronized void setActionValue(@Nonnull IAction<T> iAction) {
+        this.actionValue = iAction;
+        this.allDetectionValues = null;
+    }
+
+    /**
+     * Copies this store and its children, so that the copy can be grafted below a store of another
+     * finding. The copies report to the given status reporting. Hooks stay subscribed by the stores
+     * that registered them only, as an equal hook is not registered again.
+     *
+     * @param statusReporting the status reporting of the finding the copy is grafted into
+     * @return the copy of the subtree
+     */
+    @Nonnull
+    DetectionStore<R, T, S, P> copyFor(@Nonnull IStatusReporting<R, T, S, P> statusReporting) {
+        return copyFor(statusReporting, new IdentityHashMap<>());
+    }
+
+    @Nonnull
+    private DetectionStore<R, T, S, P> copyFor(
+            @Nonnull IStatusReporting<R, T, S, P> statusReporting,
+            @Nonnull Map<DetectionStore<R, T, S, P>, DetectionStore<R, T, S, P>> copies) {
+        final DetectionStore<R, T, S, P> existing = copies.get(this);
+        if (existing != null) {
+            return existing;
+        }
+        final DetectionStore<R, T, S, P> copy = newCopy(statusReporting, copies);
+        copies.put(this, copy);
+        synchronized (this) {
+            copy.actionValue = actionValue;
+            if (detectionValues != null) {
+                detectionValues.forEach(
+                        (index, values) -> values.forEach(value -> addValue(copy, index, value)));
+            }
+            if (children != null) {
+                children.forEach(
+                        (index, stores) ->
+                                stores.forEach(
+                                        child ->
+                                                copy.attach(
+                                                        index,
+                                                        child.copyFor(statusReporting, copies))));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Creates the empty copy of this store, see {@link #copyFor(IStatusReporting)}. The stores
+     * that were copied before, which include the ancestors of this store, are passed in.
+     */
+    @Nonnull
+    DetectionStore<R, T, S, P> newCopy(
+            @Nonnull IStatusReporting<R, T, S, P> statusReporting,
+            @Nonnull Map<DetectionStore<R, T, S, P>, DetectionStore<R, T, S, P>> copies) {
+        return new DetectionStore<>(level, detectionRule, scanContext, handler, statusReporting);
     }
 
     /**
@@ -269,14 +323,14 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
                 if (fullDetectionRule.actionFactory() != null) {
                     methodDetection
                             .toValue(fullDetectionRule.actionFactory())
-                            .ifPresent(iAction -> this.actionValue = iAction);
+                            .ifPresent(this::setActionValue);
                 }
                 nextDetectionRules = fullDetectionRule.nextDetectionRules();
             } else if (detectionRule.is(MethodDetectionRule.class)) {
                 MethodDetectionRule<T> methodDetectionRule = (MethodDetectionRule<T>) detectionRule;
                 methodDetection
                         .toValue(methodDetectionRule.actionFactory())
-                        .ifPresent(iAction -> this.actionValue = iAction);
+                        .ifPresent(this::setActionValue);
                 nextDetectionRules = methodDetectionRule.nextDetectionRules();
             }
 
@@ -390,6 +444,71 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
         }
     }
 
+    /**
+     * Returns true if the finding of this store, or the file that is analysed, ran out of its
+     * {@link AnalysisBudget}. The finding is then marked as partial, and no further rules or hooks
+     * are followed for it.
+     */
+    public boolean isOutOfBudget() {
+        final AnalysisBudget findingBudget = statusReporting.getAnalysisBudget();
+        if (findingBudget.isExhausted()) {
+            return true;
+        }
+        final AnalysisBudget fileBudget = handler.getFileBudget();
+        if (fileBudget.isExhausted()) {
+            findingBudget.exceed(Objects.requireNonNull(fileBudget.getExceededReason()));
+            return true;
+        }
+        return false;
+    }
+
+    /** Returns true if the finding of this store ran out of budget and is only partial. */
+    public boolean isPartial() {
+        return statusReporting.getAnalysisBudget().isExceeded();
+    }
+
+    /**
+     * Checks if values may still be resolved at the given depth of a resolution chain.
+     *
+     * @param depth the number of nested resolution steps, including the next one
+     * @return false if the maximum resolution depth is exceeded, which marks the finding as partial
+     */
+    public boolean allowsResolutionDepth(int depth) {
+        if (handler.getBudgetLimits().allowsResolutionDepth(depth)) {
+            return true;
+        }
+        statusReporting.getAnalysisBudget().exceed(AnalysisBudget.Reason.RESOLUTION_DEPTH);
+        return false;
+    }
+
+    /**
+     * Adds the hook to the hook repository, if the budgets of the finding and the file allow
+     * another hook registration.
+     *
+     * @param hook the hook to register
+     * @return true if the hook was registered and was not known before
+     */
+    public boolean registerHook(@Nonnull IHook<R, T, S, P> hook) {
+        if (isOutOfBudget()) {
+            return false;
+        }
+        final AnalysisBudget findingBudget = statusReporting.getAnalysisBudget();
+        final AnalysisBudget fileBudget = handler.getFileBudget();
+        if (!findingBudget.hasHookRegistrationsLeft()) {
+            return false;
+        }
+        if (!fileBudget.hasHookRegistrationsLeft()) {
+            findingBudget.exceed(AnalysisBudget.Reason.HOOK_REGISTRATIONS);
+            return false;
+        }
+        if (!handler.addHookToHookRepository(hook)) {
+            return false;
+        }
+        findingBudget.onHookRegistered();
+        fileBudget.onHookRegistered();
+        return true;
+    }
+
     public void onNewHookRegistration(@Nonnull IHook<R, T, S, P> hook) {
         handler.subscribeToHookDetectionObservable(hook, this);
     }
@@ -406,7 +525,8 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
                         scanContext,
                         handler,
                         statusReporting,
-                        invocationTree);
+                        invocationTree,
+                        this.scanContext);
         if (hook instanceof IMethodInvocationHook<R, T, S, P> methodInvocationHook) {
             this.attach(methodInvocationHook.getParameter().getIndex(), newDetectionStore);
         }
@@ -440,39 +560,79 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
                 .orElse(TraceSymbol.createWithStateNoSymbol());
     }
 
+    /**
+     * Follows the depending rules in the enclosing method. A subtree that was already produced for
+     * the same rule, method and trace symbol in this file is grafted from the {@link
+     * DependingRuleMemo}; the remaining rules are evaluated in a single walk of the method.
+     */
     protected void followNextRules(
             int index,
             @Nonnull final T enclosedMethodDefinition,
             @Nonnull final TraceSymbol<S> traceSymbol,
             @Nonnull final List<IDetectionRule<T>> nextDetectionRules) {
-        nextDetectionRules.stream()
-                .map(
-                        iDetectionRule ->
-                                new DetectionStore<>(
-                                        level + 1,
-                                        iDetectionRule,
-                                        scanContext,
-                                        handler,
-                                        statusReporting))
-                .forEach(
-                        newDetectionStore -> {
-                            this.attach(index, newDetectionStore);
-                            this.statusReporting.incrementVisitedRules();
-                            handler.getLanguageSupport()
-                                    .getBaseMethodVisitorFactory()
-                                    .create(
-                                            traceSymbol,
-                                            handler.getLanguageSupport()
-                                                    .createDetectionEngineInstance(
-                                                            newDetectionStore))
-                                    .visitMethodDefinition(enclosedMethodDefinition);
-                        });
+        if (nextDetectionRules.isEmpty() || skipOutOfBudget(nextDetectionRules)) {
+            return;
+        }
+        final DependingRuleMemo<R, T, S, P> memo = handler.getDependingRuleMemo();
+        final List<DependingRuleMemo.Key> keys = new ArrayList<>(nextDetectionRules.size());
+        final List<DetectionStore<R, T, S, P>> newDetectionStores =
+                new ArrayList<>(nextDetectionRules.size());
+        final List<IDetectionEngine<T, S>> detectionEngines =
+                new ArrayList<>(nextDetectionRules.size());
+        for (IDetectionRule<T> iDetectionRule : nextDetectionRules) {
+            final DependingRuleMemo.Key key =
+                    DependingRuleMemo.key(
+                            iDetectionRule, enclosedMethodDefinition, traceSymbol, level + 1);
+            final DetectionStore<R, T, S, P> memoizedDetectionStore = memo.lookup(key, this);
+            if (memoizedDetectionStore != null) {
+                this.attach(index, memoizedDetectionStore);
+                this.statusReporting.incrementVisitedRules();
+                continue;
+            }
+            final DetectionStore<R, T, S, P> newDetectionStore =
+                    new DetectionStore<>(
+                            level + 1, iDetectionRule, scanContext, handler, statusReporting);
+            this.attach(index, newDetectionStore);
+            keys.add(key);
+            newDetectionStores.add(newDetectionStore);
+            detectionEngines.add(
+                    handler.getLanguageSupport().createDetectionEngineInstance(newDetectionStore));
+        }
+        if (detectionEngines.isEmpty()) {
+            return;
+        }
+        visitMethodDefinitionOnce(enclosedMethodDefinition, traceSymbol, detectionEngines);
+        for (int i = 0; i < keys.size(); i++) {
+            memo.record(keys.get(i), newDetectionStores.get(i));
+        }
+    }
+
+    /**
+     * Walks the method definition once and offers each node to all detection engines. The walk
+     * counts as the visit of the first rule while it is in progress, like the first of several
+     * sequential walks did; the visits of the remaining rules are counted after the walk.
+     */
+    protected void visitMethodDefinitionOnce(
+            @Nonnull final T methodDefinition,
+            @Nonnull final TraceSymbol<S> traceSymbol,
+            @Nonnull final List<IDetectionEngine<T, S>> detectionEngines) {
+        this.statusReporting.incrementVisitedRules();
+        handler.getLanguageSupport()
+                .getBaseMethodVisitorFactory()
+                .create(traceSymbol, detectionEngines)
+                .visitMethodDefinition(methodDefinition);
+        for (int i = 1; i < detectionEngines.size(); i++) {
+            this.statusReporting.incrementVisitedRules();
+        }
     }
 
     protected void followNextRulesWithExpression(
             int index,
             @Nonnull final T expression,
             @Nonnull final List<IDetectionRule<T>> nextDetectionRules) {
+        if (skipOutOfBudget(nextDetectionRules)) {
+            return;
+        }
         nextDetectionRules.stream()
                 .map(
                         iDetectionRule ->
@@ -493,6 +653,17 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
                         });
     }
 
+    /* the visits of skipped rules are still counted, so that the partial finding is emitted */
+    private boolean skipOutOfBudget(@Nonnull final List<IDetectionRule<T>> nextDetectionRules) {
+        if (!isOutOfBudget()) {
+            return false;
+        }
+        for (int i = 0; i < nextDetectionRules.size(); i++) {
+            this.statusReporting.incrementVisitedRules();
+        }
+        return true;
+    }
+
     public enum Scope {
         EXPRESSION,
         ENCLOSED_METHOD
@@ -503,12 +674,12 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
         if (this == o) return true;
         if (!(o instanceof DetectionStore<?, ?, ?, ?> that)) return false;
         return Objects.equals(detectionRule, that.detectionRule)
-                && Objects.equals(detectionValues, that.detectionValues)
+                && IndexedSlots.equal(detectionValues, that.detectionValues)
                 && Objects.equals(actionValue, that.actionValue);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(detectionRule, detectionValues, actionValue);
+        return Objects.hash(detectionRule, IndexedSlots.hash(detectionValues), actionValue);
     }
 }
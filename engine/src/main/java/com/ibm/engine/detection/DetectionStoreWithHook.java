@@ -24,7 +24,9 @@ import com.ibm.engine.hooks.*;
 import com.ibm.engine.language.IScanContext;
 import com.ibm.engine.rule.DetectableParameter;
 import com.ibm.engine.rule.IDetectionRule;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -32,6 +34,8 @@ import javax.annotation.Nullable;
 public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R, T, S, P> {
     @Nonnull private final DetectionStoreWithHook<R, T, S, P> hookRootDetectionStore;
     @Nonnull private final T invocationTree;
+    /* the context of the file that registered the hook, the findings of this store depend on it */
+    @Nonnull private final IScanContext<R, T> hookOriginScanContext;
 
     public DetectionStoreWithHook(
             final int level,
@@ -39,10 +43,12 @@ public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R,
             @Nonnull final IScanContext<R, T> scanContext,
             @Nonnull final Handler<R, T, S, P> handler,
             @Nonnull final IStatusReporting<R, T, S, P> statusReporting,
-            @Nonnull final T invocationTree) {
+            @Nonnull final T invocationTree,
+            @Nonnull final IScanContext<R, T> hookOriginScanContext) {
         super(level, detectionRule, scanContext, handler, statusReporting);
         this.invocationTree = invocationTree;
         this.hookRootDetectionStore = this;
+        this.hookOriginScanContext = hookOriginScanContext;
     }
 
     public DetectionStoreWithHook(
@@ -58,6 +64,18 @@ public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R,
                 hookRootDetectionStore.statusReporting);
         this.invocationTree = invocationTree;
         this.hookRootDetectionStore = hookRootDetectionStore;
+        this.hookOriginScanContext = hookRootDetectionStore.hookOriginScanContext;
+    }
+
+    /**
+     * Returns the context of the file in which the hook was registered. The scan context of this
+     * store is the one of the invocation, which can be located in another file.
+     *
+     * @return the scan context of the file that registered the hook
+     */
+    @Nonnull
+    public IScanContext<R, T> getHookOriginScanContext() {
+        return hookOriginScanContext;
     }
 
     public void onHookInvocation(
@@ -66,9 +84,9 @@ public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R,
     }
 
     public void onSuccessiveHook(@Nonnull final IHook<R, T, S, P> hook) {
-        if (!hook.isInvocationOn(invocationTree, handler.getLanguageSupport())) {
+        if (!handler.isInvocationOfHook(hook, invocationTree)) {
             // Add a hook to the hook repository
-            if (handler.addHookToHookRepository(hook)) {
+            if (registerHook(hook)) {
                 /*
                  * Subscribes to the hook detection observable for the given hook value and attaches the new
                  * Detection Store to it, so that it can receive detection events.
@@ -84,6 +102,9 @@ public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R,
             @Nonnull final T invocationTree,
             @Nonnull final IHook<R, T, S, P> hook,
             boolean isSuccessive) {
+        if (isOutOfBudget()) {
+            return;
+        }
         if (hook
                 instanceof
                 MethodInvocationHookWithParameterResolvement<R, T, S, P>
@@ -106,6 +127,29 @@ public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R,
         return false;
     }
 
+    @Nonnull
+    @Override
+    DetectionStore<R, T, S, P> newCopy(
+            @Nonnull IStatusReporting<R, T, S, P> statusReporting,
+            @Nonnull Map<DetectionStore<R, T, S, P>, DetectionStore<R, T, S, P>> copies) {
+        if (hookRootDetectionStore == this) {
+            return new DetectionStoreWithHook<>(
+                    level,
+                    detectionRule,
+                    scanContext,
+                    handler,
+                    statusReporting,
+                    invocationTree,
+                    hookOriginScanContext);
+        }
+        // the hook root is an ancestor of this store, it was copied first
+        return new DetectionStoreWithHook<>(
+                level,
+                detectionRule,
+                invocationTree,
+                (DetectionStoreWithHook<R, T, S, P>) copies.get(hookRootDetectionStore));
+    }
+
     private void handleMethodInvocationHookWithReturnResolvement(
             @Nonnull
                     final MethodInvocationHookWithReturnResolvement<R, T, S, P>
@@ -188,51 +232,38 @@ public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R,
         final TraceSymbol<S> traceSymbol =
                 Objects.requireNonNullElseGet(traceSymbolForParameter, TraceSymbol::createStart);
 
-        hook.getParameter().getDetectionRules().stream()
-                .map(
-                        iDetectionRule ->
-                                new DetectionStoreWithHook<>(
-                                        level + 1,
-                                        iDetectionRule,
-                                        invocationTree,
-                                        hookRootDetectionStore))
-                .forEach(
-                        newDetectionStore -> {
-                            attach(hook.getParameter().getIndex(), newDetectionStore);
-                            handler.getLanguageSupport()
-                                    .getBaseMethodVisitorFactory()
-                                    .create(
-                                            traceSymbol,
-                                            handler.getLanguageSupport()
-                                                    .createDetectionEngineInstance(
-                                                            newDetectionStore))
-                                    .visitMethodDefinition(hook.methodDefinition());
-                        });
+        final List<IDetectionEngine<T, S>> parameterDetectionEngines = new ArrayList<>();
+        for (IDetectionRule<T> iDetectionRule : hook.getParameter().getDetectionRules()) {
+            final DetectionStoreWithHook<R, T, S, P> newDetectionStore =
+                    new DetectionStoreWithHook<>(
+                            level + 1, iDetectionRule, invocationTree, hookRootDetectionStore);
+            attach(hook.getParameter().getIndex(), newDetectionStore);
+            parameterDetectionEngines.add(
+                    handler.getLanguageSupport().createDetectionEngineInstance(newDetectionStore));
+        }
+        if (!parameterDetectionEngines.isEmpty()) {
+            handler.getLanguageSupport()
+                    .getBaseMethodVisitorFactory()
+                    .create(traceSymbol, parameterDetectionEngines)
+                    .visitMethodDefinition(hook.methodDefinition());
+        }
 
         // add additional expected rule visits based on the size of the next detection rules
         statusReporting.addAdditionalExpectedRuleVisits(detectionRule.nextDetectionRules().size());
 
-        detectionRule.nextDetectionRules().stream()
-                .map(
-                        iDetectionRule ->
-                                new DetectionStoreWithHook<>(
-                                        level + 1,
-                                        iDetectionRule,
-                                        invocationTree,
-                                        hookRootDetectionStore))
-                .forEach(
-                        newDetectionStore -> {
-                            attach(newDetectionStore);
-                            statusReporting.incrementVisitedRules();
-                            handler.getLanguageSupport()
-                                    .getBaseMethodVisitorFactory()
-                                    .create(
-                                            TraceSymbol.createStart(),
-                                            handler.getLanguageSupport()
-                                                    .createDetectionEngineInstance(
-                                                            newDetectionStore))
-                                    .visitMethodDefinition(hook.methodDefinition());
-                        });
+        final List<IDetectionEngine<T, S>> nextDetectionEngines = new ArrayList<>();
+        for (IDetectionRule<T> iDetectionRule : detectionRule.nextDetectionRules()) {
+            final DetectionStoreWithHook<R, T, S, P> newDetectionStore =
+                    new DetectionStoreWithHook<>(
+                            level + 1, iDetectionRule, invocationTree, hookRootDetectionStore);
+            attach(newDetectionStore);
+            nextDetectionEngines.add(
+                    handler.getLanguageSupport().createDetectionEngineInstance(newDetectionStore));
+        }
+        if (!nextDetectionEngines.isEmpty()) {
+            visitMethodDefinitionOnce(
+                    hook.methodDefinition(), TraceSymbol.createStart(), nextDetectionEngines);
+        }
 
         // emit a finding to the status report if the root detection store contains any findings
         if (!isSuccessive) {
@@ -271,7 +302,7 @@ public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R,
         return Objects.equals(
                         this.hookRootDetectionStore.detectionRule,
                         that.hookRootDetectionStore.detectionRule)
-                && Objects.equals(
+                && IndexedSlots.equal(
                         this.hookRootDetectionStore.detectionValues,
                         that.hookRootDetectionStore.detectionValues)
                 && Objects.equals(
@@ -283,7 +314,7 @@ public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R,
     public int hashCode() {
         return Objects.hash(
                 this.hookRootDetectionStore.detectionRule,
-                this.hookRootDetectionStore.detectionValues,
+                IndexedSlots.hash(this.hookRootDetectionStore.detectionValues),
                 this.hookRootDetectionStore.actionValue);
     }
 }
@@ -22,22 +22,67 @@ package com.ibm.engine.detection;
 import com.ibm.common.IObserver;
 import com.ibm.engine.callstack.CallContext;
 import com.ibm.engine.callstack.CallStackAgent;
+import com.ibm.engine.executive.AnalysisBudget;
 import com.ibm.engine.hooks.HookDetectionObservable;
 import com.ibm.engine.hooks.HookRepository;
 import com.ibm.engine.hooks.IHook;
 import com.ibm.engine.hooks.IHookDetectionObserver;
 import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.IScanContext;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class Handler<R, T, S, P> {
+    /*
+     * All root rules matched against a node run one after the other, but they can trigger the
+     * analysis of other nodes in between. A few recent nodes are therefore kept.
+     */
+    private static final int MATCH_FACTS_CACHE_SIZE = 8;
+
     @Nonnull private final ILanguageSupport<R, T, S, P> languageSupport;
     @Nonnull private final CallStackAgent<R, T, S, P> callStackAgent;
     @Nonnull private final HookRepository<R, T, S, P> hookRepository;
     @Nonnull private final HookDetectionObservable<R, T, S, P> hookDetectionObservable;
+    /*
+     * The handler is shared by all files of a scan, and files can be analysed concurrently. State
+     * that only describes the file being analysed is kept per thread, the call stack and the hooks
+     * are shared across files.
+     */
+    @Nonnull
+    private final ThreadLocal<Deque<MatchFacts<T>>> matchFactsCache =
+            ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Nonnull
+    private final ThreadLocal<MethodInvocationIndex<T>> methodInvocationIndex =
+            ThreadLocal.withInitial(MethodInvocationIndex::new);
+
+    @Nonnull
+    private final ThreadLocal<DependingRuleMemo<R, T, S, P>> dependingRuleMemo =
+            ThreadLocal.withInitial(DependingRuleMemo::new);
+
+    /* the file analysed by the thread, owns the file scoped hooks registered meanwhile */
+    @Nonnull private final ThreadLocal<String> currentFilePath = new ThreadLocal<>();
+
+    /* null to use the limits selected for the analysis */
+    @Nullable private final AnalysisBudget.Limits budgetLimits;
+
+    @Nonnull private final ThreadLocal<AnalysisBudget> fileBudget;
+
+    @Nonnull private final AtomicLong storeIdCounter = new AtomicLong();
 
     public Handler(@Nonnull ILanguageSupport<R, T, S, P> languageSupport) {
+        this(languageSupport, null);
+    }
+
+    public Handler(
+            @Nonnull ILanguageSupport<R, T, S, P> languageSupport,
+            @Nullable AnalysisBudget.Limits budgetLimits) {
         this.languageSupport = languageSupport;
+        this.budgetLimits = budgetLimits;
+        this.fileBudget = ThreadLocal.withInitial(() -> AnalysisBudget.forFile(getBudgetLimits()));
         this.callStackAgent = new CallStackAgent<>(languageSupport);
         this.hookDetectionObservable = new HookDetectionObservable<>(this);
         this.hookRepository = new HookRepository<>(this);
@@ -48,6 +93,79 @@ public class Handler<R, T, S, P> {
         return languageSupport;
     }
 
+    /**
+     * Returns the {@link MatchFacts} for the given tree, which are shared by all detection rules
+     * matched against it.
+     *
+     * @param tree the visited tree
+     * @return the match facts for the tree, used as translation when matching rules
+     */
+    @Nonnull
+    public MatchFacts<T> getMatchFacts(@Nonnull T tree) {
+        final Deque<MatchFacts<T>> cache = matchFactsCache.get();
+        for (MatchFacts<T> matchFacts : cache) {
+            if (matchFacts.getExpression() == tree) {
+                return matchFacts;
+            }
+        }
+        final MatchFacts<T> matchFacts = new MatchFacts<>(tree, languageSupport.translation());
+        if (cache.size() >= MATCH_FACTS_CACHE_SIZE) {
+            cache.removeLast();
+        }
+        cache.addFirst(matchFacts);
+        return matchFacts;
+    }
+
+    @Nonnull
+    public AnalysisBudget.Limits getBudgetLimits() {
+        return budgetLimits != null ? budgetLimits : AnalysisBudget.Limits.selected();
+    }
+
+    /** Returns the budget of the file that is analysed by the current thread. */
+    @Nonnull
+    public AnalysisBudget getFileBudget() {
+        return fileBudget.get();
+    }
+
+    /** Returns the next id for a detection store, unique within the scan of this handler. */
+    public long nextStoreId() {
+        return storeIdCounter.incrementAndGet();
+    }
+
+    @Nonnull
+    DependingRuleMemo<R, T, S, P> getDependingRuleMemo() {
+        return dependingRuleMemo.get();
+    }
+
+    @Nonnull
+    public MethodInvocationIndex<T> getMethodInvocationIndex() {
+        return methodInvocationIndex.get();
+    }
+
+    /**
+     * Switches the per thread state to the file of the given scan context. If the thread analysed
+     * another file before, that file is finished and the hooks scoped to it are released. The
+     * budget of the new file starts.
+     *
+     * @param scanContext the context of the file that is analysed next
+     */
+    public void onNewFile(@Nonnull IScanContext<R, T> scanContext) {
+        final String filePath = scanContext.getFilePath();
+        final String previousFilePath = this.currentFilePath.get();
+        if (!filePath.equals(previousFilePath)) {
+            if (previousFilePath != null) {
+                this.hookRepository.releaseFileHooks(previousFilePath);
+            }
+            final AnalysisBudget budget = AnalysisBudget.forFile(getBudgetLimits());
+            budget.start();
+            this.fileBudget.set(budget);
+            this.dependingRuleMemo.get().clear();
+            this.currentFilePath.set(filePath);
+        }
+        this.methodInvocationIndex.get().onFile(filePath);
+        this.matchFactsCache.get().clear();
+    }
+
     public void addCallToCallStack(@Nonnull T tree, @Nonnull IScanContext<R, T> scanContext) {
         this.callStackAgent.addCall(tree, scanContext);
     }
@@ -59,7 +177,29 @@ public class Handler<R, T, S, P> {
     }
 
     public boolean addHookToHookRepository(@Nonnull IHook<R, T, S, P> hook) {
-        return this.hookRepository.add(hook);
+        return this.hookRepository.add(hook, currentFilePath.get());
+    }
+
+    /**
+     * Checks if hooks that can be invoked from other files were registered while the given file was
+     * analysed.
+     *
+     * @param filePath the analysed file
+     * @return true if the findings of other files can depend on the analysis of the file
+     */
+    public boolean hasScanScopedHooks(@Nonnull String filePath) {
+        return this.hookRepository.hasScanScopedHooks(filePath);
+    }
+
+    /**
+     * Checks if the given tree is an invocation of the given hook.
+     *
+     * @param hook the hook
+     * @param invocationTree the tree to check
+     * @return true if the tree invokes the hook
+     */
+    public boolean isInvocationOfHook(@Nonnull IHook<R, T, S, P> hook, @Nonnull T invocationTree) {
+        return this.hookRepository.isInvocationOf(hook, invocationTree);
     }
 
     public boolean deleteHookToHookRepository(@Nonnull IHook<R, T, S, P> hook) {
@@ -76,6 +216,15 @@ public class Handler<R, T, S, P> {
         this.hookDetectionObservable.unsubscribe(hook, listener);
     }
 
+    /**
+     * Removes all observers of the value of the given hook.
+     *
+     * @return the number of removed observers
+     */
+    public int releaseHookDetectionObservers(@Nonnull IHook<R, T, S, P> hook) {
+        return this.hookDetectionObservable.release(hook);
+    }
+
     public void notifyAllHookDetectionObservers(
             @Nonnull T invocationTree,
             @Nonnull IHook<R, T, S, P> hook,
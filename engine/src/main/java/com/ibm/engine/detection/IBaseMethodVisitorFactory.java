@@ -19,10 +19,17 @@
  */
 package com.ibm.engine.detection;
 
+import java.util.List;
 import javax.annotation.Nonnull;
 
 public interface IBaseMethodVisitorFactory<T, S> {
+    /**
+     * Creates a visitor that offers every relevant node of a method to those of the given detection
+     * engines whose rule could match it, in the order of the list. The method is walked only once
+     * per file, independent of the number of engines.
+     */
     @Nonnull
     IBaseMethodVisitor<T> create(
-            @Nonnull TraceSymbol<S> traceSymbol, IDetectionEngine<T, S> detectionEngine);
+            @Nonnull TraceSymbol<S> traceSymbol,
+            @Nonnull List<IDetectionEngine<T, S>> detectionEngines);
 }
@@ -20,6 +20,7 @@
 package com.ibm.engine.detection;
 
 import com.ibm.engine.model.factory.IValueFactory;
+import com.ibm.engine.rule.IDetectionRule;
 import com.ibm.engine.rule.Parameter;
 import java.util.LinkedList;
 import java.util.List;
@@ -28,6 +29,14 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public interface IDetectionEngine<T, S> {
+    /**
+     * Returns the detection rule this engine runs.
+     *
+     * @return the detection rule of the underlying detection store
+     */
+    @Nonnull
+    IDetectionRule<T> getDetectionRule();
+
     /**
      * Runs the IDetectionEngine on a given tree.
      *
@@ -0,0 +1,130 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Small map from a parameter index to the list of elements stored for it, iterated in ascending
+ * index order. A detection store only ever uses a handful of indices, so they are kept in a sorted
+ * array instead of a tree map. The flattened view of all elements is cached until the next change.
+ */
+final class IndexedSlots<E> {
+    private static final int INITIAL_CAPACITY = 2;
+
+    @Nonnull private int[] keys = new int[INITIAL_CAPACITY];
+    @Nonnull private Object[] slots = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+    @Nullable private List<E> values;
+
+    void add(int key, @Nonnull E element) {
+        final int position = Arrays.binarySearch(keys, 0, size, key);
+        if (position >= 0) {
+            slot(position).add(element);
+        } else {
+            final int insertion = -(position + 1);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(keys, insertion, keys, insertion + 1, size - insertion);
+            System.arraycopy(slots, insertion, slots, insertion + 1, size - insertion);
+            final List<E> slot = new ArrayList<>(1);
+            slot.add(element);
+            keys[insertion] = key;
+            slots[insertion] = slot;
+            size++;
+        }
+        values = null;
+    }
+
+    @Nullable List<E> get(int key) {
+        final int position = Arrays.binarySearch(keys, 0, size, key);
+        return position >= 0 ? slot(position) : null;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void forEach(@Nonnull BiConsumer<Integer, List<E>> consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(keys[i], Collections.unmodifiableList(slot(i)));
+        }
+    }
+
+    /** Returns all elements, ordered by index and then by insertion, as a read-only list. */
+    @Nonnull
+    List<E> values() {
+        if (values == null) {
+            final List<E> all = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                all.addAll(slot(i));
+            }
+            values = Collections.unmodifiableList(all);
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private List<E> slot(int position) {
+        return (List<E>) slots[position];
+    }
+
+    /** Compares two slot maps, treating a missing one as empty. */
+    static boolean equal(@Nullable IndexedSlots<?> a, @Nullable IndexedSlots<?> b) {
+        if (a == null || a.isEmpty()) {
+            return b == null || b.isEmpty();
+        }
+        return a.equals(b);
+    }
+
+    static int hash(@Nullable IndexedSlots<?> slots) {
+        return slots == null ? 0 : slots.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IndexedSlots<?> that) || size != that.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != that.keys[i] || !slots[i].equals(that.slots[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < size; i++) {
+            hash += keys[i] ^ slots[i].hashCode();
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import com.ibm.engine.language.ILanguageTranslation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Holds the facts about a single visited node that are required to match it against the detection
+ * rules: the method name, the arity, the type of the invoked object and the parameter types. Each
+ * fact is computed once, when a matcher asks for it for the first time, and is then shared by all
+ * rules matching the same node. The resolved types answer each queried type string only once.
+ *
+ * <p>This class acts as an {@link ILanguageTranslation} for the node it was created for; queries
+ * for other trees are forwarded to the underlying translation. The method name and the arity are
+ * assumed to be independent of the {@link MatchContext}.
+ */
+public final class MatchFacts<T> implements ILanguageTranslation<T> {
+    private static final int UNKNOWN_ARITY = -1;
+
+    @Nonnull private final T expression;
+    @Nonnull private final ILanguageTranslation<T> translation;
+
+    @Nullable private String methodName;
+    private boolean methodNameResolved = false;
+    private int arity = UNKNOWN_ARITY;
+    /* key: match context reduced to the properties relevant for the object type */
+    @Nonnull private final Map<MatchContext, Optional<IType>> invokedObjectTypes = new HashMap<>(4);
+    /* key: match context reduced to the properties relevant for the parameter types */
+    @Nonnull private final Map<MatchContext, List<IType>> parameterTypes = new HashMap<>(4);
+
+    public MatchFacts(@Nonnull T expression, @Nonnull ILanguageTranslation<T> translation) {
+        this.expression = expression;
+        this.translation = translation;
+    }
+
+    @Nonnull
+    public T getExpression() {
+        return expression;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> getMethodName(
+            @Nonnull MatchContext matchContext, @Nonnull T methodInvocation) {
+        if (methodInvocation != expression) {
+            return translation.getMethodName(matchContext, methodInvocation);
+        }
+        if (!methodNameResolved) {
+            methodName = translation.getMethodName(matchContext, expression).orElse(null);
+            methodNameResolved = true;
+        }
+        return Optional.ofNullable(methodName);
+    }
+
+    @Override
+    public int getMethodArity(@Nonnull MatchContext matchContext, @Nonnull T methodInvocation) {
+        if (methodInvocation != expression) {
+            return translation.getMethodArity(matchContext, methodInvocation);
+        }
+        if (arity == UNKNOWN_ARITY) {
+            arity = translation.getMethodArity(matchContext, expression);
+        }
+        return arity;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<IType> getInvokedObjectTypeString(
+            @Nonnull MatchContext matchContext, @Nonnull T methodInvocation) {
+        if (methodInvocation != expression) {
+            return translation.getInvokedObjectTypeString(matchContext, methodInvocation);
+        }
+        final MatchContext key =
+                new MatchContext(
+                        matchContext.isHookContext(),
+                        matchContext.objectShouldMatchExactTypes(),
+                        List.of());
+        return invokedObjectTypes.computeIfAbsent(
+                key,
+                k ->
+                        translation
+                                .getInvokedObjectTypeString(k, expression)
+                                .<IType>map(MemoizedType::new));
+    }
+
+    @Nonnull
+    @Override
+    public Optional<IType> getMethodReturnTypeString(
+            @Nonnull MatchContext matchContext, @Nonnull T methodInvocation) {
+        return translation.getMethodReturnTypeString(matchContext, methodInvocation);
+    }
+
+    @Nonnull
+    @Override
+    public List<IType> getMethodParameterTypes(
+            @Nonnull MatchContext matchContext, @Nonnull T methodInvocation) {
+        if (methodInvocation != expression) {
+            return translation.getMethodParameterTypes(matchContext, methodInvocation);
+        }
+        final int numberOfArguments = getMethodArity(matchContext, expression);
+        final boolean isHookContext = matchContext.isHookContext();
+        final List<Boolean> exactTypes = matchContext.parametersShouldMatchExactTypes();
+        if (isHookContext
+                || exactTypes.size() != numberOfArguments
+                || !exactTypes.contains(true)) {
+            // every parameter is matched in the same way
+            return getParameterTypes(isHookContext, false);
+        }
+        // mixed: pick the exact or the non-exact type per parameter
+        final List<IType> nonExact = getParameterTypes(false, false);
+        final List<IType> exact = getParameterTypes(false, true);
+        final List<IType> types = new ArrayList<>(nonExact.size());
+        for (int i = 0; i < nonExact.size(); i++) {
+            types.add(Boolean.TRUE.equals(exactTypes.get(i)) ? exact.get(i) : nonExact.get(i));
+        }
+        return types;
+    }
+
+    @Nonnull
+    private List<IType> getParameterTypes(boolean isHookContext, boolean exact) {
+        final int numberOfArguments =
+                getMethodArity(new MatchContext(isHookContext, false, List.of()), expression);
+        final MatchContext key =
+                new MatchContext(
+                        isHookContext,
+                        false,
+                        exact ? Collections.nCopies(numberOfArguments, true) : List.of());
+        return parameterTypes.computeIfAbsent(
+                key,
+                k ->
+                        translation.getMethodParameterTypes(k, expression).stream()
+                                .<IType>map(MemoizedType::new)
+                                .toList());
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> resolveIdentifierAsString(
+            @Nonnull MatchContext matchContext, @Nonnull T identifierTree) {
+        return translation.resolveIdentifierAsString(matchContext, identifierTree);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> getEnumIdentifierName(
+            @Nonnull MatchContext matchContext, @Nonnull T enumIdentifier) {
+        return translation.getEnumIdentifierName(matchContext, enumIdentifier);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> getEnumClassName(
+            @Nonnull MatchContext matchContext, @Nonnull T enumClass) {
+        return translation.getEnumClassName(matchContext, enumClass);
+    }
+
+    /** An {@link IType} that answers each queried type string only once. */
+    private static final class MemoizedType implements IType {
+        @Nonnull private final IType type;
+        @Nonnull private final Map<String, Boolean> answers = new HashMap<>();
+
+        private MemoizedType(@Nonnull IType type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean is(@Nonnull String typeString) {
+            final Boolean answer = answers.get(typeString);
+            if (answer != null) {
+                return answer;
+            }
+            final boolean result = type.is(typeString);
+            answers.put(typeString, result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+/**
+ * Counts, for all {@link MethodMatcher} evaluations of a scan, at which stage a node was rejected.
+ * The stages are evaluated from the cheapest to the most expensive one, so a high number of
+ * rejections at the first stage means that most of the semantic queries were avoided.
+ */
+public final class MatchStatistics {
+
+    public enum Stage {
+        METHOD_NAME,
+        ARITY,
+        INVOKED_OBJECT_TYPE,
+        PARAMETER_TYPES
+    }
+
+    @Nonnull private static final Map<Stage, LongAdder> REJECTIONS = new EnumMap<>(Stage.class);
+    @Nonnull private static final LongAdder MATCHES = new LongAdder();
+
+    static {
+        for (Stage stage : Stage.values()) {
+            REJECTIONS.put(stage, new LongAdder());
+        }
+    }
+
+    private MatchStatistics() {
+        // nothing
+    }
+
+    static void reject(@Nonnull Stage stage) {
+        REJECTIONS.get(stage).increment();
+    }
+
+    static void match() {
+        MATCHES.increment();
+    }
+
+    public static long getRejections(@Nonnull Stage stage) {
+        return REJECTIONS.get(stage).sum();
+    }
+
+    public static long getMatches() {
+        return MATCHES.sum();
+    }
+
+    public static void reset() {
+        REJECTIONS.values().forEach(LongAdder::reset);
+        MATCHES.reset();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import com.ibm.engine.rule.RuleDispatchIndex;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Per-file index of the invocations (and other nodes relevant for the detection) inside a method
+ * definition. Depending rules, hooks and the resolution of return values analyse the same
+ * enclosing methods again and again; with this index every method is traversed only once per
+ * file.
+ *
+ * <p>The invocations are grouped by dispatch key, which is the name of the invoked method or of the
+ * instantiated type (see {@link RuleDispatchIndex#dispatchKeysOf}), so that a rule only looks at
+ * the invocations it can match. The nodes are kept in the order in which a traversal of the method
+ * would visit them. The index is dropped as soon as a new file is scanned, to keep the memory
+ * bounded.
+ */
+public final class MethodInvocationIndex<T> {
+    @Nonnull private final Map<T, Invocations<T>> invocationsByMethod = new IdentityHashMap<>();
+    @Nullable private String currentFilePath;
+
+    /**
+     * The invocations and return statements inside one method definition.
+     *
+     * @param <T> the type of the tree nodes
+     */
+    public static final class Invocations<T> {
+        @Nonnull private final List<T> invocations;
+        /* dispatch key -> positions of the invocations with this key */
+        @Nonnull private final Map<String, BitSet> positionsByKey;
+        @Nonnull private final List<T> returnStatements;
+
+        private Invocations(
+                @Nonnull List<T> invocations,
+                @Nonnull Map<String, BitSet> positionsByKey,
+                @Nonnull List<T> returnStatements) {
+            this.invocations = invocations;
+            this.positionsByKey = positionsByKey;
+            this.returnStatements = returnStatements;
+        }
+
+        @Nonnull
+        public static <T> Builder<T> builder() {
+            return new Builder<>();
+        }
+
+        /** Returns all invocations, in visiting order. */
+        @Nonnull
+        public List<T> all() {
+            return invocations;
+        }
+
+        /**
+         * Returns the positions in {@link #all()} of the invocations with one of the given keys.
+         *
+         * @param keys the dispatch keys, or {@code null} for all invocations
+         * @return the positions, as a new bit set
+         */
+        @Nonnull
+        public BitSet positions(@Nullable Collection<String> keys) {
+            final BitSet positions = new BitSet(invocations.size());
+            if (keys == null) {
+                positions.set(0, invocations.size());
+                return positions;
+            }
+            for (String key : keys) {
+                final BitSet keyPositions = positionsByKey.get(key);
+                if (keyPositions != null) {
+                    positions.or(keyPositions);
+                }
+            }
+            return positions;
+        }
+
+        /**
+         * Runs every detection engine on the invocations its rule could match. The invocations are
+         * offered in visiting order, and at every invocation the engines run in the order of the
+         * list.
+         *
+         * @param traceSymbol the trace symbol the engines run with
+         * @param detectionEngines the detection engines
+         */
+        public <S> void runEngines(
+                @Nonnull TraceSymbol<S> traceSymbol,
+                @Nonnull List<IDetectionEngine<T, S>> detectionEngines) {
+            final BitSet[] positionsByEngine = new BitSet[detectionEngines.size()];
+            final BitSet allPositions = new BitSet(invocations.size());
+            for (int i = 0; i < positionsByEngine.length; i++) {
+                positionsByEngine[i] =
+                        positions(
+                                RuleDispatchIndex.dispatchKeysOf(
+                                        detectionEngines.get(i).getDetectionRule()));
+                allPositions.or(positionsByEngine[i]);
+            }
+            for (int position = allPositions.nextSetBit(0);
+                    position >= 0;
+                    position = allPositions.nextSetBit(position + 1)) {
+                final T invocation = invocations.get(position);
+                for (int i = 0; i < positionsByEngine.length; i++) {
+                    if (positionsByEngine[i].get(position)) {
+                        detectionEngines.get(i).run(traceSymbol, invocation);
+                    }
+                }
+            }
+        }
+
+        /** Returns the return statements, in visiting order. */
+        @Nonnull
+        public List<T> returnStatements() {
+            return returnStatements;
+        }
+    }
+
+    /**
+     * Collects the nodes of a method definition in visiting order.
+     *
+     * @param <T> the type of the tree nodes
+     */
+    public static final class Builder<T> {
+        @Nonnull private final List<T> invocations = new ArrayList<>();
+        @Nonnull private final Map<String, BitSet> positionsByKey = new HashMap<>();
+        @Nonnull private final List<T> returnStatements = new ArrayList<>();
+
+        private Builder() {
+            // use Invocations.builder()
+        }
+
+        /**
+         * Adds an invocation.
+         *
+         * @param invocation the invocation
+         * @param keys the dispatch keys of the invocation, none if no rule with a named matcher
+         *     can match it
+         */
+        @Nonnull
+        public Builder<T> addInvocation(@Nonnull T invocation, @Nonnull Collection<String> keys) {
+            final int position = invocations.size();
+            invocations.add(invocation);
+            keys.forEach(
+                    key -> positionsByKey.computeIfAbsent(key, k -> new BitSet()).set(position));
+            return this;
+        }
+
+        @Nonnull
+        public Builder<T> addReturnStatement(@Nonnull T returnStatement) {
+            returnStatements.add(returnStatement);
+            return this;
+        }
+
+        @Nonnull
+        public Invocations<T> build() {
+            return new Invocations<>(
+                    Collections.unmodifiableList(new ArrayList<>(invocations)),
+                    Map.copyOf(positionsByKey),
+                    Collections.unmodifiableList(new ArrayList<>(returnStatements)));
+        }
+    }
+
+    /**
+     * Returns the invocations inside the given method definition, collecting them with the given
+     * collector if the method was not indexed yet.
+     *
+     * @param methodDefinition the method definition
+     * @param collector traverses a method definition and collects its nodes in visiting order
+     * @return the invocations inside the method definition
+     */
+    @Nonnull
+    public synchronized Invocations<T> getInvocations(
+            @Nonnull T methodDefinition, @Nonnull Function<T, Invocations<T>> collector) {
+        return invocationsByMethod.computeIfAbsent(methodDefinition, collector);
+    }
+
+    /**
+     * Drops the index if the given file is not the one the index was built for.
+     *
+     * @param filePath the path of the file that is scanned next
+     */
+    public synchronized void onFile(@Nonnull String filePath) {
+        if (!Objects.equals(currentFilePath, filePath)) {
+            invocationsByMethod.clear();
+            currentFilePath = filePath;
+        }
+    }
+
+    public synchronized int size() {
+        return invocationsByMethod.size();
+    }
+}
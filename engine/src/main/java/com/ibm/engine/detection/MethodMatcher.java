@@ -30,10 +30,16 @@ import org.sonarsource.analyzer.commons.collections.SetUtils;
 
 public final class MethodMatcher<T> {
     public static final String ANY = "*";
+    public static final int ANY_ARITY = -1;
 
     @Nonnull private final Predicate<IType> invokedObjectTypeString;
     @Nonnull private final Predicate<String> methodName;
     @Nonnull private final Predicate<List<IType>> parameterTypes;
+    /*
+     * The expected number of arguments, or ANY_ARITY if the matcher accepts any parameters.
+     * It is checked before the parameter types, since it does not require any type resolution.
+     */
+    private final int arity;
 
     /*
      * The following attributes are only used for serializing the MethodMatcher class (see
@@ -52,6 +58,7 @@ public final class MethodMatcher<T> {
         this.invokedObjectTypeStringsSerializable = List.of(invokedObjectTypeString);
         this.methodNamesSerializable = List.of(methodName);
         this.parameterTypesSerializable = parameterTypes;
+        this.arity = parameterTypes.size();
 
         this.invokedObjectTypeString =
                 createPredicate(invokedObjectTypeString, (type1 -> (iType -> iType.is(type1))));
@@ -77,6 +84,7 @@ public final class MethodMatcher<T> {
         this.invokedObjectTypeStringsSerializable = Arrays.asList(invokedObjectTypeStrings);
         this.methodNamesSerializable = Arrays.asList(methodNames);
         this.parameterTypesSerializable = parameterTypes;
+        this.arity = parameterTypes.size();
 
         this.invokedObjectTypeString =
                 createPredicate(
@@ -104,6 +112,7 @@ public final class MethodMatcher<T> {
         this.invokedObjectTypeStringsSerializable = Arrays.asList(invokedObjectTypeStrings);
         this.methodNamesSerializable = Arrays.asList(methodNames);
         this.parameterTypesSerializable = List.of();
+        this.arity = ANY_ARITY;
 
         this.invokedObjectTypeString =
                 createPredicate(
@@ -156,22 +165,52 @@ public final class MethodMatcher<T> {
         return true;
     }
 
+    /**
+     * Checks if the given expression matches this matcher. The checks are staged from the cheapest
+     * to the most expensive one: the method name, the number of arguments, the type of the invoked
+     * object and finally the parameter types. The translation is only queried for the information
+     * required by the current stage, so that most expressions are rejected without resolving any
+     * type.
+     *
+     * @param expression the expression to match
+     * @param translation the language translation used to extract the information to match
+     * @param matchContext the context of the matching procedure
+     * @return true if the expression matches
+     */
     public boolean match(
             @Nonnull T expression,
             @Nonnull ILanguageTranslation<T> translation,
             @Nonnull MatchContext matchContext) {
-        Optional<IType> invokedObjectType =
+        final Optional<String> invokedMethodName =
+                translation.getMethodName(matchContext, expression);
+        if (invokedMethodName.isEmpty() || !this.methodName.test(invokedMethodName.get())) {
+            MatchStatistics.reject(MatchStatistics.Stage.METHOD_NAME);
+            return false;
+        }
+
+        if (this.arity != ANY_ARITY
+                && translation.getMethodArity(matchContext, expression) != this.arity) {
+            MatchStatistics.reject(MatchStatistics.Stage.ARITY);
+            return false;
+        }
+
+        final Optional<IType> invokedObjectType =
                 translation.getInvokedObjectTypeString(matchContext, expression);
-        Optional<String> invokedMethodName = translation.getMethodName(matchContext, expression);
-        List<IType> param = translation.getMethodParameterTypes(matchContext, expression);
+        if (invokedObjectType.isEmpty()
+                || !this.invokedObjectTypeString.test(invokedObjectType.get())) {
+            MatchStatistics.reject(MatchStatistics.Stage.INVOKED_OBJECT_TYPE);
+            return false;
+        }
 
-        if (invokedObjectType.isEmpty() || invokedMethodName.isEmpty()) {
+        if (this.arity != ANY_ARITY
+                && !this.parameterTypes.test(
+                        translation.getMethodParameterTypes(matchContext, expression))) {
+            MatchStatistics.reject(MatchStatistics.Stage.PARAMETER_TYPES);
             return false;
         }
 
-        return this.invokedObjectTypeString.test(invokedObjectType.get())
-                && this.methodName.test(invokedMethodName.get())
-                && this.parameterTypes.test(param);
+        MatchStatistics.match();
+        return true;
     }
 
     @Nonnull
@@ -188,4 +227,13 @@ public final class MethodMatcher<T> {
     public List<String> getParameterTypesSerializable() {
         return this.parameterTypesSerializable;
     }
+
+    /**
+     * Returns the number of arguments an invocation needs to have to be matched.
+     *
+     * @return the expected number of arguments, or {@link #ANY_ARITY}
+     */
+    public int getArity() {
+        return this.arity;
+    }
 }
@@ -58,6 +58,11 @@ public final class TraceSymbol<S> {
         return symbol;
     }
 
+    @Nonnull
+    public State getState() {
+        return state;
+    }
+
     @Nonnull
     public static <S> TraceSymbol<S> createFrom(@Nullable S symbol) {
         return new TraceSymbol<>(symbol, State.SYMBOL);
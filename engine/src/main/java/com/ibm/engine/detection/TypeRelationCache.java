@@ -0,0 +1,151 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Memo of subtype relations between resolved types and fully qualified supertype names. Most rules
+ * match the invoked object type by subtype, and the same pairs (e.g. a resolved type and {@code
+ * org.bouncycastle.crypto.BlockCipher}) are queried over and over again. Each of those queries goes
+ * through the hierarchy resolution of the language frontend, so the answer is computed once and
+ * shared between all rules.
+ *
+ * <p>The relations are keyed by the identity of the resolved type object of the frontend, not by
+ * its name: the same name can resolve to different types in different modules, since each module
+ * has its own classpath. The types are only weakly referenced, so the relations of a type are
+ * dropped together with the semantic model that resolved it.
+ *
+ * <p>The cache is bounded: when it holds {@link #MAX_TYPES} types it is cleared and filled again.
+ * Callers must only use it for resolved types (no unknown types or type variables).
+ */
+public final class TypeRelationCache {
+    public static final int MAX_TYPES = 1 << 14;
+
+    /* a weak reference to a resolved type, compared by the identity of the type */
+    private static final class TypeKey extends WeakReference<Object> {
+        private final int hash;
+
+        TypeKey(@Nonnull Object type, @Nullable ReferenceQueue<Object> queue) {
+            super(type, queue);
+            this.hash = System.identityHashCode(type);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof TypeKey otherKey)) {
+                return false;
+            }
+            final Object type = get();
+            return type != null && type == otherKey.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Nonnull
+    private static final Map<TypeKey, Map<String, Boolean>> RELATIONS = new ConcurrentHashMap<>();
+
+    @Nonnull private static final ReferenceQueue<Object> RELEASED = new ReferenceQueue<>();
+
+    @Nonnull private static final LongAdder HITS = new LongAdder();
+    @Nonnull private static final LongAdder MISSES = new LongAdder();
+
+    private TypeRelationCache() {
+        // nothing
+    }
+
+    /**
+     * Returns whether {@code type} is a subtype of {@code supertypeName}, using {@code relation}
+     * to compute the answer if it is not cached yet.
+     *
+     * @param type the resolved type object of the language frontend
+     */
+    public static boolean isSubtypeOf(
+            @Nonnull Object type,
+            @Nonnull String supertypeName,
+            @Nonnull BooleanSupplier relation) {
+        removeReleasedTypes();
+        Map<String, Boolean> supertypes = RELATIONS.get(new TypeKey(type, null));
+        final Boolean cached = supertypes == null ? null : supertypes.get(supertypeName);
+        if (cached != null) {
+            HITS.increment();
+            return cached;
+        }
+        MISSES.increment();
+        final boolean result = relation.getAsBoolean();
+        if (supertypes == null) {
+            if (RELATIONS.size() >= MAX_TYPES) {
+                RELATIONS.clear();
+            }
+            supertypes =
+                    RELATIONS.computeIfAbsent(
+                            new TypeKey(type, RELEASED), k -> new ConcurrentHashMap<>());
+        }
+        supertypes.put(supertypeName, result);
+        return result;
+    }
+
+    private static void removeReleasedTypes() {
+        Reference<?> released = RELEASED.poll();
+        while (released != null) {
+            RELATIONS.remove(released);
+            released = RELEASED.poll();
+        }
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    /** Returns the number of types with cached relations. */
+    public static int size() {
+        return RELATIONS.size();
+    }
+
+    /** Zeroes the counters. The relations are kept, they stay valid as long as their types live. */
+    public static void reset() {
+        HITS.reset();
+        MISSES.reset();
+    }
+
+    /** Forgets all relations. */
+    public static void clear() {
+        RELATIONS.clear();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.executive;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Bounds the work spent on a single file or on a single finding (the detection started by a root
+ * {@link DetectionExecutive}). Value resolution and hooks can follow long assignment and call
+ * chains, e.g. in generated code. Once a budget is exceeded, the detection stops following rules
+ * and hooks, and the values found so far are emitted as a partial finding.
+ *
+ * <p>No limit is set by default. The limits are selected from the properties of the analysis (see
+ * {@link Limits#select(Limits)}), or read from system properties (see {@link
+ * Limits#fromSystemProperties()}); a limit that is not positive disables the corresponding check.
+ */
+public final class AnalysisBudget {
+    public static final String MAX_RESOLUTION_DEPTH_PROPERTY =
+            "sonar.cryptoScanner.budget.maxResolutionDepth";
+    public static final String MAX_HOOKS_PER_FILE_PROPERTY =
+            "sonar.cryptoScanner.budget.maxHooksPerFile";
+    public static final String MAX_HOOKS_PER_FINDING_PROPERTY =
+            "sonar.cryptoScanner.budget.maxHooksPerFinding";
+    public static final String MAX_MILLIS_PER_FILE_PROPERTY =
+            "sonar.cryptoScanner.budget.maxMillisPerFile";
+    public static final String MAX_MILLIS_PER_FINDING_PROPERTY =
+            "sonar.cryptoScanner.budget.maxMillisPerFinding";
+
+    public enum Reason {
+        RESOLUTION_DEPTH,
+        HOOK_REGISTRATIONS,
+        TIME
+    }
+
+    public record Limits(
+            int maxResolutionDepth,
+            int maxHooksPerFile,
+            int maxHooksPerFinding,
+            long maxMillisPerFile,
+            long maxMillisPerFinding) {
+        @Nonnull public static final Limits UNLIMITED = new Limits(0, 0, 0, 0, 0);
+
+        @Nullable private static volatile Limits selected;
+
+        @Nonnull
+        public static Limits fromSystemProperties() {
+            return from(System::getProperty);
+        }
+
+        /**
+         * Reads the limits from the given properties, missing or invalid values disable the
+         * corresponding check.
+         *
+         * @param properties returns the value of a property, or null if it is not set
+         * @return the limits
+         */
+        @Nonnull
+        public static Limits from(@Nonnull UnaryOperator<String> properties) {
+            return new Limits(
+                    (int) readLimit(properties.apply(MAX_RESOLUTION_DEPTH_PROPERTY)),
+                    (int) readLimit(properties.apply(MAX_HOOKS_PER_FILE_PROPERTY)),
+                    (int) readLimit(properties.apply(MAX_HOOKS_PER_FINDING_PROPERTY)),
+                    readLimit(properties.apply(MAX_MILLIS_PER_FILE_PROPERTY)),
+                    readLimit(properties.apply(MAX_MILLIS_PER_FINDING_PROPERTY)));
+        }
+
+        /** Returns the selected limits, or the ones of the system properties if none were. */
+        @Nonnull
+        public static Limits selected() {
+            Limits limits = selected;
+            if (limits == null) {
+                limits = fromSystemProperties();
+                selected = limits;
+            }
+            return limits;
+        }
+
+        /** Selects the limits of the analysis, e.g. from the properties of the project. */
+        public static void select(@Nonnull Limits limits) {
+            selected = limits;
+        }
+
+        public boolean allowsResolutionDepth(int depth) {
+            return maxResolutionDepth <= 0 || depth <= maxResolutionDepth;
+        }
+
+        private static long readLimit(@Nullable String value) {
+            if (value == null || value.isBlank()) {
+                return 0;
+            }
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+
+    @Nonnull private static final Map<Reason, LongAdder> EXCEEDED = new EnumMap<>(Reason.class);
+    @Nonnull private static final LongAdder PARTIAL_FINDINGS = new LongAdder();
+
+    static {
+        for (Reason reason : Reason.values()) {
+            EXCEEDED.put(reason, new LongAdder());
+        }
+    }
+
+    private final int maxHooks;
+    private final long maxMillis;
+    @Nonnull private final AtomicInteger hooks = new AtomicInteger();
+    private volatile long deadline = Long.MAX_VALUE;
+    @Nullable private volatile Reason exceededReason;
+
+    private AnalysisBudget(int maxHooks, long maxMillis) {
+        this.maxHooks = maxHooks;
+        this.maxMillis = maxMillis;
+    }
+
+    @Nonnull
+    public static AnalysisBudget forFile(@Nonnull Limits limits) {
+        return new AnalysisBudget(limits.maxHooksPerFile(), limits.maxMillisPerFile());
+    }
+
+    @Nonnull
+    public static AnalysisBudget forFinding(@Nonnull Limits limits) {
+        return new AnalysisBudget(limits.maxHooksPerFinding(), limits.maxMillisPerFinding());
+    }
+
+    /** Starts the clock of the budget. Without a running clock, the time is not limited. */
+    public void start() {
+        if (maxMillis > 0) {
+            this.deadline = System.currentTimeMillis() + maxMillis;
+        }
+    }
+
+    /**
+     * Stops the clock of the budget. Work that continues later (e.g. when a hook fires while
+     * another file is analysed) is bounded by the budget of that file instead.
+     */
+    public void stop() {
+        this.deadline = Long.MAX_VALUE;
+    }
+
+    /** Returns true if the budget was exceeded, checking the clock first. */
+    public boolean isExhausted() {
+        if (exceededReason != null) {
+            return true;
+        }
+        if (deadline != Long.MAX_VALUE && System.currentTimeMillis() > deadline) {
+            exceed(Reason.TIME);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean hasHookRegistrationsLeft() {
+        if (maxHooks > 0 && hooks.get() >= maxHooks) {
+            exceed(Reason.HOOK_REGISTRATIONS);
+            return false;
+        }
+        return true;
+    }
+
+    public void onHookRegistered() {
+        hooks.incrementAndGet();
+    }
+
+    /** Marks the budget as exceeded; only the first reason is kept and counted. */
+    public synchronized void exceed(@Nonnull Reason reason) {
+        if (exceededReason == null) {
+            exceededReason = reason;
+            EXCEEDED.get(reason).increment();
+        }
+    }
+
+    public boolean isExceeded() {
+        return exceededReason != null;
+    }
+
+    @Nullable public Reason getExceededReason() {
+        return exceededReason;
+    }
+
+    static void partialFinding() {
+        PARTIAL_FINDINGS.increment();
+    }
+
+    /** Returns the number of file and finding budgets that were exceeded for the reason. */
+    public static long getExceeded(@Nonnull Reason reason) {
+        return EXCEEDED.get(reason).sum();
+    }
+
+    public static long getPartialFindings() {
+        return PARTIAL_FINDINGS.sum();
+    }
+
+    public static void reset() {
+        EXCEEDED.values().forEach(LongAdder::reset);
+        PARTIAL_FINDINGS.reset();
+    }
+}
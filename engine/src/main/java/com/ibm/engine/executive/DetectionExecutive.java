@@ -26,19 +26,22 @@ import com.ibm.engine.detection.Finding;
 import com.ibm.engine.detection.Handler;
 import com.ibm.engine.language.IScanContext;
 import com.ibm.engine.rule.IDetectionRule;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 
 public class DetectionExecutive<R, T, S, P>
         implements IStatusReporting<R, T, S, P>, IDomainEvent<Finding<R, T, S, P>> {
-    @Nonnull private final List<IObserver<Finding<R, T, S, P>>> listeners = new ArrayList<>();
+    @Nonnull
+    private final List<IObserver<Finding<R, T, S, P>>> listeners = new CopyOnWriteArrayList<>();
 
     @Nonnull private final DetectionStore<R, T, S, P> rootDetectionStore;
     @Nonnull private final T tree;
-    private int expectedRuleVisits;
-    private int visitedRules = 0;
+    /* hooks can continue the detection from the thread that analyses another file */
+    @Nonnull private final AtomicInteger pendingRuleVisits = new AtomicInteger(1);
+    @Nonnull private final AnalysisBudget analysisBudget;
 
     public DetectionExecutive(
             @Nonnull final T tree,
@@ -46,13 +49,18 @@ public class DetectionExecutive<R, T, S, P>
             @Nonnull final IScanContext<R, T> scanContext,
             @Nonnull final Handler<R, T, S, P> handler) {
         this.tree = tree;
-        this.expectedRuleVisits = 1;
+        this.analysisBudget = AnalysisBudget.forFinding(handler.getBudgetLimits());
         this.rootDetectionStore =
                 new DetectionStore<>(0, detectionRule, scanContext, handler, this);
     }
 
     public void start() {
-        this.rootDetectionStore.analyse(tree);
+        this.analysisBudget.start();
+        try {
+            this.rootDetectionStore.analyse(tree);
+        } finally {
+            this.analysisBudget.stop();
+        }
     }
 
     @Override
@@ -60,27 +68,41 @@ public class DetectionExecutive<R, T, S, P>
         emitFinding(this.rootDetectionStore);
     }
 
+    /*
+     * The pending visits are one counter, so the check cannot pair the expected visits before a
+     * hook with the visits after it; the lock notifies the findings of concurrent hooks one by one.
+     */
     @Override
-    public void emitFinding(@Nonnull final DetectionStore<R, T, S, P> rootDetectionStore) {
-        if (this.expectedRuleVisits != this.visitedRules) {
+    public synchronized void emitFinding(
+            @Nonnull final DetectionStore<R, T, S, P> rootDetectionStore) {
+        if (this.pendingRuleVisits.get() != 0) {
             return;
         }
         getRootStoresWithValue(rootDetectionStore)
                 .forEach(
                         store -> {
                             final Finding<R, T, S, P> finding = new Finding<>(store);
+                            if (analysisBudget.isExceeded()) {
+                                AnalysisBudget.partialFinding();
+                            }
                             this.notify(finding);
                         });
     }
 
     @Override
     public void incrementVisitedRules() {
-        this.visitedRules += 1;
+        this.pendingRuleVisits.decrementAndGet();
     }
 
     @Override
     public void addAdditionalExpectedRuleVisits(int number) {
-        this.expectedRuleVisits += number;
+        this.pendingRuleVisits.addAndGet(number);
+    }
+
+    @Nonnull
+    @Override
+    public AnalysisBudget getAnalysisBudget() {
+        return analysisBudget;
     }
 
     @Nonnull
@@ -30,4 +30,8 @@ public interface IStatusReporting<R, T, S, P> {
     void incrementVisitedRules();
 
     void addAdditionalExpectedRuleVisits(int number);
+
+    /** Returns the budget of the finding the reporting detection stores belong to. */
+    @Nonnull
+    AnalysisBudget getAnalysisBudget();
 }
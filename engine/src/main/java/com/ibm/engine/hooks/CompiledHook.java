@@ -0,0 +1,114 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.hooks;
+
+import com.ibm.engine.detection.EnumMatcher;
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.ILanguageTranslation;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A hook together with its matcher, which is created once when the hook is registered instead of
+ * on every check against an invocation.
+ */
+final class CompiledHook<R, T, S, P> {
+    @Nonnull private final IHook<R, T, S, P> hook;
+    private final long sequence;
+    @Nonnull private final HookScope scope;
+    @Nullable private final MethodMatcher<T> methodMatcher;
+    @Nullable private final EnumMatcher<T> enumMatcher;
+    /* the names of the invocations the hook can match, empty if it can not match any */
+    @Nonnull private final List<String> names;
+
+    private CompiledHook(
+            @Nonnull IHook<R, T, S, P> hook,
+            long sequence,
+            @Nonnull HookScope scope,
+            @Nullable MethodMatcher<T> methodMatcher,
+            @Nullable EnumMatcher<T> enumMatcher,
+            @Nonnull List<String> names) {
+        this.hook = hook;
+        this.sequence = sequence;
+        this.scope = scope;
+        this.methodMatcher = methodMatcher;
+        this.enumMatcher = enumMatcher;
+        this.names = names;
+    }
+
+    @Nonnull
+    static <R, T, S, P> CompiledHook<R, T, S, P> compile(
+            @Nonnull IHook<R, T, S, P> hook,
+            long sequence,
+            @Nonnull HookScope scope,
+            @Nonnull ILanguageSupport<R, T, S, P> languageSupport) {
+        if (hook instanceof EnumHook<R, T, S, P> enumHook) {
+            final EnumMatcher<T> enumMatcher =
+                    languageSupport.createSimpleEnumMatcherFor(
+                            enumHook.hookValue(), enumHook.matchContext());
+            final List<String> names =
+                    languageSupport
+                            .translation()
+                            .getEnumIdentifierName(enumHook.matchContext(), enumHook.hookValue())
+                            .map(List::of)
+                            .orElse(List.of());
+            return new CompiledHook<>(hook, sequence, scope, null, enumMatcher, names);
+        }
+        final MethodMatcher<T> methodMatcher =
+                languageSupport.createMethodMatcherBasedOn(hook.hookValue());
+        final List<String> names =
+                methodMatcher == null ? List.of() : methodMatcher.getMethodNamesSerializable();
+        return new CompiledHook<>(hook, sequence, scope, methodMatcher, null, names);
+    }
+
+    @Nonnull
+    IHook<R, T, S, P> hook() {
+        return hook;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    @Nonnull
+    HookScope scope() {
+        return scope;
+    }
+
+    @Nonnull
+    List<String> names() {
+        return names;
+    }
+
+    int arity() {
+        return methodMatcher == null ? MethodMatcher.ANY_ARITY : methodMatcher.getArity();
+    }
+
+    boolean matches(@Nonnull T invocationTree, @Nonnull ILanguageTranslation<T> translation) {
+        if (methodMatcher != null) {
+            return methodMatcher.match(invocationTree, translation, hook.matchContext());
+        } else if (enumMatcher != null) {
+            return enumMatcher.match(invocationTree, translation, hook.matchContext());
+        }
+        return false;
+    }
+}
@@ -21,15 +21,16 @@ package com.ibm.engine.hooks;
 
 import com.ibm.engine.detection.Handler;
 import com.ibm.engine.language.IScanContext;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.annotation.Nonnull;
 
 public class HookDetectionObservable<R, T, S, P> implements IHookDetectionObservable<R, T, S, P> {
     @Nonnull
-    private final Map<T, List<IHookDetectionObserver<R, T, S, P>>> listeners = new HashMap<>();
+    private final Map<T, List<IHookDetectionObserver<R, T, S, P>>> listeners =
+            new ConcurrentHashMap<>();
 
     @Nonnull private final Handler<R, T, S, P> handler;
 
@@ -40,8 +41,9 @@ public class HookDetectionObservable<R, T, S, P> implements IHookDetectionObserv
     @Override
     public void subscribe(
             @Nonnull IHook<R, T, S, P> hook, @Nonnull IHookDetectionObserver<R, T, S, P> listener) {
-        listeners.putIfAbsent(hook.hookValue(), new ArrayList<>());
-        listeners.get(hook.hookValue()).add(listener);
+        listeners
+                .computeIfAbsent(hook.hookValue(), k -> new CopyOnWriteArrayList<>())
+                .add(listener);
         // look through the existing call Stack and find hook trigger
         if (listener.isRootHook()) {
             handler.onNewHookSubscription(hook, listener);
@@ -51,7 +53,24 @@ public class HookDetectionObservable<R, T, S, P> implements IHookDetectionObserv
     @Override
     public void unsubscribe(
             @Nonnull IHook<R, T, S, P> hook, @Nonnull IHookDetectionObserver<R, T, S, P> listener) {
-        listeners.get(hook.hookValue()).remove(listener);
+        final List<IHookDetectionObserver<R, T, S, P>> subscribers =
+                listeners.get(hook.hookValue());
+        if (subscribers != null) {
+            subscribers.remove(listener);
+        }
+    }
+
+    /**
+     * Removes all observers of the hooked value, so that the value and the detection stores
+     * waiting for it can be garbage collected.
+     *
+     * @param hook the released hook
+     * @return the number of removed observers
+     */
+    public int release(@Nonnull IHook<R, T, S, P> hook) {
+        final List<IHookDetectionObserver<R, T, S, P>> subscribers =
+                listeners.remove(hook.hookValue());
+        return subscribers == null ? 0 : subscribers.size();
     }
 
     @Override
@@ -24,24 +24,55 @@ import com.ibm.common.IObservers;
 import com.ibm.engine.callstack.CallContext;
 import com.ibm.engine.callstack.IGetNotifiedWhenNewCallWasAddedToCallStack;
 import com.ibm.engine.detection.Handler;
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.language.ILanguageTranslation;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class HookRepository<R, T, S, P>
         implements IGetNotifiedWhenNewCallWasAddedToCallStack<R, T>,
                 IDomainEvents<HookRepository.Event, IHook<R, T, S, P>> {
-    @Nonnull private final Set<IHook<R, T, S, P>> hookSet = ConcurrentHashMap.newKeySet();
+    @Nonnull private final Map<IHook<R, T, S, P>, CompiledHook<R, T, S, P>> hooks =
+            new LinkedHashMap<>();
+
+    /*
+     * method (or enum) name -> number of arguments -> hooks. Hooks that accept any number of
+     * arguments are stored with MethodMatcher.ANY_ARITY.
+     */
+    @Nonnull
+    private final Map<String, Map<Integer, List<CompiledHook<R, T, S, P>>>> hooksByName =
+            new HashMap<>();
+
+    /* hooks that can match any method name */
+    @Nonnull private final List<CompiledHook<R, T, S, P>> wildcardHooks = new ArrayList<>();
+
+    /* file path -> hooks with HookScope.FILE registered while the file was analysed */
+    @Nonnull private final Map<String, List<IHook<R, T, S, P>>> fileHooks = new HashMap<>();
+
+    /* files that registered hooks with HookScope.SCAN, they can be invoked from other files */
+    @Nonnull private final Set<String> filesWithScanHooks = new HashSet<>();
+
+    /* hooked value -> number of registered hooks on it, observers are keyed by the value */
+    @Nonnull private final Map<T, Integer> hooksPerValue = new HashMap<>();
 
     @Nonnull
     private final Map<Event, List<IObservers<Event, IHook<R, T, S, P>>>> listeners =
             new EnumMap<>(Event.class);
 
     @Nonnull private final Handler<R, T, S, P> handler;
+    private long sequence = 0;
 
     public enum Event {
         HOOK_ADDED,
@@ -51,14 +82,26 @@ public class HookRepository<R, T, S, P>
     public HookRepository(@Nonnull Handler<R, T, S, P> handler) {
         this.handler = handler;
 
-        listeners.putIfAbsent(Event.HOOK_ADDED, new ArrayList<>());
-        listeners.putIfAbsent(Event.HOOK_REMOVED, new ArrayList<>());
+        listeners.putIfAbsent(Event.HOOK_ADDED, new CopyOnWriteArrayList<>());
+        listeners.putIfAbsent(Event.HOOK_REMOVED, new CopyOnWriteArrayList<>());
         // listen to callstack events
         this.handler.subscribeToCallStackAgent(this);
     }
 
     public boolean add(@Nonnull IHook<R, T, S, P> hook) {
-        boolean res = hookSet.add(hook);
+        return add(hook, null);
+    }
+
+    /**
+     * Registers the hook. If the language support scopes the hook to a single file, it is owned
+     * by the given file and released by {@link #releaseFileHooks(String)}.
+     *
+     * @param hook the hook to register
+     * @param filePath the file that is analysed while the hook is registered, if known
+     * @return true if the hook was not registered before
+     */
+    public boolean add(@Nonnull IHook<R, T, S, P> hook, @Nullable String filePath) {
+        boolean res = addToIndex(hook, filePath);
         if (res) {
             this.notify(Event.HOOK_ADDED, hook);
         }
@@ -66,13 +109,83 @@ public class HookRepository<R, T, S, P>
     }
 
     public boolean delete(@Nonnull IHook<R, T, S, P> hook) {
-        boolean res = hookSet.remove(hook);
+        boolean res = removeFromIndex(hook);
         if (res) {
             this.notify(Event.HOOK_REMOVED, hook);
         }
         return res;
     }
 
+    public synchronized int size() {
+        return hooks.size();
+    }
+
+    /**
+     * Releases the hooks with {@link HookScope#FILE} that were registered while the given file was
+     * analysed, together with their observers, so that the trees of the file are no longer
+     * referenced by the repository.
+     *
+     * @param filePath the file whose analysis is finished
+     * @return the number of released hooks
+     */
+    public int releaseFileHooks(@Nonnull String filePath) {
+        final List<IHook<R, T, S, P>> released = new ArrayList<>();
+        synchronized (this) {
+            final List<IHook<R, T, S, P>> owned = fileHooks.remove(filePath);
+            if (owned == null) {
+                return 0;
+            }
+            for (IHook<R, T, S, P> hook : owned) {
+                if (!removeFromIndex(hook)) {
+                    continue;
+                }
+                released.add(hook);
+                // the observers are shared by all hooks on the same value
+                final int observers =
+                        hooksPerValue.containsKey(hook.hookValue())
+                                ? 0
+                                : handler.releaseHookDetectionObservers(hook);
+                HookStatistics.released(observers);
+            }
+        }
+        for (IHook<R, T, S, P> hook : released) {
+            this.notify(Event.HOOK_REMOVED, hook);
+        }
+        return released.size();
+    }
+
+    /**
+     * Checks if hooks with {@link HookScope#SCAN} were registered while the given file was
+     * analysed. The findings of other files can depend on the analysis of such a file.
+     *
+     * @param filePath the analysed file
+     * @return true if the file registered hooks that outlive its analysis
+     */
+    public synchronized boolean hasScanScopedHooks(@Nonnull String filePath) {
+        return filesWithScanHooks.contains(filePath);
+    }
+
+    /**
+     * Checks if the given tree is an invocation of the given hook, using the matcher that was
+     * compiled when the hook was registered.
+     *
+     * @param hook the hook
+     * @param invocationTree the tree to check
+     * @return true if the tree invokes the hook
+     */
+    public boolean isInvocationOf(@Nonnull IHook<R, T, S, P> hook, @Nonnull T invocationTree) {
+        CompiledHook<R, T, S, P> compiledHook;
+        synchronized (this) {
+            compiledHook = hooks.get(hook);
+        }
+        if (compiledHook == null) {
+            compiledHook =
+                    CompiledHook.compile(
+                            hook, -1, HookScope.SCAN, handler.getLanguageSupport());
+        }
+        return compiledHook.matches(invocationTree, handler.getMatchFacts(invocationTree));
+    }
+
     @Override
     public void subscribe(
             @Nonnull Event event, @Nonnull IObservers<Event, IHook<R, T, S, P>> listener) {
@@ -93,31 +206,114 @@ public class HookRepository<R, T, S, P>
         if (subscribers == null) {
             return;
         }
-        /*
-         * Exception in thread "main" java.util.ConcurrentModificationException
-         *
-         * ConcurrentModificationException can be resolved by traversing the elements of the ArrayList using a
-         * traditional for loop instead of the enhanced for loop. Since the traditional for loop does not use an
-         * Iterator to traverse the elements of a Collection, it does not cause a ConcurrentModificationException.
-         */
+        // copy-on-write: observers can subscribe or unsubscribe while they are notified
         for (IObservers<Event, IHook<R, T, S, P>> observer : subscribers) {
             observer.update(event, object);
         }
     }
 
     /**
-     * Check if hook is registered to trigger hook detection event for {@link CallContext}.
+     * Check if hook is registered to trigger hook detection event for {@link CallContext}. Only
+     * the hooks indexed under the name and number of arguments of the call are checked.
      *
      * @param callContext The context in which to update the hooks. This should include information
      *     about the current state of the system, such as the current request and response objects.
      */
     @Override
     public void update(@Nonnull final CallContext<R, T> callContext) {
-        hookSet.stream()
-                .filter(hook -> hook.isInvocationOn(callContext, handler.getLanguageSupport()))
-                .forEach(
-                        hook ->
-                                handler.notifyAllHookDetectionObservers(
-                                        callContext.tree(), hook, callContext.publisher()));
+        final T tree = callContext.tree();
+        final ILanguageTranslation<T> translation = handler.getMatchFacts(tree);
+        final MatchContext matchContext = MatchContext.createForHookContext();
+        final Optional<String> name =
+                translation
+                        .getMethodName(matchContext, tree)
+                        .or(() -> translation.getEnumClassName(matchContext, tree));
+        if (name.isEmpty()) {
+            return;
+        }
+        final int arity = translation.getMethodArity(matchContext, tree);
+        for (CompiledHook<R, T, S, P> compiledHook : getCandidates(name.get(), arity)) {
+            if (compiledHook.matches(tree, translation)) {
+                handler.notifyAllHookDetectionObservers(
+                        tree, compiledHook.hook(), callContext.publisher());
+            }
+        }
+    }
+
+    /* returns the hooks that could match the call, in the order they were registered */
+    @Nonnull
+    private synchronized List<CompiledHook<R, T, S, P>> getCandidates(
+            @Nonnull String name, int arity) {
+        final List<CompiledHook<R, T, S, P>> candidates = new ArrayList<>(wildcardHooks);
+        final Map<Integer, List<CompiledHook<R, T, S, P>>> hooksByArity = hooksByName.get(name);
+        if (hooksByArity != null) {
+            candidates.addAll(hooksByArity.getOrDefault(arity, List.of()));
+            if (arity != MethodMatcher.ANY_ARITY) {
+                candidates.addAll(hooksByArity.getOrDefault(MethodMatcher.ANY_ARITY, List.of()));
+            }
+        }
+        candidates.sort(Comparator.comparingLong(CompiledHook::sequence));
+        return candidates;
+    }
+
+    private synchronized boolean addToIndex(
+            @Nonnull IHook<R, T, S, P> hook, @Nullable String filePath) {
+        if (hooks.containsKey(hook)) {
+            return false;
+        }
+        HookScope scope = handler.getLanguageSupport().getHookScope(hook.hookValue());
+        if (filePath == null) {
+            // without an owning file the hook can not be released
+            scope = HookScope.SCAN;
+        }
+        final CompiledHook<R, T, S, P> compiledHook =
+                CompiledHook.compile(hook, sequence++, scope, handler.getLanguageSupport());
+        hooks.put(hook, compiledHook);
+        hooksPerValue.merge(hook.hookValue(), 1, Integer::sum);
+        if (scope == HookScope.FILE) {
+            fileHooks.computeIfAbsent(filePath, k -> new ArrayList<>()).add(hook);
+        } else if (filePath != null) {
+            filesWithScanHooks.add(filePath);
+        }
+        HookStatistics.registered(scope);
+        if (compiledHook.names().contains(MethodMatcher.ANY)) {
+            wildcardHooks.add(compiledHook);
+            return true;
+        }
+        for (String name : compiledHook.names()) {
+            hooksByName
+                    .computeIfAbsent(name, k -> new HashMap<>())
+                    .computeIfAbsent(compiledHook.arity(), k -> new ArrayList<>())
+                    .add(compiledHook);
+        }
+        return true;
+    }
+
+    private synchronized boolean removeFromIndex(@Nonnull IHook<R, T, S, P> hook) {
+        final CompiledHook<R, T, S, P> compiledHook = hooks.remove(hook);
+        if (compiledHook == null) {
+            return false;
+        }
+        hooksPerValue.computeIfPresent(
+                hook.hookValue(), (value, count) -> count > 1 ? count - 1 : null);
+        HookStatistics.removed(compiledHook.scope());
+        wildcardHooks.remove(compiledHook);
+        for (String name : compiledHook.names()) {
+            final Map<Integer, List<CompiledHook<R, T, S, P>>> hooksByArity = hooksByName.get(name);
+            if (hooksByArity == null) {
+                continue;
+            }
+            final List<CompiledHook<R, T, S, P>> bucket = hooksByArity.get(compiledHook.arity());
+            if (bucket != null) {
+                bucket.remove(compiledHook);
+                if (bucket.isEmpty()) {
+                    hooksByArity.remove(compiledHook.arity());
+                }
+            }
+            if (hooksByArity.isEmpty()) {
+                hooksByName.remove(name);
+            }
+        }
+        return true;
     }
 }
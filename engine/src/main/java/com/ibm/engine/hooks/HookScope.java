@@ -0,0 +1,32 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.hooks;
+
+/** How long a registered hook has to be kept by the {@link HookRepository}. */
+public enum HookScope {
+    /**
+     * The hooked method can only be invoked from the file that was analysed when the hook was
+     * registered (e.g. a private method). The hook and its observers are released once the
+     * analysis moves on to the next file.
+     */
+    FILE,
+    /** The hooked method can be invoked from any file, so the hook is kept for the whole scan. */
+    SCAN
+}
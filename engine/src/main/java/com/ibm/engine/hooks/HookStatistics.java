@@ -0,0 +1,78 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.hooks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+/**
+ * Counts the hooks of a scan that are still referenced by a {@link HookRepository}, per {@link
+ * HookScope}, and the hooks and observers that were released after their file was analysed. Every
+ * live hook keeps the tree of the hooked method (and with it the tree of its file) reachable, so
+ * the numbers approximate how many file trees are retained by the hooks.
+ */
+public final class HookStatistics {
+    @Nonnull private static final Map<HookScope, LongAdder> LIVE = new EnumMap<>(HookScope.class);
+    @Nonnull private static final LongAdder RELEASED_HOOKS = new LongAdder();
+    @Nonnull private static final LongAdder RELEASED_OBSERVERS = new LongAdder();
+
+    static {
+        for (HookScope scope : HookScope.values()) {
+            LIVE.put(scope, new LongAdder());
+        }
+    }
+
+    private HookStatistics() {
+        // nothing
+    }
+
+    static void registered(@Nonnull HookScope scope) {
+        LIVE.get(scope).increment();
+    }
+
+    static void removed(@Nonnull HookScope scope) {
+        LIVE.get(scope).decrement();
+    }
+
+    static void released(int observers) {
+        RELEASED_HOOKS.increment();
+        RELEASED_OBSERVERS.add(observers);
+    }
+
+    public static long getLiveHooks(@Nonnull HookScope scope) {
+        return LIVE.get(scope).sum();
+    }
+
+    public static long getReleasedHooks() {
+        return RELEASED_HOOKS.sum();
+    }
+
+    public static long getReleasedObservers() {
+        return RELEASED_OBSERVERS.sum();
+    }
+
+    public static void reset() {
+        LIVE.values().forEach(LongAdder::reset);
+        RELEASED_HOOKS.reset();
+        RELEASED_OBSERVERS.reset();
+    }
+}
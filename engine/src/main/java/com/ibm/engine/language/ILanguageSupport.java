@@ -26,6 +26,7 @@ import com.ibm.engine.detection.IDetectionEngine;
 import com.ibm.engine.detection.MatchContext;
 import com.ibm.engine.detection.MethodMatcher;
 import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.hooks.HookScope;
 import com.ibm.engine.rule.IDetectionRule;
 import java.util.Optional;
 import javax.annotation.Nonnull;
@@ -58,6 +59,43 @@ public interface ILanguageSupport<R, T, S, P> {
             @Nonnull IDetectionRule<T> detectionRule,
             @Nonnull IScanContext<R, T> scanContext);
 
+    /**
+     * Registers the given invocation on the call stack, independent of any detection rule. This
+     * has to be called for every visited invocation (even if no detection rule is started for it),
+     * so that registered hooks get notified about it.
+     *
+     * @param tree the invocation tree
+     * @param scanContext the context for the scan that visited the invocation
+     */
+    void addCallToCallStack(@Nonnull T tree, @Nonnull IScanContext<R, T> scanContext);
+
+    /**
+     * Notifies the language support that the file of the given scan context is scanned next. State
+     * that is only valid for a single file is released when the file changes.
+     *
+     * @param scanContext the context of the file that is scanned next
+     */
+    void onNewFile(@Nonnull IScanContext<R, T> scanContext);
+
+    /**
+     * Returns how long a hook on the given value has to be kept. Hooks on methods that can only be
+     * invoked from the file declaring them are released when the analysis of the file is done.
+     *
+     * @param hookValue the hooked value, usually a method definition
+     * @return the scope of hooks on the value
+     */
+    @Nonnull
+    HookScope getHookScope(@Nonnull T hookValue);
+
+    /**
+     * Checks if hooks that outlive the analysis of the given file were registered while it was
+     * analysed. The findings of other files can depend on such a file, since they invoke its hooks.
+     *
+     * @param filePath the path of an analysed file
+     * @return true if hooks with {@link HookScope#SCAN} were registered for the file
+     */
+    boolean hasScanScopedHooks(@Nonnull String filePath);
+
     /**
      * Creates a new {@link IDetectionEngine} instance for the specified detection store.
      *
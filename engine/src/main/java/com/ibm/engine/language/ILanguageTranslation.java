@@ -82,6 +82,18 @@ public interface ILanguageTranslation<T> {
     List<IType> getMethodParameterTypes(
             @Nonnull MatchContext matchContext, @Nonnull T methodInvocation);
 
+    /**
+     * Returns the number of arguments of the provided method invocation. This has to be equal to
+     * the size of the list returned by {@link #getMethodParameterTypes(MatchContext, Object)}, but
+     * implementations should compute it without resolving any type.
+     *
+     * @param methodInvocation a method invocation
+     * @return number of arguments
+     */
+    default int getMethodArity(@Nonnull MatchContext matchContext, @Nonnull T methodInvocation) {
+        return getMethodParameterTypes(matchContext, methodInvocation).size();
+    }
+
     /**
      * Resolves the name of the provided Identifier.
      *
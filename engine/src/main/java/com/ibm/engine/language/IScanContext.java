@@ -33,6 +33,15 @@ public interface IScanContext<R, T> {
     @Nonnull
     String getFilePath();
 
+    /**
+     * Returns the key of the module the scanned file belongs to, or an empty string if the module
+     * is not known.
+     */
+    @Nonnull
+    default String getModuleKey() {
+        return "";
+    }
+
     @Nonnull
     default String getRelativePath() {
         final String workDir = System.getProperty("user.dir");
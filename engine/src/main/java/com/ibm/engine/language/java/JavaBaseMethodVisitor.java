@@ -21,44 +21,84 @@ package com.ibm.engine.language.java;
 
 import com.ibm.engine.detection.IBaseMethodVisitor;
 import com.ibm.engine.detection.IDetectionEngine;
+import com.ibm.engine.detection.MethodInvocationIndex;
 import com.ibm.engine.detection.TraceSymbol;
+import com.ibm.engine.rule.RuleDispatchIndex;
+import java.util.List;
+import java.util.Set;
 import javax.annotation.Nonnull;
+import org.sonar.java.model.ExpressionUtils;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.*;
 
-public class JavaBaseMethodVisitor extends BaseTreeVisitor implements IBaseMethodVisitor<Tree> {
+public class JavaBaseMethodVisitor implements IBaseMethodVisitor<Tree> {
     @Nonnull private final TraceSymbol<Symbol> traceSymbol;
-    @Nonnull private final IDetectionEngine<Tree, Symbol> detectionEngine;
+    @Nonnull private final List<IDetectionEngine<Tree, Symbol>> detectionEngines;
+    @Nonnull private final MethodInvocationIndex<Tree> methodInvocationIndex;
 
     public JavaBaseMethodVisitor(
             @Nonnull TraceSymbol<Symbol> traceSymbol,
-            @Nonnull IDetectionEngine<Tree, Symbol> detectionEngine) {
+            @Nonnull List<IDetectionEngine<Tree, Symbol>> detectionEngines,
+            @Nonnull MethodInvocationIndex<Tree> methodInvocationIndex) {
         this.traceSymbol = traceSymbol;
-        this.detectionEngine = detectionEngine;
+        this.detectionEngines = detectionEngines;
+        this.methodInvocationIndex = methodInvocationIndex;
     }
 
     @Override
     public void visitMethodDefinition(@Nonnull Tree method) {
-        if (method instanceof MethodTree methodTree) {
-            methodTree.accept(this);
+        if (method instanceof MethodTree) {
+            methodInvocationIndex
+                    .getInvocations(method, JavaBaseMethodVisitor::collectInvocations)
+                    .runEngines(traceSymbol, detectionEngines);
         }
     }
 
-    @Override
-    public void visitMethodInvocation(@Nonnull MethodInvocationTree tree) {
-        detectionEngine.run(traceSymbol, tree);
-        super.visitMethodInvocation(tree);
-    }
+    /**
+     * Collects the invocations (grouped by invoked method name and instantiated type) and the
+     * return statements of a method definition, in visiting order.
+     *
+     * @param method the method definition
+     * @return the invocations of the method definition
+     */
+    @Nonnull
+    public static MethodInvocationIndex.Invocations<Tree> collectInvocations(
+            @Nonnull Tree method) {
+        final MethodInvocationIndex.Builder<Tree> invocations =
+                MethodInvocationIndex.Invocations.builder();
+        method.accept(
+                new BaseTreeVisitor() {
+                    @Override
+                    public void visitMethodInvocation(@Nonnull MethodInvocationTree tree) {
+                        invocations.addInvocation(
+                                tree, List.of(ExpressionUtils.methodName(tree).name()));
+                        super.visitMethodInvocation(tree);
+                    }
 
-    @Override
-    public void visitNewClass(@Nonnull NewClassTree tree) {
-        detectionEngine.run(traceSymbol, tree);
-        super.visitNewClass(tree);
-    }
+                    @Override
+                    public void visitNewClass(@Nonnull NewClassTree tree) {
+                        final Set<String> typeHierarchyNames =
+                                JavaLanguageTranslation.getTypeHierarchyNames(
+                                        tree.identifier().symbolType());
+                        if (typeHierarchyNames == null) {
+                            invocations.addInvocation(
+                                    tree, List.of(RuleDispatchIndex.CONSTRUCTOR));
+                        } else {
+                            invocations.addInvocation(
+                                    tree,
+                                    typeHierarchyNames.stream()
+                                            .map(RuleDispatchIndex::constructorKey)
+                                            .toList());
+                        }
+                        super.visitNewClass(tree);
+                    }
 
-    @Override
-    public void visitEnumConstant(@Nonnull EnumConstantTree tree) {
-        detectionEngine.run(traceSymbol, tree);
-        super.visitEnumConstant(tree);
+                    @Override
+                    public void visitReturnStatement(@Nonnull ReturnStatementTree tree) {
+                        invocations.addReturnStatement(tree);
+                        super.visitReturnStatement(tree);
+                    }
+                });
+        return invocations.build();
     }
 }
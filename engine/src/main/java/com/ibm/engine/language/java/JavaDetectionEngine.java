@@ -35,14 +35,17 @@ import com.ibm.engine.model.factory.IValueFactory;
 import com.ibm.engine.model.factory.SizeFactory;
 import com.ibm.engine.rule.DetectableParameter;
 import com.ibm.engine.rule.DetectionRule;
+import com.ibm.engine.rule.IDetectionRule;
 import com.ibm.engine.rule.MethodDetectionRule;
 import com.ibm.engine.rule.Parameter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -56,7 +59,6 @@ import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.Arguments;
 import org.sonar.plugins.java.api.tree.ArrayDimensionTree;
 import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.EnumConstantTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
@@ -80,6 +82,9 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
 
     @Nonnull private final Handler<JavaCheck, Tree, Symbol, JavaFileScannerContext> handler;
 
+    /* number of nested resolveValues calls, bounded by the analysis budget */
+    private int resolutionDepth = 0;
+
     public JavaDetectionEngine(
             @Nonnull DetectionStore<JavaCheck, Tree, Symbol, JavaFileScannerContext> detectionStore,
             @Nonnull Handler<JavaCheck, Tree, Symbol, JavaFileScannerContext> handler) {
@@ -87,6 +92,12 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
         this.handler = handler;
     }
 
+    @Nonnull
+    @Override
+    public IDetectionRule<Tree> getDetectionRule() {
+        return detectionStore.getDetectionRule();
+    }
+
     @Override
     public void run(@Nonnull Tree tree) {
         run(TraceSymbol.createStart(), tree);
@@ -99,14 +110,14 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
             handler.addCallToCallStack(methodInvocationTree, detectionStore.getScanContext());
             if (detectionStore
                     .getDetectionRule()
-                    .match(methodInvocationTree, handler.getLanguageSupport().translation())) {
+                    .match(methodInvocationTree, handler.getMatchFacts(methodInvocationTree))) {
                 this.analyseExpression(traceSymbol, methodInvocationTree);
             }
         } else if (tree.is(Tree.Kind.NEW_CLASS)) {
             NewClassTree newClassTree = (NewClassTree) tree;
             if (detectionStore
                     .getDetectionRule()
-                    .match(newClassTree, handler.getLanguageSupport().translation())) {
+                    .match(newClassTree, handler.getMatchFacts(newClassTree))) {
                 this.analyseExpression(traceSymbol, newClassTree);
             }
         } else if (tree.is(Tree.Kind.ENUM)) {
@@ -176,12 +187,30 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
     }
 
     @Nonnull
-    @SuppressWarnings({"java:S3776", "java:S6541", "java:S1905"})
     private <O> List<ResolvedValue<O, Tree>> resolveValues(
             @Nonnull Class<O> clazz,
             @Nonnull ExpressionTree tree,
             @Nullable IValueFactory<Tree> valueFactory,
             @Nonnull LinkedList<Tree> selections) {
+        // long (or cyclic) assignment chains are cut off, the finding is marked as partial
+        if (!detectionStore.allowsResolutionDepth(resolutionDepth + 1)) {
+            return Collections.emptyList();
+        }
+        resolutionDepth++;
+        try {
+            return resolveValuesOfTree(clazz, tree, valueFactory, selections);
+        } finally {
+            resolutionDepth--;
+        }
+    }
+
+    @Nonnull
+    @SuppressWarnings({"java:S3776", "java:S6541", "java:S1905"})
+    private <O> List<ResolvedValue<O, Tree>> resolveValuesOfTree(
+            @Nonnull Class<O> clazz,
+            @Nonnull ExpressionTree tree,
+            @Nullable IValueFactory<Tree> valueFactory,
+            @Nonnull LinkedList<Tree> selections) {
         if (tree.is(Tree.Kind.IDENTIFIER)) {
             IdentifierTree identifierTree = (IdentifierTree) tree;
 
@@ -409,7 +438,7 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
                                         .collect(Collectors.toCollection(LinkedList::new)),
                                 parameter,
                                 matchContext);
-                if (handler.addHookToHookRepository(enumHook)) {
+                if (detectionStore.registerHook(enumHook)) {
                     detectionStore.onNewHookRegistration(enumHook);
                 }
             }
@@ -434,7 +463,7 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
                             detectionStoreWithHook) {
                 detectionStoreWithHook.onSuccessiveHook(methodInvocationHookWithReturnResolvement);
             } else {
-                if (handler.addHookToHookRepository(methodInvocationHookWithReturnResolvement)) {
+                if (detectionStore.registerHook(methodInvocationHookWithReturnResolvement)) {
                     detectionStore.onNewHookRegistration(methodInvocationHookWithReturnResolvement);
                 }
             }
@@ -452,7 +481,7 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
                         detectionStoreWithHook) {
             detectionStoreWithHook.onSuccessiveHook(methodInvocationHookWithParameterResolvement);
         } else {
-            if (handler.addHookToHookRepository(methodInvocationHookWithParameterResolvement)) {
+            if (detectionStore.registerHook(methodInvocationHookWithParameterResolvement)) {
                 detectionStore.onNewHookRegistration(methodInvocationHookWithParameterResolvement);
             }
         }
@@ -463,47 +492,62 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
             @Nonnull final Class<O> clazz,
             @Nonnull final Tree methodDefinition,
             @Nonnull final Parameter<Tree> parameter) {
-        BaseTreeVisitor resultMethodVisitor =
-                new BaseTreeVisitor() {
-                    @Override
-                    public void visitReturnStatement(
-                            @Nonnull ReturnStatementTree returnStatementTree) {
-                        final ExpressionTree expressionTree = returnStatementTree.expression();
-                        if (expressionTree == null) {
-                            super.visitReturnStatement(returnStatementTree);
-                            return;
-                        }
-
-                        if (parameter.is(DetectableParameter.class)) {
-                            DetectableParameter<Tree> detectableParameter =
-                                    (DetectableParameter<Tree>) parameter;
-                            List<ResolvedValue<O, Tree>> resolvedValues =
-                                    resolveValuesInInnerScope(
-                                            clazz,
-                                            expressionTree,
-                                            detectableParameter.getiValueFactory());
-                            if (!resolvedValues.isEmpty()) {
-                                resolvedValues.stream()
-                                        .map(
-                                                resolvedValue ->
-                                                        new ValueDetection<>(
-                                                                resolvedValue,
-                                                                detectableParameter,
-                                                                expressionTree,
-                                                                expressionTree))
-                                        .forEach(detectionStore::onReceivingNewDetection);
-                                return;
-                            }
-                        }
-                        // look in outer scope
-                        resolveValuesInOuterScope(expressionTree, parameter);
-                        super.visitReturnStatement(returnStatementTree);
-                    }
-                };
+        if (!(methodDefinition instanceof MethodTree methodTree)) {
+            return;
+        }
+        // the return statements are taken from the index, the method is not traversed again
+        final List<Tree> returnStatements =
+                handler.getMethodInvocationIndex()
+                        .getInvocations(methodTree, JavaBaseMethodVisitor::collectInvocations)
+                        .returnStatements();
+        final Set<Tree> resolvedReturnStatements =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Tree returnStatement : returnStatements) {
+            final ExpressionTree expressionTree =
+                    ((ReturnStatementTree) returnStatement).expression();
+            if (expressionTree == null
+                    || isNestedIn(returnStatement, resolvedReturnStatements, methodTree)) {
+                // the return statements of a resolved return value (e.g. in a lambda) are skipped
+                continue;
+            }
+            if (parameter.is(DetectableParameter.class)) {
+                DetectableParameter<Tree> detectableParameter =
+                        (DetectableParameter<Tree>) parameter;
+                List<ResolvedValue<O, Tree>> resolvedValues =
+                        resolveValuesInInnerScope(
+                                clazz, expressionTree, detectableParameter.getiValueFactory());
+                if (!resolvedValues.isEmpty()) {
+                    resolvedValues.stream()
+                            .map(
+                                    resolvedValue ->
+                                            new ValueDetection<>(
+                                                    resolvedValue,
+                                                    detectableParameter,
+                                                    expressionTree,
+                                                    expressionTree))
+                            .forEach(detectionStore::onReceivingNewDetection);
+                    resolvedReturnStatements.add(returnStatement);
+                    continue;
+                }
+            }
+            // look in outer scope
+            resolveValuesInOuterScope(expressionTree, parameter);
+        }
+    }
 
-        if (methodDefinition instanceof MethodTree methodTree) {
-            methodTree.accept(resultMethodVisitor);
+    private static boolean isNestedIn(
+            @Nonnull Tree tree, @Nonnull Set<Tree> ancestors, @Nonnull Tree root) {
+        if (ancestors.isEmpty()) {
+            return false;
         }
+        for (Tree parent = tree.parent();
+                parent != null && parent != root;
+                parent = parent.parent()) {
+            if (ancestors.contains(parent)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Nullable @Override
@@ -27,6 +27,7 @@ import com.ibm.engine.detection.IDetectionEngine;
 import com.ibm.engine.detection.MatchContext;
 import com.ibm.engine.detection.MethodMatcher;
 import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.hooks.HookScope;
 import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.ILanguageTranslation;
 import com.ibm.engine.language.IScanContext;
@@ -73,6 +74,41 @@ public final class JavaLanguageSupport
         return new DetectionExecutive<>(tree, detectionRule, scanContext, this.handler);
     }
 
+    @Override
+    public void addCallToCallStack(
+            @Nonnull Tree tree, @Nonnull IScanContext<JavaCheck, Tree> scanContext) {
+        this.handler.addCallToCallStack(tree, scanContext);
+    }
+
+    @Override
+    public void onNewFile(@Nonnull IScanContext<JavaCheck, Tree> scanContext) {
+        this.handler.onNewFile(scanContext);
+    }
+
+    @Override
+    public boolean hasScanScopedHooks(@Nonnull String filePath) {
+        return this.handler.hasScanScopedHooks(filePath);
+    }
+
+    @Nonnull
+    @Override
+    public HookScope getHookScope(@Nonnull Tree hookValue) {
+        if (!(hookValue instanceof MethodTree method)) {
+            return HookScope.SCAN;
+        }
+        final Symbol.MethodSymbol methodSymbol = method.symbol();
+        if (methodSymbol.isPrivate()) {
+            return HookScope.FILE;
+        }
+        // methods of local and anonymous classes can only be invoked in the declaring file
+        final Symbol.TypeSymbol enclosingClass = methodSymbol.enclosingClass();
+        final Symbol owner = enclosingClass == null ? null : enclosingClass.owner();
+        if (owner != null && (owner.isMethodSymbol() || owner.isVariableSymbol())) {
+            return HookScope.FILE;
+        }
+        return HookScope.SCAN;
+    }
+
     @Nonnull
     @Override
     public IDetectionEngine<Tree, Symbol> createDetectionEngineInstance(
@@ -85,7 +121,9 @@ public final class JavaLanguageSupport
     @Nonnull
     @Override
     public IBaseMethodVisitorFactory<Tree, Symbol> getBaseMethodVisitorFactory() {
-        return JavaBaseMethodVisitor::new;
+        return (traceSymbol, detectionEngines) ->
+                new JavaBaseMethodVisitor(
+                        traceSymbol, detectionEngines, this.handler.getMethodInvocationIndex());
     }
 
     @Nonnull
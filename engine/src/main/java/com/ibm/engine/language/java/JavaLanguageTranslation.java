@@ -21,16 +21,22 @@ package com.ibm.engine.language.java;
 
 import com.ibm.engine.detection.IType;
 import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.detection.TypeRelationCache;
 import com.ibm.engine.language.ILanguageTranslation;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.java.model.ExpressionUtils;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
 import org.sonar.plugins.java.api.tree.Arguments;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
@@ -89,8 +95,7 @@ public class JavaLanguageTranslation implements ILanguageTranslation<Tree> {
                                                     || matchContext.objectShouldMatchExactTypes()) {
                                                 return tree.symbolType().is(string);
                                             }
-                                            return tree.symbolType().is(string)
-                                                    || tree.symbolType().isSubtypeOf(string);
+                                            return isTypeOrSubtypeOf(tree.symbolType(), string);
                                         });
             }
 
@@ -103,8 +108,7 @@ public class JavaLanguageTranslation implements ILanguageTranslation<Tree> {
                                                     || matchContext.objectShouldMatchExactTypes()) {
                                                 return tree.type().is(string);
                                             }
-                                            return tree.type().is(string)
-                                                    || tree.type().isSubtypeOf(string);
+                                            return isTypeOrSubtypeOf(tree.type(), string);
                                         });
             }
             return Optional.of(methodInvocationTree.methodSymbol())
@@ -115,8 +119,7 @@ public class JavaLanguageTranslation implements ILanguageTranslation<Tree> {
                                                 || matchContext.objectShouldMatchExactTypes()) {
                                             return tree.type().is(string);
                                         }
-                                        return tree.type().is(string)
-                                                || tree.type().isSubtypeOf(string);
+                                        return isTypeOrSubtypeOf(tree.type(), string);
                                     });
         } else if (methodInvocation instanceof NewClassTree newClassTree) {
             return Optional.of(newClassTree.identifier())
@@ -127,8 +130,7 @@ public class JavaLanguageTranslation implements ILanguageTranslation<Tree> {
                                                 || matchContext.objectShouldMatchExactTypes()) {
                                             return tree.symbolType().is(string);
                                         }
-                                        return tree.symbolType().is(string)
-                                                || tree.symbolType().isSubtypeOf(string);
+                                        return isTypeOrSubtypeOf(tree.symbolType(), string);
                                     });
         }
         return Optional.empty();
@@ -147,8 +149,8 @@ public class JavaLanguageTranslation implements ILanguageTranslation<Tree> {
                                                 || matchContext.objectShouldMatchExactTypes()) {
                                             return tree.returnType().type().is(string);
                                         }
-                                        return tree.returnType().type().is(string)
-                                                || tree.returnType().type().isSubtypeOf(string);
+                                        return isTypeOrSubtypeOf(
+                                                tree.returnType().type(), string);
                                     });
         }
         return Optional.empty();
@@ -204,13 +206,32 @@ public class JavaLanguageTranslation implements ILanguageTranslation<Tree> {
                         if (matchContext.isHookContext() || exactMatch) {
                             return argument.symbolType().is(string);
                         }
-                        return argument.symbolType().is(string)
-                                || argument.symbolType().isSubtypeOf(string);
+                        return isTypeOrSubtypeOf(argument.symbolType(), string);
                     });
         }
         return types;
     }
 
+    private static boolean isTypeOrSubtypeOf(@Nonnull Type type, @Nonnull String string) {
+        if (type.is(string)) {
+            return true;
+        }
+        if (!type.isClass()) {
+            return type.isSubtypeOf(string);
+        }
+        return TypeRelationCache.isSubtypeOf(type, string, () -> type.isSubtypeOf(string));
+    }
+
+    @Override
+    public int getMethodArity(@Nonnull MatchContext matchContext, @Nonnull Tree methodInvocation) {
+        if (methodInvocation instanceof MethodInvocationTree methodInvocationTree) {
+            return methodInvocationTree.arguments().size();
+        } else if (methodInvocation instanceof NewClassTree newClassTree) {
+            return newClassTree.arguments().size();
+        }
+        return 0;
+    }
+
     @Nonnull
     @Override
     public Optional<String> resolveIdentifierAsString(
@@ -244,4 +265,43 @@ public class JavaLanguageTranslation implements ILanguageTranslation<Tree> {
         }
         return Optional.empty();
     }
+
+    /**
+     * Returns the simple names of the given type and all its supertypes, since a constructor rule
+     * also matches subtypes of the types it was defined for.
+     *
+     * @param type the instantiated type
+     * @return the simple names of the type hierarchy, or null if it can not be fully resolved
+     */
+    @Nullable public static Set<String> getTypeHierarchyNames(@Nonnull Type type) {
+        final Set<String> names = new HashSet<>();
+        if (!collectTypeHierarchyNames(type, names, new HashSet<>())) {
+            return null;
+        }
+        return names;
+    }
+
+    private static boolean collectTypeHierarchyNames(
+            @Nullable Type type, @Nonnull Set<String> names, @Nonnull Set<String> visited) {
+        if (type == null) {
+            return true;
+        }
+        if (type.isUnknown()) {
+            return false;
+        }
+        if (!visited.add(type.fullyQualifiedName())) {
+            return true;
+        }
+        final Symbol.TypeSymbol typeSymbol = type.symbol();
+        names.add(typeSymbol.name());
+        if (!collectTypeHierarchyNames(typeSymbol.superClass(), names, visited)) {
+            return false;
+        }
+        for (Type interfaceType : typeSymbol.interfaces()) {
+            if (!collectTypeHierarchyNames(interfaceType, names, visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -20,6 +20,7 @@
 package com.ibm.engine.language.java;
 
 import com.ibm.engine.language.IScanContext;
+import java.util.Objects;
 import javax.annotation.Nonnull;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.plugins.java.api.JavaCheck;
@@ -45,4 +46,10 @@ public record JavaScanContext(@Nonnull JavaFileScannerContext javaFileScannerCon
     public String getFilePath() {
         return this.javaFileScannerContext.getInputFile().uri().getPath();
     }
+
+    @Nonnull
+    @Override
+    public String getModuleKey() {
+        return Objects.requireNonNullElse(this.javaFileScannerContext.getModuleKey(), "");
+    }
 }
@@ -21,33 +21,55 @@ package com.ibm.engine.language.python;
 
 import com.ibm.engine.detection.IBaseMethodVisitor;
 import com.ibm.engine.detection.IDetectionEngine;
+import com.ibm.engine.detection.MethodInvocationIndex;
 import com.ibm.engine.detection.TraceSymbol;
+import java.util.List;
 import javax.annotation.Nonnull;
 import org.sonar.plugins.python.api.symbols.Symbol;
 import org.sonar.plugins.python.api.tree.*;
 
-public class PythonBaseMethodVisitor extends BaseTreeVisitor implements IBaseMethodVisitor<Tree> {
+public class PythonBaseMethodVisitor implements IBaseMethodVisitor<Tree> {
 
     @Nonnull private final TraceSymbol<Symbol> traceSymbol;
-    @Nonnull private final IDetectionEngine<Tree, Symbol> detectionEngine;
+    @Nonnull private final List<IDetectionEngine<Tree, Symbol>> detectionEngines;
+    @Nonnull private final MethodInvocationIndex<Tree> methodInvocationIndex;
 
     public PythonBaseMethodVisitor(
             @Nonnull TraceSymbol<Symbol> traceSymbol,
-            @Nonnull IDetectionEngine<Tree, Symbol> detectionEngine) {
+            @Nonnull List<IDetectionEngine<Tree, Symbol>> detectionEngines,
+            @Nonnull MethodInvocationIndex<Tree> methodInvocationIndex) {
         this.traceSymbol = traceSymbol;
-        this.detectionEngine = detectionEngine;
+        this.detectionEngines = detectionEngines;
+        this.methodInvocationIndex = methodInvocationIndex;
     }
 
     @Override
     public void visitMethodDefinition(Tree method) {
         if (method instanceof FunctionDef || method instanceof FileInput) {
-            method.accept(this);
+            methodInvocationIndex
+                    .getInvocations(method, PythonBaseMethodVisitor::collectCallExpressions)
+                    .runEngines(traceSymbol, detectionEngines);
         }
     }
 
-    @Override
-    public void visitCallExpression(@Nonnull CallExpression callExpression) {
-        detectionEngine.run(traceSymbol, callExpression);
-        super.visitCallExpression(callExpression);
+    @Nonnull
+    private static MethodInvocationIndex.Invocations<Tree> collectCallExpressions(
+            @Nonnull Tree method) {
+        final MethodInvocationIndex.Builder<Tree> callExpressions =
+                MethodInvocationIndex.Invocations.builder();
+        method.accept(
+                new BaseTreeVisitor() {
+                    @Override
+                    public void visitCallExpression(@Nonnull CallExpression callExpression) {
+                        // a call without a callee name can not be matched by a named rule
+                        callExpressions.addInvocation(
+                                callExpression,
+                                PythonLanguageTranslation.getCalleeName(callExpression)
+                                        .map(List::of)
+                                        .orElse(List.of()));
+                        super.visitCallExpression(callExpression);
+                    }
+                });
+        return callExpressions.build();
     }
 }
@@ -42,6 +42,9 @@ public class PythonDetectionEngine implements IDetectionEngine<Tree, Symbol> {
 
     @Nonnull private final Handler<PythonCheck, Tree, Symbol, PythonVisitorContext> handler;
 
+    /* number of nested PythonSemantic.resolveValues calls, bounded by the analysis budget */
+    private int resolutionDepth = 0;
+
     public PythonDetectionEngine(
             @Nonnull DetectionStore<PythonCheck, Tree, Symbol, PythonVisitorContext> detectionStore,
             @Nonnull Handler<PythonCheck, Tree, Symbol, PythonVisitorContext> handler) {
@@ -49,6 +52,12 @@ public class PythonDetectionEngine implements IDetectionEngine<Tree, Symbol> {
         this.handler = handler;
     }
 
+    @Nonnull
+    @Override
+    public IDetectionRule<Tree> getDetectionRule() {
+        return detectionStore.getDetectionRule();
+    }
+
     @Override
     public void run(@Nonnull Tree tree) {
         run(TraceSymbol.createStart(), tree);
@@ -60,7 +69,7 @@ public class PythonDetectionEngine implements IDetectionEngine<Tree, Symbol> {
             handler.addCallToCallStack(callExpressionTree, detectionStore.getScanContext());
             if (detectionStore
                     .getDetectionRule()
-                    .match(callExpressionTree, handler.getLanguageSupport().translation())) {
+                    .match(callExpressionTree, handler.getMatchFacts(callExpressionTree))) {
                 this.analyseExpression(traceSymbol, callExpressionTree);
             }
         }
@@ -126,6 +135,24 @@ public class PythonDetectionEngine implements IDetectionEngine<Tree, Symbol> {
         return null;
     }
 
+    /**
+     * Enters a nested value resolution, if the analysis budget allows it. Long (or cyclic)
+     * resolution chains are cut off, and the finding is marked as partial.
+     *
+     * @return false if the resolution must not go deeper
+     */
+    boolean enterResolution() {
+        if (!detectionStore.allowsResolutionDepth(resolutionDepth + 1)) {
+            return false;
+        }
+        resolutionDepth++;
+        return true;
+    }
+
+    void exitResolution() {
+        resolutionDepth--;
+    }
+
     @Override
     public <O> @Nonnull List<ResolvedValue<O, Tree>> resolveValuesInInnerScope(
             @Nonnull Class<O> clazz,
@@ -196,8 +223,10 @@ public class PythonDetectionEngine implements IDetectionEngine<Tree, Symbol> {
                             detectionStoreWithHook) {
                 detectionStoreWithHook.onSuccessiveHook(methodInvocationHookWithReturnResolvement);
             } else {
-                handler.addHookToHookRepository(methodInvocationHookWithReturnResolvement);
-                detectionStore.onNewHookRegistration(methodInvocationHookWithReturnResolvement);
+                detectionStore.registerHook(methodInvocationHookWithReturnResolvement);
+                if (!detectionStore.isOutOfBudget()) {
+                    detectionStore.onNewHookRegistration(methodInvocationHookWithReturnResolvement);
+                }
             }
             return;
         }
@@ -213,8 +242,10 @@ public class PythonDetectionEngine implements IDetectionEngine<Tree, Symbol> {
                         detectionStoreWithHook) {
             detectionStoreWithHook.onSuccessiveHook(methodInvocationHookWithParameterResolvement);
         } else {
-            handler.addHookToHookRepository(methodInvocationHookWithParameterResolvement);
-            detectionStore.onNewHookRegistration(methodInvocationHookWithParameterResolvement);
+            detectionStore.registerHook(methodInvocationHookWithParameterResolvement);
+            if (!detectionStore.isOutOfBudget()) {
+                detectionStore.onNewHookRegistration(methodInvocationHookWithParameterResolvement);
+            }
         }
     }
 
@@ -29,6 +29,7 @@ import com.ibm.engine.detection.IDetectionEngine;
 import com.ibm.engine.detection.MatchContext;
 import com.ibm.engine.detection.MethodMatcher;
 import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.hooks.HookScope;
 import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.ILanguageTranslation;
 import com.ibm.engine.language.IScanContext;
@@ -69,6 +70,37 @@ public class PythonLanguageSupport
         return new DetectionExecutive<>(tree, detectionRule, scanContext, this.handler);
     }
 
+    @Override
+    public void addCallToCallStack(
+            @Nonnull Tree tree, @Nonnull IScanContext<PythonCheck, Tree> scanContext) {
+        this.handler.addCallToCallStack(tree, scanContext);
+    }
+
+    @Override
+    public void onNewFile(@Nonnull IScanContext<PythonCheck, Tree> scanContext) {
+        this.handler.onNewFile(scanContext);
+    }
+
+    @Override
+    public boolean hasScanScopedHooks(@Nonnull String filePath) {
+        return this.handler.hasScanScopedHooks(filePath);
+    }
+
+    @Override
+    public @Nonnull HookScope getHookScope(@Nonnull Tree hookValue) {
+        if (!(hookValue instanceof FunctionDef)) {
+            // hooks on module level code can not be invoked from other files
+            return HookScope.FILE;
+        }
+        // nested functions can only be invoked from their enclosing function
+        for (Tree parent = hookValue.parent(); parent != null; parent = parent.parent()) {
+            if (parent instanceof FunctionDef) {
+                return HookScope.FILE;
+            }
+        }
+        return HookScope.SCAN;
+    }
+
     @Override
     public @Nonnull IDetectionEngine<Tree, Symbol> createDetectionEngineInstance(
             @Nonnull
@@ -79,7 +111,9 @@ public class PythonLanguageSupport
 
     @Override
     public @Nonnull IBaseMethodVisitorFactory<Tree, Symbol> getBaseMethodVisitorFactory() {
-        return PythonBaseMethodVisitor::new;
+        return (traceSymbol, detectionEngines) ->
+                new PythonBaseMethodVisitor(
+                        traceSymbol, detectionEngines, this.handler.getMethodInvocationIndex());
     }
 
     @Override
@@ -36,15 +36,28 @@ public class PythonLanguageTranslation implements ILanguageTranslation<Tree> {
     public Optional<String> getMethodName(
             @Nonnull MatchContext matchContext, @Nonnull Tree methodInvocation) {
         if (methodInvocation instanceof CallExpression callExpression) {
-            // We use "name" and not "fullyQualifiedName" to make it like in the Java implementation
-            Symbol methodInvocationSymbol = callExpression.calleeSymbol();
-            if (methodInvocationSymbol != null) {
-                return Optional.of(methodInvocationSymbol.name());
-            } else if (callExpression.callee()
-                    instanceof Name nameTree) { // Rare case when the symbol is not defined,
-                // sometimes for imported classes
-                return Optional.of(nameTree.name());
-            }
+            return getCalleeName(callExpression);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the terminal name of the callee of a call, which is the name detection rules are
+     * matched against (e.g. {@code generate_private_key} for {@code ec.generate_private_key(...)}).
+     *
+     * @param callExpression the call
+     * @return the name of the callee, if it can be determined
+     */
+    @Nonnull
+    public static Optional<String> getCalleeName(@Nonnull CallExpression callExpression) {
+        // We use "name" and not "fullyQualifiedName" to make it like in the Java implementation
+        Symbol methodInvocationSymbol = callExpression.calleeSymbol();
+        if (methodInvocationSymbol != null) {
+            return Optional.of(methodInvocationSymbol.name());
+        } else if (callExpression.callee()
+                instanceof Name nameTree) { // Rare case when the symbol is not defined,
+            // sometimes for imported classes
+            return Optional.of(nameTree.name());
         }
         return Optional.empty();
     }
@@ -99,6 +112,18 @@ public class PythonLanguageTranslation implements ILanguageTranslation<Tree> {
         return Collections.emptyList();
     }
 
+    @Override
+    public int getMethodArity(@Nonnull MatchContext matchContext, @Nonnull Tree methodInvocation) {
+        if (methodInvocation instanceof CallExpression callExpression) {
+            // only regular arguments are considered, like in `getMethodParameterTypes`
+            return (int)
+                    callExpression.arguments().stream()
+                            .filter(RegularArgument.class::isInstance)
+                            .count();
+        }
+        return 0;
+    }
+
     @Override
     public @Nonnull Optional<String> resolveIdentifierAsString(
             @Nonnull MatchContext matchContext, @Nonnull Tree name) {
@@ -20,6 +20,7 @@
 package com.ibm.engine.language.python;
 
 import com.ibm.engine.language.IScanContext;
+import java.io.File;
 import javax.annotation.Nonnull;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.plugins.python.api.IssueLocation;
@@ -51,4 +52,11 @@ public record PythonScanContext(@Nonnull PythonVisitorContext pythonVisitorConte
     public @Nonnull String getFilePath() {
         return pythonVisitorContext.pythonFile().uri().getPath();
     }
+
+    /* the working directory is created per module */
+    @Override
+    public @Nonnull String getModuleKey() {
+        final File workingDirectory = pythonVisitorContext.workingDirectory();
+        return workingDirectory == null ? "" : workingDirectory.getPath();
+    }
 }
@@ -250,6 +250,38 @@ public final class PythonSemantic {
         return result;
     }
 
+    /* resolves values within the resolution depth allowed by the analysis budget */
+    @Nonnull
+    private static <O> List<ResolvedValue<O, Tree>> resolveValues(
+            @Nonnull Class<O> clazz,
+            @Nonnull Tree tree,
+            LinkedList<Map<org.sonar.plugins.python.api.tree.Parameter, Argument>> argsMappingList,
+            Object subscriptionIndex,
+            boolean returnEnclosingParam,
+            boolean isResolvingType,
+            PythonDetectionEngine detectionEngine,
+            List<Pair<Tree, Map<org.sonar.plugins.python.api.tree.Parameter, Argument>>>
+                    alreadyResolvedTrees) {
+        if (detectionEngine != null && !detectionEngine.enterResolution()) {
+            return new LinkedList<>();
+        }
+        try {
+            return resolveValuesOfTree(
+                    clazz,
+                    tree,
+                    argsMappingList,
+                    subscriptionIndex,
+                    returnEnclosingParam,
+                    isResolvingType,
+                    detectionEngine,
+                    alreadyResolvedTrees);
+        } finally {
+            if (detectionEngine != null) {
+                detectionEngine.exitResolution();
+            }
+        }
+    }
+
     /**
      * For a given {@code tree}, this function resolve its associated values by following the chain
      * of function calls and assignments. As its result includes the associated Trees, this function
@@ -280,7 +312,7 @@ public final class PythonSemantic {
      */
     @SuppressWarnings("java:S1905")
     @Nonnull
-    private static <O> List<ResolvedValue<O, Tree>> resolveValues(
+    private static <O> List<ResolvedValue<O, Tree>> resolveValuesOfTree(
             @Nonnull Class<O> clazz,
             @Nonnull Tree tree,
             LinkedList<Map<org.sonar.plugins.python.api.tree.Parameter, Argument>> argsMappingList,
@@ -0,0 +1,124 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The detection rules of a language, grouped into families that are built on first use. A family
+ * is only built if a {@link RuleSelection} enables it, so the rule classes of disabled families
+ * are never loaded. Built families and selections are shared: checks that use the same selection
+ * get the same rule instances and can therefore share their detection of a file.
+ */
+public final class LazyRuleFamilies<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LazyRuleFamilies.class);
+
+    /**
+     * A family of rules.
+     *
+     * @param name the name the family is selected by
+     * @param rules builds the rules of the family; it must not be a method reference to the class
+     *     that provides the rules, since resolving it would already load that class
+     */
+    public record Family<T>(@Nonnull String name, @Nonnull Supplier<List<IDetectionRule<T>>> rules) {}
+
+    @Nonnull private final List<Family<T>> families;
+    @Nonnull private final Map<String, List<IDetectionRule<T>>> builtFamilies =
+            new ConcurrentHashMap<>();
+
+    @Nonnull
+    private final Map<RuleSelection, List<IDetectionRule<T>>> rulesBySelection =
+            new ConcurrentHashMap<>();
+
+    private LazyRuleFamilies(@Nonnull List<Family<T>> families) {
+        this.families = List.copyOf(families);
+    }
+
+    @Nonnull
+    public static <T> LazyRuleFamilies<T> of(@Nonnull List<Family<T>> families) {
+        return new LazyRuleFamilies<>(families);
+    }
+
+    @Nonnull
+    public Set<String> names() {
+        final Set<String> names = new LinkedHashSet<>();
+        families.forEach(family -> names.add(family.name()));
+        return names;
+    }
+
+    /**
+     * Returns the root rules of the enabled families, without the rules of disabled bundles, in
+     * the order of the families.
+     *
+     * @param selection the selected families and bundles
+     * @return the selected rules
+     */
+    @Nonnull
+    public List<IDetectionRule<T>> rules(@Nonnull RuleSelection selection) {
+        final List<IDetectionRule<T>> selected = rulesBySelection.get(selection);
+        if (selected != null) {
+            return selected;
+        }
+        return rulesBySelection.computeIfAbsent(selection, this::select);
+    }
+
+    @Nonnull
+    private List<IDetectionRule<T>> select(@Nonnull RuleSelection selection) {
+        final Set<String> enabledFamilies = selection.enabledFamilies();
+        if (enabledFamilies != null) {
+            final Set<String> unknown = new LinkedHashSet<>(enabledFamilies);
+            families.forEach(family -> unknown.remove(family.name().toLowerCase(Locale.ROOT)));
+            if (!unknown.isEmpty()) {
+                LOGGER.warn("Unknown rule families {}, known are {}", unknown, names());
+            }
+        }
+        final List<IDetectionRule<T>> selected = new ArrayList<>();
+        for (Family<T> family : families) {
+            if (!selection.isFamilyEnabled(family.name())) {
+                continue;
+            }
+            for (IDetectionRule<T> rule : build(family)) {
+                if (selection.isBundleEnabled(rule.bundle())) {
+                    selected.add(rule);
+                }
+            }
+        }
+        return List.copyOf(selected);
+    }
+
+    @Nonnull
+    private List<IDetectionRule<T>> build(@Nonnull Family<T> family) {
+        final List<IDetectionRule<T>> built = builtFamilies.get(family.name());
+        if (built != null) {
+            return built;
+        }
+        return builtFamilies.computeIfAbsent(family.name(), k -> List.copyOf(family.rules().get()));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import com.ibm.engine.detection.MethodMatcher;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Precompiled lookup structure that maps the name of an invoked method (or the simple name of an
+ * instantiated type, for constructors) to the detection rules whose {@link MethodMatcher} could
+ * possibly match it. It is built once from a list of root detection rules and allows the visitors
+ * to start a {@link com.ibm.engine.executive.DetectionExecutive} only for candidate rules.
+ *
+ * <p>The candidates are always returned in the order of the list the index was built from, so the
+ * order of emitted findings does not change compared to iterating over all rules.
+ */
+public final class RuleDispatchIndex<T> {
+    public static final String CONSTRUCTOR = "<init>";
+
+    @Nonnull private final List<IDetectionRule<T>> rules;
+    /* method name -> rules for this name, merged with the wildcard rules */
+    @Nonnull private final Map<String, List<IDetectionRule<T>>> rulesByMethodName;
+    /* rules that can match any method name (or that do not expose a matcher) */
+    @Nonnull private final List<IDetectionRule<T>> wildcardMethodRules;
+    /* owner simple name -> constructor rule indices */
+    @Nonnull private final Map<String, BitSet> constructorRulesByOwnerName;
+    /* constructor rules that can match any owner type */
+    @Nonnull private final BitSet wildcardConstructorRules;
+    @Nonnull private final List<IDetectionRule<T>> allConstructorRules;
+
+    private RuleDispatchIndex(@Nonnull List<IDetectionRule<T>> rules) {
+        this.rules = List.copyOf(rules);
+
+        final Map<String, BitSet> byMethodName = new HashMap<>();
+        final BitSet wildcardMethods = new BitSet();
+        final Map<String, BitSet> byOwnerName = new HashMap<>();
+        final BitSet wildcardConstructors = new BitSet();
+        final BitSet constructors = new BitSet();
+
+        for (int i = 0; i < this.rules.size(); i++) {
+            final MethodMatcher<T> matcher = getMethodMatcher(this.rules.get(i));
+            if (matcher == null
+                    || matcher.getMethodNamesSerializable().contains(MethodMatcher.ANY)) {
+                wildcardMethods.set(i);
+                wildcardConstructors.set(i);
+                constructors.set(i);
+                continue;
+            }
+            for (String methodName : matcher.getMethodNamesSerializable()) {
+                if (CONSTRUCTOR.equals(methodName)) {
+                    constructors.set(i);
+                    indexConstructorRule(i, matcher, byOwnerName, wildcardConstructors);
+                } else {
+                    byMethodName.computeIfAbsent(methodName, k -> new BitSet()).set(i);
+                }
+            }
+        }
+
+        this.rulesByMethodName = new HashMap<>();
+        byMethodName.forEach(
+                (name, indices) -> {
+                    indices.or(wildcardMethods);
+                    this.rulesByMethodName.put(name, select(indices));
+                });
+        this.wildcardMethodRules = select(wildcardMethods);
+        this.constructorRulesByOwnerName = byOwnerName;
+        this.wildcardConstructorRules = wildcardConstructors;
+        this.allConstructorRules = select(constructors);
+    }
+
+    @Nonnull
+    public static <T> RuleDispatchIndex<T> build(@Nonnull List<IDetectionRule<T>> rules) {
+        return new RuleDispatchIndex<>(rules);
+    }
+
+    /**
+     * Returns the rules that could match an invocation of a method with the given name.
+     *
+     * @param methodName the simple name of the invoked method
+     * @return the candidate rules, in the order of the rule list
+     */
+    @Nonnull
+    public List<IDetectionRule<T>> candidatesForMethod(@Nonnull String methodName) {
+        return rulesByMethodName.getOrDefault(methodName, wildcardMethodRules);
+    }
+
+    /**
+     * Returns the rules that could match the instantiation of a type whose own simple name or one
+     * of whose supertype simple names is contained in {@code ownerSimpleNames}.
+     *
+     * @param ownerSimpleNames the simple names of the instantiated type and all its supertypes, or
+     *     {@code null} if the type hierarchy could not be resolved
+     * @return the candidate rules, in the order of the rule list
+     */
+    @Nonnull
+    public List<IDetectionRule<T>> candidatesForConstructor(
+            @Nullable Collection<String> ownerSimpleNames) {
+        if (ownerSimpleNames == null) {
+            return allConstructorRules;
+        }
+        final BitSet indices = (BitSet) wildcardConstructorRules.clone();
+        for (String ownerSimpleName : ownerSimpleNames) {
+            final BitSet ownerIndices = constructorRulesByOwnerName.get(ownerSimpleName);
+            if (ownerIndices != null) {
+                indices.or(ownerIndices);
+            }
+        }
+        if (indices.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return select(indices);
+    }
+
+    @Nonnull
+    public List<IDetectionRule<T>> rules() {
+        return rules;
+    }
+
+    /**
+     * Returns the key under which the instantiation of a type with the given simple name (or of one
+     * of its subtypes) is indexed, see {@link #dispatchKeysOf(IDetectionRule)}. The instantiation
+     * of a type whose hierarchy can not be resolved is indexed under {@link #CONSTRUCTOR}.
+     *
+     * @param ownerSimpleName the simple name of the instantiated type or of one of its supertypes
+     * @return the dispatch key
+     */
+    @Nonnull
+    public static String constructorKey(@Nonnull String ownerSimpleName) {
+        return CONSTRUCTOR + ":" + ownerSimpleName;
+    }
+
+    /**
+     * Returns the keys of the invocations the given rule could possibly match: the names of the
+     * invoked methods and, for constructors, the {@link #constructorKey(String)} of the owner types
+     * as well as {@link #CONSTRUCTOR}.
+     *
+     * @param rule the detection rule
+     * @return the dispatch keys, or {@code null} if the rule can match any invocation
+     */
+    @Nullable public static <T> Set<String> dispatchKeysOf(@Nonnull IDetectionRule<T> rule) {
+        final MethodMatcher<T> matcher = getMethodMatcher(rule);
+        if (matcher == null || matcher.getMethodNamesSerializable().contains(MethodMatcher.ANY)) {
+            return null;
+        }
+        final Set<String> keys = new HashSet<>();
+        for (String methodName : matcher.getMethodNamesSerializable()) {
+            if (!CONSTRUCTOR.equals(methodName)) {
+                keys.add(methodName);
+                continue;
+            }
+            keys.add(CONSTRUCTOR);
+            for (String ownerType : matcher.getInvokedObjectTypeStringsSerializable()) {
+                if (MethodMatcher.ANY.equals(ownerType)) {
+                    return null;
+                }
+                keys.add(constructorKey(simpleName(ownerType)));
+            }
+        }
+        return keys;
+    }
+
+    @Nullable static <T> MethodMatcher<T> getMethodMatcher(@Nonnull IDetectionRule<T> rule) {
+        if (rule instanceof DetectionRule<T> detectionRule) {
+            return detectionRule.matchers();
+        } else if (rule instanceof MethodDetectionRule<T> methodDetectionRule) {
+            return methodDetectionRule.matchers();
+        }
+        return null;
+    }
+
+    private static <T> void indexConstructorRule(
+            int index,
+            @Nonnull MethodMatcher<T> matcher,
+            @Nonnull Map<String, BitSet> byOwnerName,
+            @Nonnull BitSet wildcardConstructors) {
+        for (String ownerType : matcher.getInvokedObjectTypeStringsSerializable()) {
+            if (MethodMatcher.ANY.equals(ownerType)) {
+                wildcardConstructors.set(index);
+                return;
+            }
+            byOwnerName.computeIfAbsent(simpleName(ownerType), k -> new BitSet()).set(index);
+        }
+    }
+
+    @Nonnull
+    static String simpleName(@Nonnull String fullyQualifiedName) {
+        final int separator =
+                Math.max(fullyQualifiedName.lastIndexOf('.'), fullyQualifiedName.lastIndexOf('$'));
+        return fullyQualifiedName.substring(separator + 1);
+    }
+
+    @Nonnull
+    private List<IDetectionRule<T>> select(@Nonnull BitSet indices) {
+        final List<IDetectionRule<T>> selected = new ArrayList<>(indices.cardinality());
+        for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+            selected.add(rules.get(i));
+        }
+        return Collections.unmodifiableList(selected);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import com.ibm.engine.detection.MethodMatcher;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Groups root detection rules into families (their bundles, e.g. Jca, Bc or Pyca) and records the
+ * packages of the types each family is invoked on. A file that references none of the packages of a
+ * family, neither by an import nor by a qualified name, can not contain an invocation that one of
+ * its root rules matches, so the rules of that family do not have to be started for it.
+ *
+ * <p>How the referenced names of a file are collected is language specific; see {@link
+ * FileFilterMode} for the modes that are supported.
+ */
+public final class RuleFamilies<T> {
+    public static final String FILE_FILTER_PROPERTY = "sonar.cryptoScanner.fileFilter";
+
+    private static final int MAX_CACHED_NAMES = 1 << 14;
+
+    public enum FileFilterMode {
+        /** Every rule is started for every file. */
+        OFF,
+        /** Only imports, qualified names and the package of the file are considered. */
+        IMPORTS,
+        /**
+         * Like {@link #IMPORTS}, but also considers the resolved types of invoked objects and the
+         * supertypes of declared classes, so helpers of the same package that return objects of a
+         * family are found. Imports that can not be resolved by name (wildcard or relative imports
+         * of other modules, and imports of modules of the project) enable all families.
+         */
+        SAFE;
+
+        @Nonnull
+        public static FileFilterMode fromSystemProperty() {
+            return of(System.getProperty(FILE_FILTER_PROPERTY));
+        }
+
+        /**
+         * Parses a mode, as it is configured.
+         *
+         * @param value the name of the mode, case-insensitive
+         * @return the mode, or {@link #SAFE} if the value is blank or unknown
+         */
+        @Nonnull
+        public static FileFilterMode of(@Nullable String value) {
+            if (value == null || value.isBlank()) {
+                return SAFE;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return SAFE;
+            }
+        }
+    }
+
+    @Nonnull private final List<IDetectionRule<T>> rules;
+    @Nonnull private final RuleDispatchIndex<T> allRules;
+    /* family -> packages of the types its root rules are invoked on */
+    @Nonnull private final Map<String, Set<String>> packagesByFamily;
+    /* families with a rule that is not bound to a type, they are enabled for every file */
+    @Nonnull private final Set<String> unboundFamilies;
+    @Nonnull private final Set<String> families;
+    @Nonnull private final Map<String, Set<String>> familiesByName = new ConcurrentHashMap<>();
+    @Nonnull private final Map<String, Set<String>> familiesByType = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private final Map<Set<String>, RuleDispatchIndex<T>> indexByFamilies =
+            new ConcurrentHashMap<>();
+
+    private RuleFamilies(@Nonnull List<IDetectionRule<T>> rules) {
+        this.rules = List.copyOf(rules);
+        this.allRules = RuleDispatchIndex.build(this.rules);
+        this.packagesByFamily = new HashMap<>();
+        this.unboundFamilies = new HashSet<>();
+        for (IDetectionRule<T> rule : this.rules) {
+            final String family = familyOf(rule);
+            final Set<String> packages =
+                    packagesByFamily.computeIfAbsent(family, k -> new HashSet<>());
+            final MethodMatcher<T> matcher = RuleDispatchIndex.getMethodMatcher(rule);
+            if (matcher == null) {
+                unboundFamilies.add(family);
+                continue;
+            }
+            for (String typeName : matcher.getInvokedObjectTypeStringsSerializable()) {
+                if (MethodMatcher.ANY.equals(typeName)) {
+                    unboundFamilies.add(family);
+                } else {
+                    packages.add(packageOf(typeName));
+                }
+            }
+        }
+        this.families = Set.copyOf(packagesByFamily.keySet());
+    }
+
+    @Nonnull
+    public static <T> RuleFamilies<T> build(@Nonnull List<IDetectionRule<T>> rules) {
+        return new RuleFamilies<>(rules);
+    }
+
+    @Nonnull
+    public Set<String> families() {
+        return families;
+    }
+
+    /**
+     * Returns the families whose types could be referenced by the given qualified name. The name
+     * can be an imported type, an imported package or module, or the package of the file itself.
+     *
+     * @param qualifiedName a dot separated qualified name
+     * @return the families related to the name
+     */
+    @Nonnull
+    public Set<String> familiesOf(@Nonnull String qualifiedName) {
+        final Set<String> cached = familiesByName.get(qualifiedName);
+        if (cached != null) {
+            return cached;
+        }
+        final Set<String> related = new HashSet<>();
+        packagesByFamily.forEach(
+                (family, packages) -> {
+                    for (String packageName : packages) {
+                        if (isRelated(qualifiedName, packageName)) {
+                            related.add(family);
+                            return;
+                        }
+                    }
+                });
+        return remember(familiesByName, qualifiedName, Set.copyOf(related));
+    }
+
+    /**
+     * Returns the families related to a resolved type or one of its supertypes. The result is
+     * remembered by the name of the type, so the hierarchy is only resolved once.
+     *
+     * @param typeName the fully qualified name of the type
+     * @param hierarchyNames supplies the fully qualified names of the type and its supertypes
+     * @return the families related to the type hierarchy
+     */
+    @Nonnull
+    public Set<String> familiesOfType(
+            @Nonnull String typeName, @Nonnull Supplier<Collection<String>> hierarchyNames) {
+        final Set<String> cached = familiesByType.get(typeName);
+        if (cached != null) {
+            return cached;
+        }
+        final Set<String> related = new HashSet<>();
+        for (String name : hierarchyNames.get()) {
+            related.addAll(familiesOf(name));
+        }
+        return remember(familiesByType, typeName, Set.copyOf(related));
+    }
+
+    /**
+     * Returns a dispatch index of the root rules that belong to the given families or to a family
+     * that is not bound to a type.
+     *
+     * @param enabledFamilies the families referenced by a file
+     * @return the dispatch index for these families, shared between files
+     */
+    @Nonnull
+    public RuleDispatchIndex<T> dispatchIndexFor(@Nonnull Set<String> enabledFamilies) {
+        final Set<String> selected = new HashSet<>(enabledFamilies);
+        selected.addAll(unboundFamilies);
+        selected.retainAll(families);
+        if (selected.size() == families.size()) {
+            return allRules;
+        }
+        return indexByFamilies.computeIfAbsent(
+                Set.copyOf(selected),
+                key -> {
+                    final List<IDetectionRule<T>> selectedRules = new ArrayList<>();
+                    for (IDetectionRule<T> rule : rules) {
+                        if (key.contains(familyOf(rule))) {
+                            selectedRules.add(rule);
+                        }
+                    }
+                    return RuleDispatchIndex.build(selectedRules);
+                });
+    }
+
+    @Nonnull
+    public RuleDispatchIndex<T> allRules() {
+        return allRules;
+    }
+
+    @Nonnull
+    private static String familyOf(@Nonnull IDetectionRule<?> rule) {
+        return rule.bundle().getIdentifier();
+    }
+
+    @Nonnull
+    static String packageOf(@Nonnull String typeName) {
+        final int separator = typeName.lastIndexOf('.');
+        return separator < 0 ? typeName : typeName.substring(0, separator);
+    }
+
+    /* a name is related to a package if one of them contains the other */
+    static boolean isRelated(@Nonnull String qualifiedName, @Nonnull String packageName) {
+        return isPrefix(packageName, qualifiedName) || isPrefix(qualifiedName, packageName);
+    }
+
+    private static boolean isPrefix(@Nonnull String prefix, @Nonnull String name) {
+        return name.startsWith(prefix)
+                && (name.length() == prefix.length() || name.charAt(prefix.length()) == '.');
+    }
+
+    @Nonnull
+    private static Set<String> remember(
+            @Nonnull Map<String, Set<String>> cache,
+            @Nonnull String key,
+            @Nonnull Set<String> value) {
+        if (cache.size() >= MAX_CACHED_NAMES) {
+            cache.clear();
+        }
+        cache.put(key, value);
+        return value;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.model.context.ISupportKind;
+import com.ibm.engine.serializer.DetectionRuleStore;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Digests the structure of a list of detection rules: their matchers, parameters, bundles,
+ * detection contexts and the rules depending on them. Results that were computed with rules of a
+ * different structure must not be reused. Factories are only described by their class; the values
+ * they create are covered by the version of the code that defines the rules.
+ */
+public final class RuleFingerprint {
+
+    private RuleFingerprint() {
+        // nothing
+    }
+
+    @Nonnull
+    public static <T> String of(@Nonnull List<IDetectionRule<T>> rules) {
+        final StringBuilder description = new StringBuilder();
+        // rules are numbered in the order they are reached, shared rules are described once
+        final Map<IDetectionRule<T>, Integer> ids = new IdentityHashMap<>();
+        final Deque<IDetectionRule<T>> toDescribe = new ArrayDeque<>();
+        for (IDetectionRule<T> rule : rules) {
+            description.append("root ").append(idOf(rule, ids, toDescribe)).append('\n');
+        }
+        while (!toDescribe.isEmpty()) {
+            final IDetectionRule<T> rule = toDescribe.remove();
+            description.append(ids.get(rule)).append(' ');
+            describe(rule, ids, toDescribe, description);
+            description.append('\n');
+        }
+        return digest(description.toString());
+    }
+
+    @Nonnull
+    public static String digest(@Nonnull String value) {
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of()
+                    .formatHex(messageDigest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> void describe(
+            @Nonnull IDetectionRule<T> rule,
+            @Nonnull Map<IDetectionRule<T>, Integer> ids,
+            @Nonnull Deque<IDetectionRule<T>> toDescribe,
+            @Nonnull StringBuilder description) {
+        description
+                .append(classNameOf(rule))
+                .append(" | ")
+                .append(rule.bundle().getIdentifier())
+                .append(" | ")
+                .append(rule.shouldMatchExactTypes())
+                .append(" | ")
+                .append(classNameOf(rule.detectionValueContext()));
+        if (rule.detectionValueContext() instanceof ISupportKind<?> supportKind) {
+            description.append(' ').append(supportKind.kind());
+        }
+        if (rule instanceof DetectionRule<T> detectionRule) {
+            describeMatcher(detectionRule.matchers(), description);
+            description.append(" | ").append(classNameOf(detectionRule.actionFactory()));
+            for (Parameter<T> parameter : detectionRule.parameters()) {
+                description
+                        .append(" | ")
+                        .append(parameter.getIndex())
+                        .append(' ')
+                        .append(parameter.getParameterType())
+                        .append(' ')
+                        .append(parameter.shouldMatchExactTypes());
+                if (parameter instanceof DetectableParameter<T> detectableParameter) {
+                    description
+                            .append(' ')
+                            .append(classNameOf(detectableParameter.getiValueFactory()))
+                            .append(' ')
+                            .append(detectableParameter.getShouldBeMovedUnder().orElse(-1));
+                }
+                for (IDetectionRule<T> parameterRule : parameter.getDetectionRules()) {
+                    description.append(" ->").append(idOf(parameterRule, ids, toDescribe));
+                }
+            }
+        } else if (rule instanceof MethodDetectionRule<T> methodDetectionRule) {
+            describeMatcher(methodDetectionRule.matchers(), description);
+            description.append(" | ").append(classNameOf(methodDetectionRule.actionFactory()));
+        }
+        description.append(" | next");
+        for (IDetectionRule<T> nextRule : rule.nextDetectionRules()) {
+            description.append(' ').append(idOf(nextRule, ids, toDescribe));
+        }
+    }
+
+    private static <T> void describeMatcher(
+            @Nonnull MethodMatcher<T> matcher, @Nonnull StringBuilder description) {
+        description.append(" | ").append(DetectionRuleStore.getMatcherID(matcher));
+    }
+
+    private static <T> int idOf(
+            @Nonnull IDetectionRule<T> rule,
+            @Nonnull Map<IDetectionRule<T>, Integer> ids,
+            @Nonnull Deque<IDetectionRule<T>> toDescribe) {
+        final Integer id = ids.get(rule);
+        if (id != null) {
+            return id;
+        }
+        final int newId = ids.size();
+        ids.put(rule, newId);
+        toDescribe.add(rule);
+        return newId;
+    }
+
+    /* the names of lambda classes differ from run to run, they are described as lambdas */
+    @Nonnull
+    private static String classNameOf(@Nullable Object object) {
+        if (object == null) {
+            return "none";
+        }
+        final Class<?> clazz = object.getClass();
+        if (clazz.isSynthetic() || clazz.isHidden()) {
+            return "lambda";
+        }
+        return clazz.getName();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Selects the rule families and bundles of a scan. A family is a group of rules that is built as a
+ * whole (e.g. all JCA or all BouncyCastle rules, see {@link LazyRuleFamilies}); the rules of a
+ * family that is not enabled are never built. A bundle is the {@link IBundle} of a rule; root
+ * rules of a disabled bundle are dropped from the families that are built. Names are compared
+ * case-insensitively.
+ *
+ * @param enabledFamilies the enabled families, or {@code null} if all families are enabled
+ * @param disabledBundles the identifiers of the disabled bundles
+ */
+public record RuleSelection(
+        @Nullable Set<String> enabledFamilies, @Nonnull Set<String> disabledBundles) {
+    public static final String FAMILIES_PROPERTY = "sonar.cryptoScanner.rules.families";
+    public static final String DISABLED_BUNDLES_PROPERTY =
+            "sonar.cryptoScanner.rules.disabledBundles";
+
+    @Nonnull public static final RuleSelection ALL = new RuleSelection(null, Set.of());
+
+    public RuleSelection {
+        enabledFamilies = enabledFamilies == null ? null : normalize(enabledFamilies);
+        disabledBundles = normalize(disabledBundles);
+    }
+
+    /**
+     * Parses a selection from comma separated lists, as they are configured.
+     *
+     * @param families the enabled families; all families are enabled if this is blank
+     * @param disabledBundles the disabled bundles
+     * @return the selection
+     */
+    @Nonnull
+    public static RuleSelection of(@Nullable String families, @Nullable String disabledBundles) {
+        final Set<String> enabledFamilies = split(families);
+        return new RuleSelection(
+                enabledFamilies.isEmpty() ? null : enabledFamilies, split(disabledBundles));
+    }
+
+    @Nonnull
+    public static RuleSelection fromSystemProperties() {
+        return of(
+                System.getProperty(FAMILIES_PROPERTY),
+                System.getProperty(DISABLED_BUNDLES_PROPERTY));
+    }
+
+    public boolean isFamilyEnabled(@Nonnull String family) {
+        return enabledFamilies == null || enabledFamilies.contains(normalize(family));
+    }
+
+    public boolean isBundleEnabled(@Nonnull IBundle bundle) {
+        return !disabledBundles.contains(normalize(bundle.getIdentifier()));
+    }
+
+    @Nonnull
+    private static Set<String> split(@Nullable String values) {
+        if (values == null) {
+            return Set.of();
+        }
+        return Arrays.stream(values.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Nonnull
+    private static Set<String> normalize(@Nonnull Set<String> names) {
+        return names.stream()
+                .map(RuleSelection::normalize)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Nonnull
+    private static String normalize(@Nonnull String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -54,8 +54,6 @@ public class DetectionStoreLogger<R, T, S, P> {
                                             LOGGER.debug(
                                                     "[id: "
                                                             + store.getStoreId()
-                                                                    .toString()
-                                                                    .substring(0, 5)
                                                             + ", bundle: "
                                                             + store.getDetectionRule()
                                                                     .bundle()
@@ -86,8 +84,6 @@ public class DetectionStoreLogger<R, T, S, P> {
                                                 LOGGER.debug(
                                                         "[id: "
                                                                 + store.getStoreId()
-                                                                        .toString()
-                                                                        .substring(0, 5)
                                                                 + ", bundle: "
                                                                 + store.getDetectionRule()
                                                                         .bundle()
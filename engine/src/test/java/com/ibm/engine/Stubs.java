@@ -0,0 +1,106 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Stubs of the interfaces of the engine for tests. A stub answers the calls that are not stubbed
+ * with the default value of the return type: false, zero, an empty optional, or null for other
+ * objects. Stubs are only equal to themselves.
+ */
+public final class Stubs {
+    /** The answer for the default value of the return type. */
+    @Nonnull public static final Object DEFAULT = new Object();
+
+    @Nonnull
+    private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS =
+            Map.of(
+                    boolean.class, false,
+                    byte.class, (byte) 0,
+                    short.class, (short) 0,
+                    char.class, (char) 0,
+                    int.class, 0,
+                    long.class, 0L,
+                    float.class, 0f,
+                    double.class, 0d);
+
+    @FunctionalInterface
+    public interface Answer {
+        /**
+         * Answers a call of the stub.
+         *
+         * @param methodName the name of the called method
+         * @param args the arguments of the call, null if there are none
+         * @return the result of the call, or {@link #DEFAULT}
+         */
+        @Nullable Object answer(@Nonnull String methodName, @Nullable Object[] args);
+    }
+
+    private Stubs() {
+        // nothing
+    }
+
+    /** Returns a stub that answers every call with the default value of the return type. */
+    @Nonnull
+    public static <I> I stub(@Nonnull Class<?> type) {
+        return stub(type, (methodName, args) -> DEFAULT);
+    }
+
+    /** Returns a stub that answers the calls of the given method with the given value. */
+    @Nonnull
+    public static <I> I stub(
+            @Nonnull Class<?> type, @Nonnull String stubbedMethod, @Nullable Object value) {
+        return stub(type, (methodName, args) -> methodName.equals(stubbedMethod) ? value : DEFAULT);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public static <I> I stub(@Nonnull Class<?> type, @Nonnull Answer answer) {
+        return (I)
+                Proxy.newProxyInstance(
+                        type.getClassLoader(),
+                        new Class<?>[] {type},
+                        (proxy, method, args) ->
+                                switch (method.getName()) {
+                                    case "equals" -> proxy == args[0];
+                                    case "hashCode" -> System.identityHashCode(proxy);
+                                    case "toString" -> "stub of " + type.getSimpleName();
+                                    default -> {
+                                        final Object result =
+                                                answer.answer(method.getName(), args);
+                                        yield result == DEFAULT
+                                                ? defaultValue(method.getReturnType())
+                                                : result;
+                                    }
+                                });
+    }
+
+    @Nullable private static Object defaultValue(@Nonnull Class<?> returnType) {
+        if (returnType == Optional.class) {
+            return Optional.empty();
+        }
+        return PRIMITIVE_DEFAULTS.get(returnType);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.callstack;
+
+import static com.ibm.engine.Stubs.stub;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.Stubs;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.ILanguageTranslation;
+import com.ibm.engine.language.IScanContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+class CallStackAgentTest {
+
+    private record Call(@Nonnull String name) {}
+
+    @Test
+    void oldestCallsOfAModuleAreEvicted() {
+        final CallStackAgent<Object, Object, Object, Object> agent =
+                new CallStackAgent<>(languageSupport(), 2);
+        final List<Object> notified = new ArrayList<>();
+        agent.subscribe(callContext -> notified.add(callContext.tree()));
+
+        final Call first = new Call("init");
+        agent.addCall(first, scanContext("a"));
+        agent.addCall(new Call("init"), scanContext("a"));
+        agent.addCall(new Call("doFinal"), scanContext("a"));
+        assertThat(agent.size()).isEqualTo(2);
+
+        // the cap is scoped per module
+        agent.addCall(new Call("init"), scanContext("b"));
+        agent.addCall(new Call("init"), scanContext("b"));
+        assertThat(agent.size()).isEqualTo(4);
+
+        // an evicted call is not added again
+        agent.addCall(first, scanContext("a"));
+        assertThat(agent.size()).isEqualTo(4);
+        assertThat(notified).hasSize(5);
+    }
+
+    @Nonnull
+    private static ILanguageSupport<Object, Object, Object, Object> languageSupport() {
+        final ILanguageTranslation<Object> translation =
+                stub(
+                        ILanguageTranslation.class,
+                        (methodName, args) ->
+                                methodName.equals("getMethodName")
+                                        ? Optional.of(((Call) args[1]).name())
+                                        : Stubs.DEFAULT);
+        return stub(ILanguageSupport.class, "translation", translation);
+    }
+
+    @Nonnull
+    private static IScanContext<Object, Object> scanContext(@Nonnull String moduleKey) {
+        return stub(IScanContext.class, "getModuleKey", moduleKey);
+    }
+}
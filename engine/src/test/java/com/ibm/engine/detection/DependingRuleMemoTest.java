@@ -0,0 +1,170 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static com.ibm.engine.Stubs.stub;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.executive.AnalysisBudget;
+import com.ibm.engine.executive.IStatusReporting;
+import com.ibm.engine.hooks.IHook;
+import com.ibm.engine.hooks.MethodInvocationHookWithReturnResolvement;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.model.context.CipherContext;
+import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.Parameter;
+import com.ibm.engine.rule.builder.DetectionRuleBuilder;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+class DependingRuleMemoTest {
+
+    private static final IDetectionRule<Object> RULE =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("org.bouncycastle.crypto.params.KeyParameter")
+                    .forConstructor()
+                    .withMethodParameter("byte[]")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Test")
+                    .withoutDependingDetectionRules();
+
+    private final Handler<Object, Object, Object, Object> handler =
+            new Handler<>(languageSupport());
+
+    @Test
+    void subtreeIsCopiedForTheSameRuleMethodAndSymbol() {
+        final DependingRuleMemo<Object, Object, Object, Object> memo = new DependingRuleMemo<>();
+        final Object method = new Object();
+        final Object symbol = new Object();
+        final DetectionStore<Object, Object, Object, Object> subtree = newStore(1);
+        memo.record(
+                DependingRuleMemo.key(RULE, method, TraceSymbol.createFrom(symbol), 1), subtree);
+
+        assertThat(
+                        memo.lookup(
+                                DependingRuleMemo.key(
+                                        RULE, method, TraceSymbol.createFrom(symbol), 1),
+                                newStore(0)))
+                .isEqualTo(subtree);
+        assertThat(
+                        memo.lookup(
+                                DependingRuleMemo.key(
+                                        RULE, method, TraceSymbol.createFrom(new Object()), 1),
+                                newStore(0)))
+                .isNull();
+        assertThat(
+                        memo.lookup(
+                                DependingRuleMemo.key(
+                                        RULE, new Object(), TraceSymbol.createFrom(symbol), 1),
+                                newStore(0)))
+                .isNull();
+        assertThat(
+                        memo.lookup(
+                                DependingRuleMemo.key(
+                                        RULE, method, TraceSymbol.createWithStateDifferent(), 1),
+                                newStore(0)))
+                .isNull();
+
+        memo.clear();
+        assertThat(memo.size()).isZero();
+    }
+
+    @Test
+    void subtreeIsNotGraftedBelowItself() {
+        final DependingRuleMemo<Object, Object, Object, Object> memo = new DependingRuleMemo<>();
+        final Object method = new Object();
+        final DetectionStore<Object, Object, Object, Object> subtree = newStore(1);
+        final DetectionStore<Object, Object, Object, Object> descendant = newStore(2);
+        subtree.attach(0, descendant);
+        final DependingRuleMemo.Key key =
+                DependingRuleMemo.key(RULE, method, TraceSymbol.createWithStateNoSymbol(), 1);
+        memo.record(key, subtree);
+
+        assertThat(memo.lookup(key, descendant)).isNull();
+        assertThat(memo.lookup(key, subtree)).isNull();
+        assertThat(memo.lookup(key, newStore(0))).isEqualTo(subtree);
+    }
+
+    @Test
+    void hooksFiringOnGraftedStoresReportToTheirOwnFinding() {
+        final DependingRuleMemo<Object, Object, Object, Object> memo = new DependingRuleMemo<>();
+        final DetectionStore<Object, Object, Object, Object> subtree = newStore(1);
+        subtree.attach(0, newStore(2));
+        final DependingRuleMemo.Key key =
+                DependingRuleMemo.key(
+                        RULE, new Object(), TraceSymbol.createWithStateNoSymbol(), 1);
+        memo.record(key, subtree);
+
+        final DetectionStore<Object, Object, Object, Object> parent = newStore(0);
+        final DetectionStore<Object, Object, Object, Object> graft = memo.lookup(key, parent);
+        assertThat(graft).isNotSameAs(subtree).isEqualTo(subtree);
+        assertThat(graft.statusReporting).isSameAs(parent.statusReporting);
+        assertThat(graft.getChildren().get(0)).isNotSameAs(subtree.getChildren().get(0));
+        assertThat(graft.getChildren().get(0).statusReporting).isSameAs(parent.statusReporting);
+
+        // a hook firing on the memoized subtree does not change the grafted copy
+        subtree.onHookInvocation("m(1)", hook(), stub(IScanContext.class));
+        assertThat(subtree.getChildren()).hasSize(2);
+        assertThat(graft.getChildren()).hasSize(1);
+
+        // a hook firing on the grafted copy extends the finding of its parent only
+        graft.onHookInvocation("m(2)", hook(), stub(IScanContext.class));
+        assertThat(subtree.getChildren()).hasSize(2);
+        final List<DetectionStore<Object, Object, Object, Object>> hooked = graft.getChildren();
+        assertThat(hooked).hasSize(2);
+        assertThat(hooked.get(1)).isInstanceOf(DetectionStoreWithHook.class);
+        assertThat(hooked.get(1).statusReporting).isSameAs(parent.statusReporting);
+    }
+
+    @Nonnull
+    private DetectionStore<Object, Object, Object, Object> newStore(int level) {
+        return new DetectionStore<>(
+                level, RULE, stub(IScanContext.class), handler, statusReporting());
+    }
+
+    @Nonnull
+    private static IHook<Object, Object, Object, Object> hook() {
+        return new MethodInvocationHookWithReturnResolvement<>(
+                "void m(int a)",
+                new Parameter<>("int", 0, false, List.of()),
+                MatchContext.createForHookContext());
+    }
+
+    /* every store reports to a finding of its own */
+    @Nonnull
+    private static IStatusReporting<Object, Object, Object, Object> statusReporting() {
+        return stub(
+                IStatusReporting.class,
+                "getAnalysisBudget",
+                AnalysisBudget.forFinding(AnalysisBudget.Limits.UNLIMITED));
+    }
+
+    /* detection engines that detect nothing */
+    @Nonnull
+    private static ILanguageSupport<Object, Object, Object, Object> languageSupport() {
+        return stub(
+                ILanguageSupport.class,
+                "createDetectionEngineInstance",
+                stub(IDetectionEngine.class));
+    }
+}
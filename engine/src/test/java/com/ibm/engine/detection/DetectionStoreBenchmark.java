@@ -0,0 +1,130 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static com.ibm.engine.Stubs.stub;
+
+import com.ibm.engine.executive.IStatusReporting;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.model.IValue;
+import com.ibm.engine.model.KeySize;
+import com.ibm.engine.model.Size;
+import com.ibm.engine.model.context.CipherContext;
+import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.builder.DetectionRuleBuilder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the creation and reading of detection stores. Most stores created during a scan never
+ * receive a value or a child, so the empty case matters as much as the populated one. Run the
+ * {@link #main} method from the test classpath; the GC profiler reports the allocated bytes per
+ * operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DetectionStoreBenchmark {
+
+    private static final IDetectionRule<Object> RULE =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("javax.crypto.KeyGenerator")
+                    .forMethods("init")
+                    .withMethodParameter("int")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Benchmark")
+                    .withoutDependingDetectionRules();
+
+    private Handler<Object, Object, Object, Object> handler;
+    private IScanContext<Object, Object> scanContext;
+    private IStatusReporting<Object, Object, Object, Object> statusReporting;
+    private IValue<Object> keySize;
+
+    @Setup
+    public void setup() {
+        this.handler = new Handler<>(stub(ILanguageSupport.class));
+        this.scanContext = stub(IScanContext.class);
+        this.statusReporting = stub(IStatusReporting.class);
+        this.keySize = new KeySize<>(128, Size.UnitType.BIT, new Object());
+    }
+
+    @Benchmark
+    public void emptyStore(@Nonnull Blackhole blackhole) {
+        final DetectionStore<Object, Object, Object, Object> store = newStore(0);
+        // the store has to escape, otherwise its allocation is eliminated
+        blackhole.consume(store);
+        blackhole.consume(store.getDetectionValues());
+        blackhole.consume(store.getChildren());
+        blackhole.consume(store.getChildrenForMethod());
+    }
+
+    @Benchmark
+    public void populatedStore(@Nonnull Blackhole blackhole) {
+        final DetectionStore<Object, Object, Object, Object> store = newStore(0);
+        store.addValue(1, keySize);
+        store.addValue(0, keySize);
+        for (int i = 0; i < 4; i++) {
+            store.attach(i % 2 == 0 ? -1 : 0, newStore(1));
+        }
+        for (int i = 0; i < 4; i++) {
+            final List<IValue<Object>> values = store.getDetectionValues();
+            final List<DetectionStore<Object, Object, Object, Object>> children =
+                    store.getChildren();
+            blackhole.consume(values);
+            blackhole.consume(children);
+        }
+        blackhole.consume(store);
+    }
+
+    @Nonnull
+    private DetectionStore<Object, Object, Object, Object> newStore(int level) {
+        return new DetectionStore<>(level, RULE, scanContext, handler, statusReporting);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(DetectionStoreBenchmark.class.getSimpleName())
+                                .addProfiler(GCProfiler.class)
+                                .build())
+                .run();
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static com.ibm.engine.Stubs.stub;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.Stubs;
+import com.ibm.engine.executive.AnalysisBudget;
+import com.ibm.engine.executive.IStatusReporting;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.model.IValue;
+import com.ibm.engine.model.context.CipherContext;
+import com.ibm.engine.model.factory.ValueActionFactory;
+import com.ibm.engine.rule.DetectionRule;
+import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.builder.DetectionRuleBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+class DetectionStoreTest {
+
+    private static final IDetectionRule<Object> RULE =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("javax.crypto.Cipher")
+                    .forMethods("init")
+                    .withMethodParameter("int")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Test")
+                    .withoutDependingDetectionRules();
+
+    private final Handler<Object, Object, Object, Object> handler =
+            new Handler<>(stub(ILanguageSupport.class));
+
+    @Test
+    void childrenAttachedFromHookThreadsAreKept() throws InterruptedException {
+        final DetectionStore<Object, Object, Object, Object> store = newStore(0);
+        final int threads = 4;
+        final int attachesPerThread = 1_000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final int index = t % 2 == 0 ? -1 : t;
+            final Thread worker =
+                    new Thread(
+                            () -> {
+                                try {
+                                    start.await();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                    return;
+                                }
+                                for (int i = 0; i < attachesPerThread; i++) {
+                                    store.attach(index, newStore(1));
+                                    store.getChildren();
+                                }
+                            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertThat(store.getChildren()).hasSize(threads * attachesPerThread);
+        assertThat(store.getChildrenForMethod()).hasSize(threads / 2 * attachesPerThread);
+        assertThat(store.getChildrenForParameterWithId(1))
+                .hasValueSatisfying(stores -> assertThat(stores).hasSize(attachesPerThread));
+    }
+
+    @Test
+    void dependingRulesOnTheSameMethodShareOneWalk() {
+        final List<String> dependingMethods = List.of("init", "update", "doFinal");
+        final List<IDetectionRule<Object>> dependingRules =
+                dependingMethods.stream().map(method -> methodRule(method, List.of())).toList();
+        final AtomicInteger walks = new AtomicInteger();
+        final AtomicInteger pendingVisits = new AtomicInteger(1);
+        final AtomicInteger pendingVisitsDuringWalk = new AtomicInteger(-1);
+        final AtomicInteger emits = new AtomicInteger();
+        final IBaseMethodVisitorFactory<Object, Object> visitorFactory =
+                (traceSymbol, detectionEngines) -> {
+                    walks.incrementAndGet();
+                    return method -> {
+                        pendingVisitsDuringWalk.set(pendingVisits.get());
+                        for (String invocation : dependingMethods) {
+                            for (IDetectionEngine<Object, Object> engine : detectionEngines) {
+                                engine.run(traceSymbol, invocation);
+                            }
+                        }
+                    };
+                };
+        final IStatusReporting<Object, Object, Object, Object> statusReporting =
+                stub(
+                        IStatusReporting.class,
+                        (methodName, args) ->
+                                switch (methodName) {
+                                    case "incrementVisitedRules" -> pendingVisits.decrementAndGet();
+                                    case "addAdditionalExpectedRuleVisits" ->
+                                            pendingVisits.addAndGet((Integer) args[0]);
+                                    case "emitFinding" -> emits.incrementAndGet();
+                                    case "getAnalysisBudget" ->
+                                            AnalysisBudget.forFinding(
+                                                    AnalysisBudget.Limits.UNLIMITED);
+                                    default -> Stubs.DEFAULT;
+                                });
+        final DetectionStore<Object, Object, Object, Object> store =
+                new DetectionStore<>(
+                        0,
+                        methodRule("getInstance", dependingRules),
+                        stub(IScanContext.class),
+                        new Handler<>(languageSupport(visitorFactory)),
+                        statusReporting);
+
+        store.analyse("getInstance");
+
+        assertThat(walks).hasValue(1);
+        // the walk counts as the visit of the first depending rule while it is in progress
+        assertThat(pendingVisitsDuringWalk).hasValue(dependingMethods.size());
+        final List<DetectionStore<Object, Object, Object, Object>> children =
+                store.getChildrenForMethod();
+        assertThat(children).hasSize(dependingMethods.size());
+        for (int i = 0; i < dependingMethods.size(); i++) {
+            assertThat(children.get(i).getDetectionRule()).isSameAs(dependingRules.get(i));
+            assertThat(children.get(i).getActionValue().map(IValue::asString).orElse(null))
+                    .isEqualTo(dependingMethods.get(i));
+        }
+        assertThat(pendingVisits).hasValue(0);
+        assertThat(emits).hasValue(1);
+    }
+
+    /* detects the invocations of the rules' methods in the walks of the given visitor factory */
+    @Nonnull
+    private static ILanguageSupport<Object, Object, Object, Object> languageSupport(
+            @Nonnull IBaseMethodVisitorFactory<Object, Object> visitorFactory) {
+        return stub(
+                ILanguageSupport.class,
+                (methodName, args) ->
+                        switch (methodName) {
+                            case "getEnclosingMethod" -> Optional.of("method");
+                            case "getBaseMethodVisitorFactory" -> visitorFactory;
+                            case "createDetectionEngineInstance" ->
+                                    detectionEngine(
+                                            (DetectionStore<Object, Object, Object, Object>)
+                                                    args[0]);
+                            default -> Stubs.DEFAULT;
+                        });
+    }
+
+    @Nonnull
+    private static IDetectionEngine<Object, Object> detectionEngine(
+            @Nonnull DetectionStore<Object, Object, Object, Object> store) {
+        final String method =
+                ((DetectionRule<Object>) store.getDetectionRule())
+                        .matchers()
+                        .getMethodNamesSerializable()
+                        .get(0);
+        return stub(
+                IDetectionEngine.class,
+                (methodName, args) -> {
+                    final Object tree = args[args.length - 1];
+                    if (methodName.equals("run") && tree.equals(method)) {
+                        store.onReceivingNewDetection(new MethodDetection<>(tree, null));
+                    }
+                    return Stubs.DEFAULT;
+                });
+    }
+
+    @Nonnull
+    private static IDetectionRule<Object> methodRule(
+            @Nonnull String method, @Nonnull List<IDetectionRule<Object>> dependingRules) {
+        return new DetectionRuleBuilder<>()
+                .createDetectionRule()
+                .forObjectTypes("javax.crypto.Cipher")
+                .forMethods(method)
+                .shouldBeDetectedAs(new ValueActionFactory<>(method))
+                .withoutParameters()
+                .buildForContext(new CipherContext())
+                .inBundle(() -> "Test")
+                .withDependingDetectionRules(dependingRules);
+    }
+
+    @Nonnull
+    private DetectionStore<Object, Object, Object, Object> newStore(int level) {
+        return new DetectionStore<>(
+                level, RULE, stub(IScanContext.class), handler, stub(IStatusReporting.class));
+    }
+}
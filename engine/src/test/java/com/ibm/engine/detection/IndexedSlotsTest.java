@@ -0,0 +1,72 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IndexedSlotsTest {
+
+    @Test
+    void valuesAreOrderedByIndexThenInsertion() {
+        final IndexedSlots<String> slots = new IndexedSlots<>();
+        slots.add(2, "c");
+        slots.add(-1, "a");
+        slots.add(2, "d");
+        slots.add(0, "b");
+        slots.add(5, "e");
+
+        assertThat(slots.values()).containsExactly("a", "b", "c", "d", "e");
+        assertThat(slots.get(2)).containsExactly("c", "d");
+        assertThat(slots.get(1)).isNull();
+
+        final List<Integer> keys = new ArrayList<>();
+        slots.forEach((key, values) -> keys.add(key));
+        assertThat(keys).containsExactly(-1, 0, 2, 5);
+    }
+
+    @Test
+    void valuesViewIsCachedUntilNextAdd() {
+        final IndexedSlots<String> slots = new IndexedSlots<>();
+        slots.add(0, "a");
+        final List<String> values = slots.values();
+        assertThat(slots.values()).isSameAs(values);
+
+        slots.add(0, "b");
+        assertThat(slots.values()).isNotSameAs(values).containsExactly("a", "b");
+    }
+
+    @Test
+    void missingSlotsEqualEmptySlots() {
+        final IndexedSlots<String> first = new IndexedSlots<>();
+        final IndexedSlots<String> second = new IndexedSlots<>();
+        assertThat(IndexedSlots.equal(null, first)).isTrue();
+        assertThat(IndexedSlots.hash(null)).isEqualTo(first.hashCode());
+
+        first.add(1, "a");
+        second.add(1, "a");
+        assertThat(IndexedSlots.equal(first, second)).isTrue();
+        assertThat(first.hashCode()).isEqualTo(second.hashCode());
+        assertThat(IndexedSlots.equal(first, null)).isFalse();
+    }
+}
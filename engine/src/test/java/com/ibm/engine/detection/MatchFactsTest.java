@@ -0,0 +1,128 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.language.ILanguageTranslation;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+class MatchFactsTest {
+
+    private final AtomicInteger methodNameQueries = new AtomicInteger();
+    private final AtomicInteger objectTypeQueries = new AtomicInteger();
+    private final AtomicInteger subtypeQueries = new AtomicInteger();
+
+    private final ILanguageTranslation<String> translation =
+            new ILanguageTranslation<>() {
+                @Nonnull
+                @Override
+                public Optional<String> getMethodName(
+                        @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+                    methodNameQueries.incrementAndGet();
+                    return Optional.of("getInstance");
+                }
+
+                @Nonnull
+                @Override
+                public Optional<IType> getInvokedObjectTypeString(
+                        @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+                    objectTypeQueries.incrementAndGet();
+                    return Optional.of(
+                            typeString -> {
+                                subtypeQueries.incrementAndGet();
+                                return typeString.equals("javax.crypto.Cipher");
+                            });
+                }
+
+                @Nonnull
+                @Override
+                public Optional<IType> getMethodReturnTypeString(
+                        @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+                    return Optional.empty();
+                }
+
+                @Nonnull
+                @Override
+                public List<IType> getMethodParameterTypes(
+                        @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+                    return List.of(typeString -> typeString.equals("java.lang.String"));
+                }
+
+                @Nonnull
+                @Override
+                public Optional<String> resolveIdentifierAsString(
+                        @Nonnull MatchContext matchContext, @Nonnull String identifierTree) {
+                    return Optional.empty();
+                }
+
+                @Nonnull
+                @Override
+                public Optional<String> getEnumIdentifierName(
+                        @Nonnull MatchContext matchContext, @Nonnull String enumIdentifier) {
+                    return Optional.empty();
+                }
+
+                @Nonnull
+                @Override
+                public Optional<String> getEnumClassName(
+                        @Nonnull MatchContext matchContext, @Nonnull String enumClass) {
+                    return Optional.empty();
+                }
+            };
+
+    @Test
+    void factsAreComputedOncePerNode() {
+        final String expression = "Cipher.getInstance(\"AES\")";
+        final MatchFacts<String> matchFacts = new MatchFacts<>(expression, translation);
+        final MatchContext matchContext = new MatchContext(false, false, List.of(false));
+
+        final MethodMatcher<String> cipherMatcher =
+                new MethodMatcher<>(
+                        "javax.crypto.Cipher", "getInstance", List.of("java.lang.String"));
+        final MethodMatcher<String> macMatcher =
+                new MethodMatcher<>("javax.crypto.Mac", "getInstance", List.of("java.lang.String"));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(cipherMatcher.match(expression, matchFacts, matchContext)).isTrue();
+            assertThat(macMatcher.match(expression, matchFacts, matchContext)).isFalse();
+        }
+
+        assertThat(methodNameQueries).hasValue(1);
+        assertThat(objectTypeQueries).hasValue(1);
+        // one query per distinct type string
+        assertThat(subtypeQueries).hasValue(2);
+    }
+
+    @Test
+    void otherTreesAreForwarded() {
+        final MatchFacts<String> matchFacts = new MatchFacts<>("a()", translation);
+        final MatchContext matchContext = MatchContext.createForHookContext();
+
+        matchFacts.getMethodName(matchContext, "b()");
+        matchFacts.getMethodName(matchContext, "b()");
+
+        assertThat(methodNameQueries).hasValue(2);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class MethodInvocationIndexTest {
+
+    @Test
+    void methodIsCollectedOncePerFile() {
+        final MethodInvocationIndex<String> index = new MethodInvocationIndex<>();
+        final AtomicInteger collections = new AtomicInteger();
+        final String method = "void m() { a(); b(); }";
+        final MethodInvocationIndex.Invocations<String> collected =
+                MethodInvocationIndex.Invocations.<String>builder()
+                        .addInvocation("a()", List.of("a"))
+                        .addInvocation("b()", List.of("b"))
+                        .build();
+
+        index.onFile("A.java");
+        for (int i = 0; i < 3; i++) {
+            assertThat(
+                            index.getInvocations(
+                                            method,
+                                            m -> {
+                                                collections.incrementAndGet();
+                                                return collected;
+                                            })
+                                    .all())
+                    .containsExactly("a()", "b()");
+        }
+        assertThat(collections).hasValue(1);
+
+        index.onFile("A.java");
+        assertThat(index.size()).isEqualTo(1);
+        index.onFile("B.java");
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void invocationsAreGroupedByKey() {
+        final MethodInvocationIndex.Invocations<String> invocations =
+                MethodInvocationIndex.Invocations.<String>builder()
+                        .addInvocation("init()", List.of("init"))
+                        .addInvocation("new Foo()", List.of("<init>:Foo", "<init>:Object"))
+                        .addReturnStatement("return x;")
+                        .addInvocation("doFinal()", List.of("doFinal"))
+                        .addInvocation("init(k)", List.of("init"))
+                        .addInvocation("x.y()", List.of())
+                        .build();
+
+        assertThat(invocations.positions(Set.of("init")).stream().boxed().toList())
+                .containsExactly(0, 3);
+        assertThat(invocations.positions(Set.of("doFinal", "<init>:Foo")).stream().boxed().toList())
+                .containsExactly(1, 2);
+        assertThat(invocations.positions(Set.of("unknown")).isEmpty()).isTrue();
+        assertThat(invocations.positions(null).cardinality()).isEqualTo(5);
+        assertThat(invocations.returnStatements()).containsExactly("return x;");
+    }
+}
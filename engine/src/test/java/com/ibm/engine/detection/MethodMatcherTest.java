@@ -0,0 +1,149 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.Stubs;
+import com.ibm.engine.language.ILanguageTranslation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MethodMatcherTest {
+
+    private final MethodMatcher<String> matcher =
+            new MethodMatcher<>("javax.crypto.Cipher", "getInstance", List.of("java.lang.String"));
+    private final MatchContext matchContext = MatchContext.createForHookContext();
+    private final List<String> queries = new ArrayList<>();
+
+    @BeforeEach
+    void reset() {
+        MatchStatistics.reset();
+    }
+
+    @Test
+    void matchesAnInvocationThatPassesAllStages() {
+        final ILanguageTranslation<String> translation =
+                translation("getInstance", 1, "javax.crypto.Cipher", "java.lang.String");
+
+        assertThat(matcher.match("call", translation, matchContext)).isTrue();
+        assertThat(queries)
+                .containsExactly(
+                        "getMethodName",
+                        "getMethodArity",
+                        "getInvokedObjectTypeString",
+                        "getMethodParameterTypes");
+        assertThat(MatchStatistics.getMatches()).isEqualTo(1);
+        assertRejectedAt(null);
+    }
+
+    @Test
+    void rejectsAnotherMethodNameWithoutQueryingMore() {
+        final ILanguageTranslation<String> translation =
+                translation("doFinal", 1, "javax.crypto.Cipher", "java.lang.String");
+
+        assertThat(matcher.match("call", translation, matchContext)).isFalse();
+        assertThat(queries).containsExactly("getMethodName");
+        assertRejectedAt(MatchStatistics.Stage.METHOD_NAME);
+    }
+
+    @Test
+    void rejectsAnotherArityWithoutResolvingTypes() {
+        final ILanguageTranslation<String> translation =
+                translation("getInstance", 2, "javax.crypto.Cipher", "java.lang.String");
+
+        assertThat(matcher.match("call", translation, matchContext)).isFalse();
+        assertThat(queries).containsExactly("getMethodName", "getMethodArity");
+        assertRejectedAt(MatchStatistics.Stage.ARITY);
+    }
+
+    @Test
+    void rejectsAnotherOwnerBeforeTheParameterTypes() {
+        final ILanguageTranslation<String> translation =
+                translation("getInstance", 1, "java.security.Signature", "java.lang.String");
+
+        assertThat(matcher.match("call", translation, matchContext)).isFalse();
+        assertThat(queries)
+                .containsExactly("getMethodName", "getMethodArity", "getInvokedObjectTypeString");
+        assertRejectedAt(MatchStatistics.Stage.INVOKED_OBJECT_TYPE);
+    }
+
+    @Test
+    void rejectsOtherParameterTypes() {
+        final ILanguageTranslation<String> translation =
+                translation("getInstance", 1, "javax.crypto.Cipher", "java.lang.Integer");
+
+        assertThat(matcher.match("call", translation, matchContext)).isFalse();
+        assertThat(queries)
+                .containsExactly(
+                        "getMethodName",
+                        "getMethodArity",
+                        "getInvokedObjectTypeString",
+                        "getMethodParameterTypes");
+        assertRejectedAt(MatchStatistics.Stage.PARAMETER_TYPES);
+    }
+
+    @Test
+    void anyArityQueriesNeitherTheArityNorTheParameterTypes() {
+        final MethodMatcher<String> anyParameters =
+                new MethodMatcher<>(
+                        new String[] {"javax.crypto.Cipher"}, new String[] {"getInstance"});
+        final ILanguageTranslation<String> translation =
+                translation("getInstance", 3, "javax.crypto.Cipher", "java.lang.Integer");
+
+        assertThat(anyParameters.match("call", translation, matchContext)).isTrue();
+        assertThat(queries).containsExactly("getMethodName", "getInvokedObjectTypeString");
+        assertThat(MatchStatistics.getMatches()).isEqualTo(1);
+    }
+
+    /* a translation of an invocation with one parameter type, recording the queries */
+    private ILanguageTranslation<String> translation(
+            String methodName, int arity, String objectType, String parameterType) {
+        return Stubs.stub(
+                ILanguageTranslation.class,
+                (name, args) -> {
+                    queries.add(name);
+                    return switch (name) {
+                        case "getMethodName" -> Optional.of(methodName);
+                        case "getMethodArity" -> arity;
+                        case "getInvokedObjectTypeString" -> Optional.of(type(objectType));
+                        case "getMethodParameterTypes" -> List.of(type(parameterType));
+                        default -> Stubs.DEFAULT;
+                    };
+                });
+    }
+
+    private static IType type(String name) {
+        return name::equals;
+    }
+
+    private static void assertRejectedAt(MatchStatistics.Stage rejectingStage) {
+        for (MatchStatistics.Stage stage : MatchStatistics.Stage.values()) {
+            assertThat(MatchStatistics.getRejections(stage))
+                    .isEqualTo(stage == rejectingStage ? 1L : 0L);
+        }
+        if (rejectingStage != null) {
+            assertThat(MatchStatistics.getMatches()).isZero();
+        }
+    }
+}
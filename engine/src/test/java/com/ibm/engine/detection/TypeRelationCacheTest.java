@@ -0,0 +1,85 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TypeRelationCacheTest {
+
+    @BeforeEach
+    void reset() {
+        TypeRelationCache.clear();
+        TypeRelationCache.reset();
+    }
+
+    @Test
+    void relationIsComputedOnce() {
+        final Object type = new Object();
+        final AtomicInteger computations = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            assertThat(
+                            TypeRelationCache.isSubtypeOf(
+                                    type,
+                                    "org.bouncycastle.crypto.BlockCipher",
+                                    () -> computations.incrementAndGet() > 0))
+                    .isTrue();
+        }
+        assertThat(computations).hasValue(1);
+        assertThat(TypeRelationCache.getMisses()).isEqualTo(1);
+        assertThat(TypeRelationCache.getHits()).isEqualTo(4);
+    }
+
+    @Test
+    void typesOfTheSameNameDoNotShareRelations() {
+        // e.g. the same class resolved against the classpaths of two modules
+        final String firstModuleType = new String("com.example.Engine");
+        final String secondModuleType = new String("com.example.Engine");
+
+        assertThat(
+                        TypeRelationCache.isSubtypeOf(
+                                firstModuleType, "org.bouncycastle.crypto.BlockCipher", () -> true))
+                .isTrue();
+        assertThat(
+                        TypeRelationCache.isSubtypeOf(
+                                secondModuleType,
+                                "org.bouncycastle.crypto.BlockCipher",
+                                () -> false))
+                .isFalse();
+        assertThat(TypeRelationCache.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void cacheIsBounded() {
+        final List<Object> types = new ArrayList<>();
+        for (int i = 0; i <= TypeRelationCache.MAX_TYPES; i++) {
+            final Object type = new Object();
+            types.add(type);
+            TypeRelationCache.isSubtypeOf(type, "java.lang.Object", () -> true);
+        }
+        assertThat(types).hasSize(TypeRelationCache.MAX_TYPES + 1);
+        assertThat(TypeRelationCache.size()).isLessThanOrEqualTo(TypeRelationCache.MAX_TYPES);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.executive;
+
+import static com.ibm.engine.Stubs.stub;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.detection.DetectionStore;
+import com.ibm.engine.detection.Handler;
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.hooks.HookScope;
+import com.ibm.engine.hooks.MethodInvocationHookWithReturnResolvement;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.model.context.CipherContext;
+import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.Parameter;
+import com.ibm.engine.rule.builder.DetectionRuleBuilder;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+class AnalysisBudgetTest {
+
+    private static final IDetectionRule<Object> RULE =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("javax.crypto.Cipher")
+                    .forMethods("init")
+                    .withMethodParameter("int")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Test")
+                    .withoutDependingDetectionRules();
+
+    @Test
+    void limitsAreReadFromSystemProperties() {
+        System.setProperty(AnalysisBudget.MAX_RESOLUTION_DEPTH_PROPERTY, "3");
+        System.setProperty(AnalysisBudget.MAX_HOOKS_PER_FINDING_PROPERTY, "invalid");
+        try {
+            final AnalysisBudget.Limits limits = AnalysisBudget.Limits.fromSystemProperties();
+            assertThat(limits.maxResolutionDepth()).isEqualTo(3);
+            assertThat(limits.maxHooksPerFinding()).isZero();
+            assertThat(limits.allowsResolutionDepth(3)).isTrue();
+            assertThat(limits.allowsResolutionDepth(4)).isFalse();
+            assertThat(AnalysisBudget.Limits.UNLIMITED.allowsResolutionDepth(1_000)).isTrue();
+        } finally {
+            System.clearProperty(AnalysisBudget.MAX_RESOLUTION_DEPTH_PROPERTY);
+            System.clearProperty(AnalysisBudget.MAX_HOOKS_PER_FINDING_PROPERTY);
+        }
+    }
+
+    @Test
+    void limitsAreOffUnlessConfigured() {
+        assertThat(AnalysisBudget.Limits.from(key -> null))
+                .isEqualTo(AnalysisBudget.Limits.UNLIMITED);
+        final AnalysisBudget.Limits limits =
+                AnalysisBudget.Limits.from(
+                        Map.of(AnalysisBudget.MAX_MILLIS_PER_FINDING_PROPERTY, "100")::get);
+        assertThat(limits).isEqualTo(new AnalysisBudget.Limits(0, 0, 0, 0, 100));
+    }
+
+    @Test
+    void timeIsOnlyLimitedWhileTheClockRuns() throws InterruptedException {
+        final AnalysisBudget budget =
+                AnalysisBudget.forFinding(new AnalysisBudget.Limits(0, 0, 0, 0, 1));
+        Thread.sleep(5);
+        assertThat(budget.isExhausted()).isFalse();
+
+        budget.start();
+        Thread.sleep(5);
+        assertThat(budget.isExhausted()).isTrue();
+        assertThat(budget.getExceededReason()).isEqualTo(AnalysisBudget.Reason.TIME);
+        budget.stop();
+        // an exceeded budget stays exceeded
+        assertThat(budget.isExhausted()).isTrue();
+    }
+
+    @Test
+    void hookRegistrationsAreBoundedPerFinding() {
+        final Handler<Object, Object, Object, Object> handler =
+                new Handler<>(
+                        languageSupport(), new AnalysisBudget.Limits(0, 0, 1, 0, 0));
+        final AnalysisBudget budget = AnalysisBudget.forFinding(handler.getBudgetLimits());
+        final DetectionStore<Object, Object, Object, Object> store =
+                new DetectionStore<>(0, RULE, stub(IScanContext.class), handler, reporting(budget));
+
+        assertThat(store.registerHook(hook("m1"))).isTrue();
+        assertThat(store.isPartial()).isFalse();
+        assertThat(store.registerHook(hook("m2"))).isFalse();
+        assertThat(store.isPartial()).isTrue();
+        assertThat(budget.getExceededReason())
+                .isEqualTo(AnalysisBudget.Reason.HOOK_REGISTRATIONS);
+        assertThat(store.isOutOfBudget()).isTrue();
+    }
+
+    @Test
+    void resolutionDepthMarksTheFindingAsPartial() {
+        final Handler<Object, Object, Object, Object> handler =
+                new Handler<>(
+                        languageSupport(), new AnalysisBudget.Limits(2, 0, 0, 0, 0));
+        final AnalysisBudget budget = AnalysisBudget.forFinding(handler.getBudgetLimits());
+        final DetectionStore<Object, Object, Object, Object> store =
+                new DetectionStore<>(0, RULE, stub(IScanContext.class), handler, reporting(budget));
+
+        assertThat(store.allowsResolutionDepth(2)).isTrue();
+        assertThat(store.isPartial()).isFalse();
+        assertThat(store.allowsResolutionDepth(3)).isFalse();
+        assertThat(store.isPartial()).isTrue();
+        assertThat(budget.getExceededReason()).isEqualTo(AnalysisBudget.Reason.RESOLUTION_DEPTH);
+    }
+
+    @Nonnull
+    private static MethodInvocationHookWithReturnResolvement<Object, Object, Object, Object> hook(
+            @Nonnull String methodDefinition) {
+        return new MethodInvocationHookWithReturnResolvement<>(
+                methodDefinition,
+                new Parameter<>("int", 0, false, List.of()),
+                MatchContext.createForHookContext());
+    }
+
+    @Nonnull
+    private static IStatusReporting<Object, Object, Object, Object> reporting(
+            @Nonnull AnalysisBudget budget) {
+        return stub(IStatusReporting.class, "getAnalysisBudget", budget);
+    }
+
+    @Nonnull
+    private static ILanguageSupport<Object, Object, Object, Object> languageSupport() {
+        return stub(ILanguageSupport.class, "getHookScope", HookScope.SCAN);
+    }
+}
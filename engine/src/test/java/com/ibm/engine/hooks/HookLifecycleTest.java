@@ -0,0 +1,125 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.hooks;
+
+import static com.ibm.engine.Stubs.stub;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.Stubs;
+import com.ibm.engine.detection.Handler;
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.rule.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+class HookLifecycleTest {
+
+    @Test
+    void fileScopedHooksAreReleasedWhenTheNextFileIsAnalysed() {
+        final Handler<Object, Object, Object, Object> handler = new Handler<>(languageSupport());
+        final IHook<Object, Object, Object, Object> fileHook = hook("private void m(int a)");
+        final IHook<Object, Object, Object, Object> scanHook = hook("public void n(int a)");
+        final List<Object> invocations = new ArrayList<>();
+        final long releasedHooks = HookStatistics.getReleasedHooks();
+
+        handler.onNewFile(scanContext("A.java"));
+        assertThat(handler.addHookToHookRepository(fileHook)).isTrue();
+        assertThat(handler.addHookToHookRepository(scanHook)).isTrue();
+        handler.subscribeToHookDetectionObservable(fileHook, observer(invocations));
+        handler.subscribeToHookDetectionObservable(scanHook, observer(invocations));
+
+        handler.notifyAllHookDetectionObservers("m(1)", fileHook, scanContext("A.java"));
+        assertThat(invocations).containsExactly("m(1)");
+
+        // same file, nothing is released
+        handler.onNewFile(scanContext("A.java"));
+        assertThat(handler.addHookToHookRepository(fileHook)).isFalse();
+
+        handler.onNewFile(scanContext("B.java"));
+        assertThat(HookStatistics.getReleasedHooks()).isGreaterThan(releasedHooks);
+        handler.notifyAllHookDetectionObservers("m(2)", fileHook, scanContext("B.java"));
+        handler.notifyAllHookDetectionObservers("n(2)", scanHook, scanContext("B.java"));
+        assertThat(invocations).containsExactly("m(1)", "n(2)");
+        // the released hook can be registered again, the hook of the scan is still known
+        assertThat(handler.addHookToHookRepository(scanHook)).isFalse();
+        assertThat(handler.addHookToHookRepository(fileHook)).isTrue();
+    }
+
+    @Test
+    void hooksWithoutFileAreKeptForTheScan() {
+        final Handler<Object, Object, Object, Object> handler = new Handler<>(languageSupport());
+        final IHook<Object, Object, Object, Object> fileHook = hook("private void o(int a)");
+
+        assertThat(handler.addHookToHookRepository(fileHook)).isTrue();
+        handler.onNewFile(scanContext("A.java"));
+        handler.onNewFile(scanContext("B.java"));
+        assertThat(handler.addHookToHookRepository(fileHook)).isFalse();
+    }
+
+    @Nonnull
+    private static IHook<Object, Object, Object, Object> hook(@Nonnull String methodDefinition) {
+        return new MethodInvocationHookWithReturnResolvement<>(
+                methodDefinition,
+                new Parameter<>("int", 0, false, List.of()),
+                MatchContext.createForHookContext());
+    }
+
+    @Nonnull
+    private static IHookDetectionObserver<Object, Object, Object, Object> observer(
+            @Nonnull List<Object> invocations) {
+        return new IHookDetectionObserver<>() {
+            @Override
+            public void onHookInvocation(
+                    @Nonnull Object invocationTree,
+                    @Nonnull IHook<Object, Object, Object, Object> hook,
+                    @Nonnull IScanContext<Object, Object> scanContext) {
+                invocations.add(invocationTree);
+            }
+
+            @Override
+            public boolean isRootHook() {
+                return false;
+            }
+        };
+    }
+
+    @Nonnull
+    private static ILanguageSupport<Object, Object, Object, Object> languageSupport() {
+        return stub(
+                ILanguageSupport.class,
+                (methodName, args) -> {
+                    if (methodName.equals("getHookScope")) {
+                        return args[0].toString().startsWith("private")
+                                ? HookScope.FILE
+                                : HookScope.SCAN;
+                    }
+                    return Stubs.DEFAULT;
+                });
+    }
+
+    @Nonnull
+    private static IScanContext<Object, Object> scanContext(@Nonnull String filePath) {
+        return stub(IScanContext.class, "getFilePath", filePath);
+    }
+}
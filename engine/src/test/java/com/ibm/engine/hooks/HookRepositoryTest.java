@@ -0,0 +1,183 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.hooks;
+
+import static com.ibm.engine.Stubs.stub;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.Stubs;
+import com.ibm.engine.callstack.CallContext;
+import com.ibm.engine.detection.EnumMatcher;
+import com.ibm.engine.detection.Handler;
+import com.ibm.engine.detection.IType;
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.detection.MatchStatistics;
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.ILanguageTranslation;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.rule.Parameter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HookRepositoryTest {
+
+    /* the trees of the test: a method definition, an invocation or an enum access */
+    private record Tree(@Nullable String methodName, int arity, @Nullable String enumClassName) {}
+
+    private static final IType ANY_TYPE = type -> true;
+
+    private final Handler<Object, Object, Object, Object> handler =
+            new Handler<>(languageSupport());
+    private final HookRepository<Object, Object, Object, Object> repository =
+            new HookRepository<>(handler);
+    private final List<Object> invokedHookValues = new ArrayList<>();
+
+    @BeforeEach
+    void reset() {
+        MatchStatistics.reset();
+    }
+
+    @Test
+    void invocationsAreLookedUpByNameAndArity() {
+        final Tree oneArgument = new Tree("init", 1, null);
+        final Tree twoArguments = new Tree("init", 2, null);
+        final Tree otherName = new Tree("update", 1, null);
+        register(methodHook(oneArgument));
+        register(methodHook(twoArguments));
+        register(methodHook(otherName));
+
+        invoke(new Tree("init", 1, null));
+
+        assertThat(invokedHookValues).containsExactly(oneArgument);
+        // the hooks of another name or arity are not even checked
+        assertThat(MatchStatistics.getMatches()).isEqualTo(1);
+        for (MatchStatistics.Stage stage : MatchStatistics.Stage.values()) {
+            assertThat(MatchStatistics.getRejections(stage)).isZero();
+        }
+    }
+
+    @Test
+    void aHookOfTheSameNameAndAnotherArityIsNotReturned() {
+        final Tree twoArguments = new Tree("init", 2, null);
+        register(methodHook(twoArguments));
+
+        invoke(new Tree("init", 3, null));
+
+        assertThat(invokedHookValues).isEmpty();
+        assertThat(MatchStatistics.getRejections(MatchStatistics.Stage.ARITY)).isZero();
+    }
+
+    @Test
+    void enumHooksAreLookedUpByTheEnumClassName() {
+        final String mode = "ECB";
+        register(
+                new EnumHook<>(
+                        mode,
+                        new LinkedList<>(),
+                        new Parameter<>("int", 0, false, List.of()),
+                        MatchContext.createForHookContext()));
+
+        invoke(new Tree(null, 0, "CBC"));
+        assertThat(invokedHookValues).isEmpty();
+
+        invoke(new Tree(null, 0, mode));
+        assertThat(invokedHookValues).containsExactly(mode);
+    }
+
+    private void register(@Nonnull IHook<Object, Object, Object, Object> hook) {
+        assertThat(repository.add(hook)).isTrue();
+        handler.subscribeToHookDetectionObservable(
+                hook,
+                new IHookDetectionObserver<>() {
+                    @Override
+                    public void onHookInvocation(
+                            @Nonnull Object invocationTree,
+                            @Nonnull IHook<Object, Object, Object, Object> invokedHook,
+                            @Nonnull IScanContext<Object, Object> scanContext) {
+                        invokedHookValues.add(invokedHook.hookValue());
+                    }
+
+                    @Override
+                    public boolean isRootHook() {
+                        return false;
+                    }
+                });
+    }
+
+    private void invoke(@Nonnull Tree invocation) {
+        repository.update(new CallContext<>(invocation, stub(IScanContext.class)));
+    }
+
+    @Nonnull
+    private static IHook<Object, Object, Object, Object> methodHook(@Nonnull Tree definition) {
+        return new MethodInvocationHookWithReturnResolvement<>(
+                definition,
+                new Parameter<>("int", 0, false, List.of()),
+                MatchContext.createForHookContext());
+    }
+
+    @Nonnull
+    private static ILanguageSupport<Object, Object, Object, Object> languageSupport() {
+        final ILanguageTranslation<Object> translation =
+                stub(
+                        ILanguageTranslation.class,
+                        (methodName, args) ->
+                                switch (methodName) {
+                                    case "getMethodName" ->
+                                            Optional.ofNullable(((Tree) args[1]).methodName());
+                                    case "getEnumClassName" ->
+                                            Optional.ofNullable(((Tree) args[1]).enumClassName());
+                                    case "getEnumIdentifierName" -> Optional.of(args[1]);
+                                    case "getMethodArity" -> ((Tree) args[1]).arity();
+                                    case "getInvokedObjectTypeString" -> Optional.of(ANY_TYPE);
+                                    case "getMethodParameterTypes" ->
+                                            Collections.nCopies(
+                                                    ((Tree) args[1]).arity(), ANY_TYPE);
+                                    default -> Stubs.DEFAULT;
+                                });
+        return stub(
+                ILanguageSupport.class,
+                (methodName, args) ->
+                        switch (methodName) {
+                            case "translation" -> translation;
+                            case "getHookScope" -> HookScope.SCAN;
+                            case "createMethodMatcherBasedOn" -> methodMatcher((Tree) args[0]);
+                            case "createSimpleEnumMatcherFor" ->
+                                    new EnumMatcher<>((String) args[0]);
+                            default -> Stubs.DEFAULT;
+                        });
+    }
+
+    @Nonnull
+    private static MethodMatcher<Object> methodMatcher(@Nonnull Tree definition) {
+        return new MethodMatcher<>(
+                MethodMatcher.ANY,
+                definition.methodName(),
+                Collections.nCopies(definition.arity(), MethodMatcher.ANY));
+    }
+}
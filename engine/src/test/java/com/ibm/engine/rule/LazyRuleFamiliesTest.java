@@ -0,0 +1,107 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.model.context.CipherContext;
+import com.ibm.engine.rule.LazyRuleFamilies.Family;
+import com.ibm.engine.rule.builder.DetectionRuleBuilder;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class LazyRuleFamiliesTest {
+
+    private static final IDetectionRule<Object> JCA_CIPHER =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("javax.crypto.Cipher")
+                    .forMethods("getInstance")
+                    .withMethodParameter("java.lang.String")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Jca")
+                    .withoutDependingDetectionRules();
+
+    private static final IDetectionRule<Object> BC_ENGINE =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("org.bouncycastle.crypto.engines.AESEngine")
+                    .forConstructor()
+                    .withMethodParameter("int")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Bc")
+                    .withoutDependingDetectionRules();
+
+    private static final IDetectionRule<Object> SSL_CONTEXT =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("javax.net.ssl.SSLContext")
+                    .forMethods("getInstance")
+                    .withMethodParameter("java.lang.String")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "SSL")
+                    .withoutDependingDetectionRules();
+
+    private final AtomicInteger jcaBuilds = new AtomicInteger();
+    private final AtomicInteger bcBuilds = new AtomicInteger();
+
+    private final LazyRuleFamilies<Object> families =
+            LazyRuleFamilies.of(
+                    List.of(
+                            new Family<>(
+                                    "Jca",
+                                    () -> {
+                                        jcaBuilds.incrementAndGet();
+                                        return List.of(JCA_CIPHER, SSL_CONTEXT);
+                                    }),
+                            new Family<>(
+                                    "Bc",
+                                    () -> {
+                                        bcBuilds.incrementAndGet();
+                                        return List.of(BC_ENGINE);
+                                    })));
+
+    @Test
+    void allFamilies() {
+        assertThat(families.rules(RuleSelection.ALL))
+                .containsExactly(JCA_CIPHER, SSL_CONTEXT, BC_ENGINE);
+    }
+
+    @Test
+    void disabledFamilyIsNeverBuilt() {
+        final RuleSelection selection = RuleSelection.of("jca", null);
+        final List<IDetectionRule<Object>> rules = families.rules(selection);
+
+        assertThat(rules).containsExactly(JCA_CIPHER, SSL_CONTEXT);
+        assertThat(families.rules(RuleSelection.of(" JCA ,", ""))).isSameAs(rules);
+        assertThat(jcaBuilds.get()).isEqualTo(1);
+        assertThat(bcBuilds.get()).isZero();
+    }
+
+    @Test
+    void disabledBundles() {
+        assertThat(families.rules(RuleSelection.of("", "ssl,Bc"))).containsExactly(JCA_CIPHER);
+        assertThat(families.rules(RuleSelection.ALL))
+                .containsExactly(JCA_CIPHER, SSL_CONTEXT, BC_ENGINE);
+        assertThat(jcaBuilds.get()).isEqualTo(1);
+        assertThat(bcBuilds.get()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.model.context.CipherContext;
+import com.ibm.engine.rule.builder.DetectionRuleBuilder;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class RuleDispatchIndexTest {
+
+    private static final IDetectionRule<Object> GET_INSTANCE =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("javax.crypto.Cipher")
+                    .forMethods("getInstance")
+                    .withMethodParameter("java.lang.String")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Test")
+                    .withoutDependingDetectionRules();
+
+    private static final IDetectionRule<Object> ENGINE_CONSTRUCTOR =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("org.bouncycastle.crypto.engines.AESEngine")
+                    .forConstructor()
+                    .withMethodParameter("int")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Test")
+                    .withoutDependingDetectionRules();
+
+    private static final IDetectionRule<Object> INIT_OR_GET_INSTANCE =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("javax.crypto.Cipher")
+                    .forMethods("init", "getInstance")
+                    .withMethodParameter("int")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Test")
+                    .withoutDependingDetectionRules();
+
+    private final RuleDispatchIndex<Object> index =
+            RuleDispatchIndex.build(
+                    List.of(GET_INSTANCE, ENGINE_CONSTRUCTOR, INIT_OR_GET_INSTANCE));
+
+    @Test
+    void methodCandidatesKeepRuleOrder() {
+        assertThat(index.candidatesForMethod("getInstance"))
+                .containsExactly(GET_INSTANCE, INIT_OR_GET_INSTANCE);
+        assertThat(index.candidatesForMethod("init")).containsExactly(INIT_OR_GET_INSTANCE);
+        assertThat(index.candidatesForMethod("doFinal")).isEmpty();
+    }
+
+    @Test
+    void constructorCandidatesByOwnerHierarchy() {
+        assertThat(index.candidatesForConstructor(Set.of("MyEngine", "AESEngine", "Object")))
+                .containsExactly(ENGINE_CONSTRUCTOR);
+        assertThat(index.candidatesForConstructor(Set.of("String", "Object"))).isEmpty();
+        assertThat(index.candidatesForConstructor(null)).containsExactly(ENGINE_CONSTRUCTOR);
+    }
+
+    @Test
+    void simpleNameOfNestedType() {
+        assertThat(RuleDispatchIndex.simpleName("java.security.KeyStore$PasswordProtection"))
+                .isEqualTo("PasswordProtection");
+        assertThat(RuleDispatchIndex.simpleName("int")).isEqualTo("int");
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.model.context.CipherContext;
+import com.ibm.engine.rule.builder.DetectionRuleBuilder;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class RuleFamiliesTest {
+
+    private static final IDetectionRule<Object> JCA_CIPHER =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("javax.crypto.Cipher")
+                    .forMethods("getInstance")
+                    .withMethodParameter("java.lang.String")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Jca")
+                    .withoutDependingDetectionRules();
+
+    private static final IDetectionRule<Object> BC_ENGINE =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("org.bouncycastle.crypto.engines.AESEngine")
+                    .forConstructor()
+                    .withMethodParameter("int")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Bc")
+                    .withoutDependingDetectionRules();
+
+    private static final IDetectionRule<Object> PYCA_FERNET =
+            new DetectionRuleBuilder<>()
+                    .createDetectionRule()
+                    .forObjectTypes("cryptography.fernet.Fernet")
+                    .forMethods("generate_key")
+                    .withMethodParameter("int")
+                    .buildForContext(new CipherContext())
+                    .inBundle(() -> "Pyca")
+                    .withoutDependingDetectionRules();
+
+    private final RuleFamilies<Object> ruleFamilies =
+            RuleFamilies.build(List.of(JCA_CIPHER, BC_ENGINE, PYCA_FERNET));
+
+    @Test
+    void familiesOfImportedNames() {
+        assertThat(ruleFamilies.familiesOf("javax.crypto.Cipher")).containsExactly("Jca");
+        assertThat(ruleFamilies.familiesOf("javax.crypto")).containsExactly("Jca");
+        assertThat(ruleFamilies.familiesOf("org.bouncycastle.crypto.engines.AESEngine"))
+                .containsExactly("Bc");
+        assertThat(ruleFamilies.familiesOf("cryptography")).containsExactly("Pyca");
+        assertThat(ruleFamilies.familiesOf("javax.cryptography")).isEmpty();
+        assertThat(ruleFamilies.familiesOf("java.util.List")).isEmpty();
+    }
+
+    @Test
+    void familiesOfTypeHierarchy() {
+        assertThat(
+                        ruleFamilies.familiesOfType(
+                                "com.example.MyEngine",
+                                () -> List.of("com.example.MyEngine", "javax.crypto.CipherSpi")))
+                .containsExactly("Jca");
+        // remembered by type name
+        assertThat(ruleFamilies.familiesOfType("com.example.MyEngine", List::of))
+                .containsExactly("Jca");
+    }
+
+    @Test
+    void dispatchIndexOnlyContainsEnabledFamilies() {
+        assertThat(ruleFamilies.dispatchIndexFor(Set.of("Jca")).rules())
+                .containsExactly(JCA_CIPHER);
+        assertThat(ruleFamilies.dispatchIndexFor(Set.of()).rules()).isEmpty();
+        assertThat(ruleFamilies.dispatchIndexFor(Set.of("Jca", "Bc", "Pyca")))
+                .isSameAs(ruleFamilies.allRules());
+        assertThat(ruleFamilies.dispatchIndexFor(Set.of("Bc")))
+                .isSameAs(ruleFamilies.dispatchIndexFor(Set.of("Bc")));
+    }
+
+    @Test
+    void fileFilterModeDefaultsToSafe() {
+        System.clearProperty(RuleFamilies.FILE_FILTER_PROPERTY);
+        assertThat(RuleFamilies.FileFilterMode.fromSystemProperty())
+                .isEqualTo(RuleFamilies.FileFilterMode.SAFE);
+    }
+
+    @Test
+    void fileFilterModeIsParsedCaseInsensitively() {
+        assertThat(RuleFamilies.FileFilterMode.of(" imports "))
+                .isEqualTo(RuleFamilies.FileFilterMode.IMPORTS);
+        assertThat(RuleFamilies.FileFilterMode.of("Off"))
+                .isEqualTo(RuleFamilies.FileFilterMode.OFF);
+        assertThat(RuleFamilies.FileFilterMode.of("unknown"))
+                .isEqualTo(RuleFamilies.FileFilterMode.SAFE);
+    }
+}
@@ -34,15 +34,23 @@ import com.ibm.enricher.algorithm.SignatureEnricher;
 import com.ibm.enricher.algorithm.TagOrDigestEnricher;
 import com.ibm.mapper.model.INode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * This enricher instance operates on a language-agnostic level, meaning it will enrich the given
  * list of nodes with general cryptographic knowledge, such as OIDs. This does not include
  * language-specific information like default key sizes. Therefore, create a library-specific
  * enricher instance as part of the language package.
+ *
+ * <p>Each node is only passed to the enrichers that handle its class (see {@link
+ * IEnricher#getNodeClasses()}). The enrichers of a node class are looked up once and then kept.
  */
 public class Enricher implements IEnricher {
     /**
@@ -57,21 +65,42 @@ public class Enricher implements IEnricher {
 
     @Nonnull
     private static INode enrichTree(@Nonnull INode node) {
-        final Enricher enricher = new Enricher();
-        final INode enriched = enricher.enrich(node);
+        final INode enriched = enrichNode(node);
+        if (!enriched.hasChildren()) {
+            return enriched;
+        }
 
-        final Collection<INode> enrichedChildren = new ArrayList<>();
-        final Collection<INode> markForRemoval = new ArrayList<>();
-        for (final INode child : enriched.getChildren().values()) {
+        // the children are only replaced if an enricher returned a new node for one of them
+        final Collection<INode> children = enriched.getChildren().values();
+        @Nullable List<INode> enrichedChildren = null;
+        @Nullable List<INode> markForRemoval = null;
+        int index = 0;
+        for (final INode child : children) {
             final INode enrichedChild = enrichTree(child);
-            if (!child.is(enrichedChild.getKind())) {
-                markForRemoval.add(child);
+            if (enrichedChild != child) {
+                if (enrichedChildren == null) {
+                    enrichedChildren = new ArrayList<>(children.size());
+                    children.stream().limit(index).forEach(enrichedChildren::add);
+                }
+                if (!child.is(enrichedChild.getKind())) {
+                    if (markForRemoval == null) {
+                        markForRemoval = new ArrayList<>();
+                    }
+                    markForRemoval.add(child);
+                }
+            }
+            if (enrichedChildren != null) {
+                enrichedChildren.add(enrichedChild);
             }
-            enrichedChildren.add(enrichedChild);
+            index++;
         }
 
-        enrichedChildren.forEach(enriched::put);
-        markForRemoval.forEach(remove -> enriched.removeChildOfType(remove.getKind()));
+        if (enrichedChildren != null) {
+            enrichedChildren.forEach(enriched::put);
+        }
+        if (markForRemoval != null) {
+            markForRemoval.forEach(remove -> enriched.removeChildOfType(remove.getKind()));
+        }
         return enriched;
     }
 
@@ -92,6 +121,44 @@ public class Enricher implements IEnricher {
                     new TagOrDigestEnricher(),
                     new KEMEnricher());
 
+    /* the indices of the enrichers that handle a node class, in the order of the enrichers */
+    @Nonnull
+    private static final Map<Class<?>, int[]> enrichersByClass = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private static int[] enrichersOf(@Nonnull Class<?> nodeClass) {
+        return enrichersByClass.computeIfAbsent(
+                nodeClass,
+                c ->
+                        IntStream.range(0, enrichers.size())
+                                .filter(i -> handles(enrichers.get(i), c))
+                                .toArray());
+    }
+
+    private static boolean handles(@Nonnull IEnricher enricher, @Nonnull Class<?> nodeClass) {
+        return enricher.getNodeClasses().stream()
+                .anyMatch(handled -> handled.isAssignableFrom(nodeClass));
+    }
+
+    @Nonnull
+    private static INode enrichNode(@Nonnull INode node) {
+        int[] nodeEnrichers = enrichersOf(node.getClass());
+        for (int i = 0; i < nodeEnrichers.length; i++) {
+            final INode enriched = enrichers.get(nodeEnrichers[i]).enrich(node);
+            if (enriched.getClass() != node.getClass()) {
+                // continue with the later enrichers that handle the class of the new node
+                final int last = nodeEnrichers[i];
+                nodeEnrichers =
+                        Arrays.stream(enrichersOf(enriched.getClass()))
+                                .filter(j -> j > last)
+                                .toArray();
+                i = -1;
+            }
+            node = enriched;
+        }
+        return node;
+    }
+
     /**
      * Enriches the given node with additional information.
      *
@@ -100,9 +167,6 @@ public class Enricher implements IEnricher {
     @Nonnull
     @Override
     public INode enrich(@Nonnull INode node) {
-        for (final IEnricher enricher : enrichers) {
-            node = enricher.enrich(node);
-        }
-        return node;
+        return enrichNode(node);
     }
 }
@@ -20,9 +20,20 @@
 package com.ibm.enricher;
 
 import com.ibm.mapper.model.INode;
+import java.util.List;
 import javax.annotation.Nonnull;
 
 public interface IEnricher {
     @Nonnull
     INode enrich(@Nonnull INode node);
+
+    /**
+     * Returns the classes of the nodes this enricher handles. The {@link Enricher} only calls
+     * {@link #enrich(INode)} for instances of these classes, so the enricher must return any other
+     * node unchanged.
+     */
+    @Nonnull
+    default List<Class<? extends INode>> getNodeClasses() {
+        return List.of(INode.class);
+    }
 }
@@ -28,6 +28,7 @@ import com.ibm.mapper.model.Oid;
 import com.ibm.mapper.model.algorithms.AES;
 import com.ibm.mapper.model.mode.CCM;
 import com.ibm.mapper.model.mode.GCM;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -60,6 +61,12 @@ public class AESEnricher implements IEnricher, IEnrichWithDefaultKeySize {
         return node;
     }
 
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(AES.class);
+    }
+
     @Nonnull
     private INode enrich(@Nonnull AES aes) {
         @Nullable KeyLength keyLength = aes.getKeyLength().orElse(null);
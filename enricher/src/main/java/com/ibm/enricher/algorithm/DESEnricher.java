@@ -22,6 +22,7 @@ package com.ibm.enricher.algorithm;
 import com.ibm.enricher.IEnricher;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.model.algorithms.DES;
+import java.util.List;
 import javax.annotation.Nonnull;
 
 public class DESEnricher implements IEnricher, IEnrichWithDefaultKeySize {
@@ -33,4 +34,10 @@ public class DESEnricher implements IEnricher, IEnrichWithDefaultKeySize {
         }
         return node;
     }
+
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(DES.class);
+    }
 }
@@ -22,6 +22,7 @@ package com.ibm.enricher.algorithm;
 import com.ibm.enricher.IEnricher;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.model.algorithms.DH;
+import java.util.List;
 import javax.annotation.Nonnull;
 
 public class DHEnricher implements IEnricher, IEnrichWithDefaultKeySize {
@@ -34,6 +35,12 @@ public class DHEnricher implements IEnricher, IEnrichWithDefaultKeySize {
         return node;
     }
 
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(DH.class);
+    }
+
     @Nonnull
     private DH enrich(@Nonnull DH dh) {
         this.applyDefaultKeySizeForJca(dh, 3072);
@@ -22,6 +22,7 @@ package com.ibm.enricher.algorithm;
 import com.ibm.enricher.IEnricher;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.model.algorithms.DSA;
+import java.util.List;
 import javax.annotation.Nonnull;
 
 public class DSAEnricher implements IEnricher, IEnrichWithDefaultKeySize {
@@ -33,4 +34,10 @@ public class DSAEnricher implements IEnricher, IEnrichWithDefaultKeySize {
         }
         return node;
     }
+
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(DSA.class);
+    }
 }
@@ -25,6 +25,7 @@ import com.ibm.mapper.model.Oid;
 import com.ibm.mapper.model.ParameterSetIdentifier;
 import com.ibm.mapper.model.algorithms.kyber.MLKEM;
 import com.ibm.mapper.utils.DetectionLocation;
+import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 
@@ -38,6 +39,12 @@ public class KEMEnricher implements IEnricher {
         return node;
     }
 
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(MLKEM.class);
+    }
+
     @Nonnull
     private MLKEM enrichMLKEM(@Nonnull MLKEM mlkem) {
         final Optional<INode> parameterSetIdentifierOptional =
@@ -25,6 +25,7 @@ import com.ibm.mapper.model.Mac;
 import com.ibm.mapper.model.Oid;
 import com.ibm.mapper.model.algorithms.PBKDF2;
 import com.ibm.mapper.model.algorithms.SHA;
+import java.util.List;
 import javax.annotation.Nonnull;
 
 public class PBKDF2Enricher implements IEnricher {
@@ -46,4 +47,10 @@ public class PBKDF2Enricher implements IEnricher {
         }
         return node;
     }
+
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(PBKDF2.class);
+    }
 }
@@ -22,6 +22,7 @@ package com.ibm.enricher.algorithm;
 import com.ibm.enricher.IEnricher;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.model.algorithms.RSA;
+import java.util.List;
 import javax.annotation.Nonnull;
 
 public class RSAEnricher implements IEnricher, IEnrichWithDefaultKeySize {
@@ -35,6 +36,12 @@ public class RSAEnricher implements IEnricher, IEnrichWithDefaultKeySize {
         return node;
     }
 
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(RSA.class);
+    }
+
     @Nonnull
     private RSA enrich(@Nonnull RSA rsa) {
         this.applyDefaultKeySizeForJca(rsa, 2048);
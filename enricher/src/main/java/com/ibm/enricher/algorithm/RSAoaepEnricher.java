@@ -25,6 +25,7 @@ import com.ibm.mapper.model.Oid;
 import com.ibm.mapper.model.Padding;
 import com.ibm.mapper.model.algorithms.RSA;
 import com.ibm.mapper.model.padding.OAEP;
+import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 
@@ -44,4 +45,10 @@ public class RSAoaepEnricher implements IEnricher {
         }
         return node;
     }
+
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(RSA.class);
+    }
 }
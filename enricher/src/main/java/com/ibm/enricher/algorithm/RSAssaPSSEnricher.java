@@ -23,6 +23,7 @@ import com.ibm.enricher.IEnricher;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.model.Oid;
 import com.ibm.mapper.model.algorithms.RSAssaPSS;
+import java.util.List;
 import javax.annotation.Nonnull;
 
 public class RSAssaPSSEnricher implements IEnricher {
@@ -34,4 +35,10 @@ public class RSAssaPSSEnricher implements IEnricher {
         }
         return node;
     }
+
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(RSAssaPSS.class);
+    }
 }
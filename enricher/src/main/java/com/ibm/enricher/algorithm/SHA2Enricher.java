@@ -26,6 +26,7 @@ import com.ibm.mapper.model.INode;
 import com.ibm.mapper.model.MessageDigest;
 import com.ibm.mapper.model.Oid;
 import com.ibm.mapper.model.algorithms.SHA2;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -41,6 +42,12 @@ public class SHA2Enricher implements IEnricher {
         return node;
     }
 
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(SHA2.class);
+    }
+
     @Nonnull
     private SHA2 enrich(@Nonnull SHA2 sha2) {
         sha2.getDigestSize()
@@ -24,6 +24,7 @@ import com.ibm.mapper.model.BlockSize;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.model.Oid;
 import com.ibm.mapper.model.algorithms.SHA3;
+import java.util.List;
 import javax.annotation.Nonnull;
 
 public class SHA3Enricher implements IEnricher {
@@ -36,6 +37,12 @@ public class SHA3Enricher implements IEnricher {
         return node;
     }
 
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(SHA3.class);
+    }
+
     @Nonnull
     private SHA3 enrich(@Nonnull SHA3 sha3) {
         sha3.getDigestSize()
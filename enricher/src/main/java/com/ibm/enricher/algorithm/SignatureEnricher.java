@@ -33,6 +33,7 @@ import com.ibm.mapper.model.algorithms.RSA;
 import com.ibm.mapper.model.algorithms.SHA;
 import com.ibm.mapper.model.algorithms.SHA2;
 import com.ibm.mapper.model.algorithms.SHA3;
+import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 
@@ -54,6 +55,12 @@ public class SignatureEnricher implements IEnricher {
         return node;
     }
 
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(DSA.class, ECDSA.class, RSA.class);
+    }
+
     @SuppressWarnings("java:S3776")
     @Nonnull
     private Signature enrichRSA(@Nonnull RSA rsa) {
@@ -27,6 +27,7 @@ import com.ibm.mapper.model.Mac;
 import com.ibm.mapper.model.MessageDigest;
 import com.ibm.mapper.model.functionality.Digest;
 import com.ibm.mapper.model.functionality.Tag;
+import java.util.List;
 import javax.annotation.Nonnull;
 
 public class TagOrDigestEnricher implements IEnricher {
@@ -44,4 +45,10 @@ public class TagOrDigestEnricher implements IEnricher {
         }
         return node;
     }
+
+    @Nonnull
+    @Override
+    public List<Class<? extends INode>> getNodeClasses() {
+        return List.of(IAsset.class);
+    }
 }
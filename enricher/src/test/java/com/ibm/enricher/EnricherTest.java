@@ -0,0 +1,85 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.enricher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.mapper.model.AuthenticatedEncryption;
+import com.ibm.mapper.model.BlockCipher;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.Key;
+import com.ibm.mapper.model.KeyLength;
+import com.ibm.mapper.model.Oid;
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.model.algorithms.DES;
+import com.ibm.mapper.model.mode.GCM;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class EnricherTest extends TestBase {
+
+    private final DetectionLocation detectionLocation =
+            new DetectionLocation("testfile", 1, 1, List.of("test"), () -> "Jca");
+
+    @Test
+    void replacesChildrenOfAnotherKind() {
+        final AES aes = new AES(128, new GCM(detectionLocation), detectionLocation);
+        final Key key = new Key(aes);
+        this.logBefore(key);
+
+        final INode enriched = Enricher.enrich(List.of(key)).iterator().next();
+        this.logAfter(enriched);
+
+        assertThat(enriched).isSameAs(key);
+        assertThat(key.hasChildOfType(BlockCipher.class)).isEmpty();
+        final INode enrichedAES = key.hasChildOfType(AuthenticatedEncryption.class).orElseThrow();
+        assertThat(enrichedAES).isInstanceOf(AES.class);
+        assertThat(enrichedAES.hasChildOfType(Oid.class)).isPresent();
+    }
+
+    @Test
+    void keepsChildrenThatAreEnrichedInPlace() {
+        final DES des = new DES(detectionLocation);
+        final Key key = new Key(des);
+        final Map<Class<? extends INode>, INode> children = key.getChildren();
+        this.logBefore(key);
+
+        final INode enriched = Enricher.enrich(List.of(key)).iterator().next();
+        this.logAfter(enriched);
+
+        assertThat(enriched.getChildren()).isSameAs(children);
+        assertThat(children).containsEntry(BlockCipher.class, des);
+        assertThat(des.hasChildOfType(KeyLength.class)).isPresent();
+        assertThat(des.hasChildOfType(KeyLength.class).get().asString()).isEqualTo("56");
+    }
+
+    @Test
+    void onlyCallsTheEnrichersOfTheNodeClass() {
+        final DES des = new DES(detectionLocation);
+
+        final INode enriched = new Enricher().enrich(des);
+
+        assertThat(enriched).isSameAs(des);
+        assertThat(des.hasChildOfType(KeyLength.class)).isPresent();
+        assertThat(des.hasChildOfType(Oid.class)).isEmpty();
+    }
+}
@@ -23,10 +23,13 @@ import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.LanguageSupporter;
 import com.ibm.mapper.model.INode;
 import com.ibm.output.IAggregator;
+import com.ibm.output.cache.IncrementalResultCache;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.Symbol;
@@ -34,9 +37,13 @@ import org.sonar.plugins.java.api.tree.Tree;
 
 public final class JavaAggregator implements IAggregator {
 
-    private static ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext>
+    private static volatile ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext>
             javaLanguageSupport = LanguageSupporter.javaLanguageSupporter();
-    private static List<INode> detectedNodes = new ArrayList<>();
+    @Nonnull
+    private static volatile List<INode> detectedNodes =
+            Collections.synchronizedList(new ArrayList<>());
+    /* opened by the first rule that scans a file, since the fingerprint depends on the rules */
+    @Nullable private static volatile IncrementalResultCache resultCache = null;
 
     private JavaAggregator() {
         // nothing
@@ -49,7 +56,11 @@ public final class JavaAggregator implements IAggregator {
 
     @Nonnull
     public static List<INode> getDetectedNodes() {
-        return Collections.unmodifiableList(detectedNodes);
+        // a copy, since files can still be analysed concurrently
+        final List<INode> nodes = detectedNodes;
+        synchronized (nodes) {
+            return List.copyOf(nodes);
+        }
     }
 
     @Nonnull
@@ -58,8 +69,39 @@ public final class JavaAggregator implements IAggregator {
         return javaLanguageSupport;
     }
 
+    /**
+     * Returns the result cache of the analysis, opening it with the given fingerprint of the active
+     * rule set if this is the first call.
+     *
+     * @param fingerprint supplies the fingerprint of the active rule set
+     * @return the result cache, which is disabled unless a cache directory is configured
+     */
+    @Nonnull
+    public static IncrementalResultCache getResultCache(@Nonnull Supplier<String> fingerprint) {
+        IncrementalResultCache cache = resultCache;
+        if (cache == null) {
+            synchronized (JavaAggregator.class) {
+                cache = resultCache;
+                if (cache == null) {
+                    cache = IncrementalResultCache.fromSelectedDirectory("java", fingerprint);
+                    resultCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /** Stores the results of this analysis, if the result cache was opened. */
+    public static void storeResultCache() {
+        final IncrementalResultCache cache = resultCache;
+        if (cache != null) {
+            cache.store(javaLanguageSupport::hasScanScopedHooks);
+        }
+    }
+
     public static void reset() {
         javaLanguageSupport = LanguageSupporter.javaLanguageSupporter();
-        detectedNodes = new ArrayList<>();
+        detectedNodes = Collections.synchronizedList(new ArrayList<>());
+        resultCache = null;
     }
 }
@@ -19,17 +19,48 @@
  */
 package com.ibm.plugin;
 
+import com.ibm.engine.executive.AnalysisBudget;
+import com.ibm.engine.rule.RuleFamilies;
+import com.ibm.engine.rule.RuleSelection;
+import com.ibm.output.cache.IncrementalResultCache;
+import com.ibm.plugin.rules.detection.JavaDetectionRules;
 import java.util.List;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.sonar.api.config.Configuration;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonarsource.api.sonarlint.SonarLintSide;
 
 @SonarLintSide
 public class JavaCheckRegistrar implements CheckRegistrar {
+    @Nullable private final Configuration configuration;
+
+    public JavaCheckRegistrar() {
+        this(null);
+    }
+
+    public JavaCheckRegistrar(@Nullable Configuration configuration) {
+        this.configuration = configuration;
+    }
 
     @Override
     public void register(RegistrarContext registrarContext) {
+        if (configuration != null) {
+            JavaDetectionRules.select(
+                    RuleSelection.of(
+                            configuration.get(RuleSelection.FAMILIES_PROPERTY).orElse(null),
+                            configuration
+                                    .get(RuleSelection.DISABLED_BUNDLES_PROPERTY)
+                                    .orElse(null)));
+            JavaDetectionRules.selectFileFilterMode(
+                    RuleFamilies.FileFilterMode.of(
+                            configuration.get(RuleFamilies.FILE_FILTER_PROPERTY).orElse(null)));
+            AnalysisBudget.Limits.select(
+                    AnalysisBudget.Limits.from(key -> configuration.get(key).orElse(null)));
+            IncrementalResultCache.selectDirectory(
+                    configuration.get(IncrementalResultCache.DIRECTORY_PROPERTY).orElse(null));
+        }
         // Call to registerClassesForRepository to associate the classes with the correct repository
         registrarContext.registerClassesForRepository(
                 JavaScannerRuleDefinition.REPOSITORY_KEY, checkClasses(), testCheckClasses());
@@ -22,36 +22,61 @@ package com.ibm.plugin.rules.detection;
 import com.ibm.common.IObserver;
 import com.ibm.engine.detection.Finding;
 import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.language.java.JavaLanguageTranslation;
 import com.ibm.engine.language.java.JavaScanContext;
 import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.RuleDispatchIndex;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.reorganizer.IReorganizerRule;
+import com.ibm.output.cache.CachedFileResult;
+import com.ibm.output.cache.CachedIssue;
 import com.ibm.plugin.JavaAggregator;
 import com.ibm.plugin.translation.JavaTranslationProcess;
 import com.ibm.plugin.translation.reorganizer.JavaReorganizerRules;
+import com.ibm.rules.FileDetection;
 import com.ibm.rules.IReportableDetectionRule;
 import com.ibm.rules.issue.Issue;
 import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nonnull;
+import org.sonar.java.model.ExpressionUtils;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.location.Position;
 import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 public abstract class JavaBaseDetectionRule extends IssuableSubscriptionVisitor
         implements IObserver<Finding<JavaCheck, Tree, Symbol, JavaFileScannerContext>>,
                 IReportableDetectionRule<Tree> {
 
+    @Nonnull
+    private static final FileDetection.Registry<JavaCheck, Tree, Symbol, JavaFileScannerContext>
+            FILE_DETECTIONS =
+                    new FileDetection.Registry<>(
+                            JavaBaseDetectionRule.class,
+                            JavaAggregator::getResultCache,
+                            scanContext ->
+                                    scanContext instanceof JavaScanContext javaScanContext
+                                            ? javaScanContext.javaFileScannerContext()
+                                            : scanContext,
+                            JavaDetectionRules::fileFilterMode);
+
     private final boolean isInventory;
     @Nonnull protected final JavaTranslationProcess javaTranslationProcess;
     @Nonnull protected final List<IDetectionRule<Tree>> detectionRules;
 
+    @Nonnull
+    private final FileDetection<JavaCheck, Tree, Symbol, JavaFileScannerContext> fileDetection;
+
     protected JavaBaseDetectionRule() {
-        this.isInventory = false;
-        this.detectionRules = JavaDetectionRules.rules();
-        this.javaTranslationProcess = new JavaTranslationProcess(JavaReorganizerRules.rules());
+        this(false, JavaDetectionRules.rules(), JavaReorganizerRules.rules());
     }
 
     protected JavaBaseDetectionRule(
@@ -61,6 +86,37 @@ public abstract class JavaBaseDetectionRule extends IssuableSubscriptionVisitor
         this.isInventory = isInventory;
         this.detectionRules = detectionRules;
         this.javaTranslationProcess = new JavaTranslationProcess(reorganizerRules);
+        this.fileDetection =
+                FILE_DETECTIONS.register(
+                        this,
+                        isInventory,
+                        detectionRules,
+                        reorganizerRules,
+                        javaTranslationProcess::initiate,
+                        this::accept,
+                        this::replay);
+    }
+
+    /**
+     * Joins the detection session of the file, see {@link FileDetection#startFile}. Only the rule
+     * families that can fire in the file, according to its imports, are started.
+     *
+     * @param context The context of the file to scan.
+     */
+    @Override
+    public void setContext(@Nonnull JavaFileScannerContext context) {
+        super.setContext(context);
+        final JavaScanContext scanContext = new JavaScanContext(context);
+        JavaAggregator.getLanguageSupport().onNewFile(scanContext);
+        final CompilationUnitTree compilationUnit = context.getTree();
+        fileDetection.startFile(
+                context,
+                scanContext.getFilePath(),
+                (ruleFamilies, fileFilterMode) ->
+                        compilationUnit == null
+                                ? ruleFamilies.families()
+                                : JavaFileFamilies.of(
+                                        compilationUnit, ruleFamilies, fileFilterMode));
     }
 
     /**
@@ -74,42 +130,94 @@ public abstract class JavaBaseDetectionRule extends IssuableSubscriptionVisitor
     }
 
     /**
-     * Visits a tree node and applies detection rules to it.
+     * Visits a tree node and applies the candidate detection rules to it. The candidates are
+     * looked up in the {@link RuleDispatchIndex}, so that no detection executive is started for
+     * rules that can never match the node.
      *
      * @param tree The tree node to visit.
      */
     @Override
     public void visitNode(@Nonnull Tree tree) {
-        detectionRules.forEach(
-                rule -> {
-                    DetectionExecutive<JavaCheck, Tree, Symbol, JavaFileScannerContext>
-                            detectionExecutive =
-                                    JavaAggregator.getLanguageSupport()
-                                            .createDetectionExecutive(
-                                                    tree, rule, new JavaScanContext(this.context));
-                    detectionExecutive.subscribe(this);
-                    detectionExecutive.start();
-                });
+        if (!fileDetection.isLeader()) {
+            // the detection pass is shared with the leader of the session
+            return;
+        }
+        final ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext> languageSupport =
+                JavaAggregator.getLanguageSupport();
+        final JavaScanContext scanContext = new JavaScanContext(this.context);
+        if (tree.is(Tree.Kind.METHOD_INVOCATION, Tree.Kind.ENUM)) {
+            // hooks have to be notified about every invocation, even if no rule is started for it
+            languageSupport.addCallToCallStack(tree, scanContext);
+        }
+        getCandidateRules(tree)
+                .forEach(
+                        rule -> {
+                            DetectionExecutive<JavaCheck, Tree, Symbol, JavaFileScannerContext>
+                                    detectionExecutive =
+                                            languageSupport.createDetectionExecutive(
+                                                    tree, rule, scanContext);
+                            detectionExecutive.subscribe(this);
+                            detectionExecutive.start();
+                        });
+    }
+
+    @Nonnull
+    private List<IDetectionRule<Tree>> getCandidateRules(@Nonnull Tree tree) {
+        final RuleDispatchIndex<Tree> fileRules = fileDetection.fileRules();
+        if (fileRules.rules().isEmpty()) {
+            // no rule family is referenced by the file
+            return Collections.emptyList();
+        }
+        if (tree instanceof MethodInvocationTree methodInvocationTree) {
+            return fileRules.candidatesForMethod(
+                    ExpressionUtils.methodName(methodInvocationTree).name());
+        } else if (tree instanceof NewClassTree newClassTree) {
+            return fileRules.candidatesForConstructor(
+                    JavaLanguageTranslation.getTypeHierarchyNames(
+                            newClassTree.identifier().symbolType()));
+        }
+        // enums are only relevant for the call stack
+        return Collections.emptyList();
     }
 
     /**
-     * On new finding.
+     * On new finding. The finding is translated once and handed over to all rules of the session,
+     * see {@link FileDetection#publish}.
      *
      * @param finding A finding containing detection store information.
      */
     @Override
     public void update(@Nonnull Finding<JavaCheck, Tree, Symbol, JavaFileScannerContext> finding) {
-        final List<INode> nodes = javaTranslationProcess.initiate(finding.detectionStore());
+        fileDetection.publish(finding);
+    }
+
+    private void accept(
+            @Nonnull Finding<JavaCheck, Tree, Symbol, JavaFileScannerContext> finding,
+            @Nonnull List<INode> nodes) {
         if (isInventory) {
             JavaAggregator.addNodes(nodes);
         }
         // report
+        final IScanContext<JavaCheck, Tree> scanContext = finding.detectionStore().getScanContext();
         this.report(finding.getMarkerTree(), nodes)
                 .forEach(
-                        issue ->
-                                finding.detectionStore()
-                                        .getScanContext()
-                                        .reportIssue(this, issue.tree(), issue.message()));
+                        issue -> {
+                            scanContext.reportIssue(this, issue.tree(), issue.message());
+                            fileDetection.recordIssue(
+                                    scanContext.getFilePath(),
+                                    Position.startOf(issue.tree()).line(),
+                                    issue.message());
+                        });
+    }
+
+    private void replay(
+            @Nonnull JavaFileScannerContext context, @Nonnull CachedFileResult result) {
+        if (isInventory) {
+            JavaAggregator.addNodes(result.nodes());
+        }
+        for (CachedIssue issue : result.issues()) {
+            context.addIssue(issue.line(), this, issue.message());
+        }
     }
 
     @Override
@@ -20,26 +20,74 @@
 package com.ibm.plugin.rules.detection;
 
 import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.LazyRuleFamilies;
+import com.ibm.engine.rule.LazyRuleFamilies.Family;
+import com.ibm.engine.rule.RuleFamilies;
+import com.ibm.engine.rule.RuleSelection;
 import com.ibm.plugin.rules.detection.bc.BouncyCastleDetectionRules;
 import com.ibm.plugin.rules.detection.jca.JcaDetectionRules;
 import com.ibm.plugin.rules.detection.ssl.SSLDetectionRules;
 import java.util.List;
-import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import org.sonar.plugins.java.api.tree.Tree;
 
 public final class JavaDetectionRules {
+    /* lambdas, so that the rule classes of disabled families are never loaded */
+    @Nonnull
+    private static final LazyRuleFamilies<Tree> FAMILIES =
+            LazyRuleFamilies.of(
+                    List.of(
+                            new Family<>("Jca", () -> JcaDetectionRules.rules()),
+                            new Family<>("Bc", () -> BouncyCastleDetectionRules.rules()),
+                            new Family<>("SSL", () -> SSLDetectionRules.rules())));
+
+    @Nonnull private static volatile RuleSelection selection = RuleSelection.fromSystemProperties();
+
+    @Nonnull
+    private static volatile RuleFamilies.FileFilterMode fileFilterMode =
+            RuleFamilies.FileFilterMode.fromSystemProperty();
+
     private JavaDetectionRules() {
         // private
     }
 
+    /**
+     * Returns the detection rules of the selected libraries. The rules are immutable, so they are
+     * built once and shared by all checks, also by the checks of parallel analyses. Checks with the
+     * same rules share their detection of a file (see {@code DetectionSession}).
+     *
+     * @return the detection rules
+     */
     @Nonnull
     public static List<IDetectionRule<Tree>> rules() {
-        return Stream.of(
-                        JcaDetectionRules.rules().stream(),
-                        BouncyCastleDetectionRules.rules().stream(),
-                        SSLDetectionRules.rules().stream())
-                .flatMap(i -> i)
-                .toList();
+        return FAMILIES.rules(selection);
+    }
+
+    /**
+     * Selects the rule families and bundles of the checks that are created afterward.
+     *
+     * @param ruleSelection the selection
+     */
+    public static void select(@Nonnull RuleSelection ruleSelection) {
+        selection = ruleSelection;
+    }
+
+    /**
+     * Returns how the rule families that can fire in a file are determined.
+     *
+     * @return the file filter mode
+     */
+    @Nonnull
+    public static RuleFamilies.FileFilterMode fileFilterMode() {
+        return fileFilterMode;
+    }
+
+    /**
+     * Selects the file filter mode of the checks that are created afterward.
+     *
+     * @param mode the file filter mode
+     */
+    public static void selectFileFilterMode(@Nonnull RuleFamilies.FileFilterMode mode) {
+        fileFilterMode = mode;
     }
 }
@@ -0,0 +1,183 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.detection;
+
+import com.ibm.engine.rule.RuleFamilies;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.ImportClauseTree;
+import org.sonar.plugins.java.api.tree.ImportTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.PackageDeclarationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Collects the rule families that can fire in a compilation unit, from its package, its imports
+ * and the qualified names it uses. In {@link RuleFamilies.FileFilterMode#SAFE} mode the resolved
+ * types of invoked objects, instantiated classes and the supertypes of declared classes are
+ * considered as well. The walk stops as soon as all families are found.
+ */
+final class JavaFileFamilies extends BaseTreeVisitor {
+    /* implicitly imported by every compilation unit */
+    private static final String JAVA_LANG = "java.lang";
+
+    @Nonnull private final RuleFamilies<Tree> ruleFamilies;
+    private final boolean followTypes;
+    @Nonnull private final Set<String> families = new HashSet<>();
+
+    private JavaFileFamilies(@Nonnull RuleFamilies<Tree> ruleFamilies, boolean followTypes) {
+        this.ruleFamilies = ruleFamilies;
+        this.followTypes = followTypes;
+    }
+
+    @Nonnull
+    static Set<String> of(
+            @Nonnull CompilationUnitTree compilationUnit,
+            @Nonnull RuleFamilies<Tree> ruleFamilies,
+            @Nonnull RuleFamilies.FileFilterMode mode) {
+        final JavaFileFamilies collector =
+                new JavaFileFamilies(ruleFamilies, mode == RuleFamilies.FileFilterMode.SAFE);
+        collector.add(JAVA_LANG);
+        final PackageDeclarationTree packageDeclaration = compilationUnit.packageDeclaration();
+        if (packageDeclaration != null) {
+            collector.add(qualifiedName(packageDeclaration.packageName()));
+        }
+        for (ImportClauseTree importClause : compilationUnit.imports()) {
+            if (importClause instanceof ImportTree importTree) {
+                collector.add(qualifiedName(importTree.qualifiedIdentifier()));
+            }
+        }
+        collector.scan(compilationUnit.types());
+        return collector.families;
+    }
+
+    private boolean isComplete() {
+        return families.size() == ruleFamilies.families().size();
+    }
+
+    @Override
+    protected void scan(@Nullable Tree tree) {
+        if (!isComplete()) {
+            super.scan(tree);
+        }
+    }
+
+    @Override
+    public void visitMemberSelectExpression(@Nonnull MemberSelectExpressionTree tree) {
+        final String name = qualifiedName(tree);
+        if (name == null) {
+            super.visitMemberSelectExpression(tree);
+        } else {
+            // the selected parts are prefixes of the name and add nothing new
+            add(name);
+        }
+    }
+
+    @Override
+    public void visitMethodInvocation(@Nonnull MethodInvocationTree tree) {
+        if (followTypes
+                && tree.methodSelect() instanceof MemberSelectExpressionTree memberSelect) {
+            addType(memberSelect.expression().symbolType());
+        }
+        super.visitMethodInvocation(tree);
+    }
+
+    @Override
+    public void visitNewClass(@Nonnull NewClassTree tree) {
+        if (followTypes) {
+            addType(tree.identifier().symbolType());
+        }
+        super.visitNewClass(tree);
+    }
+
+    @Override
+    public void visitClass(@Nonnull ClassTree tree) {
+        if (followTypes) {
+            // unqualified invocations are invoked on the class itself
+            addType(tree.symbol().type());
+        }
+        super.visitClass(tree);
+    }
+
+    private void add(@Nullable String name) {
+        if (name != null) {
+            families.addAll(ruleFamilies.familiesOf(name));
+        }
+    }
+
+    private void addType(@Nullable Type type) {
+        if (type == null || type.isUnknown() || !type.isClass()) {
+            return;
+        }
+        families.addAll(
+                ruleFamilies.familiesOfType(
+                        type.fullyQualifiedName(),
+                        () -> {
+                            final List<String> names = new ArrayList<>();
+                            collectHierarchy(type, names, new HashSet<>());
+                            return names;
+                        }));
+    }
+
+    private static void collectHierarchy(
+            @Nullable Type type, @Nonnull List<String> names, @Nonnull Set<String> visited) {
+        if (type == null || type.isUnknown() || !visited.add(type.fullyQualifiedName())) {
+            return;
+        }
+        names.add(type.fullyQualifiedName());
+        final Symbol.TypeSymbol typeSymbol = type.symbol();
+        collectHierarchy(typeSymbol.superClass(), names, visited);
+        for (Type interfaceType : typeSymbol.interfaces()) {
+            collectHierarchy(interfaceType, names, visited);
+        }
+    }
+
+    /**
+     * Returns the dotted name of an identifier or a chain of selected identifiers, without a
+     * trailing wildcard.
+     */
+    @Nullable private static String qualifiedName(@Nullable Tree tree) {
+        if (tree instanceof IdentifierTree identifier) {
+            return identifier.name();
+        } else if (tree instanceof MemberSelectExpressionTree memberSelect) {
+            final ExpressionTree expression = memberSelect.expression();
+            final String prefix = qualifiedName(expression);
+            if (prefix == null) {
+                return null;
+            }
+            final String name = memberSelect.identifier().name();
+            return "*".equals(name) ? prefix : prefix + "." + name;
+        }
+        return null;
+    }
+}
@@ -24,7 +24,6 @@ import com.ibm.enricher.Enricher;
 import com.ibm.mapper.ITranslationProcess;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.reorganizer.IReorganizerRule;
-import com.ibm.mapper.reorganizer.Reorganizer;
 import com.ibm.mapper.utils.Utils;
 import com.ibm.plugin.translation.translator.JavaTranslator;
 import java.util.Collections;
@@ -54,8 +53,7 @@ public final class JavaTranslationProcess
         Utils.printNodeTree("translated ", translatedValues);
 
         // 2. Reorganize
-        final Reorganizer javaReorganizer = new Reorganizer(reorganizerRules);
-        final List<INode> reorganizedValues = javaReorganizer.reorganize(translatedValues);
+        final List<INode> reorganizedValues = reorganizer.reorganize(translatedValues);
         Utils.printNodeTree("reorganised", reorganizedValues);
 
         // 3. Enrich
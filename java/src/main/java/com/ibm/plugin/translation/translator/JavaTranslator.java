@@ -34,6 +34,7 @@ import com.ibm.engine.model.context.PublicKeyContext;
 import com.ibm.engine.model.context.SecretKeyContext;
 import com.ibm.engine.model.context.SignatureContext;
 import com.ibm.engine.rule.IBundle;
+import com.ibm.mapper.ContextTranslators;
 import com.ibm.mapper.ITranslator;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.utils.DetectionLocation;
@@ -47,7 +48,9 @@ import com.ibm.plugin.translation.translator.contexts.JavaPRNGContextTranslator;
 import com.ibm.plugin.translation.translator.contexts.JavaProtocolContextTranslator;
 import com.ibm.plugin.translation.translator.contexts.JavaSecretKeyContextTranslator;
 import com.ibm.plugin.translation.translator.contexts.JavaSignatureContextTranslator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -65,6 +68,31 @@ import org.sonar.plugins.java.api.tree.Tree;
 public final class JavaTranslator
         extends ITranslator<JavaCheck, Tree, Symbol, JavaFileScannerContext> {
 
+    /* the translations are stateless */
+    @Nonnull
+    private static final ContextTranslators<Tree> TRANSLATORS =
+            ContextTranslators.<Tree>builder()
+                    .register(new JavaCipherContextTranslator(), CipherContext.class)
+                    .register(new JavaSecretKeyContextTranslator(), SecretKeyContext.class)
+                    .register(
+                            new JavaKeyContextTranslator(),
+                            KeyContext.class,
+                            PublicKeyContext.class,
+                            PrivateKeyContext.class)
+                    .register(new JavaKeyAgreementContextTranslator(), KeyAgreementContext.class)
+                    .register(new JavaPRNGContextTranslator(), PRNGContext.class)
+                    .register(new JavaDigestContextTranslator(), DigestContext.class)
+                    .register(new JavaSignatureContextTranslator(), SignatureContext.class)
+                    .register(new JavaMacContextTranslator(), MacContext.class)
+                    .register(
+                            new JavaAlgorithmParameterContextTranslator(),
+                            AlgorithmParameterContext.class)
+                    .register(new JavaProtocolContextTranslator(), ProtocolContext.class)
+                    .build();
+
+    /* the values of a finding often share their location */
+    @Nonnull private final Map<Tree, List<String>> keywordsByLocation = new IdentityHashMap<>();
+
     public JavaTranslator() {
         // nothing
     }
@@ -75,84 +103,9 @@ public final class JavaTranslator
             @Nonnull final IBundle bundleIdentifier,
             @Nonnull final IValue<Tree> value,
             @Nonnull final IDetectionContext detectionValueContext,
-            @Nonnull final String filePath) {
-        DetectionLocation detectionLocation =
-                getDetectionContextFrom(value.getLocation(), bundleIdentifier, filePath);
-        if (detectionLocation == null) {
-            return Optional.empty();
-        }
-
-        // cipher context
-        if (detectionValueContext.is(CipherContext.class)) {
-            JavaCipherContextTranslator javaCipherContextTranslation =
-                    new JavaCipherContextTranslator();
-            return javaCipherContextTranslation.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-
-            // secret key context
-        } else if (detectionValueContext.is(SecretKeyContext.class)) {
-            JavaSecretKeyContextTranslator javaSecretKeyContextTranslation =
-                    new JavaSecretKeyContextTranslator();
-            return javaSecretKeyContextTranslation.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-
-            // private- / public- / secret- / key context
-        } else if (detectionValueContext.is(KeyContext.class)
-                || detectionValueContext.is(PublicKeyContext.class)
-                || detectionValueContext.is(PrivateKeyContext.class)
-                || detectionValueContext.is(SecretKeyContext.class)) {
-            JavaKeyContextTranslator javaKeyContextTranslation = new JavaKeyContextTranslator();
-            return javaKeyContextTranslation.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-
-            // key agreement context
-        } else if (detectionValueContext.is(KeyAgreementContext.class)) {
-            final JavaKeyAgreementContextTranslator javaKeyAgreementContextTranslator =
-                    new JavaKeyAgreementContextTranslator();
-            return javaKeyAgreementContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-
-            // PRNG context
-        } else if (detectionValueContext.is(PRNGContext.class)) {
-            JavaPRNGContextTranslator javaPRNGContextTranslation = new JavaPRNGContextTranslator();
-            return javaPRNGContextTranslation.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-
-            // digest context
-        } else if (detectionValueContext.is(DigestContext.class)) {
-            JavaDigestContextTranslator javaDigestContextTranslation =
-                    new JavaDigestContextTranslator();
-            return javaDigestContextTranslation.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-
-            // signature context
-        } else if (detectionValueContext.is(SignatureContext.class)) {
-            JavaSignatureContextTranslator javaSignatureContextTranslation =
-                    new JavaSignatureContextTranslator();
-            return javaSignatureContextTranslation.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-
-            // mac context
-        } else if (detectionValueContext.is(MacContext.class)) {
-            JavaMacContextTranslator javaMacContextTranslation = new JavaMacContextTranslator();
-            return javaMacContextTranslation.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-
-            // algorithm parameter context
-        } else if (detectionValueContext.is(AlgorithmParameterContext.class)) {
-            JavaAlgorithmParameterContextTranslator javaAlgorithmParameterContextTranslation =
-                    new JavaAlgorithmParameterContextTranslator();
-            return javaAlgorithmParameterContextTranslation.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-
-            // protocol
-        } else if (detectionValueContext.is(ProtocolContext.class)) {
-            final JavaProtocolContextTranslator javaProtocolContextTranslator =
-                    new JavaProtocolContextTranslator();
-            return javaProtocolContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        }
-        return Optional.empty();
+            @Nonnull final DetectionLocation detectionLocation) {
+        return TRANSLATORS.translate(
+                bundleIdentifier, value, detectionValueContext, detectionLocation);
     }
 
     /**
@@ -176,38 +129,35 @@ public final class JavaTranslator
             Position start = rangeFirst.start();
             int lineNumber = start.line();
             int offset = start.columnOffset();
-            List<String> keywords = List.of();
-            switch (location.kind()) {
-                case NEW_CLASS:
-                    keywords =
-                            List.of(
-                                    ((NewClassTree) location).methodSymbol().signature(),
-                                    ((NewClassTree) location).methodSymbol().name(),
-                                    ((NewClassTree) location).identifier().toString());
-                    break;
-                case METHOD_INVOCATION:
-                    keywords =
-                            List.of(
-                                    ((MethodInvocationTree) location).methodSymbol().signature(),
-                                    ((MethodInvocationTree) location).methodSymbol().name());
-                    break;
-                case ENUM_CONSTANT:
-                    keywords =
-                            List.of(
-                                    ((EnumConstantTree) location)
-                                            .initializer()
-                                            .methodSymbol()
-                                            .signature(),
-                                    ((EnumConstantTree) location)
-                                            .initializer()
-                                            .methodSymbol()
-                                            .name());
-                    break;
-                default:
-                    // nothing
-            }
+            final List<String> keywords =
+                    keywordsByLocation.computeIfAbsent(location, JavaTranslator::keywordsOf);
             return new DetectionLocation(filePath, lineNumber, offset, keywords, bundle);
         }
         return null;
     }
+
+    @Nonnull
+    private static List<String> keywordsOf(@Nonnull Tree location) {
+        return switch (location.kind()) {
+            case NEW_CLASS -> {
+                final NewClassTree newClassTree = (NewClassTree) location;
+                yield List.of(
+                        newClassTree.methodSymbol().signature(),
+                        newClassTree.methodSymbol().name(),
+                        newClassTree.identifier().toString());
+            }
+            case METHOD_INVOCATION -> {
+                final MethodInvocationTree methodInvocationTree = (MethodInvocationTree) location;
+                yield List.of(
+                        methodInvocationTree.methodSymbol().signature(),
+                        methodInvocationTree.methodSymbol().name());
+            }
+            case ENUM_CONSTANT -> {
+                final NewClassTree initializer = ((EnumConstantTree) location).initializer();
+                yield List.of(
+                        initializer.methodSymbol().signature(), initializer.methodSymbol().name());
+            }
+            default -> List.of();
+        };
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.rule.RuleFamilies;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParser;
+import org.sonar.java.model.JParserConfig;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+class JavaFileFamiliesTest {
+    private static final RuleFamilies<Tree> RULE_FAMILIES =
+            RuleFamilies.build(JavaDetectionRules.rules());
+
+    @Test
+    void fileWithoutCryptographyEnablesNoFamily() {
+        final String code =
+                """
+                package com.example;
+
+                import java.util.List;
+
+                class Names {
+                    int count(List<String> names) {
+                        return names.size();
+                    }
+                }
+                """;
+        assertThat(families(code, RuleFamilies.FileFilterMode.SAFE)).isEmpty();
+    }
+
+    @Test
+    void packageOfTheFileEnablesItsFamily() {
+        final String code =
+                """
+                package javax.net.ssl.custom;
+
+                class Names {}
+                """;
+        assertThat(families(code, RuleFamilies.FileFilterMode.IMPORTS)).isEqualTo(Set.of("SSL"));
+    }
+
+    @Test
+    void importsEnableTheirFamilies() {
+        final String code =
+                """
+                package com.example;
+
+                import javax.crypto.Cipher;
+                import javax.net.ssl.*;
+
+                class Names {}
+                """;
+        assertThat(families(code, RuleFamilies.FileFilterMode.IMPORTS))
+                .isEqualTo(Set.of("Jca", "SSL"));
+    }
+
+    @Test
+    void qualifiedNameWithoutImportEnablesItsFamilyInBothModes() {
+        final String code =
+                """
+                package com.example;
+
+                class Encryption {
+                    Object cipher() throws Exception {
+                        return javax.crypto.Cipher.getInstance("AES/GCM/NoPadding");
+                    }
+                }
+                """;
+        assertThat(families(code, RuleFamilies.FileFilterMode.SAFE)).isEqualTo(Set.of("Jca"));
+        assertThat(families(code, RuleFamilies.FileFilterMode.IMPORTS)).isEqualTo(Set.of("Jca"));
+    }
+
+    @Test
+    void resolvedTypesAreOnlyConsideredInSafeMode() {
+        // the SSL context is only reached through the return type of an unrelated class
+        final String code =
+                """
+                package com.example;
+
+                import java.net.http.HttpClient;
+
+                class Connection {
+                    String protocol(HttpClient client) {
+                        return client.sslContext().getProtocol();
+                    }
+                }
+                """;
+        assertThat(families(code, RuleFamilies.FileFilterMode.SAFE)).isEqualTo(Set.of("SSL"));
+        assertThat(families(code, RuleFamilies.FileFilterMode.IMPORTS)).isEmpty();
+    }
+
+    @Nonnull
+    private static Set<String> families(
+            @Nonnull String code, @Nonnull RuleFamilies.FileFilterMode mode) {
+        final JavaVersionImpl javaVersion = new JavaVersionImpl(17);
+        final CompilationUnitTree compilationUnit =
+                JParser.parse(
+                        JParserConfig.Mode.FILE_BY_FILE.create(javaVersion, List.of()).astParser(),
+                        javaVersion.effectiveJavaVersionAsString(),
+                        "Test.java",
+                        code);
+        return JavaFileFamilies.of(compilationUnit, RULE_FAMILIES, mode);
+    }
+}
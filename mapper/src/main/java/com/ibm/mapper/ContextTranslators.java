@@ -0,0 +1,104 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper;
+
+import com.ibm.engine.model.IValue;
+import com.ibm.engine.model.context.IDetectionContext;
+import com.ibm.engine.rule.IBundle;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+
+/**
+ * Maps the type of a detection context to the translation of its values. Translations are
+ * stateless and shared by all translators of a language, and a value is dispatched with a single
+ * lookup of its context type.
+ */
+public final class ContextTranslators<T> {
+    @Nonnull
+    private final Map<Class<? extends IDetectionContext>, IContextTranslation<T>> translations;
+
+    private ContextTranslators(
+            @Nonnull Map<Class<? extends IDetectionContext>, IContextTranslation<T>> translations) {
+        this.translations = Map.copyOf(translations);
+    }
+
+    @Nonnull
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Translates a value with the translation registered for the type of its context.
+     *
+     * @return the translated node, or empty if no translation is registered for the context
+     */
+    @Nonnull
+    public Optional<INode> translate(
+            @Nonnull final IBundle bundleIdentifier,
+            @Nonnull final IValue<T> value,
+            @Nonnull final IDetectionContext detectionValueContext,
+            @Nonnull final DetectionLocation detectionLocation) {
+        final IContextTranslation<T> translation = translations.get(detectionValueContext.type());
+        if (translation == null) {
+            return Optional.empty();
+        }
+        return translation.translate(
+                bundleIdentifier, value, detectionValueContext, detectionLocation);
+    }
+
+    public static final class Builder<T> {
+        @Nonnull
+        private final Map<Class<? extends IDetectionContext>, IContextTranslation<T>>
+                translations = new HashMap<>();
+
+        private Builder() {
+            // nothing
+        }
+
+        /**
+         * Registers the translation of the values of some context types.
+         *
+         * @throws IllegalStateException if a translation is already registered for one of the
+         *     context types
+         */
+        @SafeVarargs
+        @Nonnull
+        public final Builder<T> register(
+                @Nonnull IContextTranslation<T> translation,
+                @Nonnull Class<? extends IDetectionContext>... contextTypes) {
+            for (Class<? extends IDetectionContext> contextType : contextTypes) {
+                if (translations.putIfAbsent(contextType, translation) != null) {
+                    throw new IllegalStateException(
+                            "A translation is already registered for " + contextType.getName());
+                }
+            }
+            return this;
+        }
+
+        @Nonnull
+        public ContextTranslators<T> build() {
+            return new ContextTranslators<>(translations);
+        }
+    }
+}
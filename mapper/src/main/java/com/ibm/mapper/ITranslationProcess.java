@@ -22,15 +22,19 @@ package com.ibm.mapper;
 import com.ibm.engine.detection.DetectionStore;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.reorganizer.IReorganizerRule;
+import com.ibm.mapper.reorganizer.Reorganizer;
 import java.util.List;
 import javax.annotation.Nonnull;
 
 public abstract class ITranslationProcess<R, T, S, P> {
 
     @Nonnull protected final List<IReorganizerRule> reorganizerRules;
+    /* compiles the rules once, and is shared by all translations */
+    @Nonnull protected final Reorganizer reorganizer;
 
     protected ITranslationProcess(@Nonnull List<IReorganizerRule> reorganizerRules) {
         this.reorganizerRules = reorganizerRules;
+        this.reorganizer = new Reorganizer(reorganizerRules);
     }
 
     @Nonnull
@@ -69,13 +69,14 @@ public abstract class ITranslator<R, T, S, P> {
         final String filePath = store.getScanContext().getRelativePath();
         final IBundle bundle = store.getDetectionRule().bundle();
         final IDetectionContext context = store.getDetectionValueContext();
+        final boolean partial = store.isPartial();
 
         final Map<Integer, List<INode>> nodes = new HashMap<>();
         store.getActionValue()
                 .ifPresent(
                         actionValue -> {
                             final Optional<INode> translatedNode =
-                                    this.translate(bundle, actionValue, context, filePath);
+                                    this.translate(bundle, actionValue, context, filePath, partial);
                             translatedNode.ifPresent(
                                     node -> {
                                         final List<INode> newNodes = new ArrayList<>();
@@ -88,7 +89,7 @@ public abstract class ITranslator<R, T, S, P> {
                     final List<INode> translatedNodesForId = new ArrayList<>();
                     for (IValue<T> value : values) {
                         final Optional<INode> translatedNode =
-                                this.translate(bundle, value, context, filePath);
+                                this.translate(bundle, value, context, filePath, partial);
                         translatedNode.ifPresent(translatedNodesForId::add);
                     }
                     // to get the list for the key, or create a new one if it doesn't exist and add
@@ -98,12 +99,32 @@ public abstract class ITranslator<R, T, S, P> {
         return nodes;
     }
 
+    @Nonnull
+    private Optional<INode> translate(
+            @Nonnull final IBundle bundleIdentifier,
+            @Nonnull IValue<T> value,
+            @Nonnull IDetectionContext detectionValueContext,
+            @Nonnull final String filePath,
+            boolean partial) {
+        final DetectionLocation detectionLocation =
+                getDetectionContextFrom(value.getLocation(), bundleIdentifier, filePath);
+        if (detectionLocation == null) {
+            return Optional.empty();
+        }
+        // values of a finding that ran out of its analysis budget may be incomplete
+        return translate(
+                bundleIdentifier,
+                value,
+                detectionValueContext,
+                partial ? detectionLocation.asPartial() : detectionLocation);
+    }
+
     @Nonnull
     protected abstract Optional<INode> translate(
             @Nonnull final IBundle bundleIdentifier,
             @Nonnull IValue<T> value,
             @Nonnull IDetectionContext detectionValueContext,
-            @Nonnull final String filePath);
+            @Nonnull final DetectionLocation detectionLocation);
 
     @Nullable protected abstract DetectionLocation getDetectionContextFrom(
             @Nonnull T location, @Nonnull final IBundle bundle, @Nonnull String filePath);
@@ -0,0 +1,167 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper.mapper;
+
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Scan-wide memo of what mappers derive from an input string. The same strings (e.g. {@code
+ * "AES/GCM/NoPadding"} or {@code "SHA-256"}) are mapped over and over again, and a chain like
+ * {@link com.ibm.mapper.mapper.jca.JcaAlgorithmMapper} tries up to nine mappers, each doing its own
+ * case conversion and string dispatch, before one of them accepts the string.
+ *
+ * <p>The nodes of a result are mutable and bound to the location of the detection, so they are
+ * never cached. Instead the cache keeps what does not depend on the location: which mapper of a
+ * chain accepts a string ({@link #parseFirst}), or the parsed decomposition of a string from which
+ * a mapper rebuilds the nodes for every location ({@link #decompose}). Keys use the exact input
+ * string, because not every mapper is case-insensitive and some keep the input as a node name.
+ *
+ * <p>The cache is bounded: when it reaches {@link #MAX_ENTRIES} entries it is cleared and filled
+ * again.
+ */
+public final class MapperCache {
+    public static final int MAX_ENTRIES = 1 << 14;
+
+    private static final int NONE = -1;
+
+    private record Key(@Nonnull Class<? extends IMapper> mapper, @Nonnull String input) {}
+
+    @Nonnull private static final Map<Key, Object> ENTRIES = new ConcurrentHashMap<>();
+
+    @Nonnull private static final LongAdder HITS = new LongAdder();
+    @Nonnull private static final LongAdder MISSES = new LongAdder();
+    @Nonnull private static final LongAdder EVICTIONS = new LongAdder();
+
+    private MapperCache() {
+        // nothing
+    }
+
+    /**
+     * Returns the result of the first of {@code mappers} that maps {@code str}. The mappers must
+     * always be the same for a {@code chain}.
+     *
+     * @param chain the mapper that owns the chain
+     * @param mappers the chain, in the order the mappers are tried
+     * @param str the string to map
+     * @param detectionLocation the location of the result
+     * @return the result of the first mapper that maps the string, or empty if none does
+     */
+    @Nonnull
+    public static Optional<? extends INode> parseFirst(
+            @Nonnull Class<? extends IMapper> chain,
+            @Nonnull List<? extends IMapper> mappers,
+            @Nullable String str,
+            @Nonnull DetectionLocation detectionLocation) {
+        if (str == null) {
+            return Optional.empty();
+        }
+        final Key key = new Key(chain, str);
+        final Integer resolution = (Integer) ENTRIES.get(key);
+        if (resolution != null) {
+            HITS.increment();
+            return resolution == NONE
+                    ? Optional.empty()
+                    : mappers.get(resolution).parse(str, detectionLocation);
+        }
+        MISSES.increment();
+        for (int i = 0; i < mappers.size(); i++) {
+            final Optional<? extends INode> result = mappers.get(i).parse(str, detectionLocation);
+            if (result.isPresent()) {
+                put(key, i);
+                return result;
+            }
+        }
+        put(key, NONE);
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the decomposition of {@code str} computed by {@code decomposition}, which is only
+     * called the first time {@code mapper} sees the string. The decomposition must not depend on a
+     * location and must not be modified by the caller.
+     *
+     * @param mapper the mapper that owns the decomposition
+     * @param str the string to decompose
+     * @param decomposition computes the decomposition of a string
+     * @return the decomposition of the string
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public static <T> T decompose(
+            @Nonnull Class<? extends IMapper> mapper,
+            @Nonnull String str,
+            @Nonnull Function<String, T> decomposition) {
+        final Key key = new Key(mapper, str);
+        final T cached = (T) ENTRIES.get(key);
+        if (cached != null) {
+            HITS.increment();
+            return cached;
+        }
+        MISSES.increment();
+        final T computed = decomposition.apply(str);
+        put(key, computed);
+        return computed;
+    }
+
+    private static void put(@Nonnull Key key, @Nonnull Object entry) {
+        if (ENTRIES.size() >= MAX_ENTRIES) {
+            EVICTIONS.add(ENTRIES.size());
+            ENTRIES.clear();
+        }
+        ENTRIES.put(key, entry);
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    public static long getEvictions() {
+        return EVICTIONS.sum();
+    }
+
+    public static int size() {
+        return ENTRIES.size();
+    }
+
+    /** Zeroes the counters. The entries are kept, they do not depend on a scan. */
+    public static void reset() {
+        HITS.reset();
+        MISSES.reset();
+        EVICTIONS.reset();
+    }
+
+    /** Forgets all entries. */
+    public static void clear() {
+        ENTRIES.clear();
+    }
+}
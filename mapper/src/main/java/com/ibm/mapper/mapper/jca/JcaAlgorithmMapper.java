@@ -20,6 +20,7 @@
 package com.ibm.mapper.mapper.jca;
 
 import com.ibm.mapper.mapper.IMapper;
+import com.ibm.mapper.mapper.MapperCache;
 import com.ibm.mapper.model.Algorithm;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.model.PublicKeyEncryption;
@@ -56,11 +57,14 @@ public class JcaAlgorithmMapper implements IMapper {
             return Optional.empty();
         }
 
-        for (IMapper mapper : jcaSpecificAlgorithmMappers) {
-            Optional<? extends INode> asset = mapper.parse(str, detectionLocation);
-            if (asset.isPresent()) {
-                return asset;
-            }
+        final Optional<? extends INode> asset =
+                MapperCache.parseFirst(
+                        JcaAlgorithmMapper.class,
+                        jcaSpecificAlgorithmMappers,
+                        str,
+                        detectionLocation);
+        if (asset.isPresent()) {
+            return asset;
         }
 
         return switch (str.toUpperCase().trim()) {
@@ -20,12 +20,10 @@
 package com.ibm.mapper.mapper.jca;
 
 import com.ibm.mapper.mapper.IMapper;
+import com.ibm.mapper.mapper.MapperCache;
 import com.ibm.mapper.model.Algorithm;
 import com.ibm.mapper.model.IAlgorithm;
 import com.ibm.mapper.model.KeyWrap;
-import com.ibm.mapper.model.Mode;
-import com.ibm.mapper.model.Padding;
-import com.ibm.mapper.model.PasswordBasedEncryption;
 import com.ibm.mapper.model.algorithms.AES;
 import com.ibm.mapper.model.algorithms.Blowfish;
 import com.ibm.mapper.model.algorithms.ChaCha20;
@@ -38,10 +36,16 @@ import com.ibm.mapper.model.algorithms.RSA;
 import com.ibm.mapper.model.algorithms.TripleDES;
 import com.ibm.mapper.utils.DetectionLocation;
 import java.util.Optional;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public final class JcaCipherMapper implements IMapper {
+    /* mappers are stateless */
+    private static final JcaModeMapper MODE_MAPPER = new JcaModeMapper();
+    private static final JcaPaddingMapper PADDING_MAPPER = new JcaPaddingMapper();
+    private static final JcaPasswordBasedEncryptionMapper PBE_MAPPER =
+            new JcaPasswordBasedEncryptionMapper();
 
     @Nonnull
     @Override
@@ -51,81 +55,81 @@ public final class JcaCipherMapper implements IMapper {
             return Optional.empty();
         }
 
-        String algorithmStr;
-        Optional<Mode> modeOptional = Optional.empty();
-        Optional<? extends Padding> paddingOptional = Optional.empty();
-        if (str.contains("/")) {
-            int slashIndex = str.indexOf("/");
-            algorithmStr = str.substring(0, slashIndex);
-
-            String rest = str.substring(slashIndex + 1);
-            if (rest.contains("/")) {
-                slashIndex = rest.indexOf("/");
-                // mode
-                final String modeStr = rest.substring(0, slashIndex);
-                final JcaModeMapper jcaModeMapper = new JcaModeMapper();
-                modeOptional = jcaModeMapper.parse(modeStr, detectionLocation);
-                // padding
-                String paddingStr = rest.substring(slashIndex + 1);
-                final JcaPaddingMapper jcaPaddingMapper = new JcaPaddingMapper();
-                paddingOptional = jcaPaddingMapper.parse(paddingStr, detectionLocation);
-            }
-        } else {
-            algorithmStr = str;
+        final Transformation transformation =
+                MapperCache.decompose(JcaCipherMapper.class, str, Transformation::of);
+        if (transformation.cipher() == null) {
+            // check if it is pbe
+            return PBE_MAPPER.parse(transformation.algorithm(), detectionLocation);
         }
 
-        // check if it is pbe
-        JcaPasswordBasedEncryptionMapper pbeMapper = new JcaPasswordBasedEncryptionMapper();
-        Optional<PasswordBasedEncryption> pbeOptional =
-                pbeMapper.parse(algorithmStr, detectionLocation);
-        if (pbeOptional.isPresent()) {
-            // pbe
-            return pbeOptional;
+        final Algorithm algorithm = transformation.cipher().apply(detectionLocation);
+        if (transformation.mode() != null) {
+            MODE_MAPPER.parse(transformation.mode(), detectionLocation).ifPresent(algorithm::put);
         }
-
-        Optional<? extends Algorithm> possibleCipher = map(algorithmStr, detectionLocation);
-        if (possibleCipher.isEmpty()) {
-            return Optional.empty();
+        if (transformation.padding() != null) {
+            PADDING_MAPPER
+                    .parse(transformation.padding(), detectionLocation)
+                    .ifPresent(algorithm::put);
         }
-        final Algorithm algorithm = possibleCipher.get();
-
-        modeOptional.ifPresent(algorithm::put);
-        paddingOptional.ifPresent(algorithm::put);
         return Optional.of(algorithm);
     }
 
-    @Nonnull
-    private Optional<? extends Algorithm> map(
-            @Nonnull String cipherAlgorithm, @Nonnull DetectionLocation detectionLocation) {
+    /* the location independent parts of an "algorithm/mode/padding" string */
+    private record Transformation(
+            @Nonnull String algorithm,
+            @Nullable Function<DetectionLocation, ? extends Algorithm> cipher,
+            @Nullable String mode,
+            @Nullable String padding) {
+        @Nonnull
+        static Transformation of(@Nonnull String str) {
+            if (!str.contains("/")) {
+                return new Transformation(str, map(str), null, null);
+            }
+            int slashIndex = str.indexOf("/");
+            final String algorithmStr = str.substring(0, slashIndex);
+            final String rest = str.substring(slashIndex + 1);
+            if (!rest.contains("/")) {
+                return new Transformation(algorithmStr, map(algorithmStr), null, null);
+            }
+            slashIndex = rest.indexOf("/");
+            return new Transformation(
+                    algorithmStr,
+                    map(algorithmStr),
+                    rest.substring(0, slashIndex),
+                    rest.substring(slashIndex + 1));
+        }
+    }
+
+    @Nullable
+    private static Function<DetectionLocation, ? extends Algorithm> map(
+            @Nonnull String cipherAlgorithm) {
         return switch (cipherAlgorithm.toUpperCase().trim()) {
-            case "AES" -> Optional.of(new AES(detectionLocation));
-            case "AES_128" -> Optional.of(new AES(128, detectionLocation));
-            case "AES_192" -> Optional.of(new AES(192, detectionLocation));
-            case "AES_256" -> Optional.of(new AES(256, detectionLocation));
+            case "AES" -> AES::new;
+            case "AES_128" -> location -> new AES(128, location);
+            case "AES_192" -> location -> new AES(192, location);
+            case "AES_256" -> location -> new AES(256, location);
 
-            case "AESWRAP" -> Optional.of(new AES(KeyWrap.class, detectionLocation));
-            case "AESWRAP_128" ->
-                    Optional.of(new AES(KeyWrap.class, new AES(128, detectionLocation)));
-            case "AESWRAP_192" ->
-                    Optional.of(new AES(KeyWrap.class, new AES(192, detectionLocation)));
-            case "AESWRAP_256" ->
-                    Optional.of(new AES(KeyWrap.class, new AES(256, detectionLocation)));
+            case "AESWRAP" -> location -> new AES(KeyWrap.class, location);
+            case "AESWRAP_128" -> location -> new AES(KeyWrap.class, new AES(128, location));
+            case "AESWRAP_192" -> location -> new AES(KeyWrap.class, new AES(192, location));
+            case "AESWRAP_256" -> location -> new AES(KeyWrap.class, new AES(256, location));
 
-            case "RC4", "ARCFOUR", "ARC4" -> Optional.of(new RC4(detectionLocation));
-            case "RC2", "ARC2" -> Optional.of(new RC2(detectionLocation));
-            case "BLOWFISH" -> Optional.of(new Blowfish(detectionLocation));
-            case "DES" -> Optional.of(new DES(detectionLocation));
-            case "DESEDE" -> Optional.of(new TripleDES(detectionLocation));
+            case "RC4", "ARCFOUR", "ARC4" -> RC4::new;
+            case "RC2", "ARC2" -> RC2::new;
+            case "BLOWFISH" -> Blowfish::new;
+            case "DES" -> DES::new;
+            case "DESEDE" -> TripleDES::new;
             case "DESEDEWRAP", "TRIPLEDESWRAP" ->
-                    Optional.of(new DESede(KeyWrap.class, new DESede(detectionLocation)));
-            case "CHACHA20" -> Optional.of(new ChaCha20(detectionLocation));
-            case "CHACHA20-POLY1305" -> {
-                final ChaCha20 chaCha20 = new ChaCha20(detectionLocation);
-                chaCha20.put(new Poly1305(detectionLocation));
-                yield Optional.of(chaCha20);
-            }
-            case "RSA" -> Optional.of(new RSA(detectionLocation));
-            default -> Optional.empty();
+                    location -> new DESede(KeyWrap.class, new DESede(location));
+            case "CHACHA20" -> ChaCha20::new;
+            case "CHACHA20-POLY1305" ->
+                    location -> {
+                        final ChaCha20 chaCha20 = new ChaCha20(location);
+                        chaCha20.put(new Poly1305(location));
+                        return chaCha20;
+                    };
+            case "RSA" -> RSA::new;
+            default -> null;
         };
     }
 }
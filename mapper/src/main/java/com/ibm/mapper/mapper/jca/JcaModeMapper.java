@@ -20,6 +20,7 @@
 package com.ibm.mapper.mapper.jca;
 
 import com.ibm.mapper.mapper.IMapper;
+import com.ibm.mapper.mapper.MapperCache;
 import com.ibm.mapper.model.BlockSize;
 import com.ibm.mapper.model.Mode;
 import com.ibm.mapper.model.mode.CBC;
@@ -34,6 +35,7 @@ import com.ibm.mapper.model.mode.PCBC;
 import com.ibm.mapper.utils.DetectionLocation;
 import com.ibm.mapper.utils.Utils;
 import java.util.Optional;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -50,33 +52,43 @@ public class JcaModeMapper implements IMapper {
         if (str == null) {
             return Optional.empty();
         }
-        // get explicit block size
-        Optional<BlockSize> optionalBlockSize =
-                Utils.extractNumberFormString(str)
-                        .map(blockSizeStr -> new BlockSize(blockSizeStr, detectionLocation));
-        // remove numeric values
-        String modeString = str.replaceAll("\\d", "");
-        return map(modeString, detectionLocation)
-                .map(
-                        mode -> {
-                            optionalBlockSize.ifPresent(mode::put);
-                            return mode;
-                        });
+        final ModeString modeString =
+                MapperCache.decompose(JcaModeMapper.class, str, ModeString::of);
+        if (modeString.mode() == null) {
+            return Optional.empty();
+        }
+        final Mode mode = modeString.mode().apply(detectionLocation);
+        if (modeString.blockSize() != null) {
+            mode.put(new BlockSize(modeString.blockSize(), detectionLocation));
+        }
+        return Optional.of(mode);
     }
 
-    @Nonnull
-    private Optional<Mode> map(@Nonnull String mode, @Nonnull DetectionLocation detectionLocation) {
+    /* the location independent parts of a mode string */
+    private record ModeString(
+            @Nullable Function<DetectionLocation, Mode> mode, @Nullable Integer blockSize) {
+        @Nonnull
+        static ModeString of(@Nonnull String str) {
+            // get explicit block size
+            final Integer blockSize = Utils.extractNumberFormString(str).orElse(null);
+            // remove numeric values
+            return new ModeString(map(str.replaceAll("\\d", "")), blockSize);
+        }
+    }
+
+    @Nullable
+    private static Function<DetectionLocation, Mode> map(@Nonnull String mode) {
         return switch (mode.toUpperCase().trim()) {
-            case "ECB" -> Optional.of(new ECB(detectionLocation));
-            case "CBC" -> Optional.of(new CBC(detectionLocation));
-            case "PCBC" -> Optional.of(new PCBC(detectionLocation));
-            case "CFB" -> Optional.of(new CFB(detectionLocation));
-            case "OFB" -> Optional.of(new OFB(detectionLocation));
-            case "CTR" -> Optional.of(new CTR(detectionLocation));
-            case "CTS" -> Optional.of(new CTS(detectionLocation));
-            case "GCM" -> Optional.of(new GCM(detectionLocation));
-            case "CCM" -> Optional.of(new CCM(detectionLocation));
-            default -> Optional.empty();
+            case "ECB" -> ECB::new;
+            case "CBC" -> CBC::new;
+            case "PCBC" -> PCBC::new;
+            case "CFB" -> CFB::new;
+            case "OFB" -> OFB::new;
+            case "CTR" -> CTR::new;
+            case "CTS" -> CTS::new;
+            case "GCM" -> GCM::new;
+            case "CCM" -> CCM::new;
+            default -> null;
         };
     }
 }
@@ -19,11 +19,16 @@
  */
 package com.ibm.mapper.model;
 
+import java.io.Serializable;
 import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 
-public interface INode {
+/**
+ * A node of a translated tree. Nodes are serializable, so that the translations of unchanged files
+ * can be reused by the next analysis.
+ */
+public interface INode extends Serializable {
     void put(@Nonnull INode child);
 
     boolean hasChildren();
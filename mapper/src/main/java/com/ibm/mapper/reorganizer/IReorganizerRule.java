@@ -50,9 +50,21 @@ public interface IReorganizerRule {
     @Nonnull
     String asString();
 
+    /**
+     * Returns the kind of the nodes the rule matches. The rule must not match nodes of another
+     * kind, since the {@link Reorganizer} only evaluates it for nodes of this kind.
+     */
     @Nonnull
     Class<? extends INode> getNodeKind();
 
+    /**
+     * Returns the value of the nodes the rule matches, or {@code null} if it matches nodes of any
+     * value. The rule must not match nodes whose {@link INode#asString()} differs from this value.
+     */
+    @Nullable default String getNodeValue() {
+        return null;
+    }
+
     /*
      * Builder pattern:
      *  - `[...]` represents optional builder statements
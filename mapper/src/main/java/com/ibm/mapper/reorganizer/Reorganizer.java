@@ -20,123 +20,282 @@
 package com.ibm.mapper.reorganizer;
 
 import com.ibm.mapper.model.INode;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nonnull;
-import org.apache.commons.lang3.tuple.Pair;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Applies reorganization rules to a translation tree until no rule matches any node.
+ *
+ * <p>The nodes are examined from a worklist, in breadth-first order. When a rule is applied, only
+ * the nodes the reorganization can have changed are examined again: the ancestors of the node, the
+ * children of its parent (or the new roots), and every node that is new in the tree or has a new
+ * parent, together with its subtree. Since rules may look at any node in their conditions, a
+ * final pass over the whole tree checks that no rule matches anymore; if one does, the worklist is
+ * filled with the whole tree again.
+ *
+ * <p>The rules are compiled into a lookup by node kind and node value (see {@link
+ * IReorganizerRule#getNodeKind()} and {@link IReorganizerRule#getNodeValue()}), so that each node
+ * is only matched against the rules that can apply to it.
+ *
+ * <p>A rule that matches a node but leaves the node, its parent and the roots unchanged (e.g. a
+ * rule moving the children of a root node up) is not applied to that node again until the node
+ * is changed. As a guard against rules that undo each other, a reorganization is stopped after
+ * {@link #MAX_APPLICATIONS_PER_NODE} applications per node of the tree.
+ */
 public final class Reorganizer implements IReorganizer {
     private static final Logger LOGGER = LoggerFactory.getLogger(Reorganizer.class);
 
-    // Maximum number of reorganization steps (to prevent infinite loops)
-    private static final int MAX_ITERATIONS = 10;
+    static final int MAX_APPLICATIONS_PER_NODE = 32;
+
+    private record Visit(@Nonnull INode node, @Nullable INode parent) {}
 
-    private final List<IReorganizerRule> rules;
+    @Nonnull private final ReorganizerRuleIndex rules;
 
     public Reorganizer(@Nonnull List<IReorganizerRule> rules) {
-        this.rules = rules;
+        this.rules = ReorganizerRuleIndex.compile(rules);
     }
 
     @Override
     @Nonnull
     public List<INode> reorganize(@Nonnull final List<INode> rootNodes) {
+        return new Run(rootNodes).reorganize();
+    }
+
+    /* the state of one reorganization */
+    private final class Run {
+        @Nonnull private final Deque<Visit> worklist = new ArrayDeque<>();
+        /* the parent of each node when it was last visited, null for roots */
+        @Nonnull private final Map<INode, INode> parents = new IdentityHashMap<>();
+        /* the rule that matched a node without changing anything */
+        @Nonnull private final Map<INode, IReorganizerRule> withoutEffect = new IdentityHashMap<>();
+        @Nonnull private List<INode> roots;
+        @Nonnull private Set<INode> rootSet;
+
+        Run(@Nonnull List<INode> rootNodes) {
+            this.roots = rootNodes;
+            this.rootSet = identitySet(rootNodes);
+        }
+
+        @Nonnull
+        List<INode> reorganize() {
+            final List<Visit> tree = breadthFirst(roots);
+            worklist.addAll(tree);
+            final long maxApplications =
+                    (long) MAX_APPLICATIONS_PER_NODE * Math.max(1, tree.size());
+            long applications = 0;
+            while (true) {
+                while (!worklist.isEmpty()) {
+                    final Visit visit = worklist.pollFirst();
+                    if (!isAttached(visit)) {
+                        continue;
+                    }
+                    final IReorganizerRule rule = firstMatch(visit);
+                    if (rule == null || withoutEffect.get(visit.node()) == rule) {
+                        continue;
+                    }
+                    if (++applications > maxApplications) {
+                        ReorganizerStatistics.recordStopped();
+                        LOGGER.warn(
+                                "The reorganizer stopped after {} reorganizations of a tree of {}"
+                                        + " nodes. Check for a possible infinite loop in your"
+                                        + " reorganization rules.",
+                                maxApplications,
+                                tree.size());
+                        return roots;
+                    }
+                    apply(rule, visit);
+                }
+                // rules may depend on nodes that were not examined again
+                final List<Visit> all = breadthFirst(roots);
+                if (all.stream().noneMatch(this::hasEffectiveMatch)) {
+                    return roots;
+                }
+                ReorganizerStatistics.recordVerificationMatch();
+                worklist.addAll(all);
+            }
+        }
+
+        private boolean hasEffectiveMatch(@Nonnull Visit visit) {
+            final IReorganizerRule rule = firstMatch(visit);
+            return rule != null && withoutEffect.get(visit.node()) != rule;
+        }
+
+        private void apply(@Nonnull IReorganizerRule rule, @Nonnull Visit visit) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(
+                        "[reorganizer] MATCH: Node '{}' & Rule {}",
+                        visit.node().asString(),
+                        rule.asString());
+            }
+            final List<INode> nodeChildren = List.copyOf(visit.node().getChildren().values());
+            final List<INode> parentChildren =
+                    visit.parent() == null
+                            ? List.of()
+                            : List.copyOf(visit.parent().getChildren().values());
+            final List<INode> newRoots =
+                    rule.applyReorganization(visit.node(), visit.parent(), roots);
+            if (newRoots != null && newRoots != roots) {
+                roots = newRoots;
+                rootSet = identitySet(newRoots);
+            } else if (sameElements(nodeChildren, visit.node().getChildren().values())
+                    && (visit.parent() == null
+                            || sameElements(
+                                    parentChildren, visit.parent().getChildren().values()))) {
+                ReorganizerStatistics.recordWithoutEffect();
+                withoutEffect.put(visit.node(), rule);
+                return;
+            }
+            ReorganizerStatistics.recordApplication(rule);
+
+            final List<Visit> touched = new ArrayList<>();
+            // ancestors, from the root down to the parent
+            final List<Visit> ancestors = new ArrayList<>();
+            INode ancestor = visit.parent();
+            while (ancestor != null && ancestors.size() <= parents.size()) {
+                final INode ancestorParent = parents.get(ancestor);
+                ancestors.add(new Visit(ancestor, ancestorParent));
+                ancestor = ancestorParent;
+            }
+            Collections.reverse(ancestors);
+            touched.addAll(ancestors);
+            // the siblings of the node, and the nodes that were moved or created
+            final List<Visit> siblings = new ArrayList<>();
+            if (visit.parent() == null) {
+                roots.forEach(root -> siblings.add(new Visit(root, null)));
+            } else {
+                visit.parent()
+                        .getChildren()
+                        .values()
+                        .forEach(child -> siblings.add(new Visit(child, visit.parent())));
+            }
+            touched.addAll(siblings);
+            touched.addAll(changedBelow(siblings));
+            // the node itself, whose children may have changed
+            if (isAttached(visit)) {
+                touched.addAll(changedBelow(List.of(visit)));
+            }
+
+            for (int i = touched.size() - 1; i >= 0; i--) {
+                worklist.addFirst(touched.get(i));
+            }
+            touched.forEach(
+                    t -> {
+                        parents.put(t.node(), t.parent());
+                        withoutEffect.remove(t.node());
+                    });
+        }
+
         /*
-         * Idea: We iterate on all nodes of the tree with a BFS (done by `reorganizeRecursive`),
-         * and we check for each node if it matches with a reorganization rule (in `applyReorganizerRules`).
-         * If it matches, we apply the reorganization and return the updated list of root nodes of the
-         * translation tree. We stop the BFS and start the process again by iterating on all nodes of
-         * starting from the new roots.
-         * This process ends once no reorganization rule matches with the current translation tree. When
-         * this is the case, `reorganizeRecursive` returns an empty Optional, which is our condition to
-         * stop the while loop defined in `reorganize`.
+         * Returns, in breadth-first order, the descendants of the visited nodes that are new in the
+         * tree or have a new parent, together with their subtrees.
          */
-        List<INode> lastRootNodes = rootNodes;
-        Optional<List<INode>> newRootNodes = Optional.of(rootNodes);
-        int counter = 0;
-        while (newRootNodes.isPresent() && counter < MAX_ITERATIONS) {
-            lastRootNodes = newRootNodes.get();
-            newRootNodes =
-                    reorganizeRecursive(
-                            lastRootNodes.stream()
-                                    .map(childNode -> Pair.<INode, INode>of(childNode, null))
-                                    .toList(),
-                            lastRootNodes);
-            counter += 1;
+        @Nonnull
+        private List<Visit> changedBelow(@Nonnull List<Visit> visits) {
+            final List<Visit> changed = new ArrayList<>();
+            final Set<INode> seen = identitySet(List.of());
+            final Deque<Visit> queue = new ArrayDeque<>();
+            for (Visit visit : visits) {
+                visit.node()
+                        .getChildren()
+                        .values()
+                        .forEach(child -> queue.addLast(new Visit(child, visit.node())));
+            }
+            while (!queue.isEmpty()) {
+                final Visit visit = queue.pollFirst();
+                if (!seen.add(visit.node())) {
+                    continue;
+                }
+                final boolean unchanged =
+                        parents.containsKey(visit.node())
+                                && parents.get(visit.node()) == visit.parent();
+                if (unchanged) {
+                    continue;
+                }
+                changed.add(visit);
+                parents.put(visit.node(), visit.parent());
+                visit.node()
+                        .getChildren()
+                        .values()
+                        .forEach(child -> queue.addLast(new Visit(child, visit.node())));
+            }
+            return changed;
         }
-        if (counter == MAX_ITERATIONS) {
-            String message =
-                    String.format(
-                            "The reorganizer stopped because it exceeded the maximum number of iterations (%d). "
-                                    + "Check for a possible infinite loop in your reorganization rules.",
-                            MAX_ITERATIONS);
-            LOGGER.warn(message);
+
+        @Nullable private IReorganizerRule firstMatch(@Nonnull Visit visit) {
+            final List<IReorganizerRule> candidates = rules.candidates(visit.node());
+            for (int i = 0; i < candidates.size(); i++) {
+                final IReorganizerRule rule = candidates.get(i);
+                if (rule.match(visit.node(), visit.parent(), roots)) {
+                    ReorganizerStatistics.recordEvaluations(i + 1);
+                    return rule;
+                }
+            }
+            ReorganizerStatistics.recordEvaluations(candidates.size());
+            return null;
         }
-        return lastRootNodes;
-    }
 
-    /**
-     * Check the given nodes for a match with reorganizer rules, and apply the reorganization of the
-     * first match. If no match happens, recursively continue with the children of all the nodes.
-     *
-     * @param currentNodeParentPairs - Pairs of nodes with their parent node (if a node is a root
-     *     node, its parent is {@code null})
-     * @param rootNodes - Root nodes of the translation tree
-     * @return Optional containing the new root nodes of the translation tree if a reorganization
-     *     has occured, empty Optional otherwise
-     */
-    @Nonnull
-    private Optional<List<INode>> reorganizeRecursive(
-            @Nonnull final List<Pair<INode, INode>> currentNodeParentPairs,
-            @Nonnull final List<INode> rootNodes) {
-        List<Pair<INode, INode>> nextPairs = new LinkedList<>();
-
-        for (Pair<INode, INode> pair : currentNodeParentPairs) {
-            INode node = pair.getLeft();
-            INode parent = pair.getRight();
-            Optional<List<INode>> optionalUpdatedRootNodes =
-                    applyReorganizerRules(node, parent, rootNodes);
-            if (optionalUpdatedRootNodes.isPresent()) {
-                return optionalUpdatedRootNodes;
+        /* whether the node is still reachable from the roots through its recorded parents */
+        private boolean isAttached(@Nonnull Visit visit) {
+            INode node = visit.node();
+            INode parent = visit.parent();
+            for (int depth = 0; depth <= parents.size(); depth++) {
+                if (parent == null) {
+                    return rootSet.contains(node);
+                }
+                if (parent.getChildren().get(node.getKind()) != node) {
+                    return false;
+                }
+                node = parent;
+                parent = parents.get(node);
             }
-            nextPairs.addAll(
-                    node.getChildren().values().stream()
-                            .map(childNode -> Pair.of(childNode, node))
-                            .toList());
+            return false;
         }
-        if (nextPairs.isEmpty()) {
-            return Optional.empty();
+
+        @Nonnull
+        private List<Visit> breadthFirst(@Nonnull List<INode> nodes) {
+            final List<Visit> visits = new ArrayList<>();
+            nodes.forEach(root -> visits.add(new Visit(root, null)));
+            for (int i = 0; i < visits.size(); i++) {
+                final Visit visit = visits.get(i);
+                parents.put(visit.node(), visit.parent());
+                visit.node()
+                        .getChildren()
+                        .values()
+                        .forEach(child -> visits.add(new Visit(child, visit.node())));
+            }
+            return visits;
         }
-        return reorganizeRecursive(nextPairs, rootNodes);
     }
 
-    /**
-     * Check if {@code node} matches with any reorganization rule, and apply the reorganization of
-     * the first match.
-     *
-     * @param node - the current node
-     * @param parent - Parent of {@code node}, or {@code null} if {@code node} is a root node
-     * @param rootNodes - Root nodes of the translation tree
-     * @return Optional containing the new root nodes of the translation tree if a reorganization
-     *     has occured, empty Optional otherwise
-     */
-    @Nonnull
-    private Optional<List<INode>> applyReorganizerRules(
-            @Nonnull INode node, @Nonnull INode parent, @Nonnull final List<INode> rootNodes) {
-        for (IReorganizerRule reorganizerRule : this.rules) {
-            if (reorganizerRule.match(node, parent, rootNodes)) {
-                String message =
-                        String.format(
-                                "[reorganizer] MATCH: Node '%s' & Rule %s",
-                                node.asString(), reorganizerRule.asString());
-                LOGGER.debug(message);
-                return Optional.ofNullable(
-                        reorganizerRule.applyReorganization(node, parent, rootNodes)); // new root
+    private static boolean sameElements(
+            @Nonnull List<INode> before, @Nonnull Collection<INode> after) {
+        if (before.size() != after.size()) {
+            return false;
+        }
+        int i = 0;
+        for (INode node : after) {
+            if (before.get(i++) != node) {
+                return false;
             }
         }
+        return true;
+    }
 
-        return Optional.empty();
+    @Nonnull
+    private static Set<INode> identitySet(@Nonnull List<INode> nodes) {
+        final Set<INode> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(nodes);
+        return set;
     }
 }
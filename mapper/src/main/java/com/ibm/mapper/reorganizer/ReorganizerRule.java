@@ -22,6 +22,7 @@ package com.ibm.mapper.reorganizer;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.utils.Function3;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -48,17 +49,13 @@ public record ReorganizerRule(
         }
 
         // Children check
-        if (nonNullChildren && node.getChildren().isEmpty()) {
+        final Map<Class<? extends INode>, INode> nodeChildren = node.getChildren();
+        if (nonNullChildren && nodeChildren.isEmpty()) {
             return false;
         }
         for (IReorganizerRule childRule : children) {
-            Class<? extends INode> childKind = childRule.getNodeKind();
-
-            if (!node.getChildren().containsKey(childKind)) {
-                return false;
-            }
-
-            if (!childRule.match(node.getChildren().get(childKind), node, roots)) {
+            final INode child = nodeChildren.get(childRule.getNodeKind());
+            if (child == null || !childRule.match(child, node, roots)) {
                 return false;
             }
         }
@@ -92,4 +89,9 @@ public record ReorganizerRule(
     public Class<? extends INode> getNodeKind() {
         return kind;
     }
+
+    @Override
+    @Nullable public String getNodeValue() {
+        return value;
+    }
 }
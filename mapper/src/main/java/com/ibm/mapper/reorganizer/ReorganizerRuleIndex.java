@@ -0,0 +1,102 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper.reorganizer;
+
+import com.ibm.mapper.model.INode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * The reorganization rules compiled into a lookup by node kind and node value. For a node, only
+ * the rules declared for its kind, and, among them, only those without a value or with the value
+ * of the node, are candidates. The candidates keep the order of the rule list, so the first
+ * matching candidate is the first matching rule.
+ */
+final class ReorganizerRuleIndex {
+
+    /* the rules of one kind: those without a value, and per value those that may match it */
+    private record KindRules(
+            @Nonnull List<IReorganizerRule> anyValue,
+            @Nonnull Map<String, List<IReorganizerRule>> byValue) {}
+
+    @Nonnull private final Map<Class<? extends INode>, KindRules> rulesByKind;
+
+    private ReorganizerRuleIndex(@Nonnull Map<Class<? extends INode>, KindRules> rulesByKind) {
+        this.rulesByKind = rulesByKind;
+    }
+
+    @Nonnull
+    static ReorganizerRuleIndex compile(@Nonnull List<IReorganizerRule> rules) {
+        final Map<Class<? extends INode>, List<IReorganizerRule>> rulesOfKind =
+                new LinkedHashMap<>();
+        for (IReorganizerRule rule : rules) {
+            rulesOfKind.computeIfAbsent(rule.getNodeKind(), k -> new ArrayList<>()).add(rule);
+        }
+        final Map<Class<? extends INode>, KindRules> rulesByKind = new HashMap<>();
+        rulesOfKind.forEach((kind, kindRules) -> rulesByKind.put(kind, compileKind(kindRules)));
+        return new ReorganizerRuleIndex(rulesByKind);
+    }
+
+    @Nonnull
+    private static KindRules compileKind(@Nonnull List<IReorganizerRule> rules) {
+        final List<IReorganizerRule> anyValue = new ArrayList<>();
+        final Map<String, List<IReorganizerRule>> byValue = new HashMap<>();
+        for (IReorganizerRule rule : rules) {
+            final String value = rule.getNodeValue();
+            if (value == null) {
+                anyValue.add(rule);
+            } else {
+                byValue.putIfAbsent(value, new ArrayList<>());
+            }
+        }
+        // merge the rules without a value into the list of each value, in the original order
+        for (IReorganizerRule rule : rules) {
+            final String value = rule.getNodeValue();
+            if (value == null) {
+                byValue.values().forEach(valueRules -> valueRules.add(rule));
+            } else {
+                byValue.get(value).add(rule);
+            }
+        }
+        final Map<String, List<IReorganizerRule>> immutableByValue = new HashMap<>();
+        byValue.forEach(
+                (value, valueRules) -> immutableByValue.put(value, List.copyOf(valueRules)));
+        return new KindRules(List.copyOf(anyValue), Map.copyOf(immutableByValue));
+    }
+
+    /** Returns, in their original order, the rules that may match the node. */
+    @Nonnull
+    List<IReorganizerRule> candidates(@Nonnull INode node) {
+        final KindRules kindRules = rulesByKind.get(node.getKind());
+        if (kindRules == null) {
+            return List.of();
+        }
+        if (kindRules.byValue().isEmpty()) {
+            return kindRules.anyValue();
+        }
+        // the value of a node is only computed for kinds with rules for a value
+        final List<IReorganizerRule> valueRules = kindRules.byValue().get(node.asString());
+        return valueRules != null ? valueRules : kindRules.anyValue();
+    }
+}
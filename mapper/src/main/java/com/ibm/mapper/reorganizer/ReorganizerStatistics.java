@@ -0,0 +1,104 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper.reorganizer;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+/** Counts the reorganizations applied by all {@link Reorganizer}s of a scan, per rule. */
+public final class ReorganizerStatistics {
+    @Nonnull
+    private static final Map<String, LongAdder> APPLICATIONS = new ConcurrentHashMap<>();
+
+    @Nonnull private static final LongAdder EVALUATIONS = new LongAdder();
+    @Nonnull private static final LongAdder WITHOUT_EFFECT = new LongAdder();
+    @Nonnull private static final LongAdder VERIFICATION_MATCHES = new LongAdder();
+    @Nonnull private static final LongAdder STOPPED = new LongAdder();
+
+    private ReorganizerStatistics() {
+        // nothing
+    }
+
+    static void recordApplication(@Nonnull IReorganizerRule rule) {
+        APPLICATIONS.computeIfAbsent(rule.asString(), k -> new LongAdder()).increment();
+    }
+
+    static void recordEvaluations(int evaluations) {
+        EVALUATIONS.add(evaluations);
+    }
+
+    static void recordWithoutEffect() {
+        WITHOUT_EFFECT.increment();
+    }
+
+    static void recordVerificationMatch() {
+        VERIFICATION_MATCHES.increment();
+    }
+
+    static void recordStopped() {
+        STOPPED.increment();
+    }
+
+    /** Returns the number of applications per rule, sorted by rule. */
+    @Nonnull
+    public static Map<String, Long> getApplications() {
+        final Map<String, Long> applications = new TreeMap<>();
+        APPLICATIONS.forEach((rule, count) -> applications.put(rule, count.sum()));
+        return applications;
+    }
+
+    public static long getTotalApplications() {
+        return APPLICATIONS.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /** Returns how often a rule was matched against a node. */
+    public static long getEvaluations() {
+        return EVALUATIONS.sum();
+    }
+
+    /** Returns how often a rule matched but left the tree unchanged. */
+    public static long getWithoutEffect() {
+        return WITHOUT_EFFECT.sum();
+    }
+
+    /**
+     * Returns how often the final pass over a reorganized tree found a match that the worklist
+     * missed, which happens when a rule depends on nodes beyond its parent.
+     */
+    public static long getVerificationMatches() {
+        return VERIFICATION_MATCHES.sum();
+    }
+
+    /** Returns how often a reorganization was stopped by the loop guard. */
+    public static long getStopped() {
+        return STOPPED.sum();
+    }
+
+    public static void reset() {
+        APPLICATIONS.clear();
+        EVALUATIONS.reset();
+        WITHOUT_EFFECT.reset();
+        VERIFICATION_MATCHES.reset();
+        STOPPED.reset();
+    }
+}
@@ -20,12 +20,68 @@
 package com.ibm.mapper.utils;
 
 import com.ibm.engine.rule.IBundle;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.Nonnull;
 
+/**
+ * The location of a detection. {@code partial} is set if the analysis of the finding ran out of
+ * its budget, so the detected values may be incomplete.
+ *
+ * <p>Only the identifier of the bundle is serialized, the bundles of the rules are not.
+ */
 public record DetectionLocation(
         @Nonnull String filePath,
         @Nonnull Integer lineNumber,
         @Nonnull Integer offSet,
         @Nonnull List<String> keywords,
-        @Nonnull IBundle bundle) {}
+        @Nonnull IBundle bundle,
+        boolean partial)
+        implements Serializable {
+
+    public DetectionLocation(
+            @Nonnull String filePath,
+            @Nonnull Integer lineNumber,
+            @Nonnull Integer offSet,
+            @Nonnull List<String> keywords,
+            @Nonnull IBundle bundle) {
+        this(filePath, lineNumber, offSet, keywords, bundle, false);
+    }
+
+    @Nonnull
+    public DetectionLocation asPartial() {
+        return partial
+                ? this
+                : new DetectionLocation(filePath, lineNumber, offSet, keywords, bundle, true);
+    }
+
+    @Serial
+    private Object writeReplace() {
+        return new SerializedForm(
+                filePath,
+                lineNumber,
+                offSet,
+                new ArrayList<>(keywords),
+                bundle.getIdentifier(),
+                partial);
+    }
+
+    private record SerializedForm(
+            @Nonnull String filePath,
+            @Nonnull Integer lineNumber,
+            @Nonnull Integer offSet,
+            @Nonnull ArrayList<String> keywords,
+            @Nonnull String bundleIdentifier,
+            boolean partial)
+            implements Serializable {
+
+        @Serial
+        private Object readResolve() {
+            final IBundle bundle = () -> bundleIdentifier;
+            return new DetectionLocation(
+                    filePath, lineNumber, offSet, List.copyOf(keywords), bundle, partial);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ibm.engine.model.ValueAction;
+import com.ibm.engine.model.context.CipherContext;
+import com.ibm.engine.model.context.DigestContext;
+import com.ibm.engine.model.context.KeyContext;
+import com.ibm.engine.model.context.PrivateKeyContext;
+import com.ibm.engine.rule.IBundle;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.Unknown;
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class ContextTranslatorsTest {
+
+    private final IBundle bundle = () -> "Jca";
+    private final DetectionLocation detectionLocation =
+            new DetectionLocation("Test.java", 1, 0, List.of("getInstance"), bundle);
+    private final ValueAction<Object> value = new ValueAction<>("AES", new Object());
+
+    private final ContextTranslators<Object> translators =
+            ContextTranslators.builder()
+                    .register(
+                            (bundleIdentifier, v, context, location) ->
+                                    Optional.of(new AES(location)),
+                            CipherContext.class)
+                    .register(
+                            (bundleIdentifier, v, context, location) ->
+                                    Optional.of(new Unknown(location)),
+                            KeyContext.class,
+                            PrivateKeyContext.class)
+                    .build();
+
+    @Test
+    void dispatchesByContextType() {
+        final Optional<INode> cipher =
+                translators.translate(bundle, value, new CipherContext(), detectionLocation);
+        assertThat(cipher).isPresent();
+        assertThat(cipher.get()).isInstanceOf(AES.class);
+
+        final Optional<INode> key =
+                translators.translate(bundle, value, new PrivateKeyContext(Map.of()), detectionLocation);
+        assertThat(key).isPresent();
+        assertThat(key.get()).isInstanceOf(Unknown.class);
+    }
+
+    @Test
+    void unregisteredContextIsNotTranslated() {
+        assertThat(translators.translate(bundle, value, new DigestContext(), detectionLocation))
+                .isEmpty();
+    }
+
+    @Test
+    void contextTypeIsRegisteredOnce() {
+        final ContextTranslators.Builder<Object> builder =
+                ContextTranslators.builder()
+                        .register(
+                                (bundleIdentifier, v, context, location) -> Optional.empty(),
+                                CipherContext.class);
+        assertThatThrownBy(
+                        () ->
+                                builder.register(
+                                        (bundleIdentifier, v, context, location) ->
+                                                Optional.empty(),
+                                        CipherContext.class))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.mapper.mapper.jca.JcaAlgorithmMapper;
+import com.ibm.mapper.mapper.jca.JcaCipherMapper;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.MessageDigest;
+import com.ibm.mapper.model.Mode;
+import com.ibm.mapper.model.Unknown;
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.model.algorithms.SHA2;
+import com.ibm.mapper.model.mode.GCM;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MapperCacheTest {
+
+    private final DetectionLocation first =
+            new DetectionLocation("First.java", 1, 0, List.of("getInstance"), () -> "Jca");
+    private final DetectionLocation second =
+            new DetectionLocation("Second.java", 7, 3, List.of("getInstance"), () -> "Jca");
+
+    @BeforeEach
+    void reset() {
+        MapperCache.clear();
+        MapperCache.reset();
+    }
+
+    @Test
+    void resultsAreBoundToTheLocationOfTheCall() {
+        final JcaAlgorithmMapper mapper = new JcaAlgorithmMapper();
+        final Optional<? extends INode> firstResult = mapper.parse("SHA-256", first);
+        final Optional<? extends INode> secondResult = mapper.parse("SHA-256", second);
+
+        assertThat(firstResult).isPresent();
+        assertThat(secondResult).isPresent();
+        assertThat(secondResult.get()).isInstanceOf(SHA2.class);
+        assertThat(secondResult.get().is(MessageDigest.class)).isTrue();
+        assertThat(secondResult.get().asString()).isEqualTo(firstResult.get().asString());
+        assertThat(secondResult.get()).isNotSameAs(firstResult.get());
+        assertThat(((SHA2) secondResult.get()).getDetectionContext()).isEqualTo(second);
+        // the chain and the cipher mapper, which rejected the string
+        assertThat(MapperCache.getMisses()).isEqualTo(2);
+        assertThat(MapperCache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void transformationsAreRebuiltForTheLocationOfTheCall() {
+        final JcaCipherMapper mapper = new JcaCipherMapper();
+        final Optional<? extends INode> firstResult = mapper.parse("AES_128/GCM/NoPadding", first);
+        final long misses = MapperCache.getMisses();
+        final Optional<? extends INode> secondResult =
+                mapper.parse("AES_128/GCM/NoPadding", second);
+
+        assertThat(firstResult).isPresent();
+        assertThat(secondResult).isPresent();
+        assertThat(secondResult.get()).isInstanceOf(AES.class);
+        assertThat(secondResult.get().asString()).isEqualTo(firstResult.get().asString());
+        assertThat(secondResult.get()).isNotSameAs(firstResult.get());
+        assertThat(((AES) secondResult.get()).getDetectionContext()).isEqualTo(second);
+        final Optional<Mode> mode = ((AES) secondResult.get()).getMode();
+        assertThat(mode).isPresent();
+        assertThat(mode.get()).isInstanceOf(GCM.class);
+        assertThat(mode.get()).isNotSameAs(((AES) firstResult.get()).getMode().get());
+        assertThat(mode.get().getDetectionContext()).isEqualTo(second);
+        // the transformation and its mode are decomposed once
+        assertThat(MapperCache.getMisses()).isEqualTo(misses);
+        assertThat(MapperCache.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void onlyTheResolvedMapperIsCalledAgain() {
+        final AtomicInteger rejections = new AtomicInteger();
+        final AtomicInteger mappings = new AtomicInteger();
+        final List<IMapper> mappers =
+                List.of(
+                        (str, location) -> {
+                            rejections.incrementAndGet();
+                            return Optional.empty();
+                        },
+                        (str, location) -> {
+                            mappings.incrementAndGet();
+                            return Optional.of(new Unknown(location));
+                        });
+        for (int i = 0; i < 3; i++) {
+            assertThat(MapperCache.parseFirst(IMapper.class, mappers, "input", first))
+                    .isPresent();
+        }
+        assertThat(rejections.get()).isEqualTo(1);
+        assertThat(mappings.get()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectedInputIsRememberedAndTheCacheIsBounded() {
+        final AtomicInteger rejections = new AtomicInteger();
+        final List<IMapper> mappers =
+                List.of(
+                        (str, location) -> {
+                            rejections.incrementAndGet();
+                            return Optional.empty();
+                        });
+        for (int i = 0; i <= MapperCache.MAX_ENTRIES; i++) {
+            MapperCache.parseFirst(IMapper.class, mappers, "input" + i, first);
+        }
+        final String last = "input" + MapperCache.MAX_ENTRIES;
+        assertThat(MapperCache.parseFirst(IMapper.class, mappers, last, first)).isEmpty();
+        assertThat(rejections.get()).isEqualTo(MapperCache.MAX_ENTRIES + 1);
+        // evicted
+        assertThat(MapperCache.parseFirst(IMapper.class, mappers, "input0", first)).isEmpty();
+        assertThat(MapperCache.size()).isLessThanOrEqualTo(MapperCache.MAX_ENTRIES);
+        assertThat(MapperCache.getEvictions()).isEqualTo(MapperCache.MAX_ENTRIES);
+        assertThat(rejections.get()).isEqualTo(MapperCache.MAX_ENTRIES + 2);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper.reorganizer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.mapper.model.Algorithm;
+import com.ibm.mapper.model.BlockCipher;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.Mode;
+import com.ibm.mapper.model.StreamCipher;
+import com.ibm.mapper.reorganizer.builder.ReorganizerRuleBuilder;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+class ReorganizerRuleIndexTest {
+
+    private final DetectionLocation detectionLocation =
+            new DetectionLocation("Test.java", 1, 0, List.of("getInstance"), () -> "Jca");
+
+    private final IReorganizerRule anyCipher = rule("anyCipher", BlockCipher.class, null);
+    private final IReorganizerRule aes = rule("aes", BlockCipher.class, "AES");
+    private final IReorganizerRule anyMode = rule("anyMode", Mode.class, null);
+    private final IReorganizerRule otherCipher = rule("otherCipher", BlockCipher.class, null);
+    private final IReorganizerRule des = rule("des", BlockCipher.class, "DES");
+
+    private final ReorganizerRuleIndex index =
+            ReorganizerRuleIndex.compile(List.of(anyCipher, aes, anyMode, otherCipher, des));
+
+    @Test
+    void selectsTheRulesOfTheKindAndValueInOrder() {
+        final INode cipher = new Algorithm("AES", BlockCipher.class, detectionLocation);
+
+        assertThat(index.candidates(cipher)).containsExactly(anyCipher, aes, otherCipher);
+    }
+
+    @Test
+    void selectsTheRulesWithoutValueForOtherValues() {
+        final INode cipher = new Algorithm("Camellia", BlockCipher.class, detectionLocation);
+
+        assertThat(index.candidates(cipher)).containsExactly(anyCipher, otherCipher);
+    }
+
+    @Test
+    void selectsNoRuleForOtherKinds() {
+        final INode cipher = new Algorithm("AES", StreamCipher.class, detectionLocation);
+
+        assertThat(index.candidates(cipher)).isEmpty();
+        assertThat(index.candidates(new Mode("CBC", detectionLocation))).containsExactly(anyMode);
+    }
+
+    private static IReorganizerRule rule(
+            String name, Class<? extends INode> kind, @Nullable String value) {
+        final IReorganizerRule.ValueBuilder builder =
+                new ReorganizerRuleBuilder().createReorganizerRule(name).forNodeKind(kind);
+        return value == null ? builder.noAction() : builder.forNodeValue(value).noAction();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper.reorganizer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.mapper.model.Algorithm;
+import com.ibm.mapper.model.BlockCipher;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.Mode;
+import com.ibm.mapper.model.Padding;
+import com.ibm.mapper.reorganizer.builder.ReorganizerRuleBuilder;
+import com.ibm.mapper.reorganizer.rules.BlockCipherReorganizer;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReorganizerTest {
+
+    private final DetectionLocation detectionLocation =
+            new DetectionLocation("Test.java", 1, 0, List.of("getInstance"), () -> "Jca");
+
+    private final IReorganizerRule removeMode =
+            new ReorganizerRuleBuilder()
+                    .createReorganizerRule("remove mode")
+                    .forNodeKind(BlockCipher.class)
+                    .includingChildren(
+                            List.of(
+                                    new ReorganizerRuleBuilder()
+                                            .createReorganizerRule()
+                                            .forNodeKind(Mode.class)
+                                            .noAction()))
+                    .perform(
+                            (node, parent, roots) -> {
+                                node.removeChildOfType(Mode.class);
+                                return roots;
+                            });
+
+    @BeforeEach
+    void reset() {
+        ReorganizerStatistics.reset();
+    }
+
+    @Test
+    void appliesEveryReorganization() {
+        final List<INode> roots = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            final Algorithm cipher = new Algorithm("C" + i, BlockCipher.class, detectionLocation);
+            cipher.put(new Mode("CBC", detectionLocation));
+            roots.add(cipher);
+        }
+
+        final List<INode> reorganized = new Reorganizer(List.of(removeMode)).reorganize(roots);
+
+        assertThat(reorganized).hasSize(25);
+        assertThat(reorganized.stream().noneMatch(INode::hasChildren)).isTrue();
+        assertThat(ReorganizerStatistics.getTotalApplications()).isEqualTo(25);
+        assertThat(ReorganizerStatistics.getStopped()).isZero();
+    }
+
+    @Test
+    void reachesAFixpointThroughRewrittenParents() {
+        // C0 -> C1 -> ... -> C15, all of the same kind, with a mode on the root
+        final Algorithm root = new Algorithm("C0", BlockCipher.class, detectionLocation);
+        root.put(new Mode("GCM", detectionLocation));
+        Algorithm current = root;
+        for (int i = 1; i < 16; i++) {
+            final Algorithm child = new Algorithm("C" + i, BlockCipher.class, detectionLocation);
+            current.put(child);
+            current = child;
+        }
+
+        final List<INode> reorganized =
+                new Reorganizer(List.of(BlockCipherReorganizer.MERGE_BLOCK_CIPHER_PARENT_AND_CHILD))
+                        .reorganize(List.of(root));
+
+        assertThat(reorganized).hasSize(1);
+        final INode merged = reorganized.get(0);
+        assertThat(merged.asString()).isEqualTo("C15");
+        assertThat(merged.hasChildOfType(BlockCipher.class)).isEmpty();
+        assertThat(merged.hasChildOfType(Mode.class)).isPresent();
+        assertThat(ReorganizerStatistics.getTotalApplications()).isEqualTo(15);
+    }
+
+    @Test
+    void ruleWithoutEffectIsNotAppliedAgain() {
+        final IReorganizerRule withoutEffect =
+                new ReorganizerRuleBuilder()
+                        .createReorganizerRule("without effect")
+                        .forNodeKind(BlockCipher.class)
+                        .noAction();
+        final Algorithm cipher = new Algorithm("AES", BlockCipher.class, detectionLocation);
+        cipher.put(new Mode("CBC", detectionLocation));
+        final List<INode> roots = List.of(cipher);
+
+        final List<INode> reorganized =
+                new Reorganizer(List.of(withoutEffect, removeMode)).reorganize(roots);
+
+        assertThat(reorganized).isEqualTo(roots);
+        assertThat(cipher.hasChildOfType(Mode.class)).isPresent();
+        assertThat(ReorganizerStatistics.getWithoutEffect()).isEqualTo(1);
+        assertThat(ReorganizerStatistics.getTotalApplications()).isZero();
+        assertThat(ReorganizerStatistics.getStopped()).isZero();
+    }
+
+    @Test
+    void stopsRulesThatUndoEachOther() {
+        final IReorganizerRule modeToPadding =
+                new ReorganizerRuleBuilder()
+                        .createReorganizerRule("mode to padding")
+                        .forNodeKind(BlockCipher.class)
+                        .withDetectionCondition(
+                                (node, parent, roots) -> node.hasChildOfType(Mode.class).isPresent())
+                        .perform(
+                                (node, parent, roots) -> {
+                                    node.removeChildOfType(Mode.class);
+                                    node.put(new Padding("PKCS5", detectionLocation));
+                                    return roots;
+                                });
+        final IReorganizerRule paddingToMode =
+                new ReorganizerRuleBuilder()
+                        .createReorganizerRule("padding to mode")
+                        .forNodeKind(BlockCipher.class)
+                        .withDetectionCondition(
+                                (node, parent, roots) ->
+                                        node.hasChildOfType(Padding.class).isPresent())
+                        .perform(
+                                (node, parent, roots) -> {
+                                    node.removeChildOfType(Padding.class);
+                                    node.put(new Mode("CBC", detectionLocation));
+                                    return roots;
+                                });
+        final Algorithm cipher = new Algorithm("AES", BlockCipher.class, detectionLocation);
+        cipher.put(new Mode("CBC", detectionLocation));
+
+        new Reorganizer(List.of(modeToPadding, paddingToMode)).reorganize(List.of(cipher));
+
+        assertThat(ReorganizerStatistics.getStopped()).isEqualTo(1);
+        assertThat(ReorganizerStatistics.getTotalApplications())
+                .isEqualTo(2L * Reorganizer.MAX_APPLICATIONS_PER_NODE);
+    }
+}
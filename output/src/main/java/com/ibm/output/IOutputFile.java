@@ -21,6 +21,8 @@ package com.ibm.output;
 
 import com.ibm.mapper.model.INode;
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 import javax.annotation.Nonnull;
 
@@ -28,4 +30,12 @@ public interface IOutputFile {
     void add(@Nonnull List<INode> nodes);
 
     void saveTo(@Nonnull File file);
+
+    /**
+     * Writes the output to a stream instead of a file, e.g. to send it to a client.
+     *
+     * @param writer the writer to write to; it is not closed
+     * @throws IOException if the output cannot be generated or written
+     */
+    void writeTo(@Nonnull Writer writer) throws IOException;
 }
@@ -0,0 +1,42 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cache;
+
+import com.ibm.mapper.model.INode;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * The results of the analysis of a file, as they are stored by the {@link IncrementalResultCache}.
+ *
+ * @param contentHash the hash of the content of the file that was analysed
+ * @param dependencies the files that registered hooks which produced findings in this file, with
+ *     the hash of their content at the time of the analysis
+ * @param nodes the translated nodes of the findings in this file
+ * @param issues the issues that were reported for the findings in this file
+ */
+public record CachedFileResult(
+        @Nonnull String contentHash,
+        @Nonnull Map<String, String> dependencies,
+        @Nonnull List<INode> nodes,
+        @Nonnull List<CachedIssue> issues)
+        implements Serializable {}
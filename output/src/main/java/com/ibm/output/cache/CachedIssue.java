@@ -0,0 +1,34 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cache;
+
+import java.io.Serializable;
+import javax.annotation.Nonnull;
+
+/**
+ * An issue that a rule reported for a file. Replayed issues are reported on their line, the
+ * precise range of the tree they were reported on is not kept.
+ *
+ * @param rule the class name of the reporting rule
+ * @param line the line of the issue
+ * @param message the message of the issue
+ */
+public record CachedIssue(@Nonnull String rule, int line, @Nonnull String message)
+        implements Serializable {}
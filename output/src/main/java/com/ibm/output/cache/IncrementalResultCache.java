@@ -0,0 +1,441 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cache;
+
+import com.ibm.engine.rule.RuleFingerprint;
+import com.ibm.mapper.model.INode;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the results of the analysis of each file on disk, so that the next analysis can replay
+ * them for files whose content did not change. The cache of a language is stored in one file,
+ * named after the fingerprint of the active rule set; results of another rule set or plugin
+ * version are never read.
+ *
+ * <p>The findings of a file can depend on other files, when hooks registered by another file are
+ * invoked in it. A cached result is only replayed if the content of the file and of all files it
+ * depends on is unchanged. Files that other files depend on, and files that registered hooks which
+ * can be invoked from other files, are not cached at all: they are analysed every time, so that
+ * their hooks are registered for changed and new files. Findings of such hooks in a replayed file
+ * are dropped if the file already depended on the hook's file, since its cached results contain
+ * them.
+ */
+public final class IncrementalResultCache {
+    public static final String DIRECTORY_PROPERTY = "sonar.cryptoScanner.cache.directory";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalResultCache.class);
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".cache";
+    private static final ObjectInputFilter CLASS_FILTER =
+            ObjectInputFilter.Config.createFilter(
+                    "maxdepth=1024;com.ibm.**;java.lang.**;java.util.**;!*");
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    /* null until a directory is selected, blank if the cache is disabled */
+    @Nullable private static volatile String selectedDirectory;
+
+    @Nullable private final Path cacheFile;
+    @Nonnull private final String language;
+    @Nonnull private final Map<String, CachedFileResult> previousResults;
+    @Nonnull private final Map<String, FileResults> currentResults = new ConcurrentHashMap<>();
+    @Nonnull private final Map<String, Optional<String>> contentHashes = new ConcurrentHashMap<>();
+
+    private IncrementalResultCache(
+            @Nullable Path cacheFile,
+            @Nonnull String language,
+            @Nonnull Map<String, CachedFileResult> previousResults) {
+        this.cacheFile = cacheFile;
+        this.language = language;
+        this.previousResults = previousResults;
+    }
+
+    @Nonnull
+    public static IncrementalResultCache disabled() {
+        return new IncrementalResultCache(null, "", Map.of());
+    }
+
+    /** Selects the cache directory of the analysis, e.g. from the properties of the project. */
+    public static void selectDirectory(@Nullable String directory) {
+        selectedDirectory = directory == null ? "" : directory;
+    }
+
+    /**
+     * Opens the cache in the selected directory (see {@link #selectDirectory(String)}), or in the
+     * one of the {@link #DIRECTORY_PROPERTY} system property if none was selected. The cache is
+     * disabled if no directory is configured.
+     *
+     * @param language the language whose results are cached
+     * @param fingerprint supplies the fingerprint of the active rule set, only called if the cache
+     *     is enabled
+     * @return the cache
+     */
+    @Nonnull
+    public static IncrementalResultCache fromSelectedDirectory(
+            @Nonnull String language, @Nonnull Supplier<String> fingerprint) {
+        String directory = selectedDirectory;
+        if (directory == null) {
+            directory = System.getProperty(DIRECTORY_PROPERTY);
+        }
+        if (directory == null || directory.isBlank()) {
+            return disabled();
+        }
+        return open(Path.of(directory.trim()), language, fingerprint.get());
+    }
+
+    @Nonnull
+    public static IncrementalResultCache open(
+            @Nonnull Path directory, @Nonnull String language, @Nonnull String fingerprint) {
+        final Path cacheFile = directory.resolve(language + "-" + fingerprint + SUFFIX);
+        return new IncrementalResultCache(cacheFile, language, load(cacheFile));
+    }
+
+    /**
+     * Digests the parts of a rule set into a fingerprint. The version of the code is usually one of
+     * the parts, see {@link #codeVersionOf(Class)}.
+     */
+    @Nonnull
+    public static String fingerprint(@Nonnull List<String> parts) {
+        return RuleFingerprint.digest(String.join("\n", parts));
+    }
+
+    /**
+     * Describes the version of the code the given class was loaded from: the implementation
+     * version of its package and the size and modification time of its jar, since snapshot builds
+     * share the same version.
+     */
+    @Nonnull
+    public static String codeVersionOf(@Nonnull Class<?> clazz) {
+        final StringBuilder version = new StringBuilder();
+        version.append(clazz.getPackage().getImplementationVersion());
+        final CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            try {
+                final Path location = Path.of(codeSource.getLocation().toURI());
+                if (Files.isRegularFile(location)) {
+                    version.append(' ')
+                            .append(Files.size(location))
+                            .append(' ')
+                            .append(Files.getLastModifiedTime(location).toMillis());
+                }
+            } catch (IOException | URISyntaxException | RuntimeException e) {
+                version.append(" unknown");
+            }
+        }
+        return version.toString();
+    }
+
+    public boolean isEnabled() {
+        return cacheFile != null;
+    }
+
+    /**
+     * Returns the cached results of the file, if its content and the content of the files it
+     * depends on did not change since they were stored. The returned results are replayed: they
+     * are stored again by {@link #store(Predicate)}, together with new findings of the file.
+     *
+     * @param filePath the path of the file that is scanned next
+     * @return the results to replay, or empty if the file has to be analysed
+     */
+    @Nonnull
+    public Optional<CachedFileResult> lookup(@Nonnull String filePath) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        final CachedFileResult cached = previousResults.get(filePath);
+        if (cached == null || !isUnchanged(cached, filePath)) {
+            MISSES.increment();
+            return Optional.empty();
+        }
+        final FileResults replayed = new FileResults(cached);
+        if (currentResults.putIfAbsent(filePath, replayed) != null) {
+            // the file was already analysed or replayed
+            MISSES.increment();
+            return Optional.empty();
+        }
+        HITS.increment();
+        return Optional.of(cached);
+    }
+
+    /**
+     * Checks if the cached results of a replayed file already contain a finding for it. This is
+     * the case if the hook that produced the finding was registered by a file the replayed file
+     * already depended on.
+     *
+     * @param filePath the file of the finding
+     * @param hookOriginFilePath the file that registered the hook of the finding, if any
+     * @return true if the finding must be dropped
+     */
+    public boolean isCovered(@Nonnull String filePath, @Nullable String hookOriginFilePath) {
+        final FileResults results = currentResults.get(filePath);
+        if (results == null || results.replayed == null) {
+            return false;
+        }
+        return hookOriginFilePath == null
+                || results.replayed.dependencies().containsKey(hookOriginFilePath);
+    }
+
+    /**
+     * Records the translated nodes of a finding.
+     *
+     * @param filePath the file of the finding
+     * @param hookOriginFilePath the file that registered the hook of the finding, if any
+     * @param nodes the translated nodes
+     * @param partial if the finding ran out of its analysis budget, the file is then not cached
+     */
+    public void addFinding(
+            @Nonnull String filePath,
+            @Nullable String hookOriginFilePath,
+            @Nonnull List<INode> nodes,
+            boolean partial) {
+        if (!isEnabled()) {
+            return;
+        }
+        final FileResults results = resultsOf(filePath);
+        if (partial) {
+            results.exclude();
+            return;
+        }
+        results.addNodes(nodes);
+        if (hookOriginFilePath != null && !hookOriginFilePath.equals(filePath)) {
+            final Optional<String> originHash = contentHash(hookOriginFilePath);
+            if (originHash.isPresent()) {
+                results.addDependency(hookOriginFilePath, originHash.get());
+            } else {
+                results.exclude();
+            }
+        }
+    }
+
+    public void addIssue(@Nonnull String filePath, @Nonnull CachedIssue issue) {
+        if (isEnabled()) {
+            resultsOf(filePath).addIssue(issue);
+        }
+    }
+
+    /**
+     * Writes the results of all files of this analysis to disk, replacing the previous cache and
+     * deleting caches of other rule sets of the language.
+     *
+     * @param hasScanScopedHooks whether a file registered hooks that can be invoked from other
+     *     files
+     */
+    public void store(@Nonnull Predicate<String> hasScanScopedHooks) {
+        if (cacheFile == null) {
+            return;
+        }
+        final Set<String> dependedFiles = new HashSet<>();
+        currentResults.values().forEach(results -> results.collectDependencies(dependedFiles));
+        final HashMap<String, CachedFileResult> results = new HashMap<>();
+        currentResults.forEach(
+                (filePath, fileResults) -> {
+                    if (dependedFiles.contains(filePath) || hasScanScopedHooks.test(filePath)) {
+                        return;
+                    }
+                    contentHash(filePath)
+                            .flatMap(fileResults::toCachedResult)
+                            .ifPresent(result -> results.put(filePath, result));
+                });
+        try {
+            final Path directory = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            final Path temporaryFile = Files.createTempFile(directory, language, ".tmp");
+            try (ObjectOutputStream output =
+                    new ObjectOutputStream(
+                            new GZIPOutputStream(
+                                    new BufferedOutputStream(
+                                            Files.newOutputStream(temporaryFile))))) {
+                output.writeInt(FORMAT_VERSION);
+                output.writeObject(results);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporaryFile);
+                throw e;
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            deleteOtherRuleSets(directory);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not store the result cache '{}': {}", cacheFile, e.getMessage());
+        }
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    public static void reset() {
+        HITS.reset();
+        MISSES.reset();
+    }
+
+    private boolean isUnchanged(@Nonnull CachedFileResult cached, @Nonnull String filePath) {
+        if (!contentHash(filePath).map(cached.contentHash()::equals).orElse(false)) {
+            return false;
+        }
+        return cached.dependencies().entrySet().stream()
+                .allMatch(
+                        dependency ->
+                                contentHash(dependency.getKey())
+                                        .map(dependency.getValue()::equals)
+                                        .orElse(false));
+    }
+
+    @Nonnull
+    private FileResults resultsOf(@Nonnull String filePath) {
+        return currentResults.computeIfAbsent(filePath, k -> new FileResults(null));
+    }
+
+    @Nonnull
+    private Optional<String> contentHash(@Nonnull String filePath) {
+        return contentHashes.computeIfAbsent(
+                filePath,
+                path -> {
+                    try {
+                        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                        return Optional.of(
+                                HexFormat.of()
+                                        .formatHex(
+                                                digest.digest(Files.readAllBytes(Path.of(path)))));
+                    } catch (IOException | InvalidPathException | NoSuchAlgorithmException e) {
+                        return Optional.empty();
+                    }
+                });
+    }
+
+    private void deleteOtherRuleSets(@Nonnull Path directory) throws IOException {
+        try (DirectoryStream<Path> caches =
+                Files.newDirectoryStream(directory, language + "-*" + SUFFIX)) {
+            for (Path cache : caches) {
+                if (!cache.getFileName().equals(cacheFile.getFileName())) {
+                    Files.deleteIfExists(cache);
+                }
+            }
+        }
+    }
+
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private static Map<String, CachedFileResult> load(@Nonnull Path cacheFile) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return Map.of();
+        }
+        try (ObjectInputStream input =
+                new ObjectInputStream(
+                        new GZIPInputStream(
+                                new BufferedInputStream(Files.newInputStream(cacheFile))))) {
+            input.setObjectInputFilter(CLASS_FILTER);
+            if (input.readInt() != FORMAT_VERSION) {
+                return Map.of();
+            }
+            return (Map<String, CachedFileResult>) input.readObject();
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            LOGGER.warn("Could not read the result cache '{}': {}", cacheFile, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /* the results of a file in the current analysis */
+    private static final class FileResults {
+        @Nullable private final CachedFileResult replayed;
+        @Nonnull private final List<INode> nodes = new ArrayList<>();
+        @Nonnull private final List<CachedIssue> issues = new ArrayList<>();
+        @Nonnull private final Map<String, String> dependencies = new HashMap<>();
+        private boolean excluded = false;
+
+        private FileResults(@Nullable CachedFileResult replayed) {
+            this.replayed = replayed;
+            if (replayed != null) {
+                nodes.addAll(replayed.nodes());
+                issues.addAll(replayed.issues());
+                dependencies.putAll(replayed.dependencies());
+            }
+        }
+
+        private synchronized void addNodes(@Nonnull List<INode> newNodes) {
+            nodes.addAll(newNodes);
+        }
+
+        private synchronized void addIssue(@Nonnull CachedIssue issue) {
+            issues.add(issue);
+        }
+
+        private synchronized void addDependency(@Nonnull String filePath, @Nonnull String hash) {
+            dependencies.put(filePath, hash);
+        }
+
+        private synchronized void exclude() {
+            excluded = true;
+        }
+
+        private synchronized void collectDependencies(@Nonnull Set<String> dependedFiles) {
+            dependedFiles.addAll(dependencies.keySet());
+        }
+
+        @Nonnull
+        private synchronized Optional<CachedFileResult> toCachedResult(
+                @Nonnull String contentHash) {
+            if (excluded) {
+                return Optional.empty();
+            }
+            return Optional.of(
+                    new CachedFileResult(
+                            contentHash,
+                            new HashMap<>(dependencies),
+                            new ArrayList<>(nodes),
+                            new ArrayList<>(issues)));
+        }
+    }
+}
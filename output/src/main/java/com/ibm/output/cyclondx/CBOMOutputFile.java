@@ -63,6 +63,7 @@ import com.ibm.output.cyclondx.builder.RelatedCryptoMaterialComponentBuilder;
 import com.ibm.output.util.Utils;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
@@ -95,6 +96,8 @@ import org.slf4j.LoggerFactory;
 public class CBOMOutputFile implements IOutputFile {
     private static final Logger LOGGER = LoggerFactory.getLogger(CBOMOutputFile.class);
     private static final Version schema = Version.VERSION_16;
+    /* marks occurrences of findings whose analysis ran out of its budget */
+    private static final String PARTIAL_RESULT_CONTEXT = "(partial: analysis budget exceeded)";
 
     @Nonnull private final Map<String, Component> components;
     @Nonnull private final Map<String, Dependency> dependencies;
@@ -344,6 +347,16 @@ public class CBOMOutputFile implements IOutputFile {
         }
     }
 
+    @Override
+    public void writeTo(@Nonnull Writer writer) throws IOException {
+        final BomJsonGenerator bomGenerator = BomGeneratorFactory.createJson(schema, getBom());
+        try {
+            writer.write(bomGenerator.toJsonString());
+        } catch (GeneratorException e) {
+            throw new IOException("Could not generate CBOM", e);
+        }
+    }
+
     @Nonnull
     private Function<Component, Optional<String>> getIdentifierFunction() {
         return (component -> Optional.ofNullable(component.getName()));
@@ -355,8 +368,15 @@ public class CBOMOutputFile implements IOutputFile {
         occurrence.setLocation(detectionLocation.filePath());
         occurrence.setLine(detectionLocation.lineNumber());
         occurrence.setOffset(detectionLocation.offSet());
+        final List<String> additionalContext = new ArrayList<>(2);
         if (!detectionLocation.keywords().isEmpty()) {
-            occurrence.setAdditionalContext(detectionLocation.keywords().get(0));
+            additionalContext.add(detectionLocation.keywords().get(0));
+        }
+        if (detectionLocation.partial()) {
+            additionalContext.add(PARTIAL_RESULT_CONTEXT);
+        }
+        if (!additionalContext.isEmpty()) {
+            occurrence.setAdditionalContext(String.join(" ", additionalContext));
         }
         return occurrence;
     }
@@ -0,0 +1,97 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.statistics;
+
+import com.ibm.engine.detection.DependingRuleMemo;
+import com.ibm.engine.detection.MatchStatistics;
+import com.ibm.engine.detection.TypeRelationCache;
+import com.ibm.engine.executive.AnalysisBudget;
+import com.ibm.engine.hooks.HookScope;
+import com.ibm.engine.hooks.HookStatistics;
+import com.ibm.mapper.mapper.MapperCache;
+import com.ibm.mapper.reorganizer.ReorganizerStatistics;
+import com.ibm.output.cache.IncrementalResultCache;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/** Collects the counters of the engine that are reported with the {@link ScanStatistics}. */
+public final class EngineStatistics {
+
+    private EngineStatistics() {
+        // nothing
+    }
+
+    @Nonnull
+    public static Map<String, Long> collect() {
+        final Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("Matched invocations", MatchStatistics.getMatches());
+        for (MatchStatistics.Stage stage : MatchStatistics.Stage.values()) {
+            statistics.put(
+                    "Rejected by " + stage.name().toLowerCase().replace('_', ' '),
+                    MatchStatistics.getRejections(stage));
+        }
+        statistics.put("Type relation cache hits", TypeRelationCache.getHits());
+        statistics.put("Type relation cache misses", TypeRelationCache.getMisses());
+        statistics.put("Depending rule memo hits", DependingRuleMemo.getHits());
+        statistics.put("Depending rule memo misses", DependingRuleMemo.getMisses());
+        statistics.put("Mapper cache hits", MapperCache.getHits());
+        statistics.put("Mapper cache misses", MapperCache.getMisses());
+        statistics.put("Mapper cache evictions", MapperCache.getEvictions());
+        statistics.put("Reorganizations", ReorganizerStatistics.getTotalApplications());
+        ReorganizerStatistics.getApplications()
+                .forEach((rule, count) -> statistics.put("Reorganizations by " + rule, count));
+        statistics.put("Reorganizer rule evaluations", ReorganizerStatistics.getEvaluations());
+        statistics.put(
+                "Reorganizations without effect", ReorganizerStatistics.getWithoutEffect());
+        statistics.put(
+                "Reorganizations found by the final pass",
+                ReorganizerStatistics.getVerificationMatches());
+        statistics.put("Reorganizations stopped", ReorganizerStatistics.getStopped());
+        statistics.put("Partial findings", AnalysisBudget.getPartialFindings());
+        statistics.put("Result cache hits", IncrementalResultCache.getHits());
+        statistics.put("Result cache misses", IncrementalResultCache.getMisses());
+        for (AnalysisBudget.Reason reason : AnalysisBudget.Reason.values()) {
+            statistics.put(
+                    "Budgets exceeded by " + reason.name().toLowerCase().replace('_', ' '),
+                    AnalysisBudget.getExceeded(reason));
+        }
+        statistics.put("Live file scoped hooks", HookStatistics.getLiveHooks(HookScope.FILE));
+        statistics.put("Live scan scoped hooks", HookStatistics.getLiveHooks(HookScope.SCAN));
+        statistics.put("Released hooks", HookStatistics.getReleasedHooks());
+        statistics.put("Released hook observers", HookStatistics.getReleasedObservers());
+        return statistics;
+    }
+
+    /**
+     * Zeroes the counters. The caches of the engine are kept, they do not depend on a scan and stay
+     * warm for the next one.
+     */
+    public static void reset() {
+        MatchStatistics.reset();
+        TypeRelationCache.reset();
+        HookStatistics.reset();
+        DependingRuleMemo.reset();
+        MapperCache.reset();
+        ReorganizerStatistics.reset();
+        AnalysisBudget.reset();
+        IncrementalResultCache.reset();
+    }
+}
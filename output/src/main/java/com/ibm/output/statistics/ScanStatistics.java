@@ -20,6 +20,7 @@
 package com.ibm.output.statistics;
 
 import com.ibm.mapper.model.INode;
+import java.util.Collections;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.IntSupplier;
@@ -29,12 +30,21 @@ import javax.annotation.Nonnull;
 public final class ScanStatistics implements IStatistics {
     private final int numberOfDetectedAssets;
     @Nonnull private final Map<Class<? extends INode>, Long> numberOfAssetsPerType;
+    @Nonnull private final Map<String, Long> engineStatistics;
 
     public ScanStatistics(
             @Nonnull IntSupplier numberOfDetectedAssetsSupplier,
             @Nonnull Supplier<Map<Class<? extends INode>, Long>> numberOfAssetsPerTypeSupplier) {
+        this(numberOfDetectedAssetsSupplier, numberOfAssetsPerTypeSupplier, Collections::emptyMap);
+    }
+
+    public ScanStatistics(
+            @Nonnull IntSupplier numberOfDetectedAssetsSupplier,
+            @Nonnull Supplier<Map<Class<? extends INode>, Long>> numberOfAssetsPerTypeSupplier,
+            @Nonnull Supplier<Map<String, Long>> engineStatisticsSupplier) {
         this.numberOfDetectedAssets = numberOfDetectedAssetsSupplier.getAsInt();
         this.numberOfAssetsPerType = numberOfAssetsPerTypeSupplier.get();
+        this.engineStatistics = engineStatisticsSupplier.get();
     }
 
     @Override
@@ -46,6 +56,12 @@ public final class ScanStatistics implements IStatistics {
                     String.format(
                             " - %-30s: %s", entry.getKey().getSimpleName(), entry.getValue()));
         }
+        if (!engineStatistics.isEmpty()) {
+            out.accept("---------- Engine Statistics --------");
+            for (Map.Entry<String, Long> entry : engineStatistics.entrySet()) {
+                out.accept(String.format("%-33s: %s", entry.getKey(), entry.getValue()));
+            }
+        }
         out.accept("=====================================");
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.mapper.model.IAsset;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.algorithms.RSA;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IncrementalResultCacheTest {
+    private Path directory;
+    private String first;
+    private String second;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("result-cache");
+        first = write("First.java", "class First {}");
+        second = write("Second.java", "class Second {}");
+    }
+
+    @Test
+    void replaysTheResultsOfAnUnchangedFile() {
+        final IncrementalResultCache cache = IncrementalResultCache.open(directory, "java", "a");
+        assertThat(cache.lookup(first)).isEmpty();
+        cache.addFinding(first, null, List.of(new RSA(location(first))), false);
+        cache.addIssue(first, new CachedIssue("Rule", 1, "message"));
+        cache.store(filePath -> false);
+
+        final Optional<CachedFileResult> result =
+                IncrementalResultCache.open(directory, "java", "a").lookup(first);
+        assertThat(result).isPresent();
+        assertThat(result.get().issues()).containsExactly(new CachedIssue("Rule", 1, "message"));
+        assertThat(result.get().nodes()).hasSize(1);
+        final INode node = result.get().nodes().get(0);
+        assertThat(node.asString()).isEqualTo("RSA");
+        final DetectionLocation location = ((IAsset) node).getDetectionContext();
+        assertThat(location.filePath()).isEqualTo(first);
+        assertThat(location.bundle().getIdentifier()).isEqualTo("Test");
+    }
+
+    @Test
+    void analysesChangedFilesAgain() throws IOException {
+        final IncrementalResultCache cache = IncrementalResultCache.open(directory, "java", "a");
+        cache.addFinding(first, null, List.of(new RSA(location(first))), false);
+        cache.store(filePath -> false);
+        write("First.java", "class First { int changed; }");
+
+        assertThat(IncrementalResultCache.open(directory, "java", "a").lookup(first)).isEmpty();
+    }
+
+    @Test
+    void ignoresTheResultsOfOtherRuleSets() {
+        final IncrementalResultCache cache = IncrementalResultCache.open(directory, "java", "a");
+        cache.addFinding(first, null, List.of(new RSA(location(first))), false);
+        cache.store(filePath -> false);
+
+        final IncrementalResultCache other = IncrementalResultCache.open(directory, "java", "b");
+        assertThat(other.lookup(first)).isEmpty();
+        other.store(filePath -> false);
+        assertThat(Files.exists(directory.resolve("java-a.cache"))).isFalse();
+    }
+
+    @Test
+    void invalidatesFilesThatDependOnAChangedHookFile() throws IOException {
+        final IncrementalResultCache cache = IncrementalResultCache.open(directory, "java", "a");
+        cache.addFinding(first, null, List.of(new RSA(location(first))), false);
+        // a hook registered in the first file found a value in the second one
+        cache.addFinding(second, first, List.of(new RSA(location(second))), false);
+        cache.store(filePath -> false);
+
+        final IncrementalResultCache unchanged =
+                IncrementalResultCache.open(directory, "java", "a");
+        // the first file has to register its hooks again
+        assertThat(unchanged.lookup(first)).isEmpty();
+        assertThat(unchanged.lookup(second)).isPresent();
+        assertThat(unchanged.isCovered(second, first)).isTrue();
+        assertThat(unchanged.isCovered(second, "Other.java")).isFalse();
+        assertThat(unchanged.isCovered(first, null)).isFalse();
+
+        write("First.java", "class First { int changed; }");
+        assertThat(IncrementalResultCache.open(directory, "java", "a").lookup(second)).isEmpty();
+    }
+
+    @Test
+    void doesNotStoreFilesWithScanScopedHooksOrPartialFindings() {
+        final IncrementalResultCache cache = IncrementalResultCache.open(directory, "java", "a");
+        cache.addFinding(first, null, List.of(new RSA(location(first))), false);
+        cache.addFinding(second, null, List.of(new RSA(location(second))), true);
+        cache.store(first::equals);
+
+        final IncrementalResultCache next = IncrementalResultCache.open(directory, "java", "a");
+        assertThat(next.lookup(first)).isEmpty();
+        assertThat(next.lookup(second)).isEmpty();
+    }
+
+    @Test
+    void disabledCacheKeepsNothing() {
+        final IncrementalResultCache cache = IncrementalResultCache.disabled();
+        cache.addFinding(first, null, List.of(new RSA(location(first))), false);
+        cache.store(filePath -> false);
+
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(cache.lookup(first)).isEmpty();
+    }
+
+    @Nonnull
+    private String write(@Nonnull String name, @Nonnull String content) throws IOException {
+        final Path file = directory.resolve(name);
+        Files.writeString(file, content);
+        return file.toString();
+    }
+
+    @Nonnull
+    private static DetectionLocation location(@Nonnull String filePath) {
+        return new DetectionLocation(filePath, 1, 1, Collections.emptyList(), () -> "Test");
+    }
+}
@@ -23,10 +23,13 @@ import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.LanguageSupporter;
 import com.ibm.mapper.model.INode;
 import com.ibm.output.IAggregator;
+import com.ibm.output.cache.IncrementalResultCache;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.PythonCheck;
 import org.sonar.plugins.python.api.PythonVisitorContext;
 import org.sonar.plugins.python.api.symbols.Symbol;
@@ -34,9 +37,13 @@ import org.sonar.plugins.python.api.tree.Tree;
 
 public final class PythonAggregator implements IAggregator {
 
-    private static ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>
+    private static volatile ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>
             pythonLanguageSupport = LanguageSupporter.pythonLanguageSupporter();
-    private static List<INode> detectedNodes = new ArrayList<>();
+    @Nonnull
+    private static volatile List<INode> detectedNodes =
+            Collections.synchronizedList(new ArrayList<>());
+    /* opened by the first rule that scans a file, since the fingerprint depends on the rules */
+    @Nullable private static volatile IncrementalResultCache resultCache = null;
 
     private PythonAggregator() {
         // nothing
@@ -50,7 +57,11 @@ public final class PythonAggregator implements IAggregator {
 
     @Nonnull
     public static List<INode> getDetectedNodes() {
-        return Collections.unmodifiableList(detectedNodes);
+        // a copy, since files can still be analysed concurrently
+        final List<INode> nodes = detectedNodes;
+        synchronized (nodes) {
+            return List.copyOf(nodes);
+        }
     }
 
     public static void addNodes(@Nonnull List<INode> newNodes) {
@@ -58,8 +69,39 @@ public final class PythonAggregator implements IAggregator {
         IAggregator.log(newNodes);
     }
 
+    /**
+     * Returns the result cache of the analysis, opening it with the given fingerprint of the active
+     * rule set if this is the first call.
+     *
+     * @param fingerprint supplies the fingerprint of the active rule set
+     * @return the result cache, which is disabled unless a cache directory is configured
+     */
+    @Nonnull
+    public static IncrementalResultCache getResultCache(@Nonnull Supplier<String> fingerprint) {
+        IncrementalResultCache cache = resultCache;
+        if (cache == null) {
+            synchronized (PythonAggregator.class) {
+                cache = resultCache;
+                if (cache == null) {
+                    cache = IncrementalResultCache.fromSelectedDirectory("python", fingerprint);
+                    resultCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /** Stores the results of this analysis, if the result cache was opened. */
+    public static void storeResultCache() {
+        final IncrementalResultCache cache = resultCache;
+        if (cache != null) {
+            cache.store(pythonLanguageSupport::hasScanScopedHooks);
+        }
+    }
+
     public static void reset() {
         pythonLanguageSupport = LanguageSupporter.pythonLanguageSupporter();
-        detectedNodes = new ArrayList<>();
+        detectedNodes = Collections.synchronizedList(new ArrayList<>());
+        resultCache = null;
     }
 }
@@ -19,13 +19,29 @@
  */
 package com.ibm.plugin;
 
+import com.ibm.engine.executive.AnalysisBudget;
+import com.ibm.engine.rule.RuleFamilies;
+import com.ibm.engine.rule.RuleSelection;
+import com.ibm.output.cache.IncrementalResultCache;
+import com.ibm.plugin.rules.detection.PythonDetectionRules;
 import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.Nullable;
+import org.sonar.api.config.Configuration;
 import org.sonar.plugins.python.api.PythonCustomRuleRepository;
 import org.sonarsource.api.sonarlint.SonarLintSide;
 
 @SonarLintSide
 public class PythonCheckRegistrar implements PythonCustomRuleRepository {
+    @Nullable private final Configuration configuration;
+
+    public PythonCheckRegistrar() {
+        this(null);
+    }
+
+    public PythonCheckRegistrar(@Nullable Configuration configuration) {
+        this.configuration = configuration;
+    }
 
     @Override
     public String repositoryKey() {
@@ -34,6 +50,21 @@ public class PythonCheckRegistrar implements PythonCustomRuleRepository {
 
     @Override
     public List<Class<?>> checkClasses() {
+        if (configuration != null) {
+            PythonDetectionRules.select(
+                    RuleSelection.of(
+                            configuration.get(RuleSelection.FAMILIES_PROPERTY).orElse(null),
+                            configuration
+                                    .get(RuleSelection.DISABLED_BUNDLES_PROPERTY)
+                                    .orElse(null)));
+            PythonDetectionRules.selectFileFilterMode(
+                    RuleFamilies.FileFilterMode.of(
+                            configuration.get(RuleFamilies.FILE_FILTER_PROPERTY).orElse(null)));
+            AnalysisBudget.Limits.select(
+                    AnalysisBudget.Limits.from(key -> configuration.get(key).orElse(null)));
+            IncrementalResultCache.selectDirectory(
+                    configuration.get(IncrementalResultCache.DIRECTORY_PROPERTY).orElse(null));
+        }
         // Creating a new list is necessary to return a type
         // List<Class> from the type List<Class<? extends PythonCheck>>
         return new ArrayList<>(PythonRuleList.getPythonChecks());
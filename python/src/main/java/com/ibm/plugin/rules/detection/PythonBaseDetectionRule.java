@@ -22,38 +22,60 @@ package com.ibm.plugin.rules.detection;
 import com.ibm.common.IObserver;
 import com.ibm.engine.detection.Finding;
 import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.language.python.PythonLanguageTranslation;
 import com.ibm.engine.language.python.PythonScanContext;
 import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.RuleDispatchIndex;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.reorganizer.IReorganizerRule;
+import com.ibm.output.cache.CachedFileResult;
+import com.ibm.output.cache.CachedIssue;
 import com.ibm.plugin.PythonAggregator;
 import com.ibm.plugin.translation.PythonTranslationProcess;
 import com.ibm.plugin.translation.reorganizer.PythonReorganizerRules;
+import com.ibm.rules.FileDetection;
 import com.ibm.rules.IReportableDetectionRule;
 import com.ibm.rules.issue.Issue;
 import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nonnull;
+import org.sonar.plugins.python.api.IssueLocation;
 import org.sonar.plugins.python.api.PythonCheck;
+import org.sonar.plugins.python.api.PythonCheck.PreciseIssue;
 import org.sonar.plugins.python.api.PythonVisitorCheck;
 import org.sonar.plugins.python.api.PythonVisitorContext;
 import org.sonar.plugins.python.api.symbols.Symbol;
 import org.sonar.plugins.python.api.tree.CallExpression;
+import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 
 public abstract class PythonBaseDetectionRule extends PythonVisitorCheck
         implements IObserver<Finding<PythonCheck, Tree, Symbol, PythonVisitorContext>>,
                 IReportableDetectionRule<Tree> {
 
+    @Nonnull
+    private static final FileDetection.Registry<PythonCheck, Tree, Symbol, PythonVisitorContext>
+            FILE_DETECTIONS =
+                    new FileDetection.Registry<>(
+                            PythonBaseDetectionRule.class,
+                            PythonAggregator::getResultCache,
+                            scanContext ->
+                                    scanContext instanceof PythonScanContext pythonScanContext
+                                            ? pythonScanContext.pythonVisitorContext()
+                                            : scanContext,
+                            PythonDetectionRules::fileFilterMode);
+
     private final boolean isInventory;
     @Nonnull protected final PythonTranslationProcess pythonTranslationProcess;
     @Nonnull protected final List<IDetectionRule<Tree>> detectionRules;
 
+    @Nonnull
+    private final FileDetection<PythonCheck, Tree, Symbol, PythonVisitorContext> fileDetection;
+
     protected PythonBaseDetectionRule() {
-        this.isInventory = false;
-        this.detectionRules = PythonDetectionRules.rules();
-        this.pythonTranslationProcess =
-                new PythonTranslationProcess(PythonReorganizerRules.rules());
+        this(false, PythonDetectionRules.rules(), PythonReorganizerRules.rules());
     }
 
     protected PythonBaseDetectionRule(
@@ -63,43 +85,136 @@ public abstract class PythonBaseDetectionRule extends PythonVisitorCheck
         this.isInventory = isInventory;
         this.detectionRules = detectionRules;
         this.pythonTranslationProcess = new PythonTranslationProcess(reorganizerRules);
+        this.fileDetection =
+                FILE_DETECTIONS.register(
+                        this,
+                        isInventory,
+                        detectionRules,
+                        reorganizerRules,
+                        pythonTranslationProcess::initiate,
+                        this::accept,
+                        this::replay);
+    }
+
+    /**
+     * Joins the detection session of the file and scans it, if this rule is the leader of the
+     * session, see {@link FileDetection#startFile}. Only the rule families that can fire in the
+     * module, according to its imports, are started.
+     *
+     * @param visitorContext The context of the file to scan.
+     */
+    @Override
+    public void scanFile(@Nonnull PythonVisitorContext visitorContext) {
+        final PythonScanContext scanContext = new PythonScanContext(visitorContext);
+        languageSupport().onNewFile(scanContext);
+        if (fileDetection.startFile(
+                visitorContext,
+                scanContext.getFilePath(),
+                (ruleFamilies, fileFilterMode) ->
+                        PythonFileFamilies.of(
+                                visitorContext.rootTree(),
+                                visitorContext.pythonFile().uri(),
+                                ruleFamilies,
+                                fileFilterMode))) {
+            super.scanFile(visitorContext);
+        }
     }
 
+    /**
+     * Applies the candidate detection rules to a call. The candidates are looked up in the {@link
+     * RuleDispatchIndex} by the name of the callee, so that types are only resolved for rules that
+     * can match the call.
+     *
+     * @param tree The call to visit.
+     */
     @Override
     public void visitCallExpression(@Nonnull CallExpression tree) {
-        detectionRules.forEach(
-                rule -> {
-                    DetectionExecutive<PythonCheck, Tree, Symbol, PythonVisitorContext>
-                            detectionExecutive =
-                                    PythonAggregator.getLanguageSupport()
-                                            .createDetectionExecutive(
-                                                    tree,
-                                                    rule,
-                                                    new PythonScanContext(this.getContext()));
-                    detectionExecutive.subscribe(this);
-                    detectionExecutive.start();
-                });
+        final ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext> languageSupport =
+                languageSupport();
+        final PythonScanContext scanContext = new PythonScanContext(this.getContext());
+        // hooks have to be notified about every call, even if no rule is started for it
+        languageSupport.addCallToCallStack(tree, scanContext);
+        getCandidateRules(tree)
+                .forEach(
+                        rule -> {
+                            DetectionExecutive<PythonCheck, Tree, Symbol, PythonVisitorContext>
+                                    detectionExecutive =
+                                            languageSupport.createDetectionExecutive(
+                                                    tree, rule, scanContext);
+                            detectionExecutive.subscribe(this);
+                            detectionExecutive.start();
+                        });
         super.visitCallExpression(tree); // Necessary to visit children nodes of this CallExpression
     }
 
     /**
-     * Updates the output file with the translated nodes resulting from a finding.
+     * Returns the language support that files are registered with and detection executives are
+     * created by.
+     *
+     * @return the language support of the analysis
+     */
+    @Nonnull
+    protected ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext> languageSupport() {
+        return PythonAggregator.getLanguageSupport();
+    }
+
+    @Nonnull
+    private List<IDetectionRule<Tree>> getCandidateRules(@Nonnull CallExpression tree) {
+        final RuleDispatchIndex<Tree> fileRules = fileDetection.fileRules();
+        if (fileRules.rules().isEmpty()) {
+            // no rule family is referenced by the file
+            return Collections.emptyList();
+        }
+        // a call without a callee name can not be matched by any rule
+        return PythonLanguageTranslation.getCalleeName(tree)
+                .map(fileRules::candidatesForMethod)
+                .orElse(Collections.emptyList());
+    }
+
+    /**
+     * Translates the nodes resulting from a finding once and hands them over to all rules of the
+     * session, see {@link FileDetection#publish}.
      *
      * @param finding A finding containing detection store information.
      */
     @Override
     public void update(@Nonnull Finding<PythonCheck, Tree, Symbol, PythonVisitorContext> finding) {
-        List<INode> nodes = pythonTranslationProcess.initiate(finding.detectionStore());
+        fileDetection.publish(finding);
+    }
+
+    private void accept(
+            @Nonnull Finding<PythonCheck, Tree, Symbol, PythonVisitorContext> finding,
+            @Nonnull List<INode> nodes) {
         if (isInventory) {
             PythonAggregator.addNodes(nodes);
         }
         // report
+        final IScanContext<PythonCheck, Tree> scanContext =
+                finding.detectionStore().getScanContext();
         this.report(finding.getMarkerTree(), nodes)
                 .forEach(
-                        issue ->
-                                finding.detectionStore()
-                                        .getScanContext()
-                                        .reportIssue(this, issue.tree(), issue.message()));
+                        issue -> {
+                            scanContext.reportIssue(this, issue.tree(), issue.message());
+                            final Token firstToken = issue.tree().firstToken();
+                            if (firstToken != null) {
+                                fileDetection.recordIssue(
+                                        scanContext.getFilePath(),
+                                        firstToken.line(),
+                                        issue.message());
+                            }
+                        });
+    }
+
+    private void replay(
+            @Nonnull PythonVisitorContext context, @Nonnull CachedFileResult result) {
+        if (isInventory) {
+            PythonAggregator.addNodes(result.nodes());
+        }
+        for (CachedIssue issue : result.issues()) {
+            context.addIssue(
+                    new PreciseIssue(
+                            this, IssueLocation.atLineLevel(issue.message(), issue.line())));
+        }
     }
 
     @Override
@@ -20,6 +20,10 @@
 package com.ibm.plugin.rules.detection;
 
 import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.LazyRuleFamilies;
+import com.ibm.engine.rule.LazyRuleFamilies.Family;
+import com.ibm.engine.rule.RuleFamilies;
+import com.ibm.engine.rule.RuleSelection;
 import com.ibm.plugin.rules.detection.aead.PycaAEAD;
 import com.ibm.plugin.rules.detection.aead.PycaAES;
 import com.ibm.plugin.rules.detection.asymmetric.PycaDSA;
@@ -39,12 +43,43 @@ import javax.annotation.Nonnull;
 import org.sonar.plugins.python.api.tree.Tree;
 
 public final class PythonDetectionRules {
+    @Nonnull
+    private static final LazyRuleFamilies<Tree> FAMILIES =
+            LazyRuleFamilies.of(List.of(new Family<>("Pyca", PythonDetectionRules::build)));
+
+    @Nonnull private static volatile RuleSelection selection = RuleSelection.fromSystemProperties();
+
+    @Nonnull
+    private static volatile RuleFamilies.FileFilterMode fileFilterMode =
+            RuleFamilies.FileFilterMode.fromSystemProperty();
+
     private PythonDetectionRules() {
         // private
     }
 
+    /** The selected rules are built on first use and shared by all checks. */
     @Nonnull
     public static List<IDetectionRule<Tree>> rules() {
+        return FAMILIES.rules(selection);
+    }
+
+    /** Selects the rule families and bundles of the checks that are created afterward. */
+    public static void select(@Nonnull RuleSelection ruleSelection) {
+        selection = ruleSelection;
+    }
+
+    @Nonnull
+    public static RuleFamilies.FileFilterMode fileFilterMode() {
+        return fileFilterMode;
+    }
+
+    /** Selects the file filter mode of the checks that are created afterward. */
+    public static void selectFileFilterMode(@Nonnull RuleFamilies.FileFilterMode mode) {
+        fileFilterMode = mode;
+    }
+
+    @Nonnull
+    private static List<IDetectionRule<Tree>> build() {
         return Stream.of(
                         // rules
                         PycaKeyAgreement.rules().stream(),
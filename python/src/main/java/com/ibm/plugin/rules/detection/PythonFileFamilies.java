@@ -0,0 +1,154 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.detection;
+
+import com.ibm.engine.rule.RuleFamilies;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.sonar.plugins.python.api.symbols.Symbol;
+import org.sonar.plugins.python.api.tree.AliasedName;
+import org.sonar.plugins.python.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.python.api.tree.CallExpression;
+import org.sonar.plugins.python.api.tree.DottedName;
+import org.sonar.plugins.python.api.tree.FileInput;
+import org.sonar.plugins.python.api.tree.ImportFrom;
+import org.sonar.plugins.python.api.tree.ImportName;
+import org.sonar.plugins.python.api.tree.Name;
+import org.sonar.plugins.python.api.tree.Tree;
+
+/**
+ * Collects the rule families that can fire in a module from the modules and names it imports. In
+ * {@link RuleFamilies.FileFilterMode#SAFE} mode the fully qualified names of called symbols are
+ * considered as well, and a relative import, an import of a module of the project or a wildcard
+ * import of a module outside the families enables all families: a helper of the project could
+ * return any object, and the names of a wildcard import can not be told apart from the module name.
+ * The walk stops as soon as all families are found.
+ */
+final class PythonFileFamilies extends BaseTreeVisitor {
+    @Nonnull private final RuleFamilies<Tree> ruleFamilies;
+    @Nonnull private final PythonProjectModules projectModules;
+    private final boolean safe;
+    @Nonnull private final Set<String> families = new HashSet<>();
+
+    private PythonFileFamilies(
+            @Nonnull RuleFamilies<Tree> ruleFamilies,
+            @Nonnull PythonProjectModules projectModules,
+            boolean safe) {
+        this.ruleFamilies = ruleFamilies;
+        this.projectModules = projectModules;
+        this.safe = safe;
+    }
+
+    @Nonnull
+    static Set<String> of(
+            @Nonnull FileInput fileInput,
+            @Nonnull URI fileUri,
+            @Nonnull RuleFamilies<Tree> ruleFamilies,
+            @Nonnull RuleFamilies.FileFilterMode mode) {
+        final boolean safe = mode == RuleFamilies.FileFilterMode.SAFE;
+        final PythonFileFamilies collector =
+                new PythonFileFamilies(
+                        ruleFamilies,
+                        safe ? PythonProjectModules.of(fileUri) : PythonProjectModules.none(),
+                        safe);
+        collector.scan(fileInput);
+        return collector.families;
+    }
+
+    @Override
+    protected void scan(@Nullable Tree tree) {
+        if (families.size() < ruleFamilies.families().size()) {
+            super.scan(tree);
+        }
+    }
+
+    @Override
+    public void visitImportName(@Nonnull ImportName tree) {
+        for (AliasedName module : tree.modules()) {
+            addModule(dottedName(module.dottedName()));
+        }
+        super.visitImportName(tree);
+    }
+
+    @Override
+    public void visitImportFrom(@Nonnull ImportFrom tree) {
+        final DottedName module = tree.module();
+        final boolean isRelative = !tree.dottedPrefixForModule().isEmpty();
+        if (module == null || isRelative) {
+            if (safe) {
+                // a helper of the same package could return any object
+                families.addAll(ruleFamilies.families());
+            }
+            return;
+        }
+        final String moduleName = dottedName(module);
+        final Set<String> moduleFamilies = ruleFamilies.familiesOf(moduleName);
+        if (safe && moduleFamilies.isEmpty() && projectModules.contains(moduleName)) {
+            // e.g. "from mypkg.helpers import make_cipher", the helper could return any object
+            families.addAll(ruleFamilies.families());
+            return;
+        }
+        if (tree.isWildcardImport()) {
+            if (safe && moduleFamilies.isEmpty()) {
+                families.addAll(ruleFamilies.families());
+            }
+            families.addAll(moduleFamilies);
+            return;
+        }
+        for (AliasedName importedName : tree.importedNames()) {
+            add(moduleName + "." + dottedName(importedName.dottedName()));
+        }
+        super.visitImportFrom(tree);
+    }
+
+    @Override
+    public void visitCallExpression(@Nonnull CallExpression tree) {
+        if (safe) {
+            final Symbol symbol = tree.calleeSymbol();
+            if (symbol != null) {
+                add(symbol.fullyQualifiedName());
+            }
+        }
+        super.visitCallExpression(tree);
+    }
+
+    private void addModule(@Nonnull String moduleName) {
+        final Set<String> moduleFamilies = ruleFamilies.familiesOf(moduleName);
+        if (safe && moduleFamilies.isEmpty() && projectModules.contains(moduleName)) {
+            families.addAll(ruleFamilies.families());
+        }
+        families.addAll(moduleFamilies);
+    }
+
+    private void add(@Nullable String name) {
+        if (name != null) {
+            families.addAll(ruleFamilies.familiesOf(name));
+        }
+    }
+
+    @Nonnull
+    private static String dottedName(@Nonnull DottedName dottedName) {
+        return dottedName.names().stream().map(Name::name).collect(Collectors.joining("."));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.detection;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Tells whether an absolute import resolves to a module of the scanned project. Python resolves an
+ * absolute import against the import root of the file, which is the closest parent directory that
+ * is not a package (it has no {@code __init__.py}). An import whose top-level name is a module or a
+ * package in that directory is a module of the project.
+ */
+final class PythonProjectModules {
+    private static final String PACKAGE_MARKER = "__init__.py";
+
+    @Nonnull private static final PythonProjectModules NONE = new PythonProjectModules(null);
+
+    @Nullable private final Path importRoot;
+
+    private PythonProjectModules(@Nullable Path importRoot) {
+        this.importRoot = importRoot;
+    }
+
+    @Nonnull
+    static PythonProjectModules none() {
+        return NONE;
+    }
+
+    /**
+     * Returns the project modules as seen from the given file.
+     *
+     * @param fileUri the uri of the scanned file
+     * @return the project modules, none if the file is not on the file system
+     */
+    @Nonnull
+    static PythonProjectModules of(@Nonnull URI fileUri) {
+        if (!"file".equals(fileUri.getScheme())) {
+            return NONE;
+        }
+        Path directory = Path.of(fileUri).getParent();
+        while (directory != null
+                && directory.getParent() != null
+                && exists(directory.resolve(PACKAGE_MARKER))) {
+            directory = directory.getParent();
+        }
+        return directory == null ? NONE : new PythonProjectModules(directory);
+    }
+
+    /**
+     * Returns whether the given module is a module or a package of the project.
+     *
+     * @param moduleName the absolute, dotted module name
+     * @return true if the top-level name of the module is found in the import root of the file
+     */
+    boolean contains(@Nonnull String moduleName) {
+        if (importRoot == null) {
+            return false;
+        }
+        final int separator = moduleName.indexOf('.');
+        final String topLevelName =
+                separator < 0 ? moduleName : moduleName.substring(0, separator);
+        return exists(importRoot.resolve(topLevelName + ".py"))
+                || exists(importRoot.resolve(topLevelName));
+    }
+
+    /* not cached, so modules added between the scans of a daemon are found */
+    private static boolean exists(@Nonnull Path path) {
+        return Files.exists(path);
+    }
+}
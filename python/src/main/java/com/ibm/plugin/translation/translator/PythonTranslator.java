@@ -32,6 +32,7 @@ import com.ibm.engine.model.context.PublicKeyContext;
 import com.ibm.engine.model.context.SecretKeyContext;
 import com.ibm.engine.model.context.SignatureContext;
 import com.ibm.engine.rule.IBundle;
+import com.ibm.mapper.ContextTranslators;
 import com.ibm.mapper.ITranslator;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.utils.DetectionLocation;
@@ -59,6 +60,24 @@ import org.sonar.plugins.python.api.tree.Tree;
 
 public class PythonTranslator extends ITranslator<PythonCheck, Tree, Symbol, PythonVisitorContext> {
 
+    /* the translations are stateless */
+    @Nonnull
+    private static final ContextTranslators<Tree> TRANSLATORS =
+            ContextTranslators.<Tree>builder()
+                    .register(new PycaKeyAgreementContextTranslator(), KeyAgreementContext.class)
+                    .register(
+                            new PycaKeyDerivationContextTranslator(),
+                            KeyDerivationFunctionContext.class)
+                    .register(new PycaSecretContextTranslator(), KeyContext.class)
+                    .register(new PycaPrivateKeyContextTranslator(), PrivateKeyContext.class)
+                    .register(new PycaSecretKeyContextTranslator(), SecretKeyContext.class)
+                    .register(new PycaPublicKeyContextTranslator(), PublicKeyContext.class)
+                    .register(new PycaDigestContextTranslator(), DigestContext.class)
+                    .register(new PycaSignatureContextTranslator(), SignatureContext.class)
+                    .register(new PycaCipherContextTranslator(), CipherContext.class)
+                    .register(new PycaMacContextTranslator(), MacContext.class)
+                    .build();
+
     public PythonTranslator() {
         // nothing
     }
@@ -69,65 +88,9 @@ public class PythonTranslator extends ITranslator<PythonCheck, Tree, Symbol, Pyt
             @Nonnull final IBundle bundleIdentifier,
             @Nonnull final IValue<Tree> value,
             @Nonnull final IDetectionContext detectionValueContext,
-            @Nonnull final String filePath) {
-        DetectionLocation detectionLocation =
-                getDetectionContextFrom(value.getLocation(), bundleIdentifier, filePath);
-        if (detectionLocation == null) {
-            return Optional.empty();
-        }
-
-        if (detectionValueContext.is(KeyAgreementContext.class)) {
-            final PycaKeyAgreementContextTranslator pycaKeyAgreementContextTranslator =
-                    new PycaKeyAgreementContextTranslator();
-            return pycaKeyAgreementContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        } else if (detectionValueContext.is(KeyDerivationFunctionContext.class)) {
-            final PycaKeyDerivationContextTranslator pycaKeyDerivationContextTranslator =
-                    new PycaKeyDerivationContextTranslator();
-            return pycaKeyDerivationContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        } else if (detectionValueContext.is(KeyContext.class)) {
-            final PycaSecretContextTranslator pycaSecretContextTranslator =
-                    new PycaSecretContextTranslator();
-            return pycaSecretContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        } else if (detectionValueContext.is(PrivateKeyContext.class)) {
-            final PycaPrivateKeyContextTranslator pycaPrivateKeyContextTranslator =
-                    new PycaPrivateKeyContextTranslator();
-            return pycaPrivateKeyContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        } else if (detectionValueContext.is(SecretKeyContext.class)) {
-            final PycaSecretKeyContextTranslator pycaSecretKeyContextTranslator =
-                    new PycaSecretKeyContextTranslator();
-            return pycaSecretKeyContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        } else if (detectionValueContext.is(PublicKeyContext.class)) {
-            final PycaPublicKeyContextTranslator pycaPublicKeyContextTranslator =
-                    new PycaPublicKeyContextTranslator();
-            return pycaPublicKeyContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        } else if (detectionValueContext.is(DigestContext.class)) {
-            final PycaDigestContextTranslator pycaDigestContextTranslator =
-                    new PycaDigestContextTranslator();
-            return pycaDigestContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        } else if (detectionValueContext.is(SignatureContext.class)) {
-            final PycaSignatureContextTranslator pycaSignatureContextTranslator =
-                    new PycaSignatureContextTranslator();
-            return pycaSignatureContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        } else if (detectionValueContext.is(CipherContext.class)) {
-            final PycaCipherContextTranslator pycaCipherContextTranslator =
-                    new PycaCipherContextTranslator();
-            return pycaCipherContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        } else if (detectionValueContext.is(MacContext.class)) {
-            final PycaMacContextTranslator pycaMacContextTranslator =
-                    new PycaMacContextTranslator();
-            return pycaMacContextTranslator.translate(
-                    bundleIdentifier, value, detectionValueContext, detectionLocation);
-        }
-        return Optional.empty();
+            @Nonnull final DetectionLocation detectionLocation) {
+        return TRANSLATORS.translate(
+                bundleIdentifier, value, detectionValueContext, detectionLocation);
     }
 
     /**
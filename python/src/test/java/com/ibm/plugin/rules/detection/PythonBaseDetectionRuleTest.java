@@ -0,0 +1,131 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.python.PythonLanguageTranslation;
+import com.ibm.engine.rule.RuleFamilies;
+import com.ibm.plugin.PythonAggregator;
+import com.ibm.plugin.translation.reorganizer.PythonReorganizerRules;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.plugins.python.api.PythonCheck;
+import org.sonar.plugins.python.api.PythonVisitorContext;
+import org.sonar.plugins.python.api.symbols.Symbol;
+import org.sonar.plugins.python.api.tree.CallExpression;
+import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.TestPythonVisitorRunner;
+
+class PythonBaseDetectionRuleTest {
+    @TempDir Path directory;
+
+    /* the calls added to the call stack and the calls detection executives were created for */
+    private final List<String> callStack = new ArrayList<>();
+    private final List<String> executives = new ArrayList<>();
+
+    @BeforeEach
+    void resetAggregator() {
+        PythonAggregator.reset();
+    }
+
+    @Test
+    void onlyCandidateCallsStartDetectionExecutives() throws IOException {
+        final Path file = directory.resolve("app.py");
+        Files.writeString(
+                file,
+                """
+                from cryptography.fernet import Fernet
+
+                key = Fernet.generate_key()
+                print(key)
+                (lambda: None)()
+                """);
+
+        TestPythonVisitorRunner.scanFile(file.toFile(), new RecordingRule());
+
+        // hooks see every call, also calls that no rule is started for
+        assertThat(callStack).containsExactly("generate_key", "print", "");
+        // only the candidate rules of a matching name are started
+        final int candidates =
+                RuleFamilies.build(PythonDetectionRules.rules())
+                        .allRules()
+                        .candidatesForMethod("generate_key")
+                        .size();
+        assertThat(candidates).isGreaterThan(0);
+        assertThat(executives).isEqualTo(Collections.nCopies(candidates, "generate_key"));
+    }
+
+    @Nonnull
+    private static String calleeName(@Nonnull Object tree) {
+        return PythonLanguageTranslation.getCalleeName((CallExpression) tree).orElse("");
+    }
+
+    /** A rule that records how the language support is used while it scans a file. */
+    private final class RecordingRule extends PythonBaseDetectionRule {
+        @Nonnull
+        private final ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>
+                languageSupport = recording(PythonAggregator.getLanguageSupport());
+
+        RecordingRule() {
+            super(false, PythonDetectionRules.rules(), PythonReorganizerRules.rules());
+        }
+
+        @Nonnull
+        @Override
+        protected ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>
+                languageSupport() {
+            return languageSupport;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext> recording(
+            @Nonnull ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext> delegate) {
+        return (ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>)
+                Proxy.newProxyInstance(
+                        ILanguageSupport.class.getClassLoader(),
+                        new Class<?>[] {ILanguageSupport.class},
+                        (proxy, method, args) -> {
+                            if (method.getName().equals("addCallToCallStack")) {
+                                callStack.add(calleeName(args[0]));
+                            } else if (method.getName().equals("createDetectionExecutive")) {
+                                executives.add(calleeName(args[0]));
+                            }
+                            try {
+                                return method.invoke(delegate, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.rule.RuleFamilies;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.parser.PythonParser;
+import org.sonar.python.tree.PythonTreeMaker;
+
+class PythonFileFamiliesTest {
+    private static final RuleFamilies<Tree> RULE_FAMILIES =
+            RuleFamilies.build(PythonDetectionRules.rules());
+
+    @TempDir Path projectDirectory;
+    private Path file;
+
+    @BeforeEach
+    void createProject() throws IOException {
+        final Path mypkg = Files.createDirectories(projectDirectory.resolve("mypkg"));
+        Files.writeString(mypkg.resolve("__init__.py"), "");
+        Files.writeString(mypkg.resolve("helpers.py"), "def make_cipher(): pass\n");
+        this.file = mypkg.resolve("app.py");
+    }
+
+    @Test
+    void importOfAProjectModuleEnablesAllFamilies() {
+        assertThat(
+                        families(
+                                "from mypkg.helpers import make_cipher\n",
+                                RuleFamilies.FileFilterMode.SAFE))
+                .isEqualTo(RULE_FAMILIES.families());
+        assertThat(families("import mypkg.helpers\n", RuleFamilies.FileFilterMode.SAFE))
+                .isEqualTo(RULE_FAMILIES.families());
+    }
+
+    @Test
+    void importOfAnotherModuleEnablesNoFamily() {
+        assertThat(families("from json import loads\n", RuleFamilies.FileFilterMode.SAFE))
+                .isEmpty();
+    }
+
+    @Test
+    void projectModulesAreOnlyConsideredInSafeMode() {
+        assertThat(
+                        families(
+                                "from mypkg.helpers import make_cipher\n",
+                                RuleFamilies.FileFilterMode.IMPORTS))
+                .isEmpty();
+    }
+
+    @Nonnull
+    private Set<String> families(@Nonnull String code, @Nonnull RuleFamilies.FileFilterMode mode) {
+        return PythonFileFamilies.of(
+                new PythonTreeMaker().fileInput(PythonParser.create().parse(code)),
+                file.toUri(),
+                RULE_FAMILIES,
+                mode);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Groups all reporting rules that scan the same file with the same detection and translation
+ * setup. Only the first rule that joins a session (the leader) runs the detection and translation;
+ * every translated finding it publishes is delivered to all members of the session, so each
+ * additional {@link IReportableDetectionRule} only evaluates the already translated nodes.
+ *
+ * <p>Members that join after findings were published (e.g. checks that scan a file one after
+ * another instead of interleaved per node) get the recorded findings of the current file replayed.
+ *
+ * @param <M> the type of the reporting rules
+ * @param <F> the type of a translated finding
+ */
+public final class DetectionSession<M, F> {
+    @Nonnull private final List<M> members = new ArrayList<>();
+    @Nonnull private final List<F> publishedFindings = new ArrayList<>();
+    @Nonnull private final BiConsumer<M, F> delivery;
+    private boolean closed = false;
+
+    private DetectionSession(@Nonnull M leader, @Nonnull BiConsumer<M, F> delivery) {
+        this.delivery = delivery;
+        this.members.add(leader);
+    }
+
+    public synchronized boolean isLeader(@Nonnull M rule) {
+        return members.get(0) == rule;
+    }
+
+    /**
+     * Delivers a translated finding to all members of the session.
+     *
+     * @param finding the translated finding
+     */
+    public void publish(@Nonnull F finding) {
+        final List<M> currentMembers;
+        synchronized (this) {
+            if (!closed) {
+                publishedFindings.add(finding);
+            }
+            currentMembers = List.copyOf(members);
+        }
+        currentMembers.forEach(member -> delivery.accept(member, finding));
+    }
+
+    private void join(@Nonnull M rule) {
+        final List<F> replay;
+        synchronized (this) {
+            members.add(rule);
+            replay = List.copyOf(publishedFindings);
+        }
+        replay.forEach(finding -> delivery.accept(rule, finding));
+    }
+
+    private synchronized boolean contains(@Nonnull M rule) {
+        return members.stream().anyMatch(member -> member == rule);
+    }
+
+    @Nonnull
+    private synchronized M leader() {
+        return members.get(0);
+    }
+
+    /* the file is scanned completely, no more members will join */
+    private synchronized void close() {
+        closed = true;
+        publishedFindings.clear();
+    }
+
+    /**
+     * Returns whether two lists hold the same elements in the same order, compared by identity.
+     * Reporting rules whose detection and reorganizer rule lists are the same share their findings
+     * and translations.
+     */
+    public static boolean sameElements(@Nonnull List<?> first, @Nonnull List<?> second) {
+        if (first.size() != second.size()) {
+            return false;
+        }
+        for (int i = 0; i < first.size(); i++) {
+            if (first.get(i) != second.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps track of the sessions per scanned file. Sessions of previous files stay reachable as
+     * long as their file context is, since hooks can still publish findings for them.
+     *
+     * @param <M> the type of the reporting rules
+     * @param <F> the type of a translated finding
+     */
+    public static final class Registry<M, F> {
+        @Nonnull
+        private final Map<Object, List<DetectionSession<M, F>>> sessionsByFile =
+                new WeakHashMap<>();
+
+        @Nonnull private final BiPredicate<M, M> sharesDetection;
+        @Nonnull private final BiConsumer<M, F> delivery;
+        /* files can be scanned concurrently, each thread scans one file at a time */
+        @Nonnull
+        private final ThreadLocal<List<DetectionSession<M, F>>> currentFileSessions =
+                new ThreadLocal<>();
+
+        /**
+         * @param sharesDetection whether two rules produce the same findings and translations
+         * @param delivery how a translated finding is handed over to a member
+         */
+        public Registry(
+                @Nonnull BiPredicate<M, M> sharesDetection, @Nonnull BiConsumer<M, F> delivery) {
+            this.sharesDetection = sharesDetection;
+            this.delivery = delivery;
+        }
+
+        /**
+         * Returns the session of the given rule for the given file, adding the rule to a
+         * compatible session or creating a new one if necessary.
+         *
+         * @param file the file context, compared with {@code equals} (the scanner contexts of the
+         *     frontends do not override it, so this is identity)
+         * @param rule the reporting rule, compared by identity
+         * @return the session the rule is a member of
+         */
+        @Nonnull
+        public DetectionSession<M, F> join(@Nonnull Object file, @Nonnull M rule) {
+            final DetectionSession<M, F> session;
+            synchronized (this) {
+                final List<DetectionSession<M, F>> sessions =
+                        sessionsByFile.computeIfAbsent(file, k -> new ArrayList<>());
+                final List<DetectionSession<M, F>> previousFileSessions =
+                        currentFileSessions.get();
+                if (sessions != previousFileSessions) {
+                    if (previousFileSessions != null) {
+                        previousFileSessions.forEach(DetectionSession::close);
+                    }
+                    currentFileSessions.set(sessions);
+                }
+                for (DetectionSession<M, F> existing : sessions) {
+                    if (existing.contains(rule)) {
+                        return existing;
+                    }
+                }
+                final DetectionSession<M, F> compatible =
+                        sessions.stream()
+                                .filter(s -> sharesDetection.test(s.leader(), rule))
+                                .findFirst()
+                                .orElse(null);
+                if (compatible == null) {
+                    final DetectionSession<M, F> created = new DetectionSession<>(rule, delivery);
+                    sessions.add(created);
+                    return created;
+                }
+                session = compatible;
+            }
+            session.join(rule);
+            return session;
+        }
+
+        /**
+         * Returns the session of the given rule for the given file, without joining it.
+         *
+         * @param file the file context, compared with {@code equals}
+         * @param rule the reporting rule, compared by identity
+         * @return the session, or null if the rule did not join a session for this file
+         */
+        @Nullable public synchronized DetectionSession<M, F> sessionOf(
+                @Nonnull Object file, @Nonnull M rule) {
+            final List<DetectionSession<M, F>> sessions = sessionsByFile.get(file);
+            if (sessions == null) {
+                return null;
+            }
+            return sessions.stream().filter(s -> s.contains(rule)).findFirst().orElse(null);
+        }
+    }
+}
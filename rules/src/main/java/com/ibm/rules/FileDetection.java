@@ -0,0 +1,363 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.rules;
+
+import com.ibm.engine.detection.DetectionStore;
+import com.ibm.engine.detection.DetectionStoreWithHook;
+import com.ibm.engine.detection.Finding;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.RuleDispatchIndex;
+import com.ibm.engine.rule.RuleFamilies;
+import com.ibm.engine.rule.RuleFingerprint;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.reorganizer.IReorganizerRule;
+import com.ibm.output.cache.CachedFileResult;
+import com.ibm.output.cache.CachedIssue;
+import com.ibm.output.cache.IncrementalResultCache;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The per-file plumbing of a detection rule. It joins the {@link DetectionSession} of each file,
+ * selects the root rules that can fire in the file, replays files from the {@link
+ * IncrementalResultCache} and records the findings and issues of the other files in it. The
+ * language specific rules only visit the trees of a file and report their issues.
+ *
+ * @param <R> the type of the checks
+ * @param <T> the type of the trees
+ * @param <S> the type of the symbols
+ * @param <P> the type of the file contexts
+ */
+public final class FileDetection<R, T, S, P> {
+    @Nonnull
+    private static final RuleDispatchIndex<?> NO_RULES = RuleDispatchIndex.build(List.of());
+
+    @Nonnull private final Registry<R, T, S, P> registry;
+    @Nonnull private final String ruleName;
+    private final boolean isInventory;
+    @Nonnull private final List<IDetectionRule<T>> detectionRules;
+    @Nonnull private final List<IReorganizerRule> reorganizerRules;
+    @Nonnull private final RuleFamilies<T> ruleFamilies;
+    @Nonnull private final RuleFamilies.FileFilterMode fileFilterMode;
+    @Nonnull private final Function<DetectionStore<R, T, S, P>, List<INode>> translation;
+    @Nonnull private final BiConsumer<Finding<R, T, S, P>, List<INode>> onFinding;
+    @Nonnull private final BiConsumer<P, CachedFileResult> onReplay;
+    /* the root rules that can fire in the current file */
+    @Nonnull private RuleDispatchIndex<T> fileRules;
+    @Nullable private DetectionSession<FileDetection<R, T, S, P>, Published<R, T, S, P>> session;
+
+    /* what the leader of a session hands over to its members */
+    private sealed interface Published<R, T, S, P> permits TranslatedFinding, ReplayedFile {}
+
+    private record TranslatedFinding<R, T, S, P>(
+            @Nonnull Finding<R, T, S, P> finding, @Nonnull List<INode> nodes)
+            implements Published<R, T, S, P> {}
+
+    private record ReplayedFile<R, T, S, P>(@Nonnull P file, @Nonnull CachedFileResult result)
+            implements Published<R, T, S, P> {}
+
+    @SuppressWarnings("java:S107")
+    private FileDetection(
+            @Nonnull Registry<R, T, S, P> registry,
+            @Nonnull String ruleName,
+            boolean isInventory,
+            @Nonnull List<IDetectionRule<T>> detectionRules,
+            @Nonnull List<IReorganizerRule> reorganizerRules,
+            @Nonnull Function<DetectionStore<R, T, S, P>, List<INode>> translation,
+            @Nonnull BiConsumer<Finding<R, T, S, P>, List<INode>> onFinding,
+            @Nonnull BiConsumer<P, CachedFileResult> onReplay) {
+        this.registry = registry;
+        this.ruleName = ruleName;
+        this.isInventory = isInventory;
+        this.detectionRules = detectionRules;
+        this.reorganizerRules = reorganizerRules;
+        this.ruleFamilies = RuleFamilies.build(detectionRules);
+        this.fileFilterMode = registry.fileFilterMode.get();
+        this.translation = translation;
+        this.onFinding = onFinding;
+        this.onReplay = onReplay;
+        this.fileRules = ruleFamilies.allRules();
+    }
+
+    /**
+     * Joins the detection session of a file. All rules of a session share one detection pass,
+     * which is run by the leader of the session only. If the results of the file can be replayed
+     * from the result cache, the leader hands them over instead and no root rule can fire in the
+     * file. Otherwise, the root rules are narrowed to the rule families the file references.
+     *
+     * @param file the context of the file
+     * @param filePath the path of the file
+     * @param familiesOfFile the families the file references, given the families of the rules and
+     *     the file filter mode, which is never {@link RuleFamilies.FileFilterMode#OFF}
+     * @return whether this rule leads the session and has to scan the file
+     */
+    public boolean startFile(
+            @Nonnull P file,
+            @Nonnull String filePath,
+            @Nonnull
+                    BiFunction<RuleFamilies<T>, RuleFamilies.FileFilterMode, Set<String>>
+                            familiesOfFile) {
+        this.session = registry.sessions.join(file, this);
+        this.fileRules = ruleFamilies.allRules();
+        if (!session.isLeader(this)) {
+            return false;
+        }
+        final Optional<CachedFileResult> cachedResult = registry.resultCache().lookup(filePath);
+        if (cachedResult.isPresent()) {
+            session.publish(new ReplayedFile<>(file, cachedResult.get()));
+            // the calls of the file are only relevant for hooks
+            this.fileRules = noRules();
+        } else if (fileFilterMode != RuleFamilies.FileFilterMode.OFF) {
+            this.fileRules =
+                    ruleFamilies.dispatchIndexFor(
+                            familiesOfFile.apply(ruleFamilies, fileFilterMode));
+        }
+        return true;
+    }
+
+    /** Returns whether this rule runs the detection of the current file. */
+    public boolean isLeader() {
+        return session == null || session.isLeader(this);
+    }
+
+    /** Returns the root rules that can fire in the current file. */
+    @Nonnull
+    public RuleDispatchIndex<T> fileRules() {
+        return fileRules;
+    }
+
+    /**
+     * Translates the nodes of a finding once and hands them over to all rules of the session of
+     * its file. Findings that the cached results of a replayed file already contain are dropped,
+     * since hooks can emit findings for a file that was scanned before.
+     *
+     * @param finding the finding of a detection executive
+     */
+    public void publish(@Nonnull Finding<R, T, S, P> finding) {
+        final DetectionStore<R, T, S, P> detectionStore = finding.detectionStore();
+        final IScanContext<R, T> scanContext = detectionStore.getScanContext();
+        final IncrementalResultCache resultCache = registry.resultCache();
+        final String hookOriginFilePath = hookOriginFilePath(detectionStore);
+        if (resultCache.isCovered(scanContext.getFilePath(), hookOriginFilePath)) {
+            return;
+        }
+        final List<INode> nodes = translation.apply(detectionStore);
+        resultCache.addFinding(
+                scanContext.getFilePath(), hookOriginFilePath, nodes, detectionStore.isPartial());
+        final TranslatedFinding<R, T, S, P> translatedFinding =
+                new TranslatedFinding<>(finding, nodes);
+        final DetectionSession<FileDetection<R, T, S, P>, Published<R, T, S, P>> findingSession =
+                registry.sessions.sessionOf(registry.fileOf.apply(scanContext), this);
+        if (findingSession == null) {
+            deliver(this, translatedFinding);
+        } else {
+            findingSession.publish(translatedFinding);
+        }
+    }
+
+    /**
+     * Records an issue of the rule, so that it is reported again when the file is replayed.
+     *
+     * @param filePath the path of the file of the issue
+     * @param line the line of the issue
+     * @param message the message of the issue
+     */
+    public void recordIssue(@Nonnull String filePath, int line, @Nonnull String message) {
+        registry.resultCache().addIssue(filePath, new CachedIssue(ruleName, line, message));
+    }
+
+    /* the file that registered the hook of the finding, if it was found by a hook */
+    @Nullable private static <R, T, S, P> String hookOriginFilePath(
+            @Nonnull DetectionStore<R, T, S, P> detectionStore) {
+        if (detectionStore instanceof DetectionStoreWithHook<R, T, S, P> detectionStoreWithHook) {
+            return detectionStoreWithHook.getHookOriginScanContext().getFilePath();
+        }
+        return null;
+    }
+
+    private static <R, T, S, P> boolean sharesDetection(
+            @Nonnull FileDetection<R, T, S, P> leader, @Nonnull FileDetection<R, T, S, P> rule) {
+        return DetectionSession.sameElements(leader.detectionRules, rule.detectionRules)
+                && DetectionSession.sameElements(leader.reorganizerRules, rule.reorganizerRules);
+    }
+
+    private static <R, T, S, P> void deliver(
+            @Nonnull FileDetection<R, T, S, P> rule, @Nonnull Published<R, T, S, P> published) {
+        if (published instanceof TranslatedFinding<R, T, S, P> translatedFinding) {
+            rule.onFinding.accept(translatedFinding.finding(), translatedFinding.nodes());
+        } else if (published instanceof ReplayedFile<R, T, S, P> replayedFile) {
+            // only the issues this rule reported are replayed by it
+            final CachedFileResult result = replayedFile.result();
+            rule.onReplay.accept(
+                    replayedFile.file(),
+                    new CachedFileResult(
+                            result.contentHash(),
+                            result.dependencies(),
+                            result.nodes(),
+                            result.issues().stream()
+                                    .filter(issue -> issue.rule().equals(rule.ruleName))
+                                    .toList()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <T> RuleDispatchIndex<T> noRules() {
+        return (RuleDispatchIndex<T>) NO_RULES;
+    }
+
+    @Nonnull
+    private String describeSetup(@Nonnull Map<List<?>, String> digests) {
+        final String detectionRulesDigest =
+                digests.computeIfAbsent(detectionRules, k -> RuleFingerprint.of(detectionRules));
+        final String reorganizerRulesDigest =
+                digests.computeIfAbsent(
+                        reorganizerRules,
+                        k ->
+                                RuleFingerprint.digest(
+                                        String.join(
+                                                "\n",
+                                                reorganizerRules.stream()
+                                                        .map(IReorganizerRule::asString)
+                                                        .toList())));
+        return String.join(
+                " ",
+                ruleName,
+                String.valueOf(isInventory),
+                fileFilterMode.name(),
+                detectionRulesDigest,
+                reorganizerRulesDigest);
+    }
+
+    /**
+     * The detection sessions and the result cache shared by the rules of a language.
+     *
+     * @param <R> the type of the checks
+     * @param <T> the type of the trees
+     * @param <S> the type of the symbols
+     * @param <P> the type of the file contexts
+     */
+    public static final class Registry<R, T, S, P> {
+        @Nonnull
+        private final DetectionSession.Registry<FileDetection<R, T, S, P>, Published<R, T, S, P>>
+                sessions =
+                        new DetectionSession.Registry<>(
+                                FileDetection::sharesDetection, FileDetection::deliver);
+
+        /* the setups of all rules are part of the fingerprint of the result cache */
+        @Nonnull
+        private final Set<FileDetection<R, T, S, P>> instances =
+                Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+        @Nonnull private final Class<?> ruleClass;
+        @Nonnull private final Function<Supplier<String>, IncrementalResultCache> resultCache;
+        @Nonnull private final Function<IScanContext<R, T>, Object> fileOf;
+        @Nonnull private final Supplier<RuleFamilies.FileFilterMode> fileFilterMode;
+
+        /**
+         * @param ruleClass the base class of the rules, the version of its code is part of the
+         *     fingerprint of the result cache
+         * @param resultCache opens the result cache of the analysis with a fingerprint
+         * @param fileOf the file context of a scan context, the key of its detection sessions
+         * @param fileFilterMode the file filter mode of the rules that are registered
+         */
+        public Registry(
+                @Nonnull Class<?> ruleClass,
+                @Nonnull Function<Supplier<String>, IncrementalResultCache> resultCache,
+                @Nonnull Function<IScanContext<R, T>, Object> fileOf,
+                @Nonnull Supplier<RuleFamilies.FileFilterMode> fileFilterMode) {
+            this.ruleClass = ruleClass;
+            this.resultCache = resultCache;
+            this.fileOf = fileOf;
+            this.fileFilterMode = fileFilterMode;
+        }
+
+        /**
+         * Creates the file detection of a rule.
+         *
+         * @param rule the rule, its class names the issues it reports
+         * @param isInventory whether the rule adds its nodes to the inventory
+         * @param detectionRules the detection rules of the rule
+         * @param reorganizerRules the reorganizer rules of its translation
+         * @param translation translates the detection store of a finding
+         * @param onFinding receives the translated findings of the files
+         * @param onReplay receives the cached results of the replayed files, with the issues of
+         *     the rule only
+         * @return the file detection of the rule
+         */
+        @SuppressWarnings("java:S107")
+        @Nonnull
+        public FileDetection<R, T, S, P> register(
+                @Nonnull Object rule,
+                boolean isInventory,
+                @Nonnull List<IDetectionRule<T>> detectionRules,
+                @Nonnull List<IReorganizerRule> reorganizerRules,
+                @Nonnull Function<DetectionStore<R, T, S, P>, List<INode>> translation,
+                @Nonnull BiConsumer<Finding<R, T, S, P>, List<INode>> onFinding,
+                @Nonnull BiConsumer<P, CachedFileResult> onReplay) {
+            final FileDetection<R, T, S, P> fileDetection =
+                    new FileDetection<>(
+                            this,
+                            rule.getClass().getName(),
+                            isInventory,
+                            detectionRules,
+                            reorganizerRules,
+                            translation,
+                            onFinding,
+                            onReplay);
+            instances.add(fileDetection);
+            return fileDetection;
+        }
+
+        @Nonnull
+        private IncrementalResultCache resultCache() {
+            return resultCache.apply(this::fingerprint);
+        }
+
+        /* the code version and the setup of all registered rules */
+        @Nonnull
+        private String fingerprint() {
+            /* sorted and without duplicates, several instances of a check share their setup */
+            final Set<String> setups = new TreeSet<>();
+            final Map<List<?>, String> digests = new IdentityHashMap<>();
+            synchronized (instances) {
+                instances.forEach(rule -> setups.add(rule.describeSetup(digests)));
+            }
+            final List<String> parts = new ArrayList<>();
+            parts.add(IncrementalResultCache.codeVersionOf(ruleClass));
+            parts.addAll(setups);
+            return IncrementalResultCache.fingerprint(parts);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DetectionSessionTest {
+
+    private static final class Rule {
+        private final String family;
+        private final List<String> received = new ArrayList<>();
+
+        private Rule(String family) {
+            this.family = family;
+        }
+    }
+
+    private final DetectionSession.Registry<Rule, String> registry =
+            new DetectionSession.Registry<>(
+                    (leader, rule) -> leader.family.equals(rule.family),
+                    (rule, finding) -> rule.received.add(finding));
+
+    @Test
+    void compatibleRulesShareOneSession() {
+        final Object file = new Object();
+        final Rule inventory = new Rule("java");
+        final Rule noMd5 = new Rule("java");
+        final Rule other = new Rule("python");
+
+        final DetectionSession<Rule, String> session = registry.join(file, inventory);
+        assertThat(registry.join(file, noMd5)).isSameAs(session);
+        assertThat(registry.join(file, other)).isNotSameAs(session);
+        assertThat(session.isLeader(inventory)).isTrue();
+        assertThat(session.isLeader(noMd5)).isFalse();
+
+        session.publish("finding");
+
+        assertThat(inventory.received).containsExactly("finding");
+        assertThat(noMd5.received).containsExactly("finding");
+        assertThat(other.received).isEmpty();
+    }
+
+    @Test
+    void lateMembersGetFindingsReplayed() {
+        final Object file = new Object();
+        final Rule leader = new Rule("python");
+        final Rule late = new Rule("python");
+
+        registry.join(file, leader).publish("first");
+        final DetectionSession<Rule, String> session = registry.join(file, late);
+        session.publish("second");
+
+        assertThat(leader.received).containsExactly("first", "second");
+        assertThat(late.received).containsExactly("first", "second");
+        assertThat(registry.sessionOf(file, late)).isSameAs(session);
+    }
+
+    @Test
+    void findingsAreNotReplayedAfterTheFileWasScanned() {
+        final Object firstFile = new Object();
+        final Object secondFile = new Object();
+        final Rule leader = new Rule("java");
+        final Rule member = new Rule("java");
+
+        final DetectionSession<Rule, String> firstSession = registry.join(firstFile, leader);
+        registry.join(firstFile, member);
+        registry.join(secondFile, leader);
+        // e.g. a hook that emits a finding for the first file
+        firstSession.publish("hook");
+
+        assertThat(registry.sessionOf(firstFile, leader)).isSameAs(firstSession);
+        assertThat(member.received).containsExactly("hook");
+    }
+
+    @Test
+    void filesScannedOnOtherThreadsDoNotCloseTheSession() throws InterruptedException {
+        final Object firstFile = new Object();
+        final Object secondFile = new Object();
+        final Rule leader = new Rule("python");
+        final Rule late = new Rule("python");
+
+        registry.join(firstFile, leader).publish("first");
+        final Thread otherThread = new Thread(() -> registry.join(secondFile, new Rule("python")));
+        otherThread.start();
+        otherThread.join();
+        registry.join(firstFile, late);
+
+        assertThat(late.received).containsExactly("first");
+    }
+}
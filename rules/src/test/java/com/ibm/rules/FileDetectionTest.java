@@ -0,0 +1,133 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.rule.RuleFamilies;
+import com.ibm.mapper.reorganizer.IReorganizerRule;
+import com.ibm.mapper.reorganizer.rules.BlockCipherReorganizer;
+import com.ibm.output.cache.CachedIssue;
+import com.ibm.output.cache.IncrementalResultCache;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileDetectionTest {
+    private static final List<IReorganizerRule> REORGANIZER_RULES = List.of();
+
+    @TempDir Path directory;
+
+    /* the issues that were replayed, per rule */
+    private final List<String> firstIssues = new ArrayList<>();
+    private final List<String> secondIssues = new ArrayList<>();
+
+    private static final class FirstRule {}
+
+    private static final class SecondRule {}
+
+    @Test
+    void rulesWithTheSameSetupShareTheDetectionOfAFile() {
+        final FileDetection.Registry<Object, Object, Object, Object> registry =
+                registry(fingerprint -> IncrementalResultCache.disabled());
+        final FileDetection<Object, Object, Object, Object> first =
+                register(registry, new FirstRule(), firstIssues, REORGANIZER_RULES);
+        final FileDetection<Object, Object, Object, Object> second =
+                register(registry, new SecondRule(), secondIssues, REORGANIZER_RULES);
+        final FileDetection<Object, Object, Object, Object> other =
+                register(
+                        registry,
+                        new SecondRule(),
+                        secondIssues,
+                        List.of(BlockCipherReorganizer.MERGE_BLOCK_CIPHER_PARENT_AND_CHILD));
+        final Object file = new Object();
+
+        assertThat(first.startFile(file, "First.java", (families, mode) -> Set.of())).isTrue();
+        assertThat(second.startFile(file, "First.java", (families, mode) -> Set.of())).isFalse();
+        assertThat(other.startFile(file, "First.java", (families, mode) -> Set.of())).isTrue();
+        assertThat(first.isLeader()).isTrue();
+        assertThat(second.isLeader()).isFalse();
+        assertThat(other.isLeader()).isTrue();
+    }
+
+    @Test
+    void replayedFilesReportTheIssuesOfEachRule() throws IOException {
+        final Path path = Files.writeString(directory.resolve("First.java"), "class First {}");
+        final String filePath = path.toString();
+        final IncrementalResultCache previous =
+                IncrementalResultCache.open(directory, "test", "a");
+        previous.addFinding(filePath, null, List.of(), false);
+        previous.addIssue(filePath, new CachedIssue(FirstRule.class.getName(), 1, "first"));
+        previous.addIssue(filePath, new CachedIssue(SecondRule.class.getName(), 2, "second"));
+        previous.store(file -> false);
+
+        final IncrementalResultCache cache = IncrementalResultCache.open(directory, "test", "a");
+        final FileDetection.Registry<Object, Object, Object, Object> registry =
+                registry(fingerprint -> cache);
+        final FileDetection<Object, Object, Object, Object> first =
+                register(registry, new FirstRule(), firstIssues, REORGANIZER_RULES);
+        final FileDetection<Object, Object, Object, Object> second =
+                register(registry, new SecondRule(), secondIssues, REORGANIZER_RULES);
+        final Object file = new Object();
+
+        // the leader replays the file instead of detecting, so no root rule can fire
+        assertThat(first.startFile(file, filePath, (families, mode) -> Set.of())).isTrue();
+        assertThat(first.fileRules().rules()).isEmpty();
+        assertThat(second.startFile(file, filePath, (families, mode) -> Set.of())).isFalse();
+
+        assertThat(firstIssues).containsExactly("first");
+        assertThat(secondIssues).containsExactly("second");
+    }
+
+    @Nonnull
+    private static FileDetection.Registry<Object, Object, Object, Object> registry(
+            @Nonnull Function<Supplier<String>, IncrementalResultCache> resultCache) {
+        return new FileDetection.Registry<>(
+                FileDetectionTest.class,
+                resultCache,
+                scanContext -> scanContext,
+                () -> RuleFamilies.FileFilterMode.SAFE);
+    }
+
+    @Nonnull
+    private static FileDetection<Object, Object, Object, Object> register(
+            @Nonnull FileDetection.Registry<Object, Object, Object, Object> registry,
+            @Nonnull Object rule,
+            @Nonnull List<String> replayedIssues,
+            @Nonnull List<IReorganizerRule> reorganizerRules) {
+        return registry.register(
+                rule,
+                false,
+                List.of(),
+                reorganizerRules,
+                detectionStore -> List.of(),
+                (finding, nodes) -> {},
+                (file, result) ->
+                        result.issues().forEach(issue -> replayedIssues.add(issue.message())));
+    }
+}
@@ -19,8 +19,13 @@
  */
 package com.ibm.plugin;
 
+import com.ibm.engine.executive.AnalysisBudget;
+import com.ibm.engine.rule.RuleFamilies;
+import com.ibm.engine.rule.RuleSelection;
+import com.ibm.output.cache.IncrementalResultCache;
 import java.util.List;
 import javax.annotation.Nonnull;
+import org.sonar.api.PropertyType;
 import org.sonar.api.config.PropertyDefinition;
 import org.sonar.api.resources.Qualifiers;
 
@@ -36,6 +41,93 @@ public final class Configuration {
                         .name("CBOM filename")
                         .description("Filename for the generated CBOM")
                         .defaultValue(Constants.CBOM_OUTPUT_NAME_DEFAULT)
+                        .build(),
+                PropertyDefinition.builder(RuleSelection.FAMILIES_PROPERTY)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_RULES)
+                        .name("Rule families")
+                        .description(
+                                "Rule families to detect, e.g. Jca, Bc, SSL or Pyca."
+                                        + " All families are detected if none is set.")
+                        .multiValues(true)
+                        .build(),
+                PropertyDefinition.builder(RuleSelection.DISABLED_BUNDLES_PROPERTY)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_RULES)
+                        .name("Disabled rule bundles")
+                        .description("Rule bundles not to detect, e.g. Bc")
+                        .multiValues(true)
+                        .build(),
+                PropertyDefinition.builder(RuleFamilies.FILE_FILTER_PROPERTY)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_RULES)
+                        .name("File filter")
+                        .description(
+                                "How the rule families that can fire in a file are determined:"
+                                        + " SAFE (imports and resolved types, unresolvable"
+                                        + " imports enable all families), IMPORTS (imports"
+                                        + " only) or OFF (all families for every file)")
+                        .type(PropertyType.SINGLE_SELECT_LIST)
+                        .options(
+                                RuleFamilies.FileFilterMode.SAFE.name(),
+                                RuleFamilies.FileFilterMode.IMPORTS.name(),
+                                RuleFamilies.FileFilterMode.OFF.name())
+                        .defaultValue(RuleFamilies.FileFilterMode.SAFE.name())
+                        .build(),
+                PropertyDefinition.builder(AnalysisBudget.MAX_RESOLUTION_DEPTH_PROPERTY)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_BUDGETS)
+                        .name("Maximum resolution depth")
+                        .description(
+                                "Nested steps a value is resolved through, e.g. assignments and"
+                                        + " calls; 0 for no limit")
+                        .type(PropertyType.INTEGER)
+                        .defaultValue("0")
+                        .build(),
+                PropertyDefinition.builder(AnalysisBudget.MAX_HOOKS_PER_FILE_PROPERTY)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_BUDGETS)
+                        .name("Maximum hooks per file")
+                        .description("Hooks a file can register; 0 for no limit")
+                        .type(PropertyType.INTEGER)
+                        .defaultValue("0")
+                        .build(),
+                PropertyDefinition.builder(AnalysisBudget.MAX_HOOKS_PER_FINDING_PROPERTY)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_BUDGETS)
+                        .name("Maximum hooks per finding")
+                        .description("Hooks a finding can register; 0 for no limit")
+                        .type(PropertyType.INTEGER)
+                        .defaultValue("0")
+                        .build(),
+                PropertyDefinition.builder(AnalysisBudget.MAX_MILLIS_PER_FILE_PROPERTY)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_BUDGETS)
+                        .name("Maximum milliseconds per file")
+                        .description(
+                                "Time the detection can spend on a file, its findings are then"
+                                        + " partial; 0 for no limit")
+                        .type(PropertyType.INTEGER)
+                        .defaultValue("0")
+                        .build(),
+                PropertyDefinition.builder(AnalysisBudget.MAX_MILLIS_PER_FINDING_PROPERTY)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_BUDGETS)
+                        .name("Maximum milliseconds per finding")
+                        .description(
+                                "Time the detection can spend on a finding, it is then partial;"
+                                        + " 0 for no limit")
+                        .type(PropertyType.INTEGER)
+                        .defaultValue("0")
+                        .build(),
+                PropertyDefinition.builder(IncrementalResultCache.DIRECTORY_PROPERTY)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_CACHE)
+                        .name("Result cache directory")
+                        .description(
+                                "Directory where the results of each file are stored, so that the"
+                                        + " next analysis reuses them for unchanged files."
+                                        + " Results are not cached if none is set.")
                         .build());
     }
 }
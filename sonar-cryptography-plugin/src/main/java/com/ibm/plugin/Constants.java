@@ -26,6 +26,9 @@ public final class Constants {
     public static final String CBOM_OUTPUT_NAME_DEFAULT = "cbom";
 
     public static final String SUB_CATEGORY_GENERAL = "General";
+    public static final String SUB_CATEGORY_RULES = "Rules";
+    public static final String SUB_CATEGORY_BUDGETS = "Analysis budgets";
+    public static final String SUB_CATEGORY_CACHE = "Result cache";
 
     private Constants() {}
 }
@@ -22,6 +22,7 @@ package com.ibm.plugin;
 import com.ibm.mapper.model.INode;
 import com.ibm.output.IOutputFile;
 import com.ibm.output.IOutputFileFactory;
+import com.ibm.output.statistics.EngineStatistics;
 import com.ibm.output.statistics.IStatistics;
 import com.ibm.output.statistics.ScanStatistics;
 import java.util.ArrayList;
@@ -53,13 +54,20 @@ public final class ScannerManager {
                         getAggregatedNodes().stream() // numberOfAssetsPerTypeSupplier
                                 .collect(
                                         Collectors.groupingBy(
-                                                INode::getKind, Collectors.counting())));
+                                                INode::getKind, Collectors.counting())),
+                EngineStatistics::collect); // engineStatisticsSupplier
     }
 
     public boolean hasResults() {
         return !this.getAggregatedNodes().isEmpty();
     }
 
+    /** Stores the results of the analysis for the next one, if a result cache is configured. */
+    public void storeResultCaches() {
+        JavaAggregator.storeResultCache();
+        PythonAggregator.storeResultCache();
+    }
+
     @Nonnull
     private List<INode> getAggregatedNodes() {
         List<INode> nodes = new ArrayList<>();
@@ -71,5 +79,6 @@ public final class ScannerManager {
     public void reset() {
         JavaAggregator.reset();
         PythonAggregator.reset();
+        EngineStatistics.reset();
     }
 }